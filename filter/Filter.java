@@ -0,0 +1,39 @@
+package filter;
+
+
+/**
+ * A probabilistic membership structure, the add and contains side of a set that stores hashes
+ * of its elements instead of the elements themselves, so it takes a few bits per element.
+ * It never answers false for an element that was added, but may answer true, with a small
+ * probability (the false positive rate), for an element that was not.
+ * @param <E> the type of elements
+ *
+ * @author aziz
+ */
+public interface Filter<E> {
+
+    /**
+     * Removes all the elements from the filter.
+     */
+    void clear();
+
+    /**
+     * Returns false if the element was definitely not added to this filter,
+     * and true if it probably was.
+     * @param element element to check if this filter contains it
+     * @return true if this filter might contain the element.
+     */
+    boolean contains(E element);
+
+    /**
+     * Returns the number of elements in this filter.
+     * @return the number of elements in this filter.
+     */
+    int size();
+
+    /**
+     * Add the specified element in this filter.
+     * @param element element to add
+     */
+    void add(E element);
+}
@@ -0,0 +1,116 @@
+package filter;
+
+
+/**
+ * The default 64-bit hash of the filters.
+ * A filter sized for a false positive rate of 0.1% on millions of elements needs more than the 32 bits
+ * of hashCode: two strings with the same hashCode, which is common for short keys, always collide.
+ * So strings and byte arrays are hashed over their contents by a MurmurHash3-style function (the x64
+ * body on one 64-bit lane, 4 chars or 8 bytes at a time, then the finalizer), longs over their 64 bits,
+ * and any other element by its hashCode spread by the MurmurHash3 finalizer, which can't add entropy,
+ * so the filters only reach their rate on those if the hashCodes are distinct, or with a hasher of their own.
+ *
+ * @author aziz
+ */
+public final class Hashing {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Hashing() {
+    }
+
+    /**
+     * Returns a 64-bit hash of the element, over its contents for a String, a byte[] or a Long,
+     * else over its hashCode.
+     * @param element the element to hash, must not be null
+     * @return the 64-bit hash of the element
+     */
+    public static long hash64(Object element) {
+        if (element instanceof String) {
+            return hash64((String) element);
+        }
+        if (element instanceof byte[]) {
+            return hash64((byte[]) element);
+        }
+        if (element instanceof Long) {
+            return spread((Long) element);
+        }
+        return spread(element.hashCode());
+    }
+
+    /**
+     * Returns a 64-bit hash of the chars of the string.
+     * @param s the string to hash
+     * @return the 64-bit hash of the string
+     */
+    public static long hash64(String s) {
+        int length = s.length();
+        long h = 0;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long block = s.charAt(i) | (long) s.charAt(i + 1) << 16
+                    | (long) s.charAt(i + 2) << 32 | (long) s.charAt(i + 3) << 48;
+            h = round(h, block);
+        }
+        if (i < length) {
+            long block = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                block |= (long) s.charAt(i) << shift;
+            }
+            h ^= mixBlock(block);
+        }
+        return spread(h ^ length);
+    }
+
+    /**
+     * Returns a 64-bit hash of the bytes.
+     * @param bytes the bytes to hash
+     * @return the 64-bit hash of the bytes
+     */
+    public static long hash64(byte[] bytes) {
+        int length = bytes.length;
+        long h = 0;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            long block = 0;
+            for (int j = 7; j >= 0; j--) {
+                block = block << 8 | (bytes[i + j] & 0xFF);
+            }
+            h = round(h, block);
+        }
+        if (i < length) {
+            long block = 0;
+            for (int shift = 0; i < length; i++, shift += 8) {
+                block |= (long) (bytes[i] & 0xFF) << shift;
+            }
+            h ^= mixBlock(block);
+        }
+        return spread(h ^ length);
+    }
+
+    private static long mixBlock(long block) {
+        block *= C1;
+        block = Long.rotateLeft(block, 31);
+        return block * C2;
+    }
+
+    private static long round(long h, long block) {
+        h ^= mixBlock(block);
+        h = Long.rotateLeft(h, 27);
+        return h * 5 + 0x52dce729;
+    }
+
+    /**
+     * The MurmurHash3 finalizer, every bit of the input affects every bit of the output.
+     * @param h the value to spread
+     * @return the spread value
+     */
+    public static long spread(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
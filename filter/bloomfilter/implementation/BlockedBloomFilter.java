@@ -0,0 +1,199 @@
+package filter.bloomfilter.implementation;
+
+import filter.Filter;
+import filter.Hashing;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * A Bloom filter split into blocks of 512 bits, the size of a cache line, in a flat long[].
+ * An element is hashed to 64 bits, the high 32 bits pick its block, and its k bits inside the block
+ * are the top 9 bits of the hash multiplied by the golden ratio once more for each of them,
+ * so an add or a lookup touches a single cache line instead of k random ones, at the cost of
+ * a few more bits per element than a classic Bloom filter for the same false positive rate,
+ * since the blocks are not loaded evenly.
+ * (Double hashing, h1 + i h2 mod 512, repeats too many patterns in so few bits,
+ * and misses the rate by more than twice.)
+ * The filter is sized from the expected number of elements and the target false positive rate:
+ * the bits per element and k are the smallest that reach the rate, accounting for the uneven blocks.
+ * By default the 64-bit hash is {@link Hashing#hash64}, over the contents of strings, byte arrays and longs,
+ * and over the 32-bit hashCode of any other element, so the target rate only holds for those if their
+ * hashCodes don't collide, else a 64-bit hash of their contents should be given instead.
+ * Elements can't be removed, since a bit may be shared by several of them.
+ * This implementation does not permit null elements.
+ * The <em>add</em> and <em>contains</em> operations take &Theta;(<em>k</em>) within one block.
+ * The <em>size</em> operation takes &Theta;(<em>1</em>), while <em>clear</em> takes &Theta;(<em>m</em>),
+ * where m is the number of bits.
+ * @param <E> the type of elements in this filter
+ *
+ * @author aziz
+ */
+public class BlockedBloomFilter<E> implements Filter<E> {
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+    private static final int MAX_HASHES = 16;
+
+    private final long[] bits;
+    private final int numBlocks;
+    private final int hashes;
+    private final ToLongFunction<? super E> hasher;
+    private int size;
+
+    /**
+     * Initializes an empty filter for the expected number of elements and false positive rate,
+     * hashing the elements with {@link Hashing#hash64}.
+     * @param expectedSize the number of elements that will be added
+     * @param falsePositiveRate the target probability of contains answering true for an element
+     *                          that was not added, once the expected number was added, in the range (0, 1)
+     */
+    public BlockedBloomFilter(int expectedSize, double falsePositiveRate) {
+        this(expectedSize, falsePositiveRate, Hashing::hash64);
+    }
+
+    /**
+     * Initializes an empty filter for the expected number of elements and false positive rate,
+     * hashing the elements with the given 64-bit hash function.
+     * @param expectedSize the number of elements that will be added
+     * @param falsePositiveRate the target probability of contains answering true for an element
+     *                          that was not added, once the expected number was added, in the range (0, 1)
+     * @param hasher the 64-bit hash function of the elements, all of its bits should be well mixed
+     */
+    public BlockedBloomFilter(int expectedSize, double falsePositiveRate, ToLongFunction<? super E> hasher) {
+        if (expectedSize < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1) || hasher == null) {
+            throw new IllegalArgumentException("illegal expected size, false positive rate or hasher");
+        }
+        // the standard bits per element of a classic filter, then more until the blocked filter reaches the rate
+        double bitsPerElement = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        while (blockedFalsePositiveRate(bitsPerElement, hashesFor(bitsPerElement)) > falsePositiveRate) {
+            bitsPerElement += 0.25;
+        }
+        long blocks = (long) Math.ceil(expectedSize * bitsPerElement / BLOCK_BITS);
+        if (blocks > Integer.MAX_VALUE / BLOCK_WORDS) {
+            throw new IllegalArgumentException("illegal expected size, false positive rate or hasher");
+        }
+        this.numBlocks = (int) blocks;
+        this.hashes = hashesFor(bitsPerElement);
+        this.bits = new long[numBlocks * BLOCK_WORDS];
+        this.hasher = hasher;
+    }
+
+    /* the number of hashes that minimizes the rate of a classic filter, ln(2) times the bits per element */
+    private static int hashesFor(double bitsPerElement) {
+        return (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerElement * Math.log(2))));
+    }
+
+    /* The number of elements in a block follows a Poisson distribution of mean 512 / bitsPerElement,
+     * and a block of i elements is a classic filter of 512 bits, so the rate is the average of
+     * (1 - (1 - 1/512)^(k i))^k weighted by the probability of i. */
+    private static double blockedFalsePositiveRate(double bitsPerElement, int k) {
+        double mean = BLOCK_BITS / bitsPerElement;
+        double probability = Math.exp(-mean);
+        double rate = 0;
+        int last = (int) (mean + 10 * Math.sqrt(mean) + 20);
+        for (int i = 0; i <= last; i++) {
+            if (i > 0) {
+                probability *= mean / i;
+            }
+            rate += probability * Math.pow(1 - Math.pow(1 - 1.0 / BLOCK_BITS, (double) k * i), k);
+        }
+        return rate;
+    }
+
+    /* the first word of the block picked by the high 32 bits of the hash, by a multiplication instead of a modulo */
+    private int blockOf(long hash) {
+        return (int) (((hash >>> 32) * numBlocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    /**
+     * Removes all the elements from the filter.
+     * Time complexity: &Theta;(<em>m</em>).
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(bits, 0);
+        size = 0;
+    }
+
+    /**
+     * Returns false if the element was definitely not added to this filter, and true if it probably was.
+     * Time complexity: &Theta;(<em>k</em>).
+     *
+     * @param element element to check if this filter contains it
+     * @return true if this filter might contain the element.
+     */
+    @Override
+    public boolean contains(E element) {
+        if (element == null) {
+            return false;
+        }
+        long hash = hasher.applyAsLong(element);
+        int block = blockOf(hash);
+        long probe = hash;
+        for (int i = 0; i < hashes; i++) {
+            probe *= 0x9E3779B97F4A7C15L;
+            int bit = (int) (probe >>> 55);
+            if ((bits[block + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of elements added to this filter, not counting those
+     * whose bits were all set already, which were probably added before.
+     * Time complexity: takes constant time.
+     *
+     * @return the number of elements in this filter.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add the element in this filter.
+     * Time complexity: &Theta;(<em>k</em>).
+     *
+     * @param element element to add, must not be null
+     */
+    @Override
+    public void add(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("null elements are not supported");
+        }
+        long hash = hasher.applyAsLong(element);
+        int block = blockOf(hash);
+        long probe = hash;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            probe *= 0x9E3779B97F4A7C15L;
+            int bit = (int) (probe >>> 55);
+            long word = bits[block + (bit >>> 6)];
+            changed |= (word & (1L << bit)) == 0;
+            bits[block + (bit >>> 6)] = word | (1L << bit);
+        }
+        if (changed) {
+            size += 1;
+        }
+    }
+
+    /**
+     * Returns the number of bits of the filter, a multiple of 512.
+     * @return the number of bits of the filter
+     */
+    public long bitSize() {
+        return (long) bits.length * 64;
+    }
+
+    /**
+     * Returns the number of bits set per element in a block.
+     * @return the number of hashes
+     */
+    public int hashes() {
+        return hashes;
+    }
+
+}
@@ -0,0 +1,107 @@
+package filter.bloomfilter.testing;
+
+import filter.bloomfilter.implementation.BlockedBloomFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+public class BlockedBloomFilterTest {
+
+    @Test
+    public void testAdd() {
+        BlockedBloomFilter<String> filter = new BlockedBloomFilter<>(100, 0.01);
+        for (String element : new String[]{"one", "two", "three", "two", "one"}) {
+            filter.add(element);
+        }
+        Assertions.assertEquals(3, filter.size());
+        Assertions.assertTrue(filter.contains("one"));
+        Assertions.assertTrue(filter.contains("two"));
+        Assertions.assertTrue(filter.contains("three"));
+        Assertions.assertFalse(filter.contains(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> filter.add(null));
+        filter.clear();
+        Assertions.assertEquals(0, filter.size());
+        Assertions.assertFalse(filter.contains("one"));
+    }
+
+    @Test
+    public void testIllegalArguments() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter<>(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter<>(100, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter<>(100, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter<>(100, 0.01, null));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        Random random = new Random(42);
+        for (double rate : new double[]{0.1, 0.01, 0.001}) {
+            int n = 200000;
+            BlockedBloomFilter<Integer> filter = new BlockedBloomFilter<>(n, rate);
+            HashSet<Integer> added = new HashSet<>();
+            while (added.size() < n) {
+                int element = random.nextInt();
+                added.add(element);
+                filter.add(element);
+            }
+            // no false negatives
+            for (int element : added) {
+                Assertions.assertTrue(filter.contains(element));
+            }
+            int falsePositives = 0;
+            int queries = 0;
+            while (queries < 1_000_000) {
+                int element = random.nextInt();
+                if (!added.contains(element)) {
+                    queries += 1;
+                    if (filter.contains(element)) {
+                        falsePositives += 1;
+                    }
+                }
+            }
+            double measured = (double) falsePositives / queries;
+            Assertions.assertTrue(measured < rate * 1.2, "rate " + rate + " measured " + measured);
+            // a classic filter takes -ln(rate) / ln(2)^2 bits per element, the blocks take a little more
+            double bitsPerElement = (double) filter.bitSize() / n;
+            Assertions.assertTrue(bitsPerElement < 1.5 * -Math.log(rate) / (Math.log(2) * Math.log(2)));
+        }
+    }
+
+    @Test
+    public void testCustomHasher() {
+        // a 64-bit hash of the whole long, while Long.hashCode folds its halves together
+        BlockedBloomFilter<Long> filter = new BlockedBloomFilter<>(1000, 0.01, value -> value * 0x9E3779B97F4A7C15L);
+        for (long i = 0; i < 1000; i++) {
+            filter.add(i << 32 | i);
+        }
+        for (long i = 0; i < 1000; i++) {
+            Assertions.assertTrue(filter.contains(i << 32 | i));
+        }
+    }
+
+    @Test
+    public void testStringFalsePositiveRate() {
+        // short strings collide in their 32-bit hashCode far more often than the target rates
+        for (double rate : new double[]{0.01, 0.001}) {
+            int n = 200000;
+            BlockedBloomFilter<String> filter = new BlockedBloomFilter<>(n, rate);
+            for (int i = 0; i < n; i++) {
+                filter.add("key" + i);
+            }
+            for (int i = 0; i < n; i++) {
+                Assertions.assertTrue(filter.contains("key" + i));
+            }
+            int queries = 2_000_000;
+            int falsePositives = 0;
+            for (int i = 0; i < queries; i++) {
+                if (filter.contains("other" + i)) {
+                    falsePositives += 1;
+                }
+            }
+            double measured = (double) falsePositives / queries;
+            Assertions.assertTrue(measured < rate * 1.2, "rate " + rate + " measured " + measured);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package filter.bloomfilter.testing;
+
+import java.util.Random;
+
+import filter.Filter;
+import filter.bloomfilter.implementation.BlockedBloomFilter;
+import filter.cuckoofilter.implementation.CuckooFilter;
+import set.bstset.implementation.BSTSet;
+
+/**
+ * Measures BlockedBloomFilter and CuckooFilter on a million random Integer values at a 1% target
+ * false positive rate: the bits per element, the measured rate, and the throughput of add and of
+ * contains on values that were not added, the common case of a filter put in front of a slower lookup.
+ * It then times a BSTSet of the same values queried with mostly absent values (90%),
+ * alone and behind each filter, which skips the tree for the values it rules out.
+ * The values are boxed beforehand, so the boxing is not timed.
+ *
+ * @author aziz
+ */
+public class FilterSpeedTest {
+
+    private static final int N = 1_000_000;
+    private static final double RATE = 0.01;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Integer[] values = new Integer[N];
+        Integer[] absent = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            // the even values are added, the odd ones are not
+            values[i] = random.nextInt() & ~1;
+            absent[i] = random.nextInt() | 1;
+        }
+        Integer[] queries = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            queries[i] = i % 10 == 0 ? values[random.nextInt(N)] : absent[i];
+        }
+        BSTSet<Integer> tree = new BSTSet<>();
+        for (Integer value : values) {
+            tree.add(value);
+        }
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            BlockedBloomFilter<Integer> bloom = new BlockedBloomFilter<>(N, RATE);
+            run("BlockedBloomFilter", bloom, bloom.bitSize(), values, absent, print);
+            CuckooFilter<Integer> cuckoo = new CuckooFilter<>(N, RATE);
+            run("CuckooFilter", cuckoo, cuckoo.bitSize(), values, absent, print);
+            if (print) {
+                System.out.println();
+            }
+            gate("BSTSet alone", null, tree, queries, print);
+            gate("BSTSet behind BlockedBloomFilter", bloom, tree, queries, print);
+            gate("BSTSet behind CuckooFilter", cuckoo, tree, queries, print);
+        }
+    }
+
+    private static void run(String name, Filter<Integer> filter, long bits, Integer[] values, Integer[] absent, boolean print) {
+        long begin = System.nanoTime();
+        for (Integer value : values) {
+            filter.add(value);
+        }
+        long add = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        int falsePositives = 0;
+        for (Integer value : absent) {
+            if (filter.contains(value)) {
+                falsePositives += 1;
+            }
+        }
+        long contains = System.nanoTime() - begin;
+        if (print) {
+            System.out.printf("%s: %.2f bits/element, false positive rate %.4f, add %.2f, contains %.2f million ops/sec\n",
+                    name, (double) bits / N, (double) falsePositives / N, N * 1e3 / add, N * 1e3 / contains);
+        }
+    }
+
+    private static void gate(String name, Filter<Integer> filter, BSTSet<Integer> tree, Integer[] queries, boolean print) {
+        long begin = System.nanoTime();
+        int found = 0;
+        for (Integer query : queries) {
+            if ((filter == null || filter.contains(query)) && tree.contains(query)) {
+                found += 1;
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (print) {
+            System.out.printf("%s: %.2f million lookups/sec (found %d)\n", name, N * 1e3 / elapsed, found);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package filter.cuckoofilter.implementation;
+
+import filter.Filter;
+import filter.Hashing;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cuckoo filter, which stores a short fingerprint of every element in one of two buckets of 4 slots.
+ * An element is hashed to 64 bits, the high bits pick its first bucket, the low bits its fingerprint,
+ * and its second bucket is (n - 1 - first - hash of the fingerprint) mod n, for n buckets, which maps the
+ * second bucket back to the first one, so either bucket can be found from the other one and the fingerprint
+ * alone, which lets an add move (kick) fingerprints already in the table to their other bucket to make room,
+ * as in cuckoo hashing.
+ * Unlike a Bloom filter, an element can be removed, by clearing one copy of its fingerprint.
+ * The fingerprints are packed with no padding in a flat long[], and they take as many bits as the
+ * target false positive rate needs, log2(8 / rate) bits, since a lookup compares 8 fingerprints.
+ * The number of buckets is just enough for the expected elements at a load of 95%, it is not rounded up to
+ * a power of two, as the xor of the buckets of the usual cuckoo filter needs, which could leave it half empty.
+ * If an add can't find a slot after 500 kicks, the last fingerprint kicked out is kept aside,
+ * and any further add throws an IllegalStateException until an element is removed.
+ * By default the 64-bit hash is {@link Hashing#hash64}, over the contents of strings, byte arrays and longs,
+ * and over the 32-bit hashCode of any other element, so the target rate only holds for those if their
+ * hashCodes don't collide, else a 64-bit hash of their contents should be given instead.
+ * This implementation does not permit null elements.
+ * The <em>contains</em> and <em>remove</em> operations take &Theta;(<em>1</em>), 8 slots at most.
+ * The <em>add</em> operation takes expected &Theta;(<em>1</em>) below the 95% load, and at most 500 kicks.
+ * The <em>size</em> operation takes &Theta;(<em>1</em>), while <em>clear</em> takes &Theta;(<em>capacity</em>).
+ * @param <E> the type of elements in this filter
+ *
+ * @author aziz
+ */
+public class CuckooFilter<E> implements Filter<E> {
+
+    private static final int SLOTS = 4;
+    private static final double LOAD_FACTOR = 0.95;
+    private static final int MAX_KICKS = 500;
+
+    private final long[] table;
+    private final int numBuckets;
+    private final int fingerprintBits;
+    private final long fingerprintMask;
+    private final ToLongFunction<? super E> hasher;
+    private int size;
+    /** the fingerprint kicked out by the last failed add, and its bucket, or 0 if there is none */
+    private long victim;
+    private int victimBucket;
+    /** the state of the xorshift generator that picks the slots to kick */
+    private int random = 0x2545F491;
+
+    /**
+     * Initializes an empty filter for the expected number of elements and false positive rate,
+     * hashing the elements with {@link Hashing#hash64}.
+     * @param expectedSize the number of elements that will be added
+     * @param falsePositiveRate the target probability of contains answering true for an element
+     *                          that was not added, in the range (0, 1)
+     */
+    public CuckooFilter(int expectedSize, double falsePositiveRate) {
+        this(expectedSize, falsePositiveRate, Hashing::hash64);
+    }
+
+    /**
+     * Initializes an empty filter for the expected number of elements and false positive rate,
+     * hashing the elements with the given 64-bit hash function.
+     * @param expectedSize the number of elements that will be added
+     * @param falsePositiveRate the target probability of contains answering true for an element
+     *                          that was not added, in the range (0, 1)
+     * @param hasher the 64-bit hash function of the elements, all of its bits should be well mixed
+     */
+    public CuckooFilter(int expectedSize, double falsePositiveRate, ToLongFunction<? super E> hasher) {
+        if (expectedSize < 1 || !(falsePositiveRate > 0 && falsePositiveRate < 1) || hasher == null) {
+            throw new IllegalArgumentException("illegal expected size, false positive rate or hasher");
+        }
+        // a lookup compares the fingerprint with 2 * SLOTS others, each matching with probability 2^-bits
+        int bits = (int) Math.ceil(Math.log(2 * SLOTS / falsePositiveRate) / Math.log(2));
+        this.fingerprintBits = Math.max(4, Math.min(32, bits));
+        this.fingerprintMask = (1L << fingerprintBits) - 1;
+        long buckets = Math.max(2, (long) Math.ceil(expectedSize / (SLOTS * LOAD_FACTOR)));
+        long words = (buckets * SLOTS * fingerprintBits + 63) / 64 + 1;
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("illegal expected size, false positive rate or hasher");
+        }
+        this.numBuckets = (int) buckets;
+        // one more word, so a fingerprint spilling over the end of the last word can be read without a check
+        this.table = new long[(int) words];
+        this.hasher = hasher;
+    }
+
+    /* the low bits of the hash, with 0 kept for the empty slots */
+    private long fingerprintOf(long hash) {
+        long fingerprint = hash & fingerprintMask;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /* the high 32 bits of the hash scaled to the number of buckets, by a multiplication instead of a modulo */
+    private int bucketOf(long hash) {
+        return (int) (((hash >>> 32) * numBuckets) >>> 32);
+    }
+
+    /* the other bucket of a fingerprint, (n - 1 - bucket - h) mod n, which maps it back to the first one
+     * since n - 1 - (n - 1 - bucket - h) - h = bucket */
+    private int alternate(int bucket, long fingerprint) {
+        int h = (int) Long.remainderUnsigned(Hashing.spread(fingerprint), numBuckets);
+        int other = numBuckets - 1 - bucket - h;
+        return other < 0 ? other + numBuckets : other;
+    }
+
+    /* reads the fingerprint of a slot, which may spill over into the next word */
+    private long get(int bucket, int slot) {
+        long position = ((long) bucket * SLOTS + slot) * fingerprintBits;
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long value = table[word] >>> offset;
+        if (offset + fingerprintBits > 64) {
+            value |= table[word + 1] << (64 - offset);
+        }
+        return value & fingerprintMask;
+    }
+
+    private void set(int bucket, int slot, long fingerprint) {
+        long position = ((long) bucket * SLOTS + slot) * fingerprintBits;
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        table[word] = (table[word] & ~(fingerprintMask << offset)) | (fingerprint << offset);
+        if (offset + fingerprintBits > 64) {
+            int spilled = 64 - offset;
+            table[word + 1] = (table[word + 1] & ~(fingerprintMask >>> spilled)) | (fingerprint >>> spilled);
+        }
+    }
+
+    /* returns the slot of the fingerprint in the bucket, or -1 if it is not there */
+    private int find(int bucket, long fingerprint) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            if (get(bucket, slot) == fingerprint) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean insertInto(int bucket, long fingerprint) {
+        int slot = find(bucket, 0);
+        if (slot < 0) {
+            return false;
+        }
+        set(bucket, slot, fingerprint);
+        return true;
+    }
+
+    private int nextRandom() {
+        random ^= random << 13;
+        random ^= random >>> 17;
+        random ^= random << 5;
+        return random;
+    }
+
+    /**
+     * Removes all the elements from the filter.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        victim = 0;
+    }
+
+    /**
+     * Returns false if the element was definitely not added to this filter (or was removed),
+     * and true if it probably was.
+     * Time complexity: &Theta;(<em>1</em>).
+     *
+     * @param element element to check if this filter contains it
+     * @return true if this filter might contain the element.
+     */
+    @Override
+    public boolean contains(E element) {
+        if (element == null) {
+            return false;
+        }
+        long hash = hasher.applyAsLong(element);
+        long fingerprint = fingerprintOf(hash);
+        int first = bucketOf(hash);
+        int second = alternate(first, fingerprint);
+        return find(first, fingerprint) >= 0 || find(second, fingerprint) >= 0
+                || (victim == fingerprint && (victimBucket == first || victimBucket == second));
+    }
+
+    /**
+     * Returns the number of elements in this filter, an element added twice is counted twice.
+     * Time complexity: takes constant time.
+     *
+     * @return the number of elements in this filter.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add the element in this filter, if it is added several times, it has to be removed as many times.
+     * Time complexity: expected &Theta;(<em>1</em>) below the 95% load.
+     *
+     * @param element element to add, must not be null
+     * @throws IllegalStateException if the filter is full
+     */
+    @Override
+    public void add(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("null elements are not supported");
+        }
+        if (victim != 0) {
+            throw new IllegalStateException("the filter is full");
+        }
+        long hash = hasher.applyAsLong(element);
+        long fingerprint = fingerprintOf(hash);
+        int bucket = bucketOf(hash);
+        size += 1;
+        insert(bucket, fingerprint);
+    }
+
+    /* stores the fingerprint in the bucket or its other one, kicking others out of the way if both are full,
+     * and keeps aside the last fingerprint kicked out if there is still no slot after MAX_KICKS */
+    private void insert(int bucket, long fingerprint) {
+        if (insertInto(bucket, fingerprint)) {
+            return;
+        }
+        bucket = alternate(bucket, fingerprint);
+        if (insertInto(bucket, fingerprint)) {
+            return;
+        }
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            // swaps the fingerprint with a random one of the bucket, which then goes to its other bucket
+            int slot = nextRandom() & (SLOTS - 1);
+            long kicked = get(bucket, slot);
+            set(bucket, slot, fingerprint);
+            fingerprint = kicked;
+            bucket = alternate(bucket, fingerprint);
+            if (insertInto(bucket, fingerprint)) {
+                return;
+            }
+        }
+        victim = fingerprint;
+        victimBucket = bucket;
+    }
+
+    /**
+     * Removes one copy of the element from this filter, only elements that were added may be removed,
+     * removing another one may clear the fingerprint of an element that was added, which would then be missed.
+     * Time complexity: &Theta;(<em>1</em>), unless a fingerprint kept aside by a failed add is stored again.
+     *
+     * @param element element to remove
+     * @return true if a fingerprint of the element was found and removed, else false
+     */
+    public boolean remove(E element) {
+        if (element == null) {
+            return false;
+        }
+        long hash = hasher.applyAsLong(element);
+        long fingerprint = fingerprintOf(hash);
+        int first = bucketOf(hash);
+        int second = alternate(first, fingerprint);
+        if (victim == fingerprint && (victimBucket == first || victimBucket == second)) {
+            victim = 0;
+            size -= 1;
+            return true;
+        }
+        int bucket = first;
+        int slot = find(first, fingerprint);
+        if (slot < 0) {
+            bucket = second;
+            slot = find(second, fingerprint);
+        }
+        if (slot < 0) {
+            return false;
+        }
+        set(bucket, slot, 0);
+        size -= 1;
+        // the slot freed may make room for the fingerprint kept aside
+        if (victim != 0) {
+            long kept = victim;
+            victim = 0;
+            insert(victimBucket, kept);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of bits of each fingerprint.
+     * @return the number of bits of each fingerprint
+     */
+    public int fingerprintBits() {
+        return fingerprintBits;
+    }
+
+    /**
+     * Returns the number of bits of the table of fingerprints.
+     * @return the number of bits of the table
+     */
+    public long bitSize() {
+        return (long) table.length * 64;
+    }
+
+}
@@ -0,0 +1,169 @@
+package filter.cuckoofilter.testing;
+
+import filter.cuckoofilter.implementation.CuckooFilter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+public class CuckooFilterTest {
+
+    @Test
+    public void testAdd() {
+        CuckooFilter<String> filter = new CuckooFilter<>(100, 0.01);
+        for (String element : new String[]{"one", "two", "three"}) {
+            filter.add(element);
+        }
+        Assertions.assertEquals(3, filter.size());
+        Assertions.assertTrue(filter.contains("one"));
+        Assertions.assertTrue(filter.contains("two"));
+        Assertions.assertTrue(filter.contains("three"));
+        Assertions.assertFalse(filter.contains(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> filter.add(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CuckooFilter<>(0, 0.01));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CuckooFilter<>(100, 1.5));
+        filter.clear();
+        Assertions.assertEquals(0, filter.size());
+        Assertions.assertFalse(filter.contains("one"));
+    }
+
+    @Test
+    public void testRemove() {
+        CuckooFilter<String> filter = new CuckooFilter<>(100, 0.001);
+        filter.add("one");
+        filter.add("two");
+        filter.add("two");
+        Assertions.assertTrue(filter.remove("one"));
+        Assertions.assertFalse(filter.contains("one"));
+        Assertions.assertFalse(filter.remove("one"));
+        Assertions.assertFalse(filter.remove(null));
+        // an element added twice stays until it is removed twice
+        Assertions.assertTrue(filter.remove("two"));
+        Assertions.assertTrue(filter.contains("two"));
+        Assertions.assertTrue(filter.remove("two"));
+        Assertions.assertFalse(filter.contains("two"));
+        Assertions.assertEquals(0, filter.size());
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        Random random = new Random(42);
+        for (double rate : new double[]{0.1, 0.01, 0.001}) {
+            int n = 200000;
+            CuckooFilter<Integer> filter = new CuckooFilter<>(n, rate);
+            HashSet<Integer> added = new HashSet<>();
+            while (added.size() < n) {
+                int element = random.nextInt();
+                if (added.add(element)) {
+                    filter.add(element);
+                }
+            }
+            for (int element : added) {
+                Assertions.assertTrue(filter.contains(element));
+            }
+            int falsePositives = 0;
+            int queries = 0;
+            while (queries < 1_000_000) {
+                int element = random.nextInt();
+                if (!added.contains(element)) {
+                    queries += 1;
+                    if (filter.contains(element)) {
+                        falsePositives += 1;
+                    }
+                }
+            }
+            double measured = (double) falsePositives / queries;
+            Assertions.assertTrue(measured < rate * 1.2, "rate " + rate + " measured " + measured);
+            // the table is sized for a load of 95%, not rounded up to a power of two buckets
+            double bitsPerElement = (double) filter.bitSize() / n;
+            Assertions.assertTrue(bitsPerElement < 1.1 * filter.fingerprintBits() / 0.95, "bits " + bitsPerElement);
+        }
+    }
+
+    @Test
+    public void testFull() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(1000, 0.01);
+        HashSet<Integer> added = new HashSet<>();
+        Random random = new Random(7);
+        // the table is sized for more, but fills up eventually
+        Assertions.assertThrows(IllegalStateException.class, () -> {
+            while (true) {
+                int element = random.nextInt();
+                if (!added.contains(element)) {
+                    filter.add(element);
+                    added.add(element);
+                }
+            }
+        });
+        int size = filter.size();
+        Assertions.assertEquals(added.size(), size);
+        Assertions.assertTrue(size > 1000);
+        for (int element : added) {
+            Assertions.assertTrue(filter.contains(element));
+        }
+        // removing elements makes room for the fingerprint kept aside, then for other adds
+        Integer[] removed = added.stream().limit(100).toArray(Integer[]::new);
+        for (int element : removed) {
+            Assertions.assertTrue(filter.remove(element));
+            added.remove(element);
+        }
+        for (int element : added) {
+            Assertions.assertTrue(filter.contains(element));
+        }
+        for (int element : removed) {
+            filter.add(element);
+        }
+        Assertions.assertEquals(size, filter.size());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(5000, 0.0001);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        int total = 0;
+        for (int i = 0; i < 200000; i++) {
+            int element = random.nextInt(4000);
+            int op = random.nextInt(3);
+            if (op == 0 && expected.getOrDefault(element, 0) < 2) {
+                filter.add(element);
+                expected.merge(element, 1, Integer::sum);
+                total += 1;
+            } else if (op == 1 && expected.containsKey(element)) {
+                Assertions.assertTrue(filter.remove(element));
+                expected.merge(element, -1, (a, b) -> a + b == 0 ? null : a + b);
+                total -= 1;
+            } else if (expected.containsKey(element)) {
+                // never a false negative
+                Assertions.assertTrue(filter.contains(element));
+            }
+            Assertions.assertEquals(total, filter.size());
+        }
+    }
+
+    @Test
+    public void testStringFalsePositiveRate() {
+        // short strings collide in their 32-bit hashCode far more often than the target rates
+        for (double rate : new double[]{0.01, 0.001}) {
+            int n = 200000;
+            CuckooFilter<String> filter = new CuckooFilter<>(n, rate);
+            for (int i = 0; i < n; i++) {
+                filter.add("key" + i);
+            }
+            for (int i = 0; i < n; i++) {
+                Assertions.assertTrue(filter.contains("key" + i));
+            }
+            int queries = 2_000_000;
+            int falsePositives = 0;
+            for (int i = 0; i < queries; i++) {
+                if (filter.contains("other" + i)) {
+                    falsePositives += 1;
+                }
+            }
+            double measured = (double) falsePositives / queries;
+            Assertions.assertTrue(measured < rate * 1.2, "rate " + rate + " measured " + measured);
+        }
+    }
+}
@@ -0,0 +1,818 @@
+package map.artmap.implementation;
+
+
+import map.Map;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An Adaptive Radix Tree (ART) based map from String keys to values.
+ * A radix tree (trie) branches on one byte of the key at each level, instead of comparing whole keys,
+ * so looking up a key of length k takes &Theta;(<em>k</em>) steps whatever the size of the map.
+ * The keys are encoded in UTF-8, and the map is sorted by the unsigned byte order of the encodings,
+ * which is the same as the natural String order for ASCII keys (and for any key without surrogate pairs).
+ * To keep the memory of the tree close to the memory of its keys, the tree is <em>adaptive</em> and
+ * <em>compressed</em>:
+ * <ul>
+ *     <li>an inner node is one of four types sized by its number of children: Node4 and Node16 keep
+ *     sorted arrays of key bytes and children, Node48 maps each of the 256 bytes to one of 48 child slots,
+ *     and Node256 is a plain array of 256 children. A node grows into the next type when it is full,
+ *     and shrinks back when it becomes sparse.</li>
+ *     <li>path compression: a chain of inner nodes with a single child is collapsed into one node which
+ *     stores the chain's bytes as its prefix, so a prefix shared by many keys is stored once.</li>
+ *     <li>lazy expansion: a key that does not share its tail with another key is stored in a leaf
+ *     directly below the node where it branches off, instead of a chain of nodes.</li>
+ * </ul>
+ * A key that ends inside the tree (a prefix of other keys) is held by the inner node where it ends.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take &Theta;(<em>k</em>), where k is the length of the key.
+ * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class ARTMap<V> implements Map<String, V> {
+
+    private static final byte[] EMPTY_PREFIX = new byte[0];
+
+    private abstract static class Node {
+    }
+
+    private static class Leaf<V> extends Node {
+        final String key;
+        V value;
+
+        Leaf(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** the common part of the four inner node types */
+    private abstract static class InnerNode extends Node {
+        /** the compressed path: bytes every key below this node has, right after its parent's byte */
+        byte[] prefix;
+        /** the key that ends exactly at this node, if any */
+        Leaf<?> terminal;
+        int count;
+
+        InnerNode(byte[] prefix) {
+            this.prefix = prefix;
+        }
+
+        abstract Node findChild(byte b);
+
+        /* assumes the node is not full and has no child for b */
+        abstract void addChild(byte b, Node child);
+
+        /* assumes the node has a child for b */
+        abstract void replaceChild(byte b, Node child);
+
+        /* assumes the node has a child for b */
+        abstract void removeChild(byte b);
+
+        abstract boolean isFull();
+
+        /** returns a node of the next bigger type holding the same children */
+        abstract InnerNode grow();
+
+        /** returns a node of a smaller type if this node became sparse, else this node */
+        abstract InnerNode shrink();
+
+        /** returns the first position holding a child at or after pos, or -1 */
+        abstract int nextPosition(int pos);
+
+        abstract Node childAt(int pos);
+
+        /** returns the key byte of the child at the given position */
+        abstract byte byteAt(int pos);
+
+        void copyHeader(InnerNode from) {
+            this.prefix = from.prefix;
+            this.terminal = from.terminal;
+        }
+    }
+
+    private static class Node4 extends InnerNode {
+        final byte[] keys = new byte[4];
+        final Node[] children = new Node[4];
+
+        Node4(byte[] prefix) {
+            super(prefix);
+        }
+
+        @Override
+        Node findChild(byte b) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == b) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        void addChild(byte b, Node child) {
+            count = insertSorted(keys, children, count, b, child);
+        }
+
+        @Override
+        void replaceChild(byte b, Node child) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == b) {
+                    children[i] = child;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        void removeChild(byte b) {
+            count = removeSorted(keys, children, count, b);
+        }
+
+        @Override
+        boolean isFull() {
+            return count == 4;
+        }
+
+        @Override
+        InnerNode grow() {
+            Node16 node = new Node16(prefix);
+            node.copyHeader(this);
+            System.arraycopy(keys, 0, node.keys, 0, count);
+            System.arraycopy(children, 0, node.children, 0, count);
+            node.count = count;
+            return node;
+        }
+
+        @Override
+        InnerNode shrink() {
+            return this;
+        }
+
+        @Override
+        int nextPosition(int pos) {
+            return pos < count ? pos : -1;
+        }
+
+        @Override
+        Node childAt(int pos) {
+            return children[pos];
+        }
+
+        @Override
+        byte byteAt(int pos) {
+            return keys[pos];
+        }
+    }
+
+    private static class Node16 extends InnerNode {
+        final byte[] keys = new byte[16];
+        final Node[] children = new Node[16];
+
+        Node16(byte[] prefix) {
+            super(prefix);
+        }
+
+        @Override
+        Node findChild(byte b) {
+            // the keys are sorted, so a binary search finds the byte in at most 4 steps
+            int lo = 0;
+            int hi = count - 1;
+            int target = b & 0xFF;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = (keys[mid] & 0xFF) - target;
+                if (cmp < 0) {
+                    lo = mid + 1;
+                }
+                else if (cmp > 0) {
+                    hi = mid - 1;
+                }
+                else {
+                    return children[mid];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        void addChild(byte b, Node child) {
+            count = insertSorted(keys, children, count, b, child);
+        }
+
+        @Override
+        void replaceChild(byte b, Node child) {
+            for (int i = 0; i < count; i++) {
+                if (keys[i] == b) {
+                    children[i] = child;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        void removeChild(byte b) {
+            count = removeSorted(keys, children, count, b);
+        }
+
+        @Override
+        boolean isFull() {
+            return count == 16;
+        }
+
+        @Override
+        InnerNode grow() {
+            Node48 node = new Node48(prefix);
+            node.copyHeader(this);
+            for (int i = 0; i < count; i++) {
+                node.addChild(keys[i], children[i]);
+            }
+            return node;
+        }
+
+        @Override
+        InnerNode shrink() {
+            if (count > 3) {
+                return this;
+            }
+            Node4 node = new Node4(prefix);
+            node.copyHeader(this);
+            System.arraycopy(keys, 0, node.keys, 0, count);
+            System.arraycopy(children, 0, node.children, 0, count);
+            node.count = count;
+            return node;
+        }
+
+        @Override
+        int nextPosition(int pos) {
+            return pos < count ? pos : -1;
+        }
+
+        @Override
+        Node childAt(int pos) {
+            return children[pos];
+        }
+
+        @Override
+        byte byteAt(int pos) {
+            return keys[pos];
+        }
+    }
+
+    private static class Node48 extends InnerNode {
+        /** index[b] is 1 + the slot of the child for the byte b, or 0 if there is none */
+        final byte[] index = new byte[256];
+        final Node[] children = new Node[48];
+
+        Node48(byte[] prefix) {
+            super(prefix);
+        }
+
+        @Override
+        Node findChild(byte b) {
+            int slot = index[b & 0xFF];
+            return slot == 0 ? null : children[slot - 1];
+        }
+
+        @Override
+        void addChild(byte b, Node child) {
+            int slot = 0;
+            while (children[slot] != null) {
+                slot += 1;
+            }
+            children[slot] = child;
+            index[b & 0xFF] = (byte) (slot + 1);
+            count += 1;
+        }
+
+        @Override
+        void replaceChild(byte b, Node child) {
+            children[index[b & 0xFF] - 1] = child;
+        }
+
+        @Override
+        void removeChild(byte b) {
+            children[index[b & 0xFF] - 1] = null;
+            index[b & 0xFF] = 0;
+            count -= 1;
+        }
+
+        @Override
+        boolean isFull() {
+            return count == 48;
+        }
+
+        @Override
+        InnerNode grow() {
+            Node256 node = new Node256(prefix);
+            node.copyHeader(this);
+            for (int b = 0; b < 256; b++) {
+                if (index[b] != 0) {
+                    node.addChild((byte) b, children[index[b] - 1]);
+                }
+            }
+            return node;
+        }
+
+        @Override
+        InnerNode shrink() {
+            if (count > 12) {
+                return this;
+            }
+            Node16 node = new Node16(prefix);
+            node.copyHeader(this);
+            for (int b = 0; b < 256; b++) {
+                if (index[b] != 0) {
+                    node.addChild((byte) b, children[index[b] - 1]);
+                }
+            }
+            return node;
+        }
+
+        @Override
+        int nextPosition(int pos) {
+            while (pos < 256 && index[pos] == 0) {
+                pos += 1;
+            }
+            return pos < 256 ? pos : -1;
+        }
+
+        @Override
+        Node childAt(int pos) {
+            return children[index[pos] - 1];
+        }
+
+        @Override
+        byte byteAt(int pos) {
+            return (byte) pos;
+        }
+    }
+
+    private static class Node256 extends InnerNode {
+        final Node[] children = new Node[256];
+
+        Node256(byte[] prefix) {
+            super(prefix);
+        }
+
+        @Override
+        Node findChild(byte b) {
+            return children[b & 0xFF];
+        }
+
+        @Override
+        void addChild(byte b, Node child) {
+            children[b & 0xFF] = child;
+            count += 1;
+        }
+
+        @Override
+        void replaceChild(byte b, Node child) {
+            children[b & 0xFF] = child;
+        }
+
+        @Override
+        void removeChild(byte b) {
+            children[b & 0xFF] = null;
+            count -= 1;
+        }
+
+        @Override
+        boolean isFull() {
+            return false;
+        }
+
+        @Override
+        InnerNode grow() {
+            return this;
+        }
+
+        @Override
+        InnerNode shrink() {
+            if (count > 37) {
+                return this;
+            }
+            Node48 node = new Node48(prefix);
+            node.copyHeader(this);
+            for (int b = 0; b < 256; b++) {
+                if (children[b] != null) {
+                    node.addChild((byte) b, children[b]);
+                }
+            }
+            return node;
+        }
+
+        @Override
+        int nextPosition(int pos) {
+            while (pos < 256 && children[pos] == null) {
+                pos += 1;
+            }
+            return pos < 256 ? pos : -1;
+        }
+
+        @Override
+        Node childAt(int pos) {
+            return children[pos];
+        }
+
+        @Override
+        byte byteAt(int pos) {
+            return (byte) pos;
+        }
+    }
+
+    /* inserts into the first count slots of the sorted (unsigned) arrays, returns the new count */
+    private static int insertSorted(byte[] keys, Node[] children, int count, byte b, Node child) {
+        int i = count;
+        while (i > 0 && (keys[i - 1] & 0xFF) > (b & 0xFF)) {
+            keys[i] = keys[i - 1];
+            children[i] = children[i - 1];
+            i -= 1;
+        }
+        keys[i] = b;
+        children[i] = child;
+        return count + 1;
+    }
+
+    /* removes b from the first count slots of the sorted arrays, returns the new count */
+    private static int removeSorted(byte[] keys, Node[] children, int count, byte b) {
+        int i = 0;
+        while (keys[i] != b) {
+            i += 1;
+        }
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        System.arraycopy(children, i + 1, children, i, count - i - 1);
+        children[count - 1] = null;
+        return count - 1;
+    }
+
+    private Node root;
+    private int size;
+    /** the value removed by the last remove call, used to pass it out of the recursion */
+    private V removedValue;
+
+    /**
+     * Initializes an empty ART map.
+     */
+    public ARTMap() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>k</em>), where k is the length of the key.
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(String key) {
+        return key != null && getLeaf(key) != null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>k</em>), where k is the length of the key.
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Leaf<V> leaf = getLeaf(key);
+        return leaf != null ? leaf.value : null;
+    }
+
+    private Leaf<V> getLeaf(String key) {
+        byte[] bytes = bytes(key);
+        Node node = root;
+        int depth = 0;
+        while (node != null) {
+            if (node instanceof Leaf) {
+                Leaf<V> leaf = (Leaf<V>) node;
+                return leaf.key.equals(key) ? leaf : null;
+            }
+            InnerNode inner = (InnerNode) node;
+            if (matchPrefix(inner, bytes, depth) < inner.prefix.length) {
+                return null;
+            }
+            depth += inner.prefix.length;
+            if (depth == bytes.length) {
+                return (Leaf<V>) inner.terminal;
+            }
+            node = inner.findChild(bytes[depth]);
+            depth += 1;
+        }
+        return null;
+    }
+
+    /* returns how many bytes of the node's prefix match the key from depth on */
+    private static int matchPrefix(InnerNode inner, byte[] key, int depth) {
+        int max = Math.min(inner.prefix.length, key.length - depth);
+        int i = 0;
+        while (i < max && inner.prefix[i] == key[depth + i]) {
+            i += 1;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: &Theta;(<em>k</em>), where k is the length of the key.
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(String key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        root = put(root, key, bytes(key), 0, value);
+    }
+
+    private Node put(Node node, String key, byte[] bytes, int depth, V value) {
+        if (node == null) {
+            size += 1;
+            return new Leaf<>(key, value);
+        }
+        if (node instanceof Leaf) {
+            Leaf<V> leaf = (Leaf<V>) node;
+            if (leaf.key.equals(key)) {
+                leaf.value = value;
+                return leaf;
+            }
+            // lazy expansion: the two keys now need a node where they branch off
+            byte[] leafBytes = bytes(leaf.key);
+            int common = 0;
+            while (depth + common < bytes.length && depth + common < leafBytes.length
+                    && bytes[depth + common] == leafBytes[depth + common]) {
+                common += 1;
+            }
+            InnerNode branch = new Node4(Arrays.copyOfRange(bytes, depth, depth + common));
+            attach(branch, leaf, leafBytes, depth + common);
+            attach(branch, new Leaf<>(key, value), bytes, depth + common);
+            size += 1;
+            return branch;
+        }
+        InnerNode inner = (InnerNode) node;
+        int matched = matchPrefix(inner, bytes, depth);
+        if (matched < inner.prefix.length) {
+            // the key leaves the compressed path in the middle, split the path there
+            InnerNode branch = new Node4(Arrays.copyOfRange(inner.prefix, 0, matched));
+            byte b = inner.prefix[matched];
+            inner.prefix = Arrays.copyOfRange(inner.prefix, matched + 1, inner.prefix.length);
+            branch.addChild(b, inner);
+            attach(branch, new Leaf<>(key, value), bytes, depth + matched);
+            size += 1;
+            return branch;
+        }
+        depth += inner.prefix.length;
+        if (depth == bytes.length) {
+            if (inner.terminal == null) {
+                inner.terminal = new Leaf<>(key, value);
+                size += 1;
+            }
+            else {
+                ((Leaf<V>) inner.terminal).value = value;
+            }
+            return inner;
+        }
+        byte b = bytes[depth];
+        Node child = inner.findChild(b);
+        if (child != null) {
+            Node newChild = put(child, key, bytes, depth + 1, value);
+            if (newChild != child) {
+                inner.replaceChild(b, newChild);
+            }
+            return inner;
+        }
+        if (inner.isFull()) {
+            inner = inner.grow();
+        }
+        inner.addChild(b, new Leaf<>(key, value));
+        size += 1;
+        return inner;
+    }
+
+    /* puts the leaf below the node, as its terminal if the key ends at depth */
+    private static void attach(InnerNode node, Leaf<?> leaf, byte[] leafBytes, int depth) {
+        if (depth == leafBytes.length) {
+            node.terminal = leaf;
+        }
+        else {
+            node.addChild(leafBytes[depth], leaf);
+        }
+    }
+
+    /**
+     * Returns a Set of the keys contained in this map.
+     * Time complexity: &Theta;(<em>n log n</em>).
+     * @return a set of the keys contained in this map
+     */
+    @Override
+    public Set<String> keySet() {
+        Set<String> keys = new TreeSet<>();
+        for (String key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: &Theta;(<em>k</em>), where k is the length of the key.
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(String key) {
+        if (key == null || getLeaf(key) == null) {
+            return null;
+        }
+        root = remove(root, key, bytes(key), 0);
+        size -= 1;
+        V value = removedValue;
+        removedValue = null;
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: &Theta;(<em>k</em>), where k is the length of the key.
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(String key, V value) {
+        if (key == null) {
+            return null;
+        }
+        Leaf<V> leaf = getLeaf(key);
+        if (leaf == null || !Objects.equals(leaf.value, value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /* assumes the key is present below the node */
+    private Node remove(Node node, String key, byte[] bytes, int depth) {
+        if (node instanceof Leaf) {
+            removedValue = ((Leaf<V>) node).value;
+            return null;
+        }
+        InnerNode inner = (InnerNode) node;
+        depth += inner.prefix.length;
+        if (depth == bytes.length) {
+            removedValue = ((Leaf<V>) inner.terminal).value;
+            inner.terminal = null;
+        }
+        else {
+            byte b = bytes[depth];
+            Node child = inner.findChild(b);
+            Node newChild = remove(child, key, bytes, depth + 1);
+            if (newChild == null) {
+                inner.removeChild(b);
+            }
+            else if (newChild != child) {
+                inner.replaceChild(b, newChild);
+            }
+        }
+        return compact(inner);
+    }
+
+    /* undoes the structure a removal made useless: a node left with only its terminal
+     * becomes that leaf, a node left with a single child is merged into the child's path,
+     * and a sparse node shrinks to a smaller type. */
+    private Node compact(InnerNode inner) {
+        if (inner.count == 0) {
+            return inner.terminal;
+        }
+        if (inner.count == 1 && inner.terminal == null) {
+            int pos = inner.nextPosition(0);
+            Node child = inner.childAt(pos);
+            if (child instanceof InnerNode) {
+                InnerNode innerChild = (InnerNode) child;
+                byte[] merged = new byte[inner.prefix.length + 1 + innerChild.prefix.length];
+                System.arraycopy(inner.prefix, 0, merged, 0, inner.prefix.length);
+                merged[inner.prefix.length] = inner.byteAt(pos);
+                System.arraycopy(innerChild.prefix, 0, merged, inner.prefix.length + 1, innerChild.prefix.length);
+                innerChild.prefix = merged;
+            }
+            return child;
+        }
+        return inner.shrink();
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in ascending (UTF-8 byte) order.
+     * hasNext() takes constant time and next() takes amortized constant time
+     * per node of the tree.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new ARTMapIterator();
+    }
+
+    private class ARTMapIterator implements Iterator<String> {
+
+        /** the inner nodes on the path to the next key, with the next position to visit in each */
+        private final ArrayList<InnerNode> nodes = new ArrayList<>();
+        private final ArrayList<Integer> positions = new ArrayList<>();
+        private Leaf<V> next;
+
+        ARTMapIterator() {
+            if (root instanceof Leaf) {
+                next = (Leaf<V>) root;
+            }
+            else if (root != null) {
+                descend((InnerNode) root);
+            }
+        }
+
+        /* makes the node the deepest frame, then looks for the next leaf */
+        private void descend(InnerNode node) {
+            nodes.add(node);
+            positions.add(0);
+            if (node.terminal != null) {
+                // a key ending at a node comes before every key below it
+                next = (Leaf<V>) node.terminal;
+                return;
+            }
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (!nodes.isEmpty()) {
+                int top = nodes.size() - 1;
+                InnerNode node = nodes.get(top);
+                int pos = node.nextPosition(positions.get(top));
+                if (pos < 0) {
+                    nodes.remove(top);
+                    positions.remove(top);
+                    continue;
+                }
+                positions.set(top, pos + 1);
+                Node child = node.childAt(pos);
+                if (child instanceof Leaf) {
+                    next = (Leaf<V>) child;
+                    return;
+                }
+                descend((InnerNode) child);
+                return;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String key = next.key;
+            advance();
+            return key;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package map.artmap.testing;
+
+import map.artmap.implementation.ARTMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class ARTMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        ARTMap<Integer> b = new ARTMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void prefixKeysTest() {
+        // keys that are prefixes of each other end at inner nodes
+        ARTMap<Integer> b = new ARTMap<>();
+        String[] keys = {"", "a", "ab", "abc", "abcd", "abd", "b"};
+        for (int i = 0; i < keys.length; i++) {
+            b.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertEquals(i, b.get(keys[i]));
+        }
+        Assertions.assertFalse(b.containsKey("abcde"));
+        Assertions.assertFalse(b.containsKey("ac"));
+        Assertions.assertEquals(2, b.remove("ab"));
+        Assertions.assertFalse(b.containsKey("ab"));
+        Assertions.assertEquals(3, b.get("abc"));
+        Assertions.assertEquals(0, b.remove(""));
+        Assertions.assertEquals(Arrays.asList("a", "abc", "abcd", "abd", "b"), toList(b));
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        ARTMap<Integer> b = new ARTMap<>();
+        b.put("hey", 5);
+        b.put("hey", 7);
+        Assertions.assertEquals(7, b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+        b.put("he", null);
+        Assertions.assertTrue(b.containsKey("he"));
+        Assertions.assertFalse(b.containsKey(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, 1));
+    }
+
+    @Test
+    public void nodeGrowAndShrinkTest() {
+        // 256 children under one prefix, then remove them back down to one
+        ARTMap<Integer> b = new ARTMap<>();
+        for (int c = 0; c < 256; c++) {
+            b.put("prefix" + (char) c, c);
+        }
+        Assertions.assertEquals(256, b.size());
+        for (int c = 0; c < 256; c++) {
+            Assertions.assertEquals(c, b.get("prefix" + (char) c));
+        }
+        for (int c = 255; c > 0; c--) {
+            Assertions.assertEquals(c, b.remove("prefix" + (char) c));
+            Assertions.assertEquals(0, b.get("prefix" + (char) 0));
+        }
+        Assertions.assertEquals(Collections.singletonList("prefix" + (char) 0), toList(b));
+    }
+
+    @Test
+    public void orderedIterationTest() {
+        ARTMap<Integer> b = new ARTMap<>();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            String key = randomKey(random);
+            b.put(key, i);
+            expected.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected), toList(b));
+        Assertions.assertEquals(expected, b.keySet());
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        ARTMap<Integer> b = new ARTMap<>();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            String key = randomKey(random);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.keySet()), toList(b));
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        ARTMap<String> q = new ARTMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+
+    /* short keys over a small alphabet, so they share long prefixes */
+    private static String randomKey(Random random) {
+        int length = random.nextInt(8);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+
+    private static List<String> toList(Iterable<String> map) {
+        List<String> keys = new ArrayList<>();
+        for (String key : map) {
+            keys.add(key);
+        }
+        return keys;
+    }
+}
@@ -2,9 +2,12 @@ package map.bstmap.implementation;
 
 
 import map.Map;
+import sorting.comparison.implementation.MergeSort;
 
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An (unbalanced) Binary-Search Tree based map implementation, the map is sorted according the
@@ -15,6 +18,9 @@ import java.util.function.Consumer;
  * each take &Theta;(<em>h</em>) in the worst case, where h is the height of the tree,
  * (the worst height is n).
  * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * Each node also keeps the size of its subtree, which supports the ordered operations
+ * <em>floor</em>, <em>ceiling</em>, <em>rank</em>, <em>select</em> and range queries,
+ * each taking &Theta;(<em>h</em>) (plus the number of keys in the range for range iteration).
  * @param <K> the type of keys maintained by this map
  * @param <V> the type of mapped values
  *
@@ -27,10 +33,15 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         V value;
         BSTNode<K, V> left;
         BSTNode<K, V> right;
+        /** the parent of this node, null for the root; lets iterators walk the tree without a stack */
+        BSTNode<K, V> parent;
+        /** number of nodes in the subtree rooted at this node */
+        int size;
 
         BSTNode (K key, V value) {
             this.key = key;
             this.value = value;
+            this.size = 1;
         }
     }
 
@@ -114,6 +125,7 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
     @Override
     public void put(K key, V value) {
         this.root = put(root, key, value);
+        this.root.parent = null;
     }
 
     private BSTNode<K, V> put(BSTNode<K, V> root, K key, V value) {
@@ -124,13 +136,323 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         int cmp = key.compareTo(root.key);
         if (cmp < 0) {
             root.left = put(root.left, key, value);
+            root.left.parent = root;
         }
         else if (cmp > 0) {
             root.right = put(root.right, key, value);
+            root.right.parent = root;
         }
+        root.size = 1 + size(root.left) + size(root.right);
         return root;
     }
 
+    private int size(BSTNode<K, V> node) {
+        return node != null ? node.size : 0;
+    }
+
+    /**
+     * Returns a map of the given keys and values, built as a perfectly balanced tree
+     * (of height &lceil;log2(n + 1)&rceil;) instead of the path that putting sorted keys one by one creates.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @param sortedKeys the keys, in strictly ascending order
+     * @param values the values, values[i] is the value of sortedKeys[i]
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return the map of the keys and values
+     * @throws IllegalArgumentException if the keys are not strictly ascending, contain null,
+     *                                  or the arrays have different lengths
+     */
+    public static <K extends Comparable<K>, V> BSTMap<K, V> fromSorted(K[] sortedKeys, V[] values) {
+        checkBatch(sortedKeys, values);
+        if (!isStrictlyAscending(sortedKeys)) {
+            throw new IllegalArgumentException("keys are not in strictly ascending order");
+        }
+        BSTMap<K, V> map = new BSTMap<>();
+        map.root = build(sortedKeys, values, 0, sortedKeys.length - 1, null);
+        map.size = sortedKeys.length;
+        return map;
+    }
+
+    /**
+     * Associates every key of the batch with the value at the same index, replacing the old values
+     * of the keys already present, and the earlier values of a key that appears more than once.
+     * The batch is merged with the keys of the map in one ordered pass, and the whole tree is then
+     * rebuilt perfectly balanced. A batch that is not in ascending order is first sorted with merge sort.
+     * Time complexity: &Theta;(<em>n + m</em>) for a sorted batch of m keys, else &Theta;(<em>n + m log m</em>).
+     * @param keys the keys to put, none of them null
+     * @param values the values, values[i] is the value of keys[i]
+     * @throws IllegalArgumentException if a key is null, or the arrays have different lengths
+     */
+    public void putAll(K[] keys, V[] values) {
+        checkBatch(keys, values);
+        if (!isStrictlyAscending(keys)) {
+            // the index breaks ties, so the last value of a key ends up last in its run
+            BatchEntry<K, V>[] entries = (BatchEntry<K, V>[]) new BatchEntry[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                entries[i] = new BatchEntry<>(keys[i], values[i], i);
+            }
+            MergeSort.mergeSort3(entries);
+            int n = 0;
+            for (int i = 0; i < entries.length; i++) {
+                if (i + 1 < entries.length && entries[i].key.compareTo(entries[i + 1].key) == 0) {
+                    continue;
+                }
+                entries[n++] = entries[i];
+            }
+            keys = (K[]) new Comparable[n];
+            values = (V[]) new Object[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = entries[i].key;
+                values[i] = entries[i].value;
+            }
+        }
+        // merges the keys of the map, walked in order without recursion, with the batch
+        K[] mergedKeys = (K[]) new Comparable[size + keys.length];
+        V[] mergedValues = (V[]) new Object[size + keys.length];
+        int n = 0;
+        int i = 0;
+        for (BSTNode<K, V> node = getMinNode(root); node != null; node = successor(node)) {
+            while (i < keys.length && keys[i].compareTo(node.key) < 0) {
+                mergedKeys[n] = keys[i];
+                mergedValues[n++] = values[i++];
+            }
+            if (i < keys.length && keys[i].compareTo(node.key) == 0) {
+                mergedKeys[n] = keys[i];
+                mergedValues[n++] = values[i++];
+            }
+            else {
+                mergedKeys[n] = node.key;
+                mergedValues[n++] = node.value;
+            }
+        }
+        while (i < keys.length) {
+            mergedKeys[n] = keys[i];
+            mergedValues[n++] = values[i++];
+        }
+        this.root = build(mergedKeys, mergedValues, 0, n - 1, null);
+        this.size = n;
+    }
+
+    private static <K, V> void checkBatch(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values have different lengths");
+        }
+        for (K key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("null keys are not supported");
+            }
+        }
+    }
+
+    private static <K extends Comparable<K>> boolean isStrictlyAscending(K[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i - 1].compareTo(keys[i]) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* the middle key becomes the root, and the two halves its subtrees */
+    private static <K extends Comparable<K>, V> BSTNode<K, V> build(K[] keys, V[] values, int lo, int hi,
+                                                                    BSTNode<K, V> parent) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        BSTNode<K, V> node = new BSTNode<>(keys[mid], values[mid]);
+        node.parent = parent;
+        node.left = build(keys, values, lo, mid - 1, node);
+        node.right = build(keys, values, mid + 1, hi, node);
+        node.size = hi - lo + 1;
+        return node;
+    }
+
+    private static final class BatchEntry<K extends Comparable<K>, V> implements Comparable<BatchEntry<K, V>> {
+        final K key;
+        final V value;
+        final int index;
+
+        BatchEntry(K key, V value, int index) {
+            this.key = key;
+            this.value = value;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(BatchEntry<K, V> other) {
+            int cmp = key.compareTo(other.key);
+            return cmp != 0 ? cmp : Integer.compare(index, other.index);
+        }
+    }
+
+    /**
+     * Returns the height of the tree, the number of nodes on its longest path.
+     * It is computed level by level, so it works on degenerate trees too.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return the height of the tree
+     */
+    public int height() {
+        int height = 0;
+        Deque<BSTNode<K, V>> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
+        }
+        while (!level.isEmpty()) {
+            height += 1;
+            for (int i = level.size(); i > 0; i--) {
+                BSTNode<K, V> node = level.poll();
+                if (node.left != null) {
+                    level.add(node.left);
+                }
+                if (node.right != null) {
+                    level.add(node.right);
+                }
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Returns the largest key in this map less than or equal to the given key,
+     * or null if there is no such key.
+     * Time complexity: &Theta;(<em>h</em>) in the worst case.
+     * @param key the key to compare with
+     * @return the largest key less than or equal to key, or null if there is none
+     */
+    public K floor(K key) {
+        K floor = null;
+        BSTNode<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp == 0) {
+                return current.key;
+            }
+            else if (cmp < 0) {
+                current = current.left;
+            }
+            else {
+                floor = current.key;
+                current = current.right;
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * Returns the smallest key in this map greater than or equal to the given key,
+     * or null if there is no such key.
+     * Time complexity: &Theta;(<em>h</em>) in the worst case.
+     * @param key the key to compare with
+     * @return the smallest key greater than or equal to key, or null if there is none
+     */
+    public K ceiling(K key) {
+        BSTNode<K, V> node = ceilingNode(key);
+        return node != null ? node.key : null;
+    }
+
+    private BSTNode<K, V> ceilingNode(K key) {
+        BSTNode<K, V> ceiling = null;
+        BSTNode<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp == 0) {
+                return current;
+            }
+            else if (cmp > 0) {
+                current = current.right;
+            }
+            else {
+                ceiling = current;
+                current = current.left;
+            }
+        }
+        return ceiling;
+    }
+
+    /**
+     * Returns the number of keys in this map strictly less than the given key,
+     * the key itself does not have to be in the map.
+     * Time complexity: &Theta;(<em>h</em>) in the worst case.
+     * @param key the key to compare with
+     * @return the number of keys less than key
+     */
+    public int rank(K key) {
+        int rank = 0;
+        BSTNode<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp < 0) {
+                current = current.left;
+            }
+            else if (cmp > 0) {
+                rank += 1 + size(current.left);
+                current = current.right;
+            }
+            else {
+                return rank + size(current.left);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the key of the given rank, that is the key such that there are
+     * exactly i keys smaller than it, or null if i is out of the range [0, size).
+     * Time complexity: &Theta;(<em>h</em>) in the worst case.
+     * @param i the rank
+     * @return the key of rank i, or null if there is no such key
+     */
+    public K select(int i) {
+        if (i < 0 || i >= size) {
+            return null;
+        }
+        BSTNode<K, V> current = root;
+        while (current != null) {
+            int leftSize = size(current.left);
+            if (i < leftSize) {
+                current = current.left;
+            }
+            else if (i > leftSize) {
+                i -= leftSize + 1;
+                current = current.right;
+            }
+            else {
+                return current.key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of keys in this map in the range [lo, hi].
+     * Time complexity: &Theta;(<em>h</em>) in the worst case.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return the number of keys between lo and hi
+     */
+    public int size(K lo, K hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        int count = rank(hi) - rank(lo);
+        return containsKey(hi) ? count + 1 : count;
+    }
+
+    /**
+     * Returns the keys in the range [lo, hi] in ascending order.
+     * The keys are produced lazily while iterating: only the nodes on the path
+     * to lo and the nodes inside the range are visited, nothing is copied.
+     * Time complexity: &Theta;(<em>h</em>) to start an iteration, plus &Theta;(<em>h</em>)
+     * per key in the worst case.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return an iterable over the keys between lo and hi
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> new BSTMapIterator(ceilingNode(lo), hi);
+    }
+
     /**
      * Traverses the bst in order, printing each item.
      * Time complexity: &Theta;(<em>n</em>).
@@ -147,15 +469,65 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
     }
 
     /**
-     * Returns a Set view of the keys contained in this map.
-     * Time complexity: &Theta;(<em>n</em>).
+     * Returns a live Set view of the keys contained in this map, the view is backed
+     * by the tree itself so nothing is copied, and changes to the map are reflected in the view.
+     * <em>contains</em> and <em>remove</em> delegate to the tree lookup (&Theta;(<em>h</em>)),
+     * <em>size</em> reads the map's counter (&Theta;(<em>1</em>)), and iteration walks the tree in order.
+     * Adding keys through the view is not supported.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
      * @return a set view of the keys contained in this map
      */
     @Override
     public Set<K> keySet() {
-        Set<K> keys = new TreeSet<>();
-        traverseInOrder(root, (BSTNode<K, V> node) -> keys.add(node.key));
-        return keys;
+        return new KeySetView();
+    }
+
+    private class KeySetView extends AbstractSet<K> {
+
+        @Override
+        public int size() {
+            return BSTMap.this.size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            K key = asKey(o);
+            return key != null && get(root, key) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            K key = asKey(o);
+            if (key == null || get(root, key) == null) {
+                return false;
+            }
+            BSTMap.this.remove(key);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            BSTMap.this.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return BSTMap.this.iterator();
+        }
+
+        /* returns the object as a key, or null if it can't be compared with the keys of the map */
+        private K asKey(Object o) {
+            if (o == null || root == null) {
+                return null;
+            }
+            try {
+                K key = (K) o;
+                key.compareTo(root.key);
+                return key;
+            } catch (ClassCastException e) {
+                return null;
+            }
+        }
     }
 
     private void traverseInOrder(BSTNode<K, V> root, Consumer<BSTNode<K, V>> processNode) {
@@ -182,6 +554,9 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         }
         V value = node.value;
         root = remove(root, key);
+        if (root != null) {
+            root.parent = null;
+        }
         size -= 1;
         return value;
     }
@@ -193,9 +568,11 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         int cmp = key.compareTo(root.key);
         if (cmp < 0) {
             root.left = remove(root.left, key);
+            setParent(root.left, root);
         }
         else if (cmp > 0) {
             root.right = remove(root.right, key);
+            setParent(root.right, root);
         }
         else {
             if (root.left == null) {
@@ -209,19 +586,24 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
                 root.key = successor.key;
                 root.value = successor.value;
                 root.right = remove(root.right, successor.key);
+                setParent(root.right, root);
             }
         }
+        root.size = 1 + size(root.left) + size(root.right);
         return root;
     }
 
-    private BSTNode<K, V> getMinNode(BSTNode<K, V> root) {
-        if (root == null) {
-            return null;
+    private void setParent(BSTNode<K, V> child, BSTNode<K, V> parent) {
+        if (child != null) {
+            child.parent = parent;
         }
-        else if (root.left == null) {
-            return root;
+    }
+
+    private BSTNode<K, V> getMinNode(BSTNode<K, V> node) {
+        while (node != null && node.left != null) {
+            node = node.left;
         }
-        return getMinNode(root.left);
+        return node;
     }
 
     /**
@@ -240,53 +622,178 @@ public class BSTMap<K extends Comparable<K>, V> implements Map<K, V> {
         }
         V nodeValue = node.value;
         root = remove(root, key);
+        if (root != null) {
+            root.parent = null;
+        }
         size -= 1;
         return nodeValue;
     }
 
     /**
-     * Returns a stack based iterator for in-order traversal over the bst.
+     * Returns an iterator for in-order traversal over the bst, the iterator follows
+     * the parent pointers of the nodes, so it only uses a constant amount of memory
+     * no matter how tall the tree is.
      * hasNext() method takes constant time, while next() takes &Theta;(<em>h</em>)
-     * in the worst case, (where the worst height is n).
-     * @return a stack based iterator for in-order traversal over the bst.
+     * in the worst case, (where the worst height is n), and amortized constant time
+     * over a whole traversal.
+     * @return an iterator for in-order traversal over the bst.
      */
     @Override
     public Iterator<K> iterator() {
-        return new StackBSTMapIterator();
+        return new BSTMapIterator(getMinNode(root), null);
     }
 
-    private class StackBSTMapIterator implements Iterator<K> {
+    private class BSTMapIterator implements Iterator<K> {
 
-        Stack<BSTNode<K, V>> stack;
+        BSTNode<K, V> next;
+        /** the upper bound of the iteration (inclusive), null for no bound */
+        K hi;
 
-        StackBSTMapIterator() {
-            stack = new Stack<>();
-            BSTNode<K, V> current = root;
-            while(current != null) {
-                stack.push(current);
-                current = current.left;
-            }
+        BSTMapIterator(BSTNode<K, V> first, K hi) {
+            this.next = first;
+            this.hi = hi;
         }
 
         @Override
         public boolean hasNext() {
-            return !stack.empty();
+            return next != null && (hi == null || hi.compareTo(next.key) >= 0);
         }
 
         @Override
         public K next() {
-            BSTNode<K, V> current = stack.pop();
-            if(current.right != null) {
-                BSTNode<K, V> temp = current.right;
-                while (temp != null) {
-                    stack.push(temp);
-                    temp = temp.left;
-                }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
+            BSTNode<K, V> current = next;
+            next = successor(current);
             return current.key;
         }
     }
 
-}
+    /**
+     * Returns a spliterator over the keys of the bst, in ascending order.
+     * The spliterator splits the tree at subtree boundaries: the first split hands out
+     * the left subtree of the root, and every following split hands out the left part
+     * of the remaining subtree, so a parallel traversal keeps the in-order of the keys.
+     * It reports the SORTED, ORDERED, DISTINCT and NONNULL characteristics, and SIZED before
+     * it is split, afterwards each half estimates its size as half of its parent's.
+     * @return a spliterator over the keys of the bst.
+     */
+    @Override
+    public Spliterator<K> spliterator() {
+        return new BSTMapSpliterator(getMinNode(root), null, 0, size);
+    }
+
+    /**
+     * Returns a sequential stream over the keys of the bst, in ascending order,
+     * calling parallel() on it spreads the traversal over the common ForkJoinPool.
+     * @return a stream over the keys of the bst.
+     */
+    public Stream<K> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    private class BSTMapSpliterator implements Spliterator<K> {
+
+        /** the next node to visit */
+        BSTNode<K, V> current;
+        /** the first node after the range (exclusive), null for the end of the tree */
+        BSTNode<K, V> fence;
+        /** 0 for the whole tree, -1 for a left part (split further at fence.left),
+         *  1 for a right part (split further at current.right) */
+        int side;
+        long estimate;
+
+        BSTMapSpliterator(BSTNode<K, V> current, BSTNode<K, V> fence, int side, long estimate) {
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super K> action) {
+            if (current == null || current == fence) {
+                return false;
+            }
+            BSTNode<K, V> node = current;
+            current = successor(node);
+            action.accept(node.key);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super K> action) {
+            BSTNode<K, V> node = current;
+            current = fence;
+            while (node != null && node != fence) {
+                action.accept(node.key);
+                node = successor(node);
+            }
+        }
+
+        @Override
+        public Spliterator<K> trySplit() {
+            BSTNode<K, V> e = current;
+            BSTNode<K, V> split;
+            if (e == null || e == fence) {
+                split = null;
+            }
+            else if (side == 0) {
+                // the root, or its right child once the root is not past the first node (as when it has
+                // no left child), else the right child of the first node, as for a right part
+                split = root;
+                if (e.key.compareTo(root.key) >= 0) {
+                    split = root.right != null && e.key.compareTo(root.right.key) < 0 ? root.right : e.right;
+                }
+            }
+            else if (side > 0) {
+                split = e.right;
+            }
+            else {
+                split = fence != null ? fence.left : null;
+            }
+            // the split node must still lie strictly inside the remaining range
+            if (split == null || split == e || split == fence || e.key.compareTo(split.key) >= 0) {
+                return null;
+            }
+            side = 1;
+            estimate >>>= 1;
+            current = split;
+            return new BSTMapSpliterator(e, split, -1, estimate);
+        }
 
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
 
+        @Override
+        public int characteristics() {
+            return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.SORTED | Spliterator.ORDERED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        @Override
+        public Comparator<? super K> getComparator() {
+            // null means the keys are sorted by their natural ordering
+            return null;
+        }
+    }
+
+    /* the in-order successor is the leftmost node of the right subtree if there is one,
+     * otherwise it is the first ancestor reached from its left subtree. */
+    private BSTNode<K, V> successor(BSTNode<K, V> node) {
+        if (node.right != null) {
+            return getMinNode(node.right);
+        }
+        BSTNode<K, V> child = node;
+        BSTNode<K, V> parent = node.parent;
+        while (parent != null && parent.right == child) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 
 public class BSTMapTest {
@@ -195,4 +196,236 @@ public class BSTMapTest {
         }
         Assertions.assertEquals(list, List.of(0, 1, 10, 12, 33, 43, 45, 78, 99, 100));
     }
+
+    @Test
+    public void floorCeilingTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        for (int key : new int[]{50, 20, 80, 10, 30, 70, 90}) {
+            b.put(key, key);
+        }
+        Assertions.assertEquals(30, b.floor(35));
+        Assertions.assertEquals(30, b.floor(30));
+        Assertions.assertNull(b.floor(5));
+        Assertions.assertEquals(70, b.ceiling(51));
+        Assertions.assertEquals(90, b.ceiling(90));
+        Assertions.assertNull(b.ceiling(91));
+    }
+
+    @Test
+    public void rankSelectTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        List<Integer> keys = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            int key = random.nextInt(5000);
+            if (!b.containsKey(key)) {
+                keys.add(key);
+            }
+            b.put(key, i);
+        }
+        for (int i = 0; i < 300; i++) {
+            Integer key = keys.remove(random.nextInt(keys.size()));
+            b.remove(key);
+        }
+        Collections.sort(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            Assertions.assertEquals(keys.get(i), b.select(i));
+            Assertions.assertEquals(i, b.rank(keys.get(i)));
+        }
+        Assertions.assertNull(b.select(keys.size()));
+        Assertions.assertEquals(keys.size(), b.rank(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void rangeKeysTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        for (int key : new int[]{33, 12, 10, 78, 100, 1, 0, 99, 45, 43}) {
+            b.put(key, 1);
+        }
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : b.keys(11, 99)) {
+            list.add(key);
+        }
+        Assertions.assertEquals(List.of(12, 33, 43, 45, 78, 99), list);
+        Assertions.assertEquals(6, b.size(11, 99));
+        Assertions.assertEquals(0, b.size(46, 77));
+        Assertions.assertFalse(b.keys(46, 77).iterator().hasNext());
+    }
+
+    @Test
+    public void liveKeySetTest() {
+        BSTMap<String, Integer> b = new BSTMap<>();
+        Set<String> keySet = b.keySet();
+        Assertions.assertTrue(keySet.isEmpty());
+        b.put("b", 1);
+        b.put("a", 2);
+        b.put("c", 3);
+        Assertions.assertEquals(3, keySet.size());
+        Assertions.assertTrue(keySet.contains("a"));
+        Assertions.assertFalse(keySet.contains("d"));
+        Assertions.assertFalse(keySet.contains(42));
+        Assertions.assertEquals(List.of("a", "b", "c"), new ArrayList<>(keySet));
+        Assertions.assertTrue(keySet.remove("b"));
+        Assertions.assertFalse(b.containsKey("b"));
+        Assertions.assertEquals(2, b.size());
+    }
+
+    @Test
+    public void iteratorAfterRemoveTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                b.remove(key);
+                expected.remove(key);
+            } else {
+                b.put(key, i);
+                expected.add(key);
+            }
+        }
+        List<Integer> list = new ArrayList<>();
+        for (Integer key : b) {
+            list.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected), list);
+        list.clear();
+        for (Integer key : b.keys(100, 200)) {
+            list.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.subSet(100, true, 200, true)), list);
+    }
+
+    @Test
+    public void parallelStreamTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(1000000);
+            if (!b.containsKey(key)) {
+                b.put(key, i);
+                expected.add(key);
+            }
+        }
+        Collections.sort(expected);
+        Assertions.assertEquals(expected, b.stream().parallel().collect(Collectors.toList()));
+        long sum = expected.stream().mapToLong(Integer::longValue).sum();
+        Assertions.assertEquals(sum, b.stream().parallel().mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    public void spliteratorSplitTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        for (int key : new int[]{50, 20, 80, 10, 30, 70, 90}) {
+            b.put(key, key);
+        }
+        Spliterator<Integer> right = b.spliterator();
+        Assertions.assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SORTED
+                | Spliterator.DISTINCT));
+        Assertions.assertEquals(7, right.estimateSize());
+        Spliterator<Integer> left = right.trySplit();
+        List<Integer> leftKeys = new ArrayList<>();
+        left.forEachRemaining(leftKeys::add);
+        List<Integer> rightKeys = new ArrayList<>();
+        right.forEachRemaining(rightKeys::add);
+        Assertions.assertEquals(List.of(10, 20, 30), leftKeys);
+        Assertions.assertEquals(List.of(50, 70, 80, 90), rightKeys);
+    }
+
+    @Test
+    public void spliteratorSplitsMinimumRootTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        // the root is the first key, it has no left child
+        for (int key : new int[]{10, 50, 30, 80, 20, 40, 70, 90}) {
+            b.put(key, key);
+        }
+        Spliterator<Integer> right = b.spliterator();
+        Spliterator<Integer> left = right.trySplit();
+        Assertions.assertNotNull(left);
+        List<Integer> leftKeys = new ArrayList<>();
+        left.forEachRemaining(leftKeys::add);
+        List<Integer> rightKeys = new ArrayList<>();
+        right.forEachRemaining(rightKeys::add);
+        Assertions.assertEquals(List.of(10, 20, 30, 40), leftKeys);
+        Assertions.assertEquals(List.of(50, 70, 80, 90), rightKeys);
+        // once the root was visited, the split falls back to its right child
+        Spliterator<Integer> advanced = b.spliterator();
+        advanced.tryAdvance(key -> Assertions.assertEquals(10, key));
+        Spliterator<Integer> prefix = advanced.trySplit();
+        Assertions.assertNotNull(prefix);
+        List<Integer> keys = new ArrayList<>();
+        prefix.forEachRemaining(keys::add);
+        Assertions.assertEquals(List.of(20, 30, 40), keys);
+        advanced.forEachRemaining(keys::add);
+        Assertions.assertEquals(List.of(20, 30, 40, 50, 70, 80, 90), keys);
+    }
+
+    @Test
+    public void fromSortedTest() {
+        Integer[] keys = new Integer[100000];
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 2 * i;
+            values[i] = "v" + i;
+        }
+        BSTMap<Integer, String> b = BSTMap.fromSorted(keys, values);
+        Assertions.assertEquals(keys.length, b.size());
+        // 2^17 - 1 >= 100000 nodes fit in 17 levels
+        Assertions.assertEquals(17, b.height());
+        Assertions.assertEquals("v500", b.get(1000));
+        Assertions.assertNull(b.get(1001));
+        Assertions.assertEquals(500, b.rank(1000));
+        Assertions.assertEquals(1000, b.select(500));
+        List<Integer> actual = new ArrayList<>();
+        for (Integer key : b) {
+            actual.add(key);
+        }
+        Assertions.assertEquals(Arrays.asList(keys), actual);
+        Assertions.assertEquals(0, BSTMap.fromSorted(new Integer[0], new String[0]).size());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BSTMap.fromSorted(new Integer[]{1, 1}, new String[2]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BSTMap.fromSorted(new Integer[]{1, null}, new String[2]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> BSTMap.fromSorted(new Integer[]{1, 2}, new String[1]));
+    }
+
+    @Test
+    public void putAllTest() {
+        BSTMap<Integer, Integer> b = new BSTMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(17);
+        for (int round = 0; round < 5; round++) {
+            // unsorted batches with duplicates, where the last value of a key wins
+            Integer[] keys = new Integer[20000];
+            Integer[] values = new Integer[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextInt(50000);
+                values[i] = round * keys.length + i;
+                expected.put(keys[i], values[i]);
+            }
+            b.putAll(keys, values);
+            Assertions.assertEquals(expected.size(), b.size());
+            Assertions.assertEquals(32 - Integer.numberOfLeadingZeros(b.size()), b.height());
+        }
+        // a sorted batch is merged without sorting
+        Integer[] sorted = {-3, -2, -1, 0, 1};
+        b.putAll(sorted, new Integer[]{3, 2, 1, 0, -1});
+        for (int i = 0; i < sorted.length; i++) {
+            expected.put(sorted[i], -sorted[i]);
+        }
+        for (Integer key : expected.keySet()) {
+            Assertions.assertEquals(expected.get(key), b.get(key));
+        }
+        List<Integer> actual = new ArrayList<>();
+        for (Integer key : b) {
+            actual.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.keySet()), actual);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.putAll(new Integer[]{null}, new Integer[1]));
+        b.putAll(new Integer[0], new Integer[0]);
+        Assertions.assertEquals(expected.size(), b.size());
+    }
 }
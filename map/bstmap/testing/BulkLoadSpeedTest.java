@@ -0,0 +1,65 @@
+package map.bstmap.testing;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import map.bstmap.implementation.BSTMap;
+
+/**
+ * Times loading a sorted dump into a BSTMap: putting the keys one by one builds a path,
+ * which takes quadratic time (and overflows the stack of the recursive put past a few
+ * thousand keys), while fromSorted and putAll build a balanced tree in linear time.
+ *
+ * @author aziz
+ */
+public class BulkLoadSpeedTest {
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            for (int n : new int[]{1_000, 4_000, 8_000}) {
+                Integer[] keys = sortedKeys(n);
+                long begin = System.nanoTime();
+                try {
+                    BSTMap<Integer, Integer> map = new BSTMap<>();
+                    for (Integer key : keys) {
+                        map.put(key, key);
+                    }
+                    report(print, "put one by one", n, begin, map.height());
+                } catch (StackOverflowError e) {
+                    if (print) {
+                        System.out.println("put one by one, " + n + " keys: stack overflow");
+                    }
+                }
+            }
+            for (int n : new int[]{8_000, 1_000_000, 10_000_000}) {
+                Integer[] keys = sortedKeys(n);
+                long begin = System.nanoTime();
+                BSTMap<Integer, Integer> map = BSTMap.fromSorted(keys, keys);
+                report(print, "fromSorted", n, begin, map.height());
+            }
+            Integer[] shuffled = sortedKeys(1_000_000);
+            Collections.shuffle(Arrays.asList(shuffled), new Random(42));
+            long begin = System.nanoTime();
+            BSTMap<Integer, Integer> map = new BSTMap<>();
+            map.putAll(shuffled, shuffled);
+            report(print, "putAll of an unsorted batch", shuffled.length, begin, map.height());
+        }
+    }
+
+    private static Integer[] sortedKeys(int n) {
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+        }
+        return keys;
+    }
+
+    private static void report(boolean print, String name, int n, long begin, int height) {
+        if (print) {
+            System.out.printf("%s, %d keys: %.2f ms, height %d\n", name, n, (System.nanoTime() - begin) / 1e6, height);
+        }
+    }
+}
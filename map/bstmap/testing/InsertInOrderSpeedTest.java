@@ -7,7 +7,9 @@ import java.util.Scanner;
 
 import edu.princeton.cs.algs4.Stopwatch;
 import map.Map;
+import map.artmap.implementation.ARTMap;
 import map.bstmap.implementation.BSTMap;
+import map.llrbmap.implementation.LLRBMap;
 
 /**
  * Performs a timing test on three different set implementations.
@@ -34,6 +36,8 @@ public class InsertInOrderSpeedTest {
             int N = i.waitForPositiveInt(input);
             timeInOrderMap61B(new ULLMap<>(), N);
             timeInOrderMap61B(new BSTMap<>(), N);
+            timeInOrderMap61B(new LLRBMap<>(), N);
+            timeInOrderMap61B(new ARTMap<>(), N);
             timeInOrderTreeMap(new TreeMap<>(), N);
             timeInOrderHashMap(new HashMap<>(), N);
 
@@ -6,7 +6,10 @@ import java.io.IOException;
 import java.util.Scanner;
 import edu.princeton.cs.algs4.Stopwatch;
 import map.Map;
+import map.artmap.implementation.ARTMap;
 import map.bstmap.implementation.BSTMap;
+import map.linearprobingmap.implementation.LinearProbingMap;
+import map.llrbmap.implementation.LLRBMap;
 
 /** Performs a timing test on three different set implementations.
  *  @author Josh Hug
@@ -32,8 +35,11 @@ public class InsertRandomSpeedTest {
             int N = waitForPositiveInt(input);
             timeRandomMap61B(new ULLMap<>(), N, L);
             timeRandomMap61B(new BSTMap<>(), N, L);
+            timeRandomMap61B(new LLRBMap<>(), N, L);
+            timeRandomMap61B(new ARTMap<>(), N, L);
             timeRandomTreeMap(new TreeMap<>(), N, L);
             timeRandomHashMap(new HashMap<>(), N, L);
+            timeRandomMap61B(new LinearProbingMap<>(), N, L);
 
             System.out.print("Would you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
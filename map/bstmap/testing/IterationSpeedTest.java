@@ -0,0 +1,69 @@
+package map.bstmap.testing;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.TreeMap;
+
+import map.Map;
+import map.bstmap.implementation.BSTMap;
+import map.llrbmap.implementation.LLRBMap;
+import set.bstset.implementation.BSTSet;
+
+/**
+ * Compares the throughput and the allocation rate of a full in-order iteration.
+ * BSTMap and BSTSet iterate by following parent pointers, while LLRBMap still uses
+ * a java.util.Stack based iterator (the design BSTMap used before), and Java's TreeMap
+ * is the baseline. The allocated bytes are read from the JVM's per-thread allocation counter.
+ *
+ * @author aziz
+ */
+public class IterationSpeedTest {
+
+    private static final int N = 1_000_000;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Map<Integer, Integer> bstMap = new BSTMap<>();
+        Map<Integer, Integer> llrbMap = new LLRBMap<>();
+        BSTSet<Integer> bstSet = new BSTSet<>();
+        TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+        for (int i = 0; i < N; i++) {
+            int key = random.nextInt();
+            bstMap.put(key, i);
+            llrbMap.put(key, i);
+            bstSet.add(key);
+            treeMap.put(key, i);
+        }
+        System.out.println("Iterating " + ROUNDS + " times over " + bstMap.size() + " random keys.");
+        time("BSTMap (parent pointers)", bstMap);
+        time("LLRBMap (java.util.Stack)", llrbMap);
+        time("BSTSet (parent pointers)", bstSet);
+        time("Java's Built-in TreeMap", treeMap.keySet());
+    }
+
+    private static void time(String name, Iterable<Integer> keys) {
+        // warm up so the measured rounds run compiled code
+        iterate(keys);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long begin = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += iterate(keys);
+        }
+        long elapsed = System.nanoTime() - begin;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        System.out.printf("%s: %.2f ns/key, %d bytes allocated per iteration (checksum %d)\n",
+                name, (double) elapsed / ROUNDS / N, bytes / ROUNDS, checksum);
+    }
+
+    private static long iterate(Iterable<Integer> keys) {
+        long sum = 0;
+        for (Integer key : keys) {
+            sum += key;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,115 @@
+package map.bstmap.testing;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import map.Map;
+import map.bstmap.implementation.BSTMap;
+import map.llrbmap.implementation.LLRBMap;
+import map.splaymap.implementation.SplayTreeMap;
+
+/**
+ * Times lookups drawn from a Zipfian distribution, where the key of rank r is requested with a
+ * probability proportional to 1/r^s, so a small hot set of keys gets most of the traffic.
+ * The keys are put in a random order and the hot keys are scattered over the key space,
+ * so in BSTMap, LLRBMap and TreeMap they sit at random depths, while SplayTreeMap keeps them near the root.
+ * A uniform workload over the same keys is timed too, for reference.
+ *
+ * @author aziz
+ */
+public class ZipfianLookupSpeedTest {
+
+    private static final int N = 1_000_000;
+    private static final int LOOKUPS = 10_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        // the keys, and their ranks in the Zipfian distribution: key i has rank i + 1
+        Integer[] keys = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = random.nextInt();
+        }
+        Integer[] insertOrder = keys.clone();
+        for (int i = N - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Integer swap = insertOrder[i];
+            insertOrder[i] = insertOrder[j];
+            insertOrder[j] = swap;
+        }
+        for (double exponent : new double[]{0.8, 1.0, 1.2}) {
+            System.out.printf("Zipfian lookups (s = %.1f) of %d keys out of %d:\n", exponent, LOOKUPS, N);
+            run(keys, insertOrder, zipfian(random, exponent));
+        }
+        System.out.printf("Uniform lookups of %d keys out of %d:\n", LOOKUPS, N);
+        int[] uniform = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            uniform[i] = random.nextInt(N);
+        }
+        run(keys, insertOrder, uniform);
+    }
+
+    /* samples the ranks by a binary search of a uniform number in the cumulative distribution */
+    private static int[] zipfian(Random random, double exponent) {
+        double[] cumulative = new double[N];
+        double sum = 0;
+        for (int i = 0; i < N; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        int[] ranks = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            double u = random.nextDouble() * sum;
+            int lo = 0;
+            int hi = N - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < u) {
+                    lo = mid + 1;
+                }
+                else {
+                    hi = mid;
+                }
+            }
+            ranks[i] = lo;
+        }
+        return ranks;
+    }
+
+    private static void run(Integer[] keys, Integer[] insertOrder, int[] ranks) {
+        measure("BSTMap", new BSTMap<>(), keys, insertOrder, ranks);
+        measure("LLRBMap", new LLRBMap<>(), keys, insertOrder, ranks);
+        measure("SplayTreeMap", new SplayTreeMap<>(), keys, insertOrder, ranks);
+        TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+        for (Integer key : insertOrder) {
+            treeMap.put(key, key);
+        }
+        report("Java's Built-in TreeMap", treeMap::get, keys, ranks);
+        System.out.println();
+    }
+
+    private static void measure(String name, Map<Integer, Integer> map, Integer[] keys,
+                                Integer[] insertOrder, int[] ranks) {
+        for (Integer key : insertOrder) {
+            map.put(key, key);
+        }
+        report(name, map::get, keys, ranks);
+    }
+
+    private static void report(String name, Function<Integer, Integer> get, Integer[] keys, int[] ranks) {
+        // a first pass to warm up, then the measured one
+        long checksum = lookup(get, keys, ranks);
+        long begin = System.nanoTime();
+        checksum += lookup(get, keys, ranks);
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("%s: %.1f ns/get (checksum %d)\n", name, (double) elapsed / ranks.length, checksum);
+    }
+
+    private static long lookup(Function<Integer, Integer> get, Integer[] keys, int[] ranks) {
+        long sum = 0;
+        for (int rank : ranks) {
+            sum += get.apply(keys[rank]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,617 @@
+package map.btreemap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+
+/**
+ * An in-memory sorted map based on a B+ tree, the map is sorted according the natural ordering
+ * of its keys; so the key type must implement the Comparable interface.
+ * A node holds up to 64 keys (by default) in a sorted array, instead of the single key of a binary
+ * search tree node, so the tree is only log_64(n) levels deep: a lookup follows 4 or 5 pointers
+ * for millions of keys, and does a binary search inside each node over keys that sit next to
+ * each other in memory, instead of missing the cache at every one of the ~log2(n) levels of a
+ * binary tree. The wide nodes also save memory, the per-entry overhead is about one array slot
+ * per key and value instead of a node object with its header and links.
+ * The values are only held in the leaves, and the leaves are linked from left to right,
+ * so an iteration walks the leaves without going back up the tree.
+ * Every node but the root is at least half full, a full node is split in two, and a node that
+ * drops below half full borrows a key from a sibling or is merged with it.
+ * The iteration order is the ascending order of the keys, the same as BSTMap's.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take &Theta;(<em>log n</em>) comparisons in the worst case, over &Theta;(<em>log_B n</em>) nodes.
+ * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class BTreeMap<K extends Comparable<K>, V> implements Map<K, V> {
+
+    private static final int DEFAULT_MAX_KEYS = 64;
+
+    /** a node has room for one key more than the maximum, before it is split */
+    private abstract static class Node<K> {
+        final K[] keys;
+        int count;
+
+        Node(int maxKeys) {
+            this.keys = (K[]) new Comparable[maxKeys + 1];
+        }
+    }
+
+    private static final class Leaf<K, V> extends Node<K> {
+        final V[] values;
+        Leaf<K, V> next;
+
+        Leaf(int maxKeys) {
+            super(maxKeys);
+            this.values = (V[]) new Object[maxKeys + 1];
+        }
+    }
+
+    /** keys[i] is the smallest key of the subtree children[i + 1] (or smaller) */
+    private static final class Inner<K> extends Node<K> {
+        final Node<K>[] children;
+
+        Inner(int maxKeys) {
+            super(maxKeys);
+            this.children = (Node<K>[]) new Node[maxKeys + 2];
+        }
+    }
+
+    /** the result of a split: the first key of the new right node, and the node */
+    private static final class Split<K> {
+        final K separator;
+        final Node<K> right;
+
+        Split(K separator, Node<K> right) {
+            this.separator = separator;
+            this.right = right;
+        }
+    }
+
+    private final int maxKeys;
+    private final int minKeys;
+    private Node<K> root;
+    private int height;
+    private int size;
+    /** set by remove to pass the result out of the recursion */
+    private boolean removed;
+    private V removedValue;
+
+    /**
+     * Initializes an empty B+ tree map with nodes of up to 64 keys.
+     */
+    public BTreeMap() {
+        this(DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Initializes an empty B+ tree map with nodes of up to maxKeys keys.
+     * @param maxKeys the maximum number of keys in a node, at least 4
+     */
+    public BTreeMap(int maxKeys) {
+        if (maxKeys < 4) {
+            throw new IllegalArgumentException("illegal node size");
+        }
+        this.maxKeys = maxKeys;
+        this.minKeys = maxKeys / 2;
+        clear();
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        root = new Leaf<K, V>(maxKeys);
+        height = 1;
+        size = 0;
+    }
+
+    /* returns the index of the key in the node, or (-(insertion point) - 1) if it is not there */
+    private static <K extends Comparable<K>> int search(Node<K> node, K key) {
+        int lo = 0;
+        int hi = node.count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = node.keys[mid].compareTo(key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            }
+            else if (cmp > 0) {
+                hi = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -lo - 1;
+    }
+
+    /* an equal key is the first key of the right subtree, so it goes right */
+    private static <K extends Comparable<K>> int childIndex(Node<K> node, K key) {
+        int pos = search(node, key);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private Leaf<K, V> findLeaf(K key) {
+        Node<K> node = root;
+        while (node instanceof Inner) {
+            node = ((Inner<K>) node).children[childIndex(node, key)];
+        }
+        return (Leaf<K, V>) node;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && search(findLeaf(key), key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Leaf<K, V> leaf = findLeaf(key);
+        int pos = search(leaf, key);
+        return pos >= 0 ? leaf.values[pos] : null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the height of the tree, the height of a tree that is a single leaf is 1.
+     * Time complexity: takes constant time.
+     * @return the height of the tree
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        Split<K> split = insert(root, key, value);
+        if (split != null) {
+            Inner<K> newRoot = new Inner<>(maxKeys);
+            newRoot.keys[0] = split.separator;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.count = 1;
+            root = newRoot;
+            height += 1;
+        }
+    }
+
+    /* inserts below the node, returns the split of the node if it overflowed */
+    private Split<K> insert(Node<K> node, K key, V value) {
+        if (node instanceof Leaf) {
+            Leaf<K, V> leaf = (Leaf<K, V>) node;
+            int pos = search(leaf, key);
+            if (pos >= 0) {
+                leaf.values[pos] = value;
+                return null;
+            }
+            pos = -pos - 1;
+            System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, leaf.count - pos);
+            System.arraycopy(leaf.values, pos, leaf.values, pos + 1, leaf.count - pos);
+            leaf.keys[pos] = key;
+            leaf.values[pos] = value;
+            leaf.count += 1;
+            size += 1;
+            if (leaf.count <= maxKeys) {
+                return null;
+            }
+            Leaf<K, V> right = new Leaf<>(maxKeys);
+            int half = leaf.count / 2;
+            right.count = leaf.count - half;
+            System.arraycopy(leaf.keys, half, right.keys, 0, right.count);
+            System.arraycopy(leaf.values, half, right.values, 0, right.count);
+            Arrays.fill(leaf.keys, half, leaf.count, null);
+            Arrays.fill(leaf.values, half, leaf.count, null);
+            leaf.count = half;
+            right.next = leaf.next;
+            leaf.next = right;
+            return new Split<>(right.keys[0], right);
+        }
+        Inner<K> inner = (Inner<K>) node;
+        int child = childIndex(inner, key);
+        Split<K> split = insert(inner.children[child], key, value);
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(inner.keys, child, inner.keys, child + 1, inner.count - child);
+        System.arraycopy(inner.children, child + 1, inner.children, child + 2, inner.count - child);
+        inner.keys[child] = split.separator;
+        inner.children[child + 1] = split.right;
+        inner.count += 1;
+        if (inner.count <= maxKeys) {
+            return null;
+        }
+        // the middle key moves up to the parent
+        Inner<K> right = new Inner<>(maxKeys);
+        int mid = inner.count / 2;
+        K separator = inner.keys[mid];
+        right.count = inner.count - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.count + 1);
+        Arrays.fill(inner.keys, mid, inner.count, null);
+        Arrays.fill(inner.children, mid + 1, inner.count + 1, null);
+        inner.count = mid;
+        return new Split<>(separator, right);
+    }
+
+    /**
+     * Returns the largest key in this map less than or equal to the given key,
+     * or null if there is no such key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to compare with
+     * @return the largest key less than or equal to key, or null if there is none
+     */
+    public K floor(K key) {
+        // the subtree just left of the path to the key holds the keys right below the key's leaf
+        Node<K> node = root;
+        Node<K> leftNeighbour = null;
+        while (node instanceof Inner) {
+            Inner<K> inner = (Inner<K>) node;
+            int child = childIndex(inner, key);
+            if (child > 0) {
+                leftNeighbour = inner.children[child - 1];
+            }
+            node = inner.children[child];
+        }
+        int pos = search(node, key);
+        if (pos >= 0) {
+            return node.keys[pos];
+        }
+        pos = -pos - 1;
+        if (pos > 0) {
+            return node.keys[pos - 1];
+        }
+        if (leftNeighbour == null) {
+            return null;
+        }
+        node = leftNeighbour;
+        while (node instanceof Inner) {
+            node = ((Inner<K>) node).children[node.count];
+        }
+        return node.keys[node.count - 1];
+    }
+
+    /**
+     * Returns the smallest key in this map greater than or equal to the given key,
+     * or null if there is no such key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to compare with
+     * @return the smallest key greater than or equal to key, or null if there is none
+     */
+    public K ceiling(K key) {
+        Leaf<K, V> leaf = findLeaf(key);
+        int pos = search(leaf, key);
+        pos = pos >= 0 ? pos : -pos - 1;
+        if (pos == leaf.count) {
+            leaf = leaf.next;
+            pos = 0;
+        }
+        return leaf != null ? leaf.keys[pos] : null;
+    }
+
+    /**
+     * Returns the keys in the range [lo, hi] in ascending order.
+     * The keys are produced lazily while iterating, by walking the leaves from the leaf of lo.
+     * Time complexity: &Theta;(<em>log n</em>) to start an iteration, plus amortized constant time per key.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return an iterable over the keys between lo and hi
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        return () -> {
+            Leaf<K, V> leaf = findLeaf(lo);
+            int pos = search(leaf, lo);
+            return new BTreeMapIterator(leaf, pos >= 0 ? pos : -pos - 1, hi);
+        };
+    }
+
+    /**
+     * Returns a live Set view of the keys contained in this map, sorted in ascending order.
+     * The view is backed by the map, removing a key from the view removes its mapping from the map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                try {
+                    return o != null && containsKey((K) o);
+                } catch (ClassCastException e) {
+                    return false;
+                }
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o)) {
+                    return false;
+                }
+                BTreeMap.this.remove((K) o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                BTreeMap.this.clear();
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+                return BTreeMap.this.iterator();
+            }
+        };
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        removed = false;
+        delete(root, key);
+        if (!removed) {
+            return null;
+        }
+        size -= 1;
+        if (root instanceof Inner && root.count == 0) {
+            root = ((Inner<K>) root).children[0];
+            height -= 1;
+        }
+        V value = removedValue;
+        removedValue = null;
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        Leaf<K, V> leaf = findLeaf(key);
+        int pos = search(leaf, key);
+        if (pos < 0 || !Objects.equals(leaf.values[pos], value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    private void delete(Node<K> node, K key) {
+        if (node instanceof Leaf) {
+            Leaf<K, V> leaf = (Leaf<K, V>) node;
+            int pos = search(leaf, key);
+            if (pos < 0) {
+                return;
+            }
+            removed = true;
+            removedValue = leaf.values[pos];
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos, leaf.count - pos - 1);
+            System.arraycopy(leaf.values, pos + 1, leaf.values, pos, leaf.count - pos - 1);
+            leaf.count -= 1;
+            leaf.keys[leaf.count] = null;
+            leaf.values[leaf.count] = null;
+            return;
+        }
+        Inner<K> inner = (Inner<K>) node;
+        int child = childIndex(inner, key);
+        delete(inner.children[child], key);
+        // the separators may now be keys that are gone, they still split the key ranges correctly
+        if (removed && inner.children[child].count < minKeys) {
+            rebalance(inner, child);
+        }
+    }
+
+    /* fixes the underflowed child of the parent by borrowing from a sibling, or merging with one */
+    private void rebalance(Inner<K> parent, int index) {
+        Node<K> child = parent.children[index];
+        Node<K> left = index > 0 ? parent.children[index - 1] : null;
+        Node<K> right = index < parent.count ? parent.children[index + 1] : null;
+        if (left != null && left.count > minKeys) {
+            borrowFromLeft(parent, index, left, child);
+        }
+        else if (right != null && right.count > minKeys) {
+            borrowFromRight(parent, index, child, right);
+        }
+        else if (left != null) {
+            merge(parent, index - 1, left, child);
+        }
+        else {
+            merge(parent, index, child, right);
+        }
+    }
+
+    private void borrowFromLeft(Inner<K> parent, int index, Node<K> left, Node<K> child) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.count);
+        if (child instanceof Leaf) {
+            Leaf<K, V> childLeaf = (Leaf<K, V>) child;
+            Leaf<K, V> leftLeaf = (Leaf<K, V>) left;
+            System.arraycopy(childLeaf.values, 0, childLeaf.values, 1, child.count);
+            child.keys[0] = left.keys[left.count - 1];
+            childLeaf.values[0] = leftLeaf.values[left.count - 1];
+            leftLeaf.values[left.count - 1] = null;
+            parent.keys[index - 1] = child.keys[0];
+        }
+        else {
+            // the separator moves down, the last key of the left sibling moves up
+            Inner<K> childInner = (Inner<K>) child;
+            Inner<K> leftInner = (Inner<K>) left;
+            System.arraycopy(childInner.children, 0, childInner.children, 1, child.count + 1);
+            child.keys[0] = parent.keys[index - 1];
+            childInner.children[0] = leftInner.children[left.count];
+            leftInner.children[left.count] = null;
+            parent.keys[index - 1] = left.keys[left.count - 1];
+        }
+        left.keys[left.count - 1] = null;
+        left.count -= 1;
+        child.count += 1;
+    }
+
+    private void borrowFromRight(Inner<K> parent, int index, Node<K> child, Node<K> right) {
+        if (child instanceof Leaf) {
+            Leaf<K, V> childLeaf = (Leaf<K, V>) child;
+            Leaf<K, V> rightLeaf = (Leaf<K, V>) right;
+            child.keys[child.count] = right.keys[0];
+            childLeaf.values[child.count] = rightLeaf.values[0];
+            System.arraycopy(rightLeaf.values, 1, rightLeaf.values, 0, right.count - 1);
+            rightLeaf.values[right.count - 1] = null;
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            parent.keys[index] = right.keys[0];
+        }
+        else {
+            Inner<K> childInner = (Inner<K>) child;
+            Inner<K> rightInner = (Inner<K>) right;
+            child.keys[child.count] = parent.keys[index];
+            childInner.children[child.count + 1] = rightInner.children[0];
+            parent.keys[index] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            System.arraycopy(rightInner.children, 1, rightInner.children, 0, right.count);
+            rightInner.children[right.count] = null;
+        }
+        right.keys[right.count - 1] = null;
+        right.count -= 1;
+        child.count += 1;
+    }
+
+    /* merges the right node into the left one, they are the children index and index + 1 of the parent */
+    private void merge(Inner<K> parent, int index, Node<K> left, Node<K> right) {
+        if (left instanceof Leaf) {
+            Leaf<K, V> leftLeaf = (Leaf<K, V>) left;
+            Leaf<K, V> rightLeaf = (Leaf<K, V>) right;
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            System.arraycopy(rightLeaf.values, 0, leftLeaf.values, left.count, right.count);
+            left.count += right.count;
+            leftLeaf.next = rightLeaf.next;
+        }
+        else {
+            left.keys[left.count] = parent.keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+            System.arraycopy(((Inner<K>) right).children, 0, ((Inner<K>) left).children,
+                    left.count + 1, right.count + 1);
+            left.count += 1 + right.count;
+        }
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.count - index - 1);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.count - index - 1);
+        parent.keys[parent.count - 1] = null;
+        parent.children[parent.count] = null;
+        parent.count -= 1;
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in ascending order,
+     * it walks the linked leaves and never goes back up the tree.
+     * hasNext() takes constant time, next() takes amortized constant time.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        Node<K> node = root;
+        while (node instanceof Inner) {
+            node = ((Inner<K>) node).children[0];
+        }
+        return new BTreeMapIterator((Leaf<K, V>) node, 0, null);
+    }
+
+    private class BTreeMapIterator implements Iterator<K> {
+
+        private Leaf<K, V> leaf;
+        private int index;
+        /** the upper bound of the iteration (inclusive), null for no bound */
+        private final K hi;
+
+        BTreeMapIterator(Leaf<K, V> leaf, int index, K hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            skipExhaustedLeaves();
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index == leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf != null && hi != null && leaf.keys[index].compareTo(hi) > 0) {
+                leaf = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public K next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            K key = leaf.keys[index++];
+            skipExhaustedLeaves();
+            return key;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package map.btreemap.testing;
+
+import map.bstmap.implementation.BSTMap;
+import map.btreemap.implementation.BTreeMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class BTreeMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        BTreeMap<String, Integer> b = new BTreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        BTreeMap<String, Integer> b = new BTreeMap<>();
+        b.put("hey", 5);
+        b.put("hey", 7);
+        Assertions.assertEquals(7, b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+        b.put("hi", null);
+        Assertions.assertTrue(b.containsKey("hi"));
+        Assertions.assertFalse(b.containsKey(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, 1));
+    }
+
+    @Test
+    public void heightTest() {
+        BTreeMap<Integer, Integer> b = new BTreeMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            b.put(i, i);
+        }
+        // nodes filled in order are half full, 32 keys, and 32^4 is about a million
+        Assertions.assertTrue(b.height() <= 5);
+    }
+
+    @Test
+    public void sameOrderAsBSTMapTest() {
+        BTreeMap<Integer, Integer> b = new BTreeMap<>();
+        BSTMap<Integer, Integer> bst = new BSTMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt(50000);
+            b.put(key, i);
+            bst.put(key, i);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (Integer key : bst) {
+            expected.add(key);
+        }
+        List<Integer> actual = new ArrayList<>();
+        for (Integer key : b) {
+            actual.add(key);
+        }
+        Assertions.assertEquals(expected, actual);
+        actual.clear();
+        for (Integer key : b.keys(1000, 2000)) {
+            actual.add(key);
+        }
+        expected.clear();
+        for (Integer key : bst.keys(1000, 2000)) {
+            expected.add(key);
+        }
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void floorCeilingTest() {
+        // small nodes and many removals, so the separators get stale
+        BTreeMap<Integer, Integer> b = new BTreeMap<>(4);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(10000);
+            b.put(key, i);
+            expected.put(key, i);
+        }
+        for (int i = 0; i < 3000; i++) {
+            int key = random.nextInt(10000);
+            Assertions.assertEquals(expected.remove(key), b.remove(key));
+        }
+        for (int key = -5; key < 10005; key++) {
+            Assertions.assertEquals(expected.floorKey(key), b.floor(key));
+            Assertions.assertEquals(expected.ceilingKey(key), b.ceiling(key));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        BTreeMap<Integer, Integer> b = new BTreeMap<>(4);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+        for (Integer key : new ArrayList<>(expected.keySet())) {
+            Assertions.assertEquals(expected.remove(key), b.remove(key));
+        }
+        Assertions.assertEquals(0, b.size());
+        Assertions.assertEquals(1, b.height());
+        Assertions.assertFalse(b.iterator().hasNext());
+    }
+
+    @Test
+    public void liveKeySetTest() {
+        BTreeMap<String, Integer> b = new BTreeMap<>();
+        Set<String> keys = b.keySet();
+        b.put("a", 1);
+        b.put("b", 2);
+        Assertions.assertEquals(2, keys.size());
+        Assertions.assertTrue(keys.remove("a"));
+        Assertions.assertFalse(b.containsKey("a"));
+        Assertions.assertFalse(keys.contains(1));
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        BTreeMap<String, String> q = new BTreeMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+}
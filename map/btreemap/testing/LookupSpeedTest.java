@@ -0,0 +1,90 @@
+package map.btreemap.testing;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import map.Map;
+import map.bstmap.implementation.BSTMap;
+import map.btreemap.implementation.BTreeMap;
+
+/**
+ * Compares the lookup latency and the memory footprint of BTreeMap with BSTMap and Java's TreeMap.
+ * The same boxed random keys are put in every map, so the footprint counts only what the map
+ * itself allocates (its nodes and arrays), measured as the growth of the used heap after a GC.
+ * The lookups get existing keys in a random order, which misses the cache on most levels
+ * of a binary tree once the map outgrows the cache.
+ *
+ * @author aziz
+ */
+public class LookupSpeedTest {
+
+    private static final int N = 1_000_000;
+    private static final int LOOKUPS = 5_000_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Integer[] keys = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            keys[i] = random.nextInt();
+        }
+        int[] order = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            order[i] = random.nextInt(N);
+        }
+        System.out.println("Looking up " + LOOKUPS + " random keys out of " + N + ".");
+        Supplier<Map<Integer, Integer>> bst = BSTMap::new;
+        Supplier<Map<Integer, Integer>> btree = BTreeMap::new;
+        measure("BSTMap", bst, keys, order);
+        measure("BTreeMap", btree, keys, order);
+        measureTreeMap(keys, order);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void measure(String name, Supplier<Map<Integer, Integer>> factory,
+                                Integer[] keys, int[] order) {
+        long before = usedHeap();
+        Map<Integer, Integer> map = factory.get();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        long bytes = usedHeap() - before;
+        report(name, bytes, map.size(), i -> map.get(keys[i]), order);
+    }
+
+    private static void measureTreeMap(Integer[] keys, int[] order) {
+        long before = usedHeap();
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        long bytes = usedHeap() - before;
+        report("Java's Built-in TreeMap", bytes, map.size(), i -> map.get(keys[i]), order);
+    }
+
+    private static void report(String name, long bytes, int size, IntFunction<Integer> get, int[] order) {
+        // a first pass to warm up, then the measured one
+        long checksum = lookup(get, order);
+        long begin = System.nanoTime();
+        checksum += lookup(get, order);
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("%s: %.1f ns/get, %.1f bytes/entry (checksum %d)\n",
+                name, (double) elapsed / order.length, (double) bytes / size, checksum);
+    }
+
+    private static long lookup(IntFunction<Integer> get, int[] order) {
+        long sum = 0;
+        for (int i : order) {
+            sum += get.apply(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,267 @@
+package map.cachemap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+
+/**
+ * A size-bounded cache that implements the map interface, once the cache holds its maximum
+ * number of entries, adding a new entry evicts one entry chosen by a pluggable {@link EvictionPolicy}:
+ * {@link LRUPolicy}, {@link SegmentedLRUPolicy} or {@link WTinyLFUPolicy}.
+ * The entries are indexed by a hash map, and every policy keeps them in intrusive linked queues,
+ * so the <em>get</em>, <em>put</em> and <em>remove</em> operations each take expected constant
+ * time &Theta;(<em>1</em>).
+ * The cache counts its hits, misses and evictions, so its hit rate can be weighed
+ * against its footprint. Only <em>get</em> counts as a hit or a miss, <em>containsKey</em>
+ * neither updates the counters nor the policy.
+ * This implementation does not permit null keys, but allows for null values.
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ *
+ * @author aziz
+ */
+public class BoundedCacheMap<K, V> implements Map<K, V> {
+
+    private final HashMap<K, CacheEntry<K, V>> index;
+    private final EvictionPolicy<K, V> policy;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Initializes an empty cache whose evictions are decided by the given policy.
+     * @param policy the eviction policy, which also sets the maximum size of the cache
+     */
+    public BoundedCacheMap(EvictionPolicy<K, V> policy) {
+        this.policy = policy;
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * Returns an empty cache with a Least-Recently-Used eviction policy.
+     * @param maximumSize the maximum number of entries
+     * @param <K> the type of keys maintained by the cache
+     * @param <V> the type of cached values
+     * @return an empty LRU cache
+     */
+    public static <K, V> BoundedCacheMap<K, V> lru(int maximumSize) {
+        return new BoundedCacheMap<>(new LRUPolicy<>(maximumSize));
+    }
+
+    /**
+     * Returns an empty cache with a Segmented LRU eviction policy.
+     * @param maximumSize the maximum number of entries
+     * @param <K> the type of keys maintained by the cache
+     * @param <V> the type of cached values
+     * @return an empty segmented LRU cache
+     */
+    public static <K, V> BoundedCacheMap<K, V> segmentedLru(int maximumSize) {
+        return new BoundedCacheMap<>(new SegmentedLRUPolicy<>(maximumSize));
+    }
+
+    /**
+     * Returns an empty cache with a Window TinyLFU eviction policy.
+     * @param maximumSize the maximum number of entries
+     * @param <K> the type of keys maintained by the cache
+     * @param <V> the type of cached values
+     * @return an empty W-TinyLFU cache
+     */
+    public static <K, V> BoundedCacheMap<K, V> windowTinyLfu(int maximumSize) {
+        return new BoundedCacheMap<>(new WTinyLFUPolicy<>(maximumSize));
+    }
+
+    /**
+     * Removes all the mappings from the cache, the counters are kept.
+     * Time complexity: &Theta;(<em>n</em>).
+     */
+    @Override
+    public void clear() {
+        index.clear();
+        policy.clear();
+    }
+
+    /**
+     * Returns true if this cache contains a mapping for the specified key,
+     * without counting it as an access.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this cache contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && index.containsKey(key);
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * cache contains no mapping for the key, the lookup is counted as a hit or a miss.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        CacheEntry<K, V> entry = index.get(key);
+        if (entry == null) {
+            missCount += 1;
+            policy.onMiss(key);
+            return null;
+        }
+        hitCount += 1;
+        policy.onHit(entry);
+        return entry.value;
+    }
+
+    /**
+     * Returns the number of entries in this cache, which never exceeds the maximum size.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this cache.
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the maximum number of entries this cache may hold.
+     * @return the maximum size of the cache
+     */
+    public int maximumSize() {
+        return policy.maximumSize();
+    }
+
+    /**
+     * Associates the specified value with the specified key in this cache, if the key is
+     * new and the cache is full, an entry is evicted (possibly the new one, if the policy
+     * refuses to admit it).
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        CacheEntry<K, V> entry = index.get(key);
+        if (entry != null) {
+            entry.value = value;
+            policy.onHit(entry);
+            return;
+        }
+        entry = new CacheEntry<>(key, value);
+        index.put(key, entry);
+        CacheEntry<K, V> evicted = policy.onInsert(entry);
+        if (evicted != null) {
+            index.remove(evicted.key);
+            evictionCount += 1;
+        }
+    }
+
+    /**
+     * Returns a copy of the set of keys contained in this cache.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return a set of the keys contained in this cache
+     */
+    @Override
+    public Set<K> keySet() {
+        return new HashSet<>(index.keySet());
+    }
+
+    /**
+     * Removes the mapping for the specified key from this cache, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        CacheEntry<K, V> entry = index.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        policy.onRemove(entry);
+        return entry.value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        CacheEntry<K, V> entry = index.get(key);
+        if (entry == null || !Objects.equals(entry.value, value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /**
+     * Returns the number of lookups that found their key.
+     * @return the hit count
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find their key.
+     * @return the miss count
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to respect the maximum size.
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the ratio of lookups that found their key, or 1 if there was no lookup yet.
+     * @return the hit rate, between 0 and 1
+     */
+    public double hitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters to zero.
+     */
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * Returns an iterator over the keys of the cache, in no particular order,
+     * iterating does not count as an access.
+     * @return an iterator over the keys of the cache.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return Collections.unmodifiableSet(index.keySet()).iterator();
+    }
+
+}
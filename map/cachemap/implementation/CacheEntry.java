@@ -0,0 +1,40 @@
+package map.cachemap.implementation;
+
+/**
+ * A key-value pair stored in a {@link BoundedCacheMap}, the entry also carries the
+ * links an {@link EvictionPolicy} needs to keep it in its queues, so moving an entry
+ * between or inside queues takes constant time and allocates nothing.
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ *
+ * @author aziz
+ */
+public final class CacheEntry<K, V> {
+    final K key;
+    V value;
+    CacheEntry<K, V> prev;
+    CacheEntry<K, V> next;
+    /** the queue the entry currently belongs to, its meaning is up to the policy */
+    int queue;
+
+    CacheEntry(K key, V value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * Returns the key of this entry.
+     * @return the key
+     */
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the value of this entry.
+     * @return the value
+     */
+    public V getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,69 @@
+package map.cachemap.implementation;
+
+/**
+ * An intrusive doubly linked list of cache entries, ordered from the most recently
+ * used (the head) to the least recently used (the tail).
+ * The links live in the entries themselves, so every operation takes constant time.
+ *
+ * @author aziz
+ */
+class EntryDeque<K, V> {
+
+    /** a circular sentinel, sentinel.next is the head and sentinel.prev is the tail */
+    private final CacheEntry<K, V> sentinel;
+    private int size;
+
+    EntryDeque() {
+        sentinel = new CacheEntry<>(null, null);
+        clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void addFirst(CacheEntry<K, V> entry) {
+        entry.prev = sentinel;
+        entry.next = sentinel.next;
+        sentinel.next.prev = entry;
+        sentinel.next = entry;
+        size += 1;
+    }
+
+    void remove(CacheEntry<K, V> entry) {
+        entry.prev.next = entry.next;
+        entry.next.prev = entry.prev;
+        entry.prev = null;
+        entry.next = null;
+        size -= 1;
+    }
+
+    void moveToFirst(CacheEntry<K, V> entry) {
+        remove(entry);
+        addFirst(entry);
+    }
+
+    /** returns the least recently used entry, or null if the deque is empty */
+    CacheEntry<K, V> peekLast() {
+        return size == 0 ? null : sentinel.prev;
+    }
+
+    /** removes and returns the least recently used entry, or null if the deque is empty */
+    CacheEntry<K, V> pollLast() {
+        CacheEntry<K, V> last = peekLast();
+        if (last != null) {
+            remove(last);
+        }
+        return last;
+    }
+
+    void clear() {
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        size = 0;
+    }
+}
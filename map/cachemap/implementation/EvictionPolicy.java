@@ -0,0 +1,51 @@
+package map.cachemap.implementation;
+
+/**
+ * Decides which entry a {@link BoundedCacheMap} evicts once it is full.
+ * The cache notifies the policy of every hit, insertion and removal,
+ * and each notification must be handled in constant time.
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of cached values
+ *
+ * @author aziz
+ */
+public interface EvictionPolicy<K, V> {
+
+    /**
+     * Returns the maximum number of entries the cache may hold.
+     * @return the maximum size of the cache
+     */
+    int maximumSize();
+
+    /**
+     * Records a read or an update of an entry already in the cache.
+     * @param entry the accessed entry
+     */
+    void onHit(CacheEntry<K, V> entry);
+
+    /**
+     * Records a lookup of a key that is not in the cache, frequency based policies
+     * count it so a key that keeps being requested has a better chance to be admitted.
+     * @param key the missing key
+     */
+    void onMiss(K key);
+
+    /**
+     * Records a new entry added to the cache, and returns the entry that must be
+     * evicted to respect the maximum size (which may be the new entry itself), or null.
+     * @param entry the new entry
+     * @return the entry to evict, or null if the cache is not over its maximum size
+     */
+    CacheEntry<K, V> onInsert(CacheEntry<K, V> entry);
+
+    /**
+     * Records an entry explicitly removed from the cache.
+     * @param entry the removed entry
+     */
+    void onRemove(CacheEntry<K, V> entry);
+
+    /**
+     * Forgets all the entries.
+     */
+    void clear();
+}
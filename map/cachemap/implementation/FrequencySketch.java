@@ -0,0 +1,96 @@
+package map.cachemap.implementation;
+
+/**
+ * A Count-Min sketch that estimates how often each key was seen, using 4-bit counters
+ * (so an estimate saturates at 15), packed sixteen to a long.
+ * Every key maps to one counter in each of four rows (four independent hashes), an increment
+ * bumps all four counters and the estimate is the smallest of them, collisions can only make
+ * an estimate too high, never too low.
+ * To keep the estimates fresh, all the counters are halved once the number of increments
+ * reaches ten times the number of tracked entries (aging), so keys that were popular a
+ * long time ago fade out.
+ *
+ * @author aziz
+ */
+class FrequencySketch<K> {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Initializes a sketch sized for the given number of entries.
+     * @param expectedEntries the number of entries the sketch should tell apart
+     */
+    FrequencySketch(int expectedEntries) {
+        int size = 1;
+        while (size < Math.max(expectedEntries, 1)) {
+            size <<= 1;
+        }
+        table = new long[size];
+        mask = size - 1;
+        sampleSize = 10 * Math.max(expectedEntries, 1);
+    }
+
+    /* the (row)th hash of the key, where the low 4 bits pick the counter inside the long */
+    private long rowHash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Returns the estimated number of times the key was seen, at most 15.
+     */
+    int frequency(K key) {
+        int hash = key.hashCode();
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long h = rowHash(hash, row);
+            int index = (int) (h >>> 4) & mask;
+            int shift = ((int) h & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 15));
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the counters of the key, unless they are saturated,
+     * and ages the sketch once enough increments were made.
+     */
+    void increment(K key) {
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long h = rowHash(hash, row);
+            int index = (int) (h >>> 4) & mask;
+            int shift = ((int) h & 15) << 2;
+            if (((table[index] >>> shift) & 15) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /* halves every counter, a shift of the whole long moves each counter's low bit
+     * into its neighbour's high bit, which the mask clears. */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    void clear() {
+        java.util.Arrays.fill(table, 0L);
+        additions = 0;
+    }
+}
@@ -0,0 +1,58 @@
+package map.cachemap.implementation;
+
+/**
+ * The Least-Recently-Used eviction policy, the entries are kept in a single queue
+ * ordered by recency, and the entry that was used the longest time ago is evicted.
+ * LRU adapts quickly to changes, but a single scan over many keys flushes the whole cache.
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of cached values
+ *
+ * @author aziz
+ */
+public class LRUPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    private final int maximumSize;
+    private final EntryDeque<K, V> queue;
+
+    /**
+     * Initializes an LRU policy.
+     * @param maximumSize the maximum number of entries, must be positive
+     */
+    public LRUPolicy(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("illegal maximum size");
+        }
+        this.maximumSize = maximumSize;
+        this.queue = new EntryDeque<>();
+    }
+
+    @Override
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public void onHit(CacheEntry<K, V> entry) {
+        queue.moveToFirst(entry);
+    }
+
+    @Override
+    public void onMiss(K key) {
+    }
+
+    @Override
+    public CacheEntry<K, V> onInsert(CacheEntry<K, V> entry) {
+        queue.addFirst(entry);
+        return queue.size() > maximumSize ? queue.pollLast() : null;
+    }
+
+    @Override
+    public void onRemove(CacheEntry<K, V> entry) {
+        queue.remove(entry);
+    }
+
+    @Override
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package map.cachemap.implementation;
+
+/**
+ * The Segmented LRU eviction policy, the entries are split into two LRU queues:
+ * a new entry starts in the probation segment, and is promoted to the protected
+ * segment (80% of the cache) on its second access. When the protected segment
+ * overflows, its least recently used entry is demoted back to probation, and
+ * the victims are always taken from the probation segment first.
+ * So an entry used only once can't push out the entries that were used repeatedly,
+ * which makes the policy resistant to scans.
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of cached values
+ *
+ * @author aziz
+ */
+public class SegmentedLRUPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    private static final int PROBATION = 0;
+    private static final int PROTECTED = 1;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final int maximumSize;
+    private final int protectedMaximumSize;
+    private final EntryDeque<K, V> probation;
+    private final EntryDeque<K, V> protectedSegment;
+
+    /**
+     * Initializes a segmented LRU policy.
+     * @param maximumSize the maximum number of entries, must be positive
+     */
+    public SegmentedLRUPolicy(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("illegal maximum size");
+        }
+        this.maximumSize = maximumSize;
+        this.protectedMaximumSize = (int) (maximumSize * PROTECTED_RATIO);
+        this.probation = new EntryDeque<>();
+        this.protectedSegment = new EntryDeque<>();
+    }
+
+    @Override
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public void onHit(CacheEntry<K, V> entry) {
+        if (entry.queue == PROTECTED) {
+            protectedSegment.moveToFirst(entry);
+            return;
+        }
+        probation.remove(entry);
+        entry.queue = PROTECTED;
+        protectedSegment.addFirst(entry);
+        if (protectedSegment.size() > protectedMaximumSize) {
+            CacheEntry<K, V> demoted = protectedSegment.pollLast();
+            demoted.queue = PROBATION;
+            probation.addFirst(demoted);
+        }
+    }
+
+    @Override
+    public void onMiss(K key) {
+    }
+
+    @Override
+    public CacheEntry<K, V> onInsert(CacheEntry<K, V> entry) {
+        entry.queue = PROBATION;
+        probation.addFirst(entry);
+        if (probation.size() + protectedSegment.size() <= maximumSize) {
+            return null;
+        }
+        return probation.isEmpty() ? protectedSegment.pollLast() : probation.pollLast();
+    }
+
+    @Override
+    public void onRemove(CacheEntry<K, V> entry) {
+        if (entry.queue == PROTECTED) {
+            protectedSegment.remove(entry);
+        } else {
+            probation.remove(entry);
+        }
+    }
+
+    @Override
+    public void clear() {
+        probation.clear();
+        protectedSegment.clear();
+    }
+}
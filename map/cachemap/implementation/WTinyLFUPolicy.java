@@ -0,0 +1,126 @@
+package map.cachemap.implementation;
+
+/**
+ * The Window TinyLFU eviction policy, which combines recency and frequency.
+ * A new entry first goes into a small LRU window (1% of the cache), which lets bursts of
+ * new keys settle. The entry pushed out of the window becomes a candidate to enter the main
+ * region, a segmented LRU (see {@link SegmentedLRUPolicy}) holding the rest of the cache:
+ * if the main region is full, the candidate competes with the main region's victim, and the
+ * one with the lower estimated frequency is evicted. The frequencies come from a
+ * {@link FrequencySketch}, which counts hits, misses and insertions in a few bits per entry
+ * and ages its counters periodically, so the policy also remembers keys that are not in the cache.
+ * @param <K> the type of keys maintained by the cache
+ * @param <V> the type of cached values
+ *
+ * @author aziz
+ */
+public class WTinyLFUPolicy<K, V> implements EvictionPolicy<K, V> {
+
+    private static final int PROBATION = 0;
+    private static final int PROTECTED = 1;
+    private static final int WINDOW = 2;
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final int maximumSize;
+    private final int windowMaximumSize;
+    private final int mainMaximumSize;
+    private final int protectedMaximumSize;
+    private final EntryDeque<K, V> window;
+    private final EntryDeque<K, V> probation;
+    private final EntryDeque<K, V> protectedSegment;
+    private final FrequencySketch<K> sketch;
+
+    /**
+     * Initializes a W-TinyLFU policy.
+     * @param maximumSize the maximum number of entries, must be positive
+     */
+    public WTinyLFUPolicy(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("illegal maximum size");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximumSize = Math.max(1, (int) (maximumSize * WINDOW_RATIO));
+        this.mainMaximumSize = maximumSize - windowMaximumSize;
+        this.protectedMaximumSize = (int) (mainMaximumSize * PROTECTED_RATIO);
+        this.window = new EntryDeque<>();
+        this.probation = new EntryDeque<>();
+        this.protectedSegment = new EntryDeque<>();
+        this.sketch = new FrequencySketch<>(maximumSize);
+    }
+
+    @Override
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public void onHit(CacheEntry<K, V> entry) {
+        sketch.increment(entry.key);
+        if (entry.queue == WINDOW) {
+            window.moveToFirst(entry);
+        } else if (entry.queue == PROTECTED) {
+            protectedSegment.moveToFirst(entry);
+        } else {
+            probation.remove(entry);
+            entry.queue = PROTECTED;
+            protectedSegment.addFirst(entry);
+            if (protectedSegment.size() > protectedMaximumSize) {
+                CacheEntry<K, V> demoted = protectedSegment.pollLast();
+                demoted.queue = PROBATION;
+                probation.addFirst(demoted);
+            }
+        }
+    }
+
+    @Override
+    public void onMiss(K key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public CacheEntry<K, V> onInsert(CacheEntry<K, V> entry) {
+        sketch.increment(entry.key);
+        entry.queue = WINDOW;
+        window.addFirst(entry);
+        if (window.size() <= windowMaximumSize) {
+            return null;
+        }
+        CacheEntry<K, V> candidate = window.pollLast();
+        candidate.queue = PROBATION;
+        probation.addFirst(candidate);
+        if (probation.size() + protectedSegment.size() <= mainMaximumSize) {
+            return null;
+        }
+        CacheEntry<K, V> victim = probation.peekLast();
+        if (victim == candidate && !protectedSegment.isEmpty()) {
+            victim = protectedSegment.peekLast();
+        }
+        // the admission filter: the candidate only gets in if it is more popular than the victim
+        CacheEntry<K, V> evicted = victim;
+        if (victim == candidate || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+            evicted = candidate;
+        }
+        onRemove(evicted);
+        return evicted;
+    }
+
+    @Override
+    public void onRemove(CacheEntry<K, V> entry) {
+        if (entry.queue == WINDOW) {
+            window.remove(entry);
+        } else if (entry.queue == PROTECTED) {
+            protectedSegment.remove(entry);
+        } else {
+            probation.remove(entry);
+        }
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        sketch.clear();
+    }
+}
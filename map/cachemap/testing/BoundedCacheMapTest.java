@@ -0,0 +1,92 @@
+package map.cachemap.testing;
+
+import map.cachemap.implementation.BoundedCacheMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+
+public class BoundedCacheMapTest {
+
+    @Test
+    public void lruEvictsLeastRecentlyUsedTest() {
+        BoundedCacheMap<String, Integer> cache = BoundedCacheMap.lru(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.put("d", 4); // evicts b
+        Assertions.assertEquals(3, cache.size());
+        Assertions.assertFalse(cache.containsKey("b"));
+        Assertions.assertTrue(cache.containsKey("a"));
+        Assertions.assertEquals(1, cache.evictionCount());
+        Assertions.assertEquals(1, cache.hitCount());
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals(1, cache.missCount());
+        Assertions.assertEquals(0.5, cache.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void segmentedLruResistsScanTest() {
+        BoundedCacheMap<Integer, Integer> cache = BoundedCacheMap.segmentedLru(10);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, i);
+            cache.get(i); // promoted to the protected segment
+        }
+        for (int i = 100; i < 200; i++) {
+            cache.put(i, i); // a scan of keys used only once
+        }
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(cache.containsKey(i));
+        }
+        Assertions.assertEquals(10, cache.size());
+    }
+
+    @Test
+    public void windowTinyLfuKeepsFrequentKeysTest() {
+        BoundedCacheMap<Integer, Integer> cache = BoundedCacheMap.windowTinyLfu(100);
+        Random random = new Random(42);
+        // a small hot set that is requested over and over, mixed with a long tail of one-off keys
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(4) == 0 ? 1000 + random.nextInt(1000000) : random.nextInt(50);
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+            Assertions.assertTrue(cache.size() <= 100);
+        }
+        int hotKeysCached = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.containsKey(i)) {
+                hotKeysCached += 1;
+            }
+        }
+        Assertions.assertTrue(hotKeysCached >= 45);
+        Assertions.assertTrue(cache.hitRate() > 0.6);
+    }
+
+    @Test
+    public void removeAndClearTest() {
+        for (BoundedCacheMap<String, Integer> cache : java.util.List.of(
+                BoundedCacheMap.<String, Integer>lru(4),
+                BoundedCacheMap.<String, Integer>segmentedLru(4),
+                BoundedCacheMap.<String, Integer>windowTinyLfu(4))) {
+            for (int i = 0; i < 10; i++) {
+                cache.put("k" + i, i);
+                cache.get("k" + i);
+            }
+            Assertions.assertEquals(4, cache.size());
+            Assertions.assertEquals(6, cache.evictionCount());
+            String present = cache.iterator().next();
+            Assertions.assertNull(cache.remove(present, -1));
+            Assertions.assertNotNull(cache.remove(present));
+            Assertions.assertEquals(3, cache.size());
+            cache.put("new", 1);
+            Assertions.assertEquals(4, cache.size());
+            cache.clear();
+            Assertions.assertEquals(0, cache.size());
+            cache.put("again", 1);
+            Assertions.assertEquals(1, cache.get("again"));
+        }
+    }
+}
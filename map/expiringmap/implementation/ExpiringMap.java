@@ -0,0 +1,372 @@
+package map.expiringmap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A map whose entries expire a fixed time after they were written (write TTL),
+ * and/or a fixed time after they were last read (access TTL).
+ * Every entry carries its own deadline, and the entries are scheduled in a hierarchical
+ * {@link TimerWheel} so finding the expired entries never requires scanning the map,
+ * and no background thread is involved:
+ * <ul>
+ *     <li>a lookup only compares the deadline of the entry it found with the clock, and drops
+ *     the entry if it has expired (lazy expiry), it never does any other cleanup work.
+ *     With an access TTL, a lookup just records the access time in the entry, the entry is
+ *     rescheduled later, when the wheel reaches its old deadline.</li>
+ *     <li>a write advances the wheel and then expires (or reschedules) a bounded batch
+ *     of the entries that became due, so the cleanup cost is spread over the writes.</li>
+ * </ul>
+ * Since expired entries may wait for a write to be cleaned up, <em>size</em> may count
+ * entries that already expired, call <em>cleanUp</em> to drop all of them at once.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected constant time &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class ExpiringMap<K, V> implements Map<K, V> {
+
+    /** the maximum number of due entries handled by a single write */
+    private static final int CLEANUP_BATCH = 16;
+
+    static class Entry<K, V> {
+        final K key;
+        V value;
+        long writeTime;
+        long accessTime;
+        /** the links of the timer wheel bucket the entry is in */
+        Entry<K, V> prev;
+        Entry<K, V> next;
+
+        Entry(K key, V value, long now) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    private final HashMap<K, Entry<K, V>> index;
+    private final TimerWheel<K, V> wheel;
+    private final long writeTtl;
+    private final long accessTtl;
+    private final LongSupplier clock;
+    private final long origin;
+
+    /**
+     * Initializes an empty map whose entries expire the given time after they were written.
+     * @param duration the write TTL
+     * @param unit the unit of the duration
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return an empty expiring map
+     */
+    public static <K, V> ExpiringMap<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+        return new ExpiringMap<>(unit.toNanos(duration), 0, System::nanoTime);
+    }
+
+    /**
+     * Initializes an empty map whose entries expire the given time after they were last read or written.
+     * @param duration the access TTL
+     * @param unit the unit of the duration
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return an empty expiring map
+     */
+    public static <K, V> ExpiringMap<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+        return new ExpiringMap<>(0, unit.toNanos(duration), System::nanoTime);
+    }
+
+    /**
+     * Initializes an empty map with a write TTL and an access TTL, an entry expires
+     * as soon as one of the two is exceeded.
+     * @param writeTtlNanos the write TTL in nanoseconds, or 0 for none
+     * @param accessTtlNanos the access TTL in nanoseconds, or 0 for none
+     * @param clock the source of the current time in nanoseconds, such as System::nanoTime
+     */
+    public ExpiringMap(long writeTtlNanos, long accessTtlNanos, LongSupplier clock) {
+        if (writeTtlNanos < 0 || accessTtlNanos < 0 || (writeTtlNanos == 0 && accessTtlNanos == 0)) {
+            throw new IllegalArgumentException("at least one positive TTL is required");
+        }
+        this.writeTtl = writeTtlNanos;
+        this.accessTtl = accessTtlNanos;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.index = new HashMap<>();
+        this.wheel = new TimerWheel<>(0);
+    }
+
+    /* the time elapsed since the map was created, so the wheel only deals with positive times */
+    private long now() {
+        return clock.getAsLong() - origin;
+    }
+
+    private long deadline(Entry<K, V> entry) {
+        long deadline = Long.MAX_VALUE;
+        if (writeTtl > 0) {
+            deadline = saturatedAdd(entry.writeTime, writeTtl);
+        }
+        if (accessTtl > 0) {
+            deadline = Math.min(deadline, saturatedAdd(entry.accessTime, accessTtl));
+        }
+        return deadline;
+    }
+
+    /* the times are never negative, so a sum that overflows becomes negative, and is a deadline never reached */
+    private static long saturatedAdd(long time, long ttl) {
+        long sum = time + ttl;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return deadline(entry) - now <= 0;
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: &Theta;(<em>n</em>).
+     */
+    @Override
+    public void clear() {
+        index.clear();
+        wheel.clear(now());
+    }
+
+    /**
+     * Returns true if this map contains an unexpired mapping for the specified key,
+     * checking a key does not count as an access.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && getEntry(key, now()) != null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no unexpired mapping for the key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        long now = now();
+        Entry<K, V> entry = getEntry(key, now);
+        if (entry == null) {
+            return null;
+        }
+        entry.accessTime = now;
+        return entry.value;
+    }
+
+    /* returns the entry of the key, dropping it if it has expired */
+    private Entry<K, V> getEntry(K key, long now) {
+        Entry<K, V> entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, now)) {
+            index.remove(key);
+            wheel.unlink(entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the number of mappings in this map, which may include expired
+     * mappings that were not cleaned up yet.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map, which
+     * restarts both TTLs of the key, and then cleans up a bounded batch of due entries.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        long now = now();
+        Entry<K, V> entry = index.get(key);
+        if (entry != null) {
+            wheel.unlink(entry);
+            entry.value = value;
+            entry.writeTime = now;
+            entry.accessTime = now;
+        }
+        else {
+            entry = new Entry<>(key, value, now);
+            index.put(key, entry);
+        }
+        wheel.schedule(entry, deadline(entry));
+        expire(now, CLEANUP_BATCH);
+    }
+
+    /* advances the wheel, then expires or reschedules at most limit due entries */
+    private void expire(long now, int limit) {
+        wheel.advance(now);
+        List<Entry<K, V>> stillDue = null;
+        for (int i = 0; i < limit; i++) {
+            Entry<K, V> entry = wheel.pollDue();
+            if (entry == null) {
+                break;
+            }
+            long deadline = deadline(entry);
+            if (deadline - now <= 0) {
+                index.remove(entry.key);
+            }
+            else if (wheel.isDue(deadline)) {
+                // it expires later in the current tick, put it back once the batch is done,
+                // so the loop doesn't pick it up again.
+                if (stillDue == null) {
+                    stillDue = new ArrayList<>();
+                }
+                stillDue.add(entry);
+            }
+            else {
+                wheel.schedule(entry, deadline);
+            }
+        }
+        if (stillDue != null) {
+            for (Entry<K, V> entry : stillDue) {
+                wheel.schedule(entry, deadline(entry));
+            }
+        }
+    }
+
+    /**
+     * Removes every expired mapping from the map.
+     * Time complexity: &Theta;(<em>number of due entries</em>).
+     */
+    public void cleanUp() {
+        expire(now(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a set of the keys of the unexpired mappings of this map.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return a set of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present (or expired).
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        Entry<K, V> entry = getEntry(key, now());
+        if (entry == null) {
+            return null;
+        }
+        index.remove(key);
+        wheel.unlink(entry);
+        return entry.value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        Entry<K, V> entry = getEntry(key, now());
+        if (entry == null || !Objects.equals(entry.value, value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    /**
+     * Returns an iterator over the keys of the unexpired mappings, in no particular order,
+     * iterating does not count as an access.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new ExpiringMapIterator();
+    }
+
+    private class ExpiringMapIterator implements Iterator<K> {
+
+        private final Iterator<Entry<K, V>> entries;
+        private final long now;
+        private Entry<K, V> next;
+
+        ExpiringMapIterator() {
+            entries = index.values().iterator();
+            now = now();
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (entries.hasNext()) {
+                Entry<K, V> entry = entries.next();
+                if (!isExpired(entry, now)) {
+                    next = entry;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            advance();
+            return key;
+        }
+    }
+
+}
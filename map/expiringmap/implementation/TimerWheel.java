@@ -0,0 +1,160 @@
+package map.expiringmap.implementation;
+
+/**
+ * A hierarchical timing wheel that schedules the entries of an {@link ExpiringMap}
+ * by their deadline, so the map never has to scan all its entries to find the expired ones.
+ * The wheel has four levels of 64 buckets, where a bucket of level 0 spans 2^24ns (~17ms),
+ * a bucket of level 1 spans a whole turn of level 0 (~1s), and so on up to level 3 (~73min),
+ * and a single overflow bucket holds the deadlines beyond the last level (~3.3 days).
+ * An entry is placed in the finest level whose turn still reaches its deadline.
+ * Advancing the wheel splices every bucket whose time has come into a <em>due</em> list, which
+ * takes constant time per bucket, however many entries it holds. The entries of the due list are
+ * then drained in batches: an entry past its deadline expires, while any other entry (a coarse bucket
+ * being cascaded, or an entry whose deadline was extended by an access) is scheduled again.
+ * Every scheduling, unlinking and splicing operation takes constant time.
+ *
+ * @author aziz
+ */
+class TimerWheel<K, V> {
+
+    private static final int[] SHIFTS = {24, 30, 36, 42};
+    private static final int BUCKETS = 64;
+
+    /** buckets[level][index] is the sentinel of a circular list of entries */
+    private final ExpiringMap.Entry<K, V>[][] buckets;
+    private final ExpiringMap.Entry<K, V> overflow;
+    private final ExpiringMap.Entry<K, V> due;
+    private long time;
+
+    TimerWheel(long now) {
+        buckets = (ExpiringMap.Entry<K, V>[][]) new ExpiringMap.Entry[SHIFTS.length][BUCKETS];
+        for (ExpiringMap.Entry<K, V>[] level : buckets) {
+            for (int i = 0; i < BUCKETS; i++) {
+                level[i] = sentinel();
+            }
+        }
+        overflow = sentinel();
+        due = sentinel();
+        time = now;
+    }
+
+    private static <K, V> ExpiringMap.Entry<K, V> sentinel() {
+        ExpiringMap.Entry<K, V> sentinel = new ExpiringMap.Entry<>(null, null, 0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    /**
+     * Places the entry in the bucket matching its deadline, or in the due list if the
+     * deadline falls in the current tick of the finest level.
+     */
+    void schedule(ExpiringMap.Entry<K, V> entry, long deadline) {
+        ExpiringMap.Entry<K, V> bucket = overflow;
+        if (isDue(deadline)) {
+            bucket = due;
+        }
+        else {
+            for (int level = 0; level < SHIFTS.length; level++) {
+                long ticks = (deadline >>> SHIFTS[level]) - (time >>> SHIFTS[level]);
+                if (ticks < BUCKETS) {
+                    bucket = buckets[level][(int) (deadline >>> SHIFTS[level]) & (BUCKETS - 1)];
+                    break;
+                }
+            }
+        }
+        link(bucket, entry);
+    }
+
+    /**
+     * Returns true if the deadline falls in the current (or a past) tick of the finest level.
+     */
+    boolean isDue(long deadline) {
+        return (deadline >>> SHIFTS[0]) - (time >>> SHIFTS[0]) <= 0;
+    }
+
+    private void link(ExpiringMap.Entry<K, V> sentinel, ExpiringMap.Entry<K, V> entry) {
+        entry.prev = sentinel.prev;
+        entry.next = sentinel;
+        sentinel.prev.next = entry;
+        sentinel.prev = entry;
+    }
+
+    /**
+     * Removes the entry from whatever bucket (or the due list) it is in.
+     */
+    void unlink(ExpiringMap.Entry<K, V> entry) {
+        if (entry.next != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    /**
+     * Moves the wheel forward to the given time, splicing every bucket that became due
+     * into the due list. At most all the buckets are spliced, whatever the number of entries.
+     */
+    void advance(long now) {
+        long previous = time;
+        if (now - previous <= 0) {
+            return;
+        }
+        time = now;
+        for (int level = 0; level < SHIFTS.length; level++) {
+            long previousTicks = previous >>> SHIFTS[level];
+            long currentTicks = now >>> SHIFTS[level];
+            if (currentTicks - previousTicks <= 0) {
+                // the coarser levels can't have ticked either
+                return;
+            }
+            long ticks = Math.min(currentTicks - previousTicks, BUCKETS);
+            for (long tick = currentTicks - ticks + 1; tick <= currentTicks; tick++) {
+                splice(buckets[level][(int) tick & (BUCKETS - 1)]);
+            }
+        }
+        splice(overflow);
+    }
+
+    /* moves the whole list of the bucket to the end of the due list */
+    private void splice(ExpiringMap.Entry<K, V> sentinel) {
+        if (sentinel.next == sentinel) {
+            return;
+        }
+        ExpiringMap.Entry<K, V> first = sentinel.next;
+        ExpiringMap.Entry<K, V> last = sentinel.prev;
+        first.prev = due.prev;
+        due.prev.next = first;
+        last.next = due;
+        due.prev = last;
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+    }
+
+    /**
+     * Removes and returns the first entry of the due list, or null if it is empty.
+     */
+    ExpiringMap.Entry<K, V> pollDue() {
+        if (due.next == due) {
+            return null;
+        }
+        ExpiringMap.Entry<K, V> entry = due.next;
+        unlink(entry);
+        return entry;
+    }
+
+    void clear(long now) {
+        for (ExpiringMap.Entry<K, V>[] level : buckets) {
+            for (ExpiringMap.Entry<K, V> sentinel : level) {
+                sentinel.next = sentinel;
+                sentinel.prev = sentinel;
+            }
+        }
+        overflow.next = overflow;
+        overflow.prev = overflow;
+        due.next = due;
+        due.prev = due;
+        time = now;
+    }
+}
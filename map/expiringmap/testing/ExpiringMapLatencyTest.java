@@ -0,0 +1,64 @@
+package map.expiringmap.testing;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import map.expiringmap.implementation.ExpiringMap;
+
+/**
+ * Measures the latency of get (and put) on an ExpiringMap while a large number of its
+ * entries expire: the map is filled with entries that all expire at the same time,
+ * then a workload of 10 gets per put over a set of live keys runs while the writes
+ * clean up the expired entries in batches.
+ *
+ * @author aziz
+ */
+public class ExpiringMapLatencyTest {
+
+    private static final int EXPIRING_ENTRIES = 2_000_000;
+    private static final int LIVE_KEYS = 10_000;
+    private static final int PUTS = 300_000;
+    private static final int GETS_PER_PUT = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        ExpiringMap<Integer, Integer> map = ExpiringMap.expireAfterWrite(2, TimeUnit.SECONDS);
+        for (int i = 0; i < EXPIRING_ENTRIES; i++) {
+            map.put(-i - 1, i);
+        }
+        Thread.sleep(2100);
+        for (int i = 0; i < LIVE_KEYS; i++) {
+            map.put(i, i);
+        }
+        System.out.println(EXPIRING_ENTRIES + " entries expired, size before the workload: " + map.size());
+
+        Random random = new Random(42);
+        long[] getLatencies = new long[PUTS * GETS_PER_PUT];
+        long[] putLatencies = new long[PUTS];
+        int g = 0;
+        for (int i = 0; i < PUTS; i++) {
+            for (int j = 0; j < GETS_PER_PUT; j++) {
+                int key = random.nextInt(LIVE_KEYS);
+                long begin = System.nanoTime();
+                map.get(key);
+                getLatencies[g++] = System.nanoTime() - begin;
+            }
+            int key = random.nextInt(LIVE_KEYS);
+            long begin = System.nanoTime();
+            map.put(key, i);
+            putLatencies[i] = System.nanoTime() - begin;
+        }
+        System.out.println("size after the workload: " + map.size());
+        report("get", getLatencies);
+        report("put", putLatencies);
+    }
+
+    private static void report(String name, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%s latency (ns): p50 %d, p99 %d, p99.9 %d, max %d\n", name,
+                latencies[latencies.length / 2],
+                latencies[(int) (latencies.length * 0.99)],
+                latencies[(int) (latencies.length * 0.999)],
+                latencies[latencies.length - 1]);
+    }
+}
@@ -0,0 +1,141 @@
+package map.expiringmap.testing;
+
+import map.expiringmap.implementation.ExpiringMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+public class ExpiringMapTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** a clock that only moves when the test says so */
+    private static class FakeClock {
+        long now = 1000;
+
+        long read() {
+            return now;
+        }
+    }
+
+    @Test
+    public void expireAfterWriteTest() {
+        FakeClock clock = new FakeClock();
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(10 * SECOND, 0, clock::read);
+        map.put("a", 1);
+        clock.now += 5 * SECOND;
+        map.put("b", 2);
+        Assertions.assertEquals(1, map.get("a"));
+        clock.now += 6 * SECOND;
+        Assertions.assertNull(map.get("a"));
+        Assertions.assertFalse(map.containsKey("a"));
+        Assertions.assertEquals(2, map.get("b"));
+        map.put("b", 3); // rewriting restarts the TTL
+        clock.now += 9 * SECOND;
+        Assertions.assertEquals(3, map.get("b"));
+    }
+
+    @Test
+    public void expireAfterAccessTest() {
+        FakeClock clock = new FakeClock();
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(0, 10 * SECOND, clock::read);
+        map.put("read", 1);
+        map.put("unread", 2);
+        for (int i = 0; i < 5; i++) {
+            clock.now += 4 * SECOND;
+            Assertions.assertEquals(1, map.get("read"));
+        }
+        Assertions.assertFalse(map.containsKey("unread"));
+        map.cleanUp();
+        Assertions.assertEquals(1, map.size());
+        clock.now += 11 * SECOND;
+        Assertions.assertNull(map.get("read"));
+    }
+
+    @Test
+    public void hugeTtlKeepsShortTtlTest() {
+        FakeClock clock = new FakeClock();
+        // the write deadline of an entry written after the map was created overflows,
+        // so it must not hide the access deadline
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(Long.MAX_VALUE, SECOND, clock::read);
+        clock.now += SECOND;
+        map.put("a", 1);
+        clock.now += SECOND / 2;
+        Assertions.assertEquals(1, map.get("a"));
+        clock.now += SECOND;
+        Assertions.assertNull(map.get("a"));
+        ExpiringMap<String, Integer> other = new ExpiringMap<>(SECOND, Long.MAX_VALUE, clock::read);
+        clock.now += SECOND;
+        other.put("b", 2);
+        clock.now += 2 * SECOND;
+        Assertions.assertFalse(other.containsKey("b"));
+        other.cleanUp();
+        Assertions.assertEquals(0, other.size());
+    }
+
+    @Test
+    public void writesCleanUpExpiredEntriesTest() {
+        FakeClock clock = new FakeClock();
+        ExpiringMap<Integer, Integer> map = new ExpiringMap<>(SECOND, 0, clock::read);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertEquals(1000, map.size());
+        clock.now += 2 * SECOND;
+        // every write cleans up a bounded batch, so enough writes get rid of everything
+        for (int i = 1000; i < 1200; i++) {
+            map.put(i, i);
+        }
+        Assertions.assertEquals(200, map.size());
+        Set<Integer> keys = new HashSet<>();
+        for (Integer key : map) {
+            keys.add(key);
+        }
+        Assertions.assertEquals(200, keys.size());
+    }
+
+    @Test
+    public void longTtlCascadesThroughLevelsTest() {
+        FakeClock clock = new FakeClock();
+        ExpiringMap<Integer, Integer> map = new ExpiringMap<>(TimeUnit.HOURS.toNanos(2), 0, clock::read);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+            clock.now += TimeUnit.MINUTES.toNanos(1);
+        }
+        for (int step = 0; step < 200; step++) {
+            clock.now += TimeUnit.MINUTES.toNanos(1);
+            map.put(-1, step);
+            map.cleanUp();
+            long elapsed = clock.now - 1000;
+            int aliveCount = 0;
+            for (int i = 0; i < 100; i++) {
+                boolean alive = elapsed - TimeUnit.MINUTES.toNanos(i) < TimeUnit.HOURS.toNanos(2);
+                Assertions.assertEquals(alive, map.containsKey(i));
+                aliveCount += alive ? 1 : 0;
+            }
+            Assertions.assertEquals(aliveCount + 1, map.size());
+        }
+        map.cleanUp();
+        Assertions.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void removeAndClearTest() {
+        FakeClock clock = new FakeClock();
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(SECOND, 0, clock::read);
+        map.put("a", 1);
+        map.put("b", 2);
+        Assertions.assertNull(map.remove("a", 2));
+        Assertions.assertEquals(1, map.remove("a"));
+        Assertions.assertEquals(1, map.size());
+        map.clear();
+        Assertions.assertEquals(0, map.size());
+        map.put("c", 3);
+        clock.now += 2 * SECOND;
+        Assertions.assertNull(map.remove("c"));
+    }
+}
@@ -0,0 +1,350 @@
+package map.frozenmap.implementation;
+
+
+import map.Map;
+import map.bstmap.implementation.BSTMap;
+
+import java.util.*;
+
+/**
+ * An immutable sorted map built once from sorted keys, and laid out in Eytzinger order
+ * for fast lookups, the map is sorted according the natural ordering of its keys;
+ * so the key type must implement the Comparable interface.
+ * The keys are held in a single array in the breadth-first order of a perfectly balanced binary
+ * search tree (the Eytzinger layout): the root is at index 1 and the children of index k are at
+ * 2k and 2k + 1. There are no node objects and no pointers, so a lookup only computes the next
+ * index, and the first levels of the implicit tree (which every lookup visits) share a few cache lines.
+ * The search loop has no early exit: it runs exactly &lfloor;log2(n)&rfloor; + 1 iterations and then
+ * recovers the lower bound from the bits of the final index. While the map is small enough for its keys
+ * to stay in the cache, the loop picks the next index with arithmetic on the result of the comparison,
+ * so there is no branch to mispredict. Java has no software prefetch, and a key is a reference to an
+ * object elsewhere in the heap, so for large maps that arithmetic would make every level wait for the
+ * cache miss of the one before it; there the loop branches instead, and the CPU's speculation down the
+ * predicted child loads the next key while the comparison is still pending, which plays the part of
+ * the prefetch.
+ * The map is read-only: it implements the read side of Map, and put, remove and clear
+ * throw UnsupportedOperationException.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>containsKey</em> and <em>get</em> operations each take &Theta;(<em>log n</em>).
+ * The <em>size</em> operation takes &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public final class FrozenMap<K extends Comparable<K>, V> implements Map<K, V> {
+
+    /** the size above which the keys no longer fit in the cache, and the lookups branch */
+    private static final int BRANCHING_THRESHOLD = 1 << 17;
+
+    /** the keys in Eytzinger order, from index 1 to n, index 0 is unused */
+    private final K[] keys;
+    private final V[] values;
+    private final int size;
+
+    private FrozenMap(K[] keys, V[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Returns a frozen copy of the given map, later changes to the map are not reflected in the copy.
+     * Time complexity: &Theta;(<em>n h</em>), where h is the height of the BSTMap.
+     * @param map the map to copy
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return the frozen map
+     */
+    public static <K extends Comparable<K>, V> FrozenMap<K, V> copyOf(BSTMap<K, V> map) {
+        K[] sortedKeys = (K[]) new Comparable[map.size()];
+        V[] sortedValues = (V[]) new Object[map.size()];
+        int i = 0;
+        for (K key : map) {
+            sortedKeys[i] = key;
+            sortedValues[i] = map.get(key);
+            i += 1;
+        }
+        return build(sortedKeys, sortedValues);
+    }
+
+    /**
+     * Returns a frozen map of the given keys and values, the arrays are copied.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @param sortedKeys the keys, in strictly ascending order
+     * @param values the values, values[i] is the value of sortedKeys[i]
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return the frozen map
+     * @throws IllegalArgumentException if the keys are not strictly ascending, contain null,
+     *                                  or the arrays have different lengths
+     */
+    public static <K extends Comparable<K>, V> FrozenMap<K, V> fromSorted(K[] sortedKeys, V[] values) {
+        if (sortedKeys.length != values.length) {
+            throw new IllegalArgumentException("keys and values have different lengths");
+        }
+        for (int i = 0; i < sortedKeys.length; i++) {
+            if (sortedKeys[i] == null) {
+                throw new IllegalArgumentException("null keys are not supported");
+            }
+            if (i > 0 && sortedKeys[i - 1].compareTo(sortedKeys[i]) >= 0) {
+                throw new IllegalArgumentException("keys are not in strictly ascending order");
+            }
+        }
+        return build(sortedKeys, values);
+    }
+
+    private static <K extends Comparable<K>, V> FrozenMap<K, V> build(K[] sortedKeys, V[] sortedValues) {
+        int n = sortedKeys.length;
+        K[] keys = (K[]) new Comparable[n + 1];
+        V[] values = (V[]) new Object[n + 1];
+        // an in-order walk of the implicit tree visits its indexes in ascending key order
+        int i = 0;
+        for (int k = first(n); k != 0; k = successor(k, n)) {
+            keys[k] = sortedKeys[i];
+            values[k] = sortedValues[i];
+            i += 1;
+        }
+        return new FrozenMap<>(keys, values, n);
+    }
+
+    /* the index of the smallest key: the leftmost node of the implicit tree, or 0 if it is empty */
+    private static int first(int n) {
+        if (n == 0) {
+            return 0;
+        }
+        int k = 1;
+        while (2 * k <= n) {
+            k = 2 * k;
+        }
+        return k;
+    }
+
+    /* the in-order successor of index k, or 0 if k is the last one */
+    private static int successor(int k, int n) {
+        if (2 * k + 1 <= n) {
+            k = 2 * k + 1;
+            while (2 * k <= n) {
+                k = 2 * k;
+            }
+            return k;
+        }
+        // go up while k is a right child, then once more
+        while ((k & 1) == 1) {
+            k >>>= 1;
+        }
+        return k >>> 1;
+    }
+
+    /* the in-order predecessor of index k, or 0 if k is the first one */
+    private static int predecessor(int k, int n) {
+        if (2 * k <= n) {
+            k = 2 * k;
+            while (2 * k + 1 <= n) {
+                k = 2 * k + 1;
+            }
+            return k;
+        }
+        // go up while k is a left child, then once more
+        while (k > 1 && (k & 1) == 0) {
+            k >>>= 1;
+        }
+        return k >>> 1;
+    }
+
+    /*
+     * Returns the index of the smallest key greater than or equal to the key, or 0 if there is none.
+     * The loop walks down to a leaf without ever stopping early: it goes right (2k + 1) when the node's
+     * key is smaller than the key, and left (2k) otherwise. The lower bound is the last node where it
+     * went left, and the right turns taken after it are the trailing 1 bits of k, so shifting them
+     * out (plus the left turn) gives the answer.
+     */
+    private int lowerBound(K key) {
+        int k = 1;
+        if (size <= BRANCHING_THRESHOLD) {
+            while (k <= size) {
+                k = 2 * k + (keys[k].compareTo(key) < 0 ? 1 : 0);
+            }
+        }
+        else {
+            while (k <= size) {
+                if (keys[k].compareTo(key) < 0) {
+                    k = 2 * k + 1;
+                }
+                else {
+                    k = 2 * k;
+                }
+            }
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /**
+     * Throws UnsupportedOperationException, the map is read-only.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("the map is read-only");
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>log n</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null) {
+            return false;
+        }
+        int k = lowerBound(key);
+        return k != 0 && keys[k].compareTo(key) == 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>log n</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int k = lowerBound(key);
+        return k != 0 && keys[k].compareTo(key) == 0 ? values[k] : null;
+    }
+
+    /**
+     * Returns the largest key in this map less than or equal to the given key,
+     * or null if there is no such key.
+     * Time complexity: &Theta;(<em>log n</em>).
+     * @param key the key to compare with
+     * @return the largest key less than or equal to key, or null if there is none
+     */
+    public K floor(K key) {
+        int k = lowerBound(key);
+        if (k != 0 && keys[k].compareTo(key) == 0) {
+            return key;
+        }
+        int floor;
+        if (k != 0) {
+            floor = predecessor(k, size);
+        }
+        else {
+            // every key is smaller, the floor is the largest key: the rightmost node
+            floor = size == 0 ? 0 : 1;
+            while (floor != 0 && 2 * floor + 1 <= size) {
+                floor = 2 * floor + 1;
+            }
+        }
+        return floor != 0 ? keys[floor] : null;
+    }
+
+    /**
+     * Returns the smallest key in this map greater than or equal to the given key,
+     * or null if there is no such key.
+     * Time complexity: &Theta;(<em>log n</em>).
+     * @param key the key to compare with
+     * @return the smallest key greater than or equal to key, or null if there is none
+     */
+    public K ceiling(K key) {
+        int k = lowerBound(key);
+        return k != 0 ? keys[k] : null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Throws UnsupportedOperationException, the map is read-only.
+     */
+    @Override
+    public void put(K key, V value) {
+        throw new UnsupportedOperationException("the map is read-only");
+    }
+
+    /**
+     * Returns a read-only Set view of the keys contained in this map, sorted in ascending order.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return FrozenMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                try {
+                    return o != null && containsKey((K) o);
+                } catch (ClassCastException e) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * Throws UnsupportedOperationException, the map is read-only.
+     */
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("the map is read-only");
+    }
+
+    /**
+     * Throws UnsupportedOperationException, the map is read-only.
+     */
+    @Override
+    public V remove(K key, V value) {
+        throw new UnsupportedOperationException("the map is read-only");
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in ascending order.
+     * It walks the implicit tree in order using index arithmetic only, so it takes constant memory.
+     * hasNext() takes constant time, next() takes amortized constant time.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<K>() {
+            private int next = first(size);
+
+            @Override
+            public boolean hasNext() {
+                return next != 0;
+            }
+
+            @Override
+            public K next() {
+                if (next == 0) {
+                    throw new NoSuchElementException();
+                }
+                K key = keys[next];
+                next = successor(next, size);
+                return key;
+            }
+        };
+    }
+
+}
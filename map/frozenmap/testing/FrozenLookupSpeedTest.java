@@ -0,0 +1,78 @@
+package map.frozenmap.testing;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import map.bstmap.implementation.BSTMap;
+import map.btreemap.implementation.BTreeMap;
+import map.frozenmap.implementation.FrozenMap;
+
+/**
+ * Compares the lookup latency of FrozenMap with the pointer-based trees (BSTMap, BTreeMap
+ * and Java's TreeMap) and with a binary search over the sorted keys, for growing sizes.
+ * The lookups get existing keys in a random order, so once the map outgrows the cache
+ * every level of a pointer tree below the top few is a cache miss.
+ *
+ * @author aziz
+ */
+public class FrozenLookupSpeedTest {
+
+    private static final int LOOKUPS = 5_000_000;
+
+    public static void main(String[] args) {
+        for (int n : new int[]{1_000, 100_000, 1_000_000, 4_000_000}) {
+            run(n);
+        }
+    }
+
+    private static void run(int n) {
+        Random random = new Random(42);
+        BSTMap<Integer, Integer> bst = new BSTMap<>();
+        BTreeMap<Integer, Integer> btree = new BTreeMap<>();
+        TreeMap<Integer, Integer> tree = new TreeMap<>();
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Integer key = random.nextInt();
+            while (tree.containsKey(key)) {
+                key = random.nextInt();
+            }
+            keys[i] = key;
+            bst.put(key, key);
+            btree.put(key, key);
+            tree.put(key, key);
+        }
+        FrozenMap<Integer, Integer> frozen = FrozenMap.copyOf(bst);
+        Integer[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int[] order = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            order[i] = random.nextInt(n);
+        }
+        System.out.println("Looking up " + LOOKUPS + " random keys out of " + n + ".");
+        report("FrozenMap", i -> frozen.get(keys[i]), order);
+        report("Binary search on a sorted array", i -> sorted[Arrays.binarySearch(sorted, keys[i])], order);
+        report("BSTMap", i -> bst.get(keys[i]), order);
+        report("BTreeMap", i -> btree.get(keys[i]), order);
+        report("Java's Built-in TreeMap", i -> tree.get(keys[i]), order);
+        System.out.println();
+    }
+
+    private static void report(String name, IntFunction<Integer> get, int[] order) {
+        // a first pass to warm up, then the measured one
+        long checksum = lookup(get, order);
+        long begin = System.nanoTime();
+        checksum += lookup(get, order);
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("%s: %.1f ns/get (checksum %d)\n", name, (double) elapsed / order.length, checksum);
+    }
+
+    private static long lookup(IntFunction<Integer> get, int[] order) {
+        long sum = 0;
+        for (int i : order) {
+            sum += get.apply(i);
+        }
+        return sum;
+    }
+}
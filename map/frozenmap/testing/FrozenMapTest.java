@@ -0,0 +1,121 @@
+package map.frozenmap.testing;
+
+import map.bstmap.implementation.BSTMap;
+import map.frozenmap.implementation.FrozenMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class FrozenMapTest {
+
+    @Test
+    public void copyOfBSTMapTest() {
+        BSTMap<String, Integer> bst = new BSTMap<>();
+        for (int i = 0; i < 500; i++) {
+            bst.put("hi" + i, 1 + i);
+        }
+        bst.put("none", null);
+        FrozenMap<String, Integer> f = FrozenMap.copyOf(bst);
+        bst.remove("hi0");
+        Assertions.assertEquals(501, f.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null != f.get("hi" + i) && (f.get("hi" + i).equals(1 + i))
+                    && f.containsKey("hi" + i));
+        }
+        Assertions.assertTrue(f.containsKey("none"));
+        Assertions.assertNull(f.get("none"));
+        Assertions.assertFalse(f.containsKey("hi500"));
+        Assertions.assertFalse(f.containsKey(null));
+        Assertions.assertNull(f.get(null));
+    }
+
+    @Test
+    public void readOnlyTest() {
+        FrozenMap<String, String> f = FrozenMap.fromSorted(new String[]{"a", "b"}, new String[]{"x", "y"});
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> f.put("c", "z"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> f.remove("a"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> f.remove("a", "x"));
+        Assertions.assertThrows(UnsupportedOperationException.class, f::clear);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> f.keySet().remove("a"));
+        Assertions.assertEquals(2, f.size());
+        Assertions.assertEquals("y", f.get("b"));
+    }
+
+    @Test
+    public void illegalInputTest() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FrozenMap.fromSorted(new Integer[]{1, 3, 2}, new Integer[3]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FrozenMap.fromSorted(new Integer[]{1, 1}, new Integer[2]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FrozenMap.fromSorted(new Integer[]{1, null}, new Integer[2]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FrozenMap.fromSorted(new Integer[]{1, 2}, new Integer[1]));
+    }
+
+    @Test
+    public void everySizeTest() {
+        // every shape of the last level, from empty up to a few full levels
+        for (int n = 0; n <= 70; n++) {
+            Integer[] keys = new Integer[n];
+            Integer[] values = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = 2 * i;
+                values[i] = -i;
+            }
+            FrozenMap<Integer, Integer> f = FrozenMap.fromSorted(keys, values);
+            Assertions.assertEquals(n, f.size());
+            List<Integer> actual = new ArrayList<>();
+            for (Integer key : f) {
+                actual.add(key);
+            }
+            Assertions.assertEquals(Arrays.asList(keys), actual);
+            for (int key = -1; key <= 2 * n; key++) {
+                Assertions.assertEquals(key % 2 == 0 && key < 2 * n ? -key / 2 : null, f.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void floorCeilingTest() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(10000);
+            expected.put(key, i);
+        }
+        FrozenMap<Integer, Integer> f = FrozenMap.fromSorted(expected.keySet().toArray(new Integer[0]),
+                expected.values().toArray(new Integer[0]));
+        for (int key = -5; key < 10005; key++) {
+            Assertions.assertEquals(expected.floorKey(key), f.floor(key));
+            Assertions.assertEquals(expected.ceilingKey(key), f.ceiling(key));
+        }
+    }
+
+    @Test
+    public void randomLookupsTest() {
+        BSTMap<Integer, Integer> bst = new BSTMap<>();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        // more keys than the branchless lookups are used for
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt();
+            if (!expected.containsKey(key)) {
+                bst.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        FrozenMap<Integer, Integer> f = FrozenMap.copyOf(bst);
+        Assertions.assertEquals(expected.size(), f.size());
+        Assertions.assertEquals(expected.keySet(), f.keySet());
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt();
+            Assertions.assertEquals(expected.get(key), f.get(key));
+        }
+        for (Integer key : expected.keySet()) {
+            Assertions.assertEquals(expected.get(key), f.get(key));
+        }
+    }
+}
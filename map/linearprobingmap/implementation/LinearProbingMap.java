@@ -0,0 +1,294 @@
+package map.linearprobingmap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+
+/**
+ * A hash map implementation based on open addressing with linear probing.
+ * Keys and values are kept in two flat parallel arrays, whose capacity is always a power of two,
+ * a key is placed at the first free slot starting from its hash index, and looked up by
+ * scanning from the same index until the key or an empty slot is found.
+ * The table is doubled once the number of keys exceeds the load factor times the capacity.
+ * Deletion uses backward shifting (no tombstones): after removing a key, the following
+ * keys of the same probe run are moved back so no lookup ever has to skip a deleted slot.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected constant time &Theta;(<em>1</em>) (<em>put</em> is amortized, because of resizing).
+ * The <em>size</em> operation takes &Theta;(<em>1</em>), while <em>clear</em> takes &Theta;(<em>capacity</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class LinearProbingMap<K, V> implements Map<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private K[] keys;
+    private V[] values;
+    private int size;
+    /** capacity - 1, used instead of the modulo operator since the capacity is a power of two */
+    private int mask;
+    private int threshold;
+    private final double loadFactor;
+
+    /**
+     * Initializes an empty map with the default capacity (16) and load factor (0.5).
+     */
+    public LinearProbingMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Initializes an empty map with the specified initial capacity and load factor.
+     * @param initialCapacity the number of slots to start with, rounded up to a power of two
+     * @param loadFactor the maximum ratio of keys to slots before the table is doubled,
+     *                   must be in the range (0, 1)
+     */
+    public LinearProbingMap(int initialCapacity, double loadFactor) {
+        if (initialCapacity < 1 || !(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("illegal capacity or load factor");
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = 2;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private void allocate(int capacity) {
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        mask = capacity - 1;
+        // always keep at least one empty slot so probing terminates
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /* spreads the bits of the hash code so that keys differing only in
+     * their high bits don't collide in the low bits used as the index. */
+    private int indexFor(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int slot = findSlot(key);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    /* returns the slot holding the key, or -1 if the key is absent */
+    private int findSlot(K key) {
+        for (int i = indexFor(key); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: amortized expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        int i = indexFor(key);
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+        if (size > threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private void resize(int capacity) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = indexFor(oldKeys[j]);
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keySet = new HashSet<>();
+        for (K key : this) {
+            keySet.add(key);
+        }
+        return keySet;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V value = values[slot];
+        removeSlot(slot);
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        int slot = findSlot(key);
+        if (slot < 0 || !Objects.equals(values[slot], value)) {
+            return null;
+        }
+        V slotValue = values[slot];
+        removeSlot(slot);
+        return slotValue;
+    }
+
+    /* Empties the slot, then walks the rest of the probe run, moving back every key
+     * whose home index is not cyclically in (hole, j], so that it stays reachable. */
+    private void removeSlot(int hole) {
+        for (int j = (hole + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = indexFor(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size -= 1;
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in no particular order.
+     * A whole traversal takes &Theta;(<em>capacity</em>).
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new LinearProbingMapIterator();
+    }
+
+    private class LinearProbingMapIterator implements Iterator<K> {
+
+        private int index;
+        private int remaining;
+
+        LinearProbingMapIterator() {
+            index = 0;
+            remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (keys[index] == null) {
+                index += 1;
+            }
+            remaining -= 1;
+            return keys[index++];
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package map.linearprobingmap.testing;
+
+import map.linearprobingmap.implementation.LinearProbingMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class LinearProbingMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        LinearProbingMap<String, Integer> b = new LinearProbingMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        LinearProbingMap<String, Integer> b = new LinearProbingMap<>();
+        b.put("hey", 5);
+        b.put("hey", 7);
+        Assertions.assertEquals(7, b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+    }
+
+    @Test
+    public void containsKeyNullTest() {
+        LinearProbingMap<String, Integer> b = new LinearProbingMap<>();
+        b.put("hi", null);
+        Assertions.assertTrue(b.containsKey("hi"));
+        Assertions.assertFalse(b.containsKey(null));
+    }
+
+    @Test
+    public void collidingKeysRemoveTest() {
+        // all these keys share the same hash code, so they form one long probe run
+        LinearProbingMap<CollidingKey, Integer> b = new LinearProbingMap<>(8, 0.9);
+        for (int i = 0; i < 50; i++) {
+            b.put(new CollidingKey(i), i);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            Assertions.assertEquals(i, b.remove(new CollidingKey(i)));
+        }
+        Assertions.assertEquals(25, b.size());
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals(i % 2 == 1, b.containsKey(new CollidingKey(i)));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        LinearProbingMap<Integer, Integer> b = new LinearProbingMap<>(4, 0.75);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+        int count = 0;
+        for (Integer key : b) {
+            Assertions.assertTrue(expected.containsKey(key));
+            count += 1;
+        }
+        Assertions.assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        LinearProbingMap<String, String> q = new LinearProbingMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+
+    private static class CollidingKey {
+        final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+}
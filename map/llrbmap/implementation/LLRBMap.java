@@ -0,0 +1,406 @@
+package map.llrbmap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A Left-Leaning Red-Black tree based map implementation, the map is sorted according the
+ * natural ordering of its keys; so the key type must implement the Comparable interface.
+ * A left-leaning red-black tree is a BST that is in a 1-1 correspondence with a 2-3 tree,
+ * where a 3-node is represented by two nodes connected by a red (left-leaning) link.
+ * Every path from the root to a null link has the same number of black links, and no
+ * node has two red links connected to it, thus the height of the tree is at most 2log(n).
+ * This implementation allows for null values, thus setting a key to a null,
+ * does not delete it (no lazy deletion).
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take &Theta;(<em>log n</em>) in the worst case.
+ * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class LLRBMap<K extends Comparable<K>, V> implements Map<K, V> {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    private static class RBNode<K, V> {
+        K key;
+        V value;
+        RBNode<K, V> left;
+        RBNode<K, V> right;
+        /** color of the link from the parent to this node */
+        boolean color;
+
+        RBNode(K key, V value, boolean color) {
+            this.key = key;
+            this.value = value;
+            this.color = color;
+        }
+    }
+
+    private RBNode<K, V> root;
+    private int size;
+
+    /**
+     * Initializes an empty LLRB map.
+     */
+    public LLRBMap() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        RBNode<K, V> node = getNode(key);
+        return node != null ? node.value : null;
+    }
+
+    private RBNode<K, V> getNode(K key) {
+        RBNode<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp < 0) {
+                current = current.left;
+            }
+            else if (cmp > 0) {
+                current = current.right;
+            }
+            else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        root = put(root, key, value);
+        root.color = BLACK;
+    }
+
+    private RBNode<K, V> put(RBNode<K, V> node, K key, V value) {
+        if (node == null) {
+            this.size += 1;
+            return new RBNode<>(key, value, RED);
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            node.left = put(node.left, key, value);
+        }
+        else if (cmp > 0) {
+            node.right = put(node.right, key, value);
+        }
+        else {
+            node.value = value;
+        }
+        return balance(node);
+    }
+
+    /**
+     * Returns the height of the tree (the number of links on the longest path
+     * from the root to a leaf), the height of an empty tree is -1.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return the height of the tree
+     */
+    public int height() {
+        return height(root);
+    }
+
+    private int height(RBNode<K, V> node) {
+        if (node == null) {
+            return -1;
+        }
+        return 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    /**
+     * Traverses the tree in order, printing each item.
+     * Time complexity: &Theta;(<em>n</em>).
+     */
+    public void printInOrder() {
+        traverseInOrder(root, (RBNode<K, V> node) ->
+                System.out.print(node.key + ":" + node.value + "  "));
+        System.out.println();
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new TreeSet<>();
+        traverseInOrder(root, (RBNode<K, V> node) -> keys.add(node.key));
+        return keys;
+    }
+
+    private void traverseInOrder(RBNode<K, V> root, Consumer<RBNode<K, V>> processNode) {
+        if (root == null) {
+            return;
+        }
+        traverseInOrder(root.left, processNode);
+        processNode.accept(root);
+        traverseInOrder(root.right, processNode);
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        RBNode<K, V> node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value;
+        removeKey(key);
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        RBNode<K, V> node = getNode(key);
+        if (node == null || !Objects.equals(node.value, value)) {
+            return null;
+        }
+        V nodeValue = node.value;
+        removeKey(key);
+        return nodeValue;
+    }
+
+    /* assumes the key is present in the tree */
+    private void removeKey(K key) {
+        // if both children of root are black, set root to red
+        // so the invariant "current node or its left child is red" holds at the top.
+        if (!isRed(root.left) && !isRed(root.right)) {
+            root.color = RED;
+        }
+        root = remove(root, key);
+        if (root != null) {
+            root.color = BLACK;
+        }
+        size -= 1;
+    }
+
+    private RBNode<K, V> remove(RBNode<K, V> node, K key) {
+        if (key.compareTo(node.key) < 0) {
+            if (!isRed(node.left) && !isRed(node.left.left)) {
+                node = moveRedLeft(node);
+            }
+            node.left = remove(node.left, key);
+        }
+        else {
+            if (isRed(node.left)) {
+                node = rotateRight(node);
+            }
+            if (key.compareTo(node.key) == 0 && node.right == null) {
+                return null;
+            }
+            if (!isRed(node.right) && !isRed(node.right.left)) {
+                node = moveRedRight(node);
+            }
+            if (key.compareTo(node.key) == 0) {
+                RBNode<K, V> successor = getMinNode(node.right);
+                node.key = successor.key;
+                node.value = successor.value;
+                node.right = removeMin(node.right);
+            }
+            else {
+                node.right = remove(node.right, key);
+            }
+        }
+        return balance(node);
+    }
+
+    private RBNode<K, V> removeMin(RBNode<K, V> node) {
+        if (node.left == null) {
+            return null;
+        }
+        if (!isRed(node.left) && !isRed(node.left.left)) {
+            node = moveRedLeft(node);
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private RBNode<K, V> getMinNode(RBNode<K, V> node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    /* ---------------------- Red-Black helpers ---------------------- */
+
+    private boolean isRed(RBNode<K, V> node) {
+        return node != null && node.color == RED;
+    }
+
+    private RBNode<K, V> rotateLeft(RBNode<K, V> node) {
+        RBNode<K, V> x = node.right;
+        node.right = x.left;
+        x.left = node;
+        x.color = node.color;
+        node.color = RED;
+        return x;
+    }
+
+    private RBNode<K, V> rotateRight(RBNode<K, V> node) {
+        RBNode<K, V> x = node.left;
+        node.left = x.right;
+        x.right = node;
+        x.color = node.color;
+        node.color = RED;
+        return x;
+    }
+
+    private void flipColors(RBNode<K, V> node) {
+        node.color = !node.color;
+        node.left.color = !node.left.color;
+        node.right.color = !node.right.color;
+    }
+
+    /* assuming node is red and both node.left and node.left.left are black,
+     * make node.left or one of its children red. */
+    private RBNode<K, V> moveRedLeft(RBNode<K, V> node) {
+        flipColors(node);
+        if (isRed(node.right.left)) {
+            node.right = rotateRight(node.right);
+            node = rotateLeft(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /* assuming node is red and both node.right and node.right.left are black,
+     * make node.right or one of its children red. */
+    private RBNode<K, V> moveRedRight(RBNode<K, V> node) {
+        flipColors(node);
+        if (isRed(node.left.left)) {
+            node = rotateRight(node);
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /* restores the left-leaning red-black invariants on the way up */
+    private RBNode<K, V> balance(RBNode<K, V> node) {
+        if (isRed(node.right) && !isRed(node.left)) {
+            node = rotateLeft(node);
+        }
+        if (isRed(node.left) && isRed(node.left.left)) {
+            node = rotateRight(node);
+        }
+        if (isRed(node.left) && isRed(node.right)) {
+            flipColors(node);
+        }
+        return node;
+    }
+
+    /**
+     * Returns a stack based iterator for in-order traversal over the tree.
+     * hasNext() method takes constant time, while next() takes &Theta;(<em>log n</em>)
+     * in the worst case.
+     * @return a stack based iterator for in-order traversal over the tree.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new StackLLRBMapIterator();
+    }
+
+    private class StackLLRBMapIterator implements Iterator<K> {
+
+        Stack<RBNode<K, V>> stack;
+
+        StackLLRBMapIterator() {
+            stack = new Stack<>();
+            pushLeftPath(root);
+        }
+
+        private void pushLeftPath(RBNode<K, V> current) {
+            while (current != null) {
+                stack.push(current);
+                current = current.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.empty();
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RBNode<K, V> current = stack.pop();
+            pushLeftPath(current.right);
+            return current.key;
+        }
+    }
+
+}
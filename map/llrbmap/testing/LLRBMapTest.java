@@ -0,0 +1,107 @@
+package map.llrbmap.testing;
+
+import map.llrbmap.implementation.LLRBMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class LLRBMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        LLRBMap<String, Integer> b = new LLRBMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        LLRBMap<String, Integer> b = new LLRBMap<>();
+        b.put("hey", 5);
+        b.put("hey", 7);
+        Assertions.assertEquals(7, b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+    }
+
+    @Test
+    public void containsKeyNullTest() {
+        LLRBMap<String, Integer> b = new LLRBMap<>();
+        b.put("hi", null);
+        Assertions.assertTrue(b.containsKey("hi"));
+    }
+
+    @Test
+    public void inOrderInsertionStaysBalancedTest() {
+        LLRBMap<Integer, Integer> b = new LLRBMap<>();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            b.put(i, i);
+        }
+        Assertions.assertEquals(n, b.size());
+        // an LLRB tree has a height of at most 2log(n)
+        Assertions.assertTrue(b.height() <= 2 * (Math.log(n) / Math.log(2)));
+        for (int i = 0; i < n; i++) {
+            Assertions.assertEquals(i, b.get(i));
+        }
+    }
+
+    @Test
+    public void randomRemoveTest() {
+        LLRBMap<Integer, Integer> b = new LLRBMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextBoolean()) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertTrue(b.height() <= 2 * (Math.log(b.size() + 1) / Math.log(2)));
+        List<Integer> keys = new ArrayList<>();
+        for (Integer key : b) {
+            keys.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.keySet()), keys);
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        LLRBMap<String, String> q = new LLRBMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+
+    @Test
+    public void iteratorTest() {
+        LLRBMap<Integer, Integer> b = new LLRBMap<>();
+        for (int key : new int[]{33, 12, 10, 78, 100, 1, 0, 99, 45, 43}) {
+            b.put(key, 1);
+        }
+        List<Integer> list = new ArrayList<>();
+        for (Integer integer : b) {
+            list.add(integer);
+        }
+        Assertions.assertEquals(list, List.of(0, 1, 10, 12, 33, 43, 45, 78, 99, 100));
+    }
+}
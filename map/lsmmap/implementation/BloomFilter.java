@@ -0,0 +1,90 @@
+package map.lsmmap.implementation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A Bloom filter over serialized keys, it answers whether a run may contain a key,
+ * so a lookup of a key missing from a run costs no disk read most of the time.
+ * The filter uses 10 bits per key and 7 hash functions, that is about a 1% false positive rate.
+ * The hash functions are derived from one 64-bit hash of the key's bytes (double hashing),
+ * and the bytes, unlike hashCode(), are the same from one run of the program to the next,
+ * so the filter can be saved in the run file.
+ *
+ * @author aziz
+ */
+class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+
+    private final long[] bits;
+    private final long numBits;
+
+    /**
+     * Initializes an empty filter sized for the given number of keys.
+     * @param expectedKeys the number of keys that will be added
+     */
+    BloomFilter(int expectedKeys) {
+        long words = Math.max(1, ((long) Math.max(expectedKeys, 1) * BITS_PER_KEY + 63) >>> 6);
+        this.bits = new long[(int) Math.min(words, Integer.MAX_VALUE - 8)];
+        this.numBits = (long) bits.length << 6;
+    }
+
+    private BloomFilter(long[] bits) {
+        this.bits = bits;
+        this.numBits = (long) bits.length << 6;
+    }
+
+    /* 64-bit FNV-1a followed by the MurmurHash3 finalizer, which spreads the low-entropy FNV bits */
+    private static long hash(byte[] key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    void add(byte[] key) {
+        long h = hash(key);
+        long h1 = h >>> 32;
+        long h2 = h & 0xFFFFFFFFL;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(byte[] key) {
+        long h = hash(key);
+        long h1 = h >>> 32;
+        long h2 = h & 0xFFFFFFFFL;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    static BloomFilter readFrom(DataInput in) throws IOException {
+        long[] bits = new long[in.readInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+        }
+        return new BloomFilter(bits);
+    }
+}
@@ -0,0 +1,655 @@
+package map.lsmmap.implementation;
+
+
+import map.Map;
+import map.lsmmap.implementation.SortedRun.Record;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A disk-backed sorted map based on a log-structured merge tree (LSM tree), the map is sorted
+ * according the natural ordering of its keys; so the key type must implement the Comparable interface.
+ * Writes go to an in-memory sorted memtable; once the memtable is full it is written out, in one
+ * sequential pass, as an immutable sorted run file, so the heap only ever holds the memtable and
+ * the small per-run indexes, while the data itself lives on disk.
+ * A removal writes a tombstone, which hides the older versions of the key.
+ * A lookup checks the memtable and then the runs from the newest to the oldest, the first record
+ * found for the key wins. Each run keeps a Bloom filter and a sparse index (the first key of each
+ * 4KB block) in memory, so a run that does not hold the key is skipped without a disk read
+ * (about 99% of the time), and a run that holds it costs one block read.
+ * Once 4 runs of about the same size pile up, a background thread merges them, along with the smaller
+ * runs between them, into a single run (size-tiered compaction), dropping the overwritten records,
+ * and the tombstones once the oldest run takes part. The runs then grow 4 times bigger at each tier, so a lookup checks
+ * at most about 3 runs per tier, &Theta;(<em>log(n / m)</em>) runs for a memtable of m entries,
+ * and each record is rewritten once per tier.
+ * The map is saved in a directory, a manifest file lists the live runs, and a map reopened on the same
+ * directory holds everything that was flushed. There is no write-ahead log, the memtable is only
+ * written by a flush or by {@link #close()}, so the writes since the last flush are lost on a crash.
+ * The keys and values are written with the given {@link Serializer}s.
+ * This implementation is thread-safe (every operation holds the map's lock, compaction runs without it),
+ * does not permit null keys, but allows for null values.
+ * The <em>put</em> and <em>remove</em> operations look the key up first to keep the size exact,
+ * the <em>containsKey</em> and <em>get</em> operations take &Theta;(<em>log n</em>) in memory
+ * and at most one block read per run that may hold the key.
+ * A <em>put</em> that fills the memtable takes &Theta;(<em>m</em>) to flush it, for a memtable of m entries.
+ * The <em>size</em> operation takes &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class LSMMap<K extends Comparable<K>, V> implements Map<K, V>, Closeable {
+
+    private static final int DEFAULT_MEMTABLE_SIZE = 1 << 14;
+    private static final int COMPACTION_TRIGGER = 4;
+    private static final String MANIFEST = "MANIFEST";
+    private static final String RUN_SUFFIX = ".sst";
+
+    private final Path directory;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final int memtableSize;
+    /** maps the keys written since the last flush to their value, TOMBSTONE or NULL_VALUE */
+    private TreeMap<K, Object> memtable;
+    /** the runs from the oldest to the newest, the list is replaced, never modified */
+    private List<SortedRun<K, V>> runs;
+    /** runs replaced by a compaction which an unfinished iterator may still read */
+    private final List<SortedRun<K, V>> retired;
+    private int size;
+    /** the number of mappings in the runs alone, the size saved in the manifest */
+    private int flushedSize;
+    private int nextSequence;
+    private final ExecutorService compactor;
+    private boolean compacting;
+    private boolean closed;
+    private IOException compactionFailure;
+    private final LongAdder blockReads;
+    private final LongAdder bytesWritten;
+
+    /**
+     * Opens the map saved in the given directory, or creates an empty one if there is none,
+     * with a memtable of 16384 entries.
+     * @param directory the directory holding the map's files, created if missing
+     * @param keySerializer writes and reads the keys
+     * @param valueSerializer writes and reads the values
+     * @throws IOException if the directory or the map's files cannot be read
+     */
+    public LSMMap(Path directory, Serializer<K> keySerializer, Serializer<V> valueSerializer) throws IOException {
+        this(directory, keySerializer, valueSerializer, DEFAULT_MEMTABLE_SIZE);
+    }
+
+    /**
+     * Opens the map saved in the given directory, or creates an empty one if there is none.
+     * @param directory the directory holding the map's files, created if missing
+     * @param keySerializer writes and reads the keys
+     * @param valueSerializer writes and reads the values
+     * @param memtableSize the number of entries the memtable holds before it is flushed to a run
+     * @throws IOException if the directory or the map's files cannot be read
+     */
+    public LSMMap(Path directory, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                  int memtableSize) throws IOException {
+        if (memtableSize < 1) {
+            throw new IllegalArgumentException("illegal memtable size");
+        }
+        this.directory = directory;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.memtableSize = memtableSize;
+        this.memtable = new TreeMap<>();
+        this.runs = new ArrayList<>();
+        this.retired = new ArrayList<>();
+        this.blockReads = new LongAdder();
+        this.bytesWritten = new LongAdder();
+        Files.createDirectories(directory);
+        Set<String> live = new HashSet<>();
+        Path manifest = directory.resolve(MANIFEST);
+        if (Files.exists(manifest)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest)))) {
+                size = in.readInt();
+                flushedSize = size;
+                nextSequence = in.readInt();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String name = in.readUTF();
+                    live.add(name);
+                    runs.add(SortedRun.open(directory.resolve(name), keySerializer, valueSerializer, blockReads));
+                }
+            }
+        }
+        // run files missing from the manifest are left over by an interrupted flush or compaction
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + RUN_SUFFIX)) {
+            for (Path file : files) {
+                if (!live.contains(file.getFileName().toString())) {
+                    Files.delete(file);
+                }
+            }
+        }
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "lsm-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the map is closed");
+        }
+    }
+
+    /**
+     * Removes all the mappings from the map, and deletes its run files.
+     * Time complexity: &Theta;(<em>runs</em>).
+     */
+    @Override
+    public synchronized void clear() {
+        ensureOpen();
+        memtable = new TreeMap<>();
+        List<SortedRun<K, V>> old = runs;
+        runs = new ArrayList<>();
+        size = 0;
+        flushedSize = 0;
+        try {
+            writeManifest();
+            retire(old);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>log n</em>), and at most one block read per run
+     * that may hold the key.
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public synchronized boolean containsKey(K key) {
+        ensureOpen();
+        if (key == null) {
+            return false;
+        }
+        Object value = lookup(key);
+        return value != null && value != SortedRun.TOMBSTONE;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>log n</em>), and at most one block read per run
+     * that may hold the key.
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public synchronized V get(K key) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        return unwrap(lookup(key));
+    }
+
+    /* returns the newest record for the key: a value, TOMBSTONE or NULL_VALUE, or null if there is none */
+    private Object lookup(K key) {
+        Object value = memtable.get(key);
+        if (value != null || runs.isEmpty()) {
+            return value;
+        }
+        byte[] keyBytes = SortedRun.toBytes(keySerializer, key);
+        try {
+            for (int i = runs.size() - 1; i >= 0; i--) {
+                value = runs.get(i).get(key, keyBytes);
+                if (value != null) {
+                    return value;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+
+    private V unwrap(Object value) {
+        return value == null || value == SortedRun.TOMBSTONE || value == SortedRun.NULL_VALUE ? null : (V) value;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: the cost of a lookup, plus &Theta;(<em>m</em>) if the memtable becomes full.
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public synchronized void put(K key, V value) {
+        ensureOpen();
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        Object old = lookup(key);
+        if (old == null || old == SortedRun.TOMBSTONE) {
+            size += 1;
+        }
+        memtable.put(key, value == null ? SortedRun.NULL_VALUE : value);
+        if (memtable.size() >= memtableSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the memtable to a new run, the runs are compacted in the background
+     * once there are enough of them.
+     * Time complexity: &Theta;(<em>m</em>), for a memtable of m entries.
+     */
+    public synchronized void flush() {
+        ensureOpen();
+        if (memtable.isEmpty()) {
+            return;
+        }
+        try {
+            Iterator<Record<K>> records = memtable.entrySet().stream()
+                    .map(entry -> new Record<>(entry.getKey(), entry.getValue())).iterator();
+            SortedRun<K, V> run = SortedRun.write(newRunPath(), records, memtable.size(),
+                    keySerializer, valueSerializer, blockReads, bytesWritten);
+            List<SortedRun<K, V>> newRuns = new ArrayList<>(runs);
+            newRuns.add(run);
+            runs = newRuns;
+            memtable = new TreeMap<>();
+            flushedSize = size;
+            writeManifest();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        maybeCompact();
+    }
+
+    private Path newRunPath() {
+        return directory.resolve(String.format("run-%08d%s", nextSequence++, RUN_SUFFIX));
+    }
+
+    /* writes the manifest to a temporary file first, so a crash leaves either the old or the new one,
+     * with the size of the runs only, since a compaction may write it while the memtable holds unflushed writes */
+    private void writeManifest() throws IOException {
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(flushedSize);
+            out.writeInt(nextSequence);
+            out.writeInt(runs.size());
+            for (SortedRun<K, V> run : runs) {
+                out.writeUTF(run.path.getFileName().toString());
+            }
+        }
+        Files.move(temp, directory.resolve(MANIFEST),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void retire(List<SortedRun<K, V>> old) throws IOException {
+        for (SortedRun<K, V> run : old) {
+            if (!run.release()) {
+                retired.add(run);
+            }
+        }
+    }
+
+    /* the tier of a run grows by one each time its size is multiplied by 4,
+     * a freshly flushed run is in tier 0 */
+    private int tier(SortedRun<K, V> run) {
+        int ratio = Math.max(1, run.entryCount / memtableSize);
+        return (31 - Integer.numberOfLeadingZeros(ratio)) / 2;
+    }
+
+    /* size-tiered compaction: merges the newest COMPACTION_TRIGGER runs of the same tier, together with
+     * the smaller runs wedged between them, so each record is rewritten about once per tier.
+     * The merged runs have to be neighbours, since the order of the runs tells which version of a key
+     * is the newest, and a smaller run left between two bigger ones (overwrites and removals shrink
+     * the merged runs) would otherwise keep its tier from ever reaching COMPACTION_TRIGGER neighbours.
+     * If there are still more than 3 runs per tier, the neighbours with the fewest entries are merged. */
+    private void maybeCompact() {
+        if (compacting || closed || runs.size() < COMPACTION_TRIGGER) {
+            return;
+        }
+        int maxTier = 0;
+        for (SortedRun<K, V> run : runs) {
+            maxTier = Math.max(maxTier, tier(run));
+        }
+        for (int tier = 0; tier <= maxTier; tier++) {
+            // scans the runs from the newest, a run of a higher tier ends the window
+            int end = runs.size();
+            int count = 0;
+            for (int i = runs.size() - 1; i >= 0; i--) {
+                int runTier = tier(runs.get(i));
+                if (runTier > tier) {
+                    end = i;
+                    count = 0;
+                    continue;
+                }
+                if (runTier == tier) {
+                    if (count == 0) {
+                        // the window starts at the newest run of the tier, not at the smaller ones after it
+                        end = i + 1;
+                    }
+                    count += 1;
+                    if (count == COMPACTION_TRIGGER) {
+                        scheduleCompaction(i, end);
+                        return;
+                    }
+                }
+            }
+        }
+        if (runs.size() > 3 * (maxTier + 1)) {
+            int cheapest = 0;
+            long cheapestEntries = Long.MAX_VALUE;
+            for (int start = runs.size() - COMPACTION_TRIGGER; start >= 0; start--) {
+                long entries = 0;
+                for (int i = start; i < start + COMPACTION_TRIGGER; i++) {
+                    entries += runs.get(i).entryCount;
+                }
+                if (entries < cheapestEntries) {
+                    cheapest = start;
+                    cheapestEntries = entries;
+                }
+            }
+            scheduleCompaction(cheapest, cheapest + COMPACTION_TRIGGER);
+        }
+    }
+
+    /* merges the runs from start (inclusive) to end (exclusive) */
+    private void scheduleCompaction(int start, int end) {
+        compacting = true;
+        List<SortedRun<K, V>> snapshot = new ArrayList<>(runs.subList(start, end));
+        for (SortedRun<K, V> run : snapshot) {
+            run.retain();
+        }
+        // a tombstone can only be dropped if no older run is left to hold the key
+        boolean dropTombstones = start == 0;
+        compactor.execute(() -> compact(snapshot, dropTombstones));
+    }
+
+    /* runs on the compaction thread, the merge itself does not hold the map's lock */
+    private void compact(List<SortedRun<K, V>> snapshot, boolean dropTombstones) {
+        Path path;
+        synchronized (this) {
+            path = newRunPath();
+        }
+        SortedRun<K, V> merged = null;
+        IOException failure = null;
+        try {
+            List<Iterator<Record<K>>> sources = new ArrayList<>();
+            int expected = 0;
+            for (SortedRun<K, V> run : snapshot) {
+                sources.add(run.iterator());
+                expected += run.entryCount;
+            }
+            merged = SortedRun.write(path, new MergingIterator<>(sources, dropTombstones), expected,
+                    keySerializer, valueSerializer, blockReads, bytesWritten);
+        } catch (IOException | UncheckedIOException e) {
+            failure = e instanceof IOException ? (IOException) e : ((UncheckedIOException) e).getCause();
+        }
+        synchronized (this) {
+            try {
+                for (SortedRun<K, V> run : snapshot) {
+                    if (run.release()) {
+                        retired.remove(run);
+                    }
+                }
+                if (merged != null) {
+                    // only flushes ran meanwhile (they append newer runs), unless the map was cleared
+                    int start = runs.indexOf(snapshot.get(0));
+                    boolean valid = start >= 0 && start + snapshot.size() <= runs.size()
+                            && runs.subList(start, start + snapshot.size()).equals(snapshot);
+                    if (valid) {
+                        List<SortedRun<K, V>> newRuns = new ArrayList<>(runs.subList(0, start));
+                        if (merged.entryCount > 0) {
+                            newRuns.add(merged);
+                        }
+                        newRuns.addAll(runs.subList(start + snapshot.size(), runs.size()));
+                        runs = newRuns;
+                        writeManifest();
+                        retire(snapshot);
+                    }
+                    if (!valid || merged.entryCount == 0) {
+                        merged.release();
+                    }
+                }
+                else {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            if (failure != null) {
+                compactionFailure = failure;
+            }
+            compacting = false;
+            if (failure == null) {
+                maybeCompact();
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns a Set of the keys contained in this map, sorted in ascending order.
+     * Time complexity: &Theta;(<em>n log n</em>), and a full read of the runs.
+     * @return a set of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new TreeSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: the cost of a lookup, plus &Theta;(<em>m</em>) if the memtable becomes full.
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public synchronized V remove(K key) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        return removeKey(key, lookup(key));
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: the cost of a lookup, plus &Theta;(<em>m</em>) if the memtable becomes full.
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public synchronized V remove(K key, V value) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        Object old = lookup(key);
+        if (old == null || old == SortedRun.TOMBSTONE || !Objects.equals(unwrap(old), value)) {
+            return null;
+        }
+        return removeKey(key, old);
+    }
+
+    private V removeKey(K key, Object old) {
+        if (old == null || old == SortedRun.TOMBSTONE) {
+            return null;
+        }
+        size -= 1;
+        if (runs.isEmpty()) {
+            // no older version of the key can exist, so no tombstone is needed
+            memtable.remove(key);
+        }
+        else {
+            memtable.put(key, SortedRun.TOMBSTONE);
+            if (memtable.size() >= memtableSize) {
+                flush();
+            }
+        }
+        return unwrap(old);
+    }
+
+    /**
+     * Returns the number of blocks read from the run files since the map was opened,
+     * by lookups, iterators and compactions. Divided by the number of lookups, this is the
+     * read amplification of the map.
+     * @return the number of block reads
+     */
+    public long blockReads() {
+        return blockReads.sum();
+    }
+
+    /**
+     * Returns the number of bytes written to run files since the map was opened,
+     * by flushes and compactions. Divided by the size of the data written by the user,
+     * this is the write amplification of the map.
+     * @return the number of bytes written
+     */
+    public long bytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * Waits until no compaction is running or due, so the number of runs has settled.
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized void awaitCompaction() throws InterruptedException {
+        while (compacting) {
+            wait();
+        }
+    }
+
+    /**
+     * Returns the number of run files the map currently has.
+     * @return the number of runs
+     */
+    public synchronized int runCount() {
+        return runs.size();
+    }
+
+    /**
+     * Flushes the memtable, waits for a running compaction to end and closes the run files.
+     * The map cannot be used after it is closed, but it can be reopened from its directory.
+     * @throws IOException if the last flush or a compaction failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        while (compacting) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        compactor.shutdown();
+        for (SortedRun<K, V> run : runs) {
+            run.close();
+        }
+        for (SortedRun<K, V> run : retired) {
+            run.close();
+            Files.deleteIfExists(run.path);
+        }
+        if (compactionFailure != null) {
+            throw compactionFailure;
+        }
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in ascending order.
+     * The iterator works on a snapshot of the map taken when it is created: it copies the memtable,
+     * and keeps the runs of that moment (and their files) until it is exhausted.
+     * Time complexity: hasNext() takes constant time, next() takes &Theta;(<em>log runs</em>)
+     * and reads each block of the runs once.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public synchronized Iterator<K> iterator() {
+        ensureOpen();
+        List<Record<K>> memory = new ArrayList<>(memtable.size());
+        for (java.util.Map.Entry<K, Object> entry : memtable.entrySet()) {
+            memory.add(new Record<>(entry.getKey(), entry.getValue()));
+        }
+        List<SortedRun<K, V>> snapshot = runs;
+        List<Iterator<Record<K>>> sources = new ArrayList<>();
+        for (SortedRun<K, V> run : snapshot) {
+            run.retain();
+            sources.add(run.iterator());
+        }
+        sources.add(memory.iterator());
+        return new LSMMapIterator(new MergingIterator<>(sources, true), snapshot);
+    }
+
+    private class LSMMapIterator implements Iterator<K> {
+
+        private final MergingIterator<K> records;
+        private List<SortedRun<K, V>> pinned;
+
+        LSMMapIterator(MergingIterator<K> records, List<SortedRun<K, V>> pinned) {
+            this.records = records;
+            this.pinned = pinned;
+            releaseIfDone();
+        }
+
+        /* lets go of the runs once the last key was read */
+        private void releaseIfDone() {
+            if (pinned != null && !records.hasNext()) {
+                synchronized (LSMMap.this) {
+                    try {
+                        for (SortedRun<K, V> run : pinned) {
+                            if (run.release()) {
+                                retired.remove(run);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                pinned = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return records.hasNext();
+        }
+
+        @Override
+        public K next() {
+            K key = records.next().key;
+            releaseIfDone();
+            return key;
+        }
+    }
+
+}
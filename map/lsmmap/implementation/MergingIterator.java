@@ -0,0 +1,95 @@
+package map.lsmmap.implementation;
+
+import map.lsmmap.implementation.SortedRun.Record;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges several sorted sources of records into one sorted sequence with a heap,
+ * that is &Theta;(<em>log s</em>) per record for s sources.
+ * When several sources hold a record for the same key, only the one from the newest source
+ * is returned. A key whose newest record is a tombstone is skipped altogether if the tombstones
+ * are dropped, which is only safe when no older source is left out of the merge: in the map's
+ * iterator, and in a compaction that includes the oldest run.
+ * @param <K> the type of keys
+ *
+ * @author aziz
+ */
+class MergingIterator<K extends Comparable<K>> implements Iterator<Record<K>> {
+
+    private static class Source<K> {
+        final Iterator<Record<K>> records;
+        /** the position of the source, a higher age is a newer source */
+        final int age;
+        Record<K> head;
+
+        Source(Iterator<Record<K>> records, int age) {
+            this.records = records;
+            this.age = age;
+            this.head = records.next();
+        }
+    }
+
+    private final PriorityQueue<Source<K>> heap;
+    private final boolean dropTombstones;
+    private Record<K> next;
+
+    /**
+     * @param sources the sources to merge, from the oldest to the newest
+     * @param dropTombstones whether to skip the keys whose newest record is a tombstone
+     */
+    MergingIterator(List<Iterator<Record<K>>> sources, boolean dropTombstones) {
+        this.dropTombstones = dropTombstones;
+        heap = new PriorityQueue<>(Math.max(1, sources.size()), (a, b) -> {
+            int cmp = a.head.key.compareTo(b.head.key);
+            return cmp != 0 ? cmp : Integer.compare(b.age, a.age);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).hasNext()) {
+                heap.add(new Source<>(sources.get(i), i));
+            }
+        }
+        advance();
+    }
+
+    private void advance() {
+        next = null;
+        while (next == null && !heap.isEmpty()) {
+            Source<K> newest = heap.poll();
+            Record<K> record = newest.head;
+            step(newest);
+            // drop the older versions of the same key
+            while (!heap.isEmpty() && heap.peek().head.key.compareTo(record.key) == 0) {
+                step(heap.poll());
+            }
+            if (!dropTombstones || record.value != SortedRun.TOMBSTONE) {
+                next = record;
+            }
+        }
+    }
+
+    private void step(Source<K> source) {
+        if (source.records.hasNext()) {
+            source.head = source.records.next();
+            heap.add(source);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Record<K> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Record<K> record = next;
+        advance();
+        return record;
+    }
+}
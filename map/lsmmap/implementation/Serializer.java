@@ -0,0 +1,69 @@
+package map.lsmmap.implementation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts keys or values to bytes and back, so an {@link LSMMap} can store them on disk.
+ * A serializer must read back exactly the bytes it wrote, and must be deterministic:
+ * equal objects are written as equal bytes (the Bloom filters of the runs hash the bytes).
+ * @param <T> the type of the serialized objects
+ *
+ * @author aziz
+ */
+public interface Serializer<T> {
+
+    /**
+     * Writes the given object to the output.
+     * @param value the object to write, never null
+     * @param out the output to write to
+     * @throws IOException if the output fails
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads an object written by {@link #write}.
+     * @param in the input to read from
+     * @return the object read
+     * @throws IOException if the input fails
+     */
+    T read(DataInput in) throws IOException;
+
+    /** writes strings in modified UTF-8, so a string must encode to at most 65535 bytes */
+    Serializer<String> STRING = new Serializer<>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    Serializer<Integer> INTEGER = new Serializer<>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    Serializer<Long> LONG = new Serializer<>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+}
@@ -0,0 +1,346 @@
+package map.lsmmap.implementation;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An immutable file of records sorted by key, written once by a flush or a compaction.
+ * The file is a sequence of blocks of about 4KB followed by a footer:
+ * <pre>
+ *     block*  := (key, flag, [value length, value])*
+ *     footer  := entry count, block count, (first key, offset, length)*, bloom filter
+ *     trailer := footer offset (long), magic (int)
+ * </pre>
+ * The footer is loaded in memory when the run is opened: a sparse index holding the first key
+ * of every block, and a Bloom filter of all the keys. A lookup checks the filter, finds the only
+ * block that can hold the key by binary search over the index, and reads that one block,
+ * so it costs at most one disk read.
+ * A run is shared by the map and its iterators, and is reference counted: the file is deleted
+ * once the run was replaced by a compaction and nobody reads it anymore.
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ *
+ * @author aziz
+ */
+class SortedRun<K extends Comparable<K>, V> {
+
+    /** marks a removed key, it hides the older versions of the key until a compaction drops it */
+    static final Object TOMBSTONE = new Object();
+    /** stands for a null value, so a null lookup result can mean "no record" */
+    static final Object NULL_VALUE = new Object();
+
+    static final int BLOCK_SIZE = 4096;
+    private static final int MAGIC = 0x4C534D31;
+    private static final int TRAILER_SIZE = 12;
+    private static final byte VALUE = 0;
+    private static final byte DELETED = 1;
+    private static final byte NULL = 2;
+
+    /** a key with its value, or with TOMBSTONE or NULL_VALUE */
+    static class Record<K> {
+        final K key;
+        final Object value;
+
+        Record(K key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    final Path path;
+    final int entryCount;
+    private final FileChannel channel;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final K[] firstKeys;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final BloomFilter bloom;
+    private final LongAdder blockReads;
+    private final AtomicInteger refs;
+
+    private SortedRun(Path path, FileChannel channel, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                      int entryCount, K[] firstKeys, long[] offsets, int[] lengths, BloomFilter bloom,
+                      LongAdder blockReads) {
+        this.path = path;
+        this.channel = channel;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.entryCount = entryCount;
+        this.firstKeys = firstKeys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.bloom = bloom;
+        this.blockReads = blockReads;
+        this.refs = new AtomicInteger(1);
+    }
+
+    static <T> byte[] toBytes(Serializer<T> serializer, T value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            serializer.write(value, new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the given records, sorted by key, to a new run file and opens it.
+     * The file is forced to the disk before this method returns.
+     * @param expectedEntries an upper bound of the number of records, to size the Bloom filter
+     * @param bytesWritten counts the bytes written to the file
+     */
+    static <K extends Comparable<K>, V> SortedRun<K, V> write(Path path, Iterator<Record<K>> records,
+                                                              int expectedEntries,
+                                                              Serializer<K> keySerializer,
+                                                              Serializer<V> valueSerializer,
+                                                              LongAdder blockReads,
+                                                              LongAdder bytesWritten) throws IOException {
+        BloomFilter bloom = new BloomFilter(expectedEntries);
+        List<K> firstKeys = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        int count = 0;
+        long offset = 0;
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream block = new ByteArrayOutputStream(2 * BLOCK_SIZE);
+            DataOutputStream data = new DataOutputStream(block);
+            while (records.hasNext()) {
+                Record<K> record = records.next();
+                if (block.size() == 0) {
+                    firstKeys.add(record.key);
+                    offsets.add(offset);
+                }
+                byte[] key = toBytes(keySerializer, record.key);
+                bloom.add(key);
+                data.write(key);
+                if (record.value == TOMBSTONE) {
+                    data.writeByte(DELETED);
+                }
+                else if (record.value == NULL_VALUE) {
+                    data.writeByte(NULL);
+                }
+                else {
+                    byte[] value = toBytes(valueSerializer, (V) record.value);
+                    data.writeByte(VALUE);
+                    data.writeInt(value.length);
+                    data.write(value);
+                }
+                count += 1;
+                if (block.size() >= BLOCK_SIZE) {
+                    lengths.add(block.size());
+                    offset += writeFully(out, block.toByteArray(), offset);
+                    block.reset();
+                }
+            }
+            if (block.size() > 0) {
+                lengths.add(block.size());
+                offset += writeFully(out, block.toByteArray(), offset);
+            }
+            ByteArrayOutputStream footer = new ByteArrayOutputStream();
+            DataOutputStream meta = new DataOutputStream(footer);
+            meta.writeInt(count);
+            meta.writeInt(firstKeys.size());
+            for (int i = 0; i < firstKeys.size(); i++) {
+                keySerializer.write(firstKeys.get(i), meta);
+                meta.writeLong(offsets.get(i));
+                meta.writeInt(lengths.get(i));
+            }
+            bloom.writeTo(meta);
+            meta.writeLong(offset);
+            meta.writeInt(MAGIC);
+            offset += writeFully(out, footer.toByteArray(), offset);
+            out.force(true);
+        }
+        bytesWritten.add(offset);
+        return open(path, keySerializer, valueSerializer, blockReads);
+    }
+
+    private static int writeFully(FileChannel out, byte[] bytes, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+        return bytes.length;
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = in.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("truncated run file");
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * Opens an existing run file, loading its index and Bloom filter.
+     */
+    static <K extends Comparable<K>, V> SortedRun<K, V> open(Path path, Serializer<K> keySerializer,
+                                                             Serializer<V> valueSerializer,
+                                                             LongAdder blockReads) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            readFully(channel, trailer, fileSize - TRAILER_SIZE);
+            trailer.flip();
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("not a run file: " + path);
+            }
+            ByteBuffer footer = ByteBuffer.allocate((int) (fileSize - TRAILER_SIZE - footerOffset));
+            readFully(channel, footer, footerOffset);
+            DataInputStream meta = new DataInputStream(new ByteArrayInputStream(footer.array()));
+            int count = meta.readInt();
+            int blocks = meta.readInt();
+            K[] firstKeys = (K[]) new Comparable[blocks];
+            long[] offsets = new long[blocks];
+            int[] lengths = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                firstKeys[i] = keySerializer.read(meta);
+                offsets[i] = meta.readLong();
+                lengths[i] = meta.readInt();
+            }
+            BloomFilter bloom = BloomFilter.readFrom(meta);
+            return new SortedRun<>(path, channel, keySerializer, valueSerializer,
+                    count, firstKeys, offsets, lengths, bloom, blockReads);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private DataInputStream readBlock(int block) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(lengths[block]);
+        readFully(channel, buffer, offsets[block]);
+        blockReads.increment();
+        return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+    }
+
+    /* reads the value of the record whose flag was just read */
+    private Object readValue(DataInputStream in, byte flag) throws IOException {
+        if (flag == DELETED) {
+            return TOMBSTONE;
+        }
+        else if (flag == NULL) {
+            return NULL_VALUE;
+        }
+        in.readInt();
+        return valueSerializer.read(in);
+    }
+
+    /**
+     * Returns the value of the record for the key: a value, TOMBSTONE or NULL_VALUE,
+     * or null if this run has no record for the key.
+     * @param keyBytes the serialized key, for the Bloom filter
+     */
+    Object get(K key, byte[] keyBytes) throws IOException {
+        if (!bloom.mightContain(keyBytes)) {
+            return null;
+        }
+        // the last block whose first key is at most the key
+        int lo = 0;
+        int hi = firstKeys.length - 1;
+        int block = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (firstKeys[mid].compareTo(key) <= 0) {
+                block = mid;
+                lo = mid + 1;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return null;
+        }
+        DataInputStream in = readBlock(block);
+        while (in.available() > 0) {
+            int cmp = keySerializer.read(in).compareTo(key);
+            byte flag = in.readByte();
+            if (cmp == 0) {
+                return readValue(in, flag);
+            }
+            else if (cmp > 0) {
+                return null;
+            }
+            if (flag == VALUE) {
+                in.skipBytes(in.readInt());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an iterator over the records of this run in key order, reading one block at a time.
+     * The iterator throws UncheckedIOException if the file cannot be read.
+     */
+    Iterator<Record<K>> iterator() {
+        return new Iterator<Record<K>>() {
+            private int block = 0;
+            private DataInputStream in;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return (in != null && in.available() > 0) || block < firstKeys.length;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public Record<K> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    if (in == null || in.available() == 0) {
+                        in = readBlock(block++);
+                    }
+                    K key = keySerializer.read(in);
+                    return new Record<>(key, readValue(in, in.readByte()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /** takes a reference to the run, so its file stays until the matching release */
+    void retain() {
+        refs.incrementAndGet();
+    }
+
+    /**
+     * Drops a reference to the run, the last one closes and deletes the file.
+     * @return true if the file was deleted
+     */
+    boolean release() throws IOException {
+        if (refs.decrementAndGet() > 0) {
+            return false;
+        }
+        channel.close();
+        Files.deleteIfExists(path);
+        return true;
+    }
+
+    /** closes the file, and keeps it on disk */
+    void close() throws IOException {
+        channel.close();
+    }
+}
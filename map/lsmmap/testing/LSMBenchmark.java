@@ -0,0 +1,79 @@
+package map.lsmmap.testing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import map.lsmmap.implementation.LSMMap;
+import map.lsmmap.implementation.Serializer;
+
+/**
+ * Measures the write throughput and the write and read amplification of an LSMMap.
+ * N random Integer keys with Long values are written (some of them twice), then
+ * the map is read back with lookups of present keys and of missing keys.
+ * The write amplification is the number of bytes written to the run files (by flushes and
+ * compactions) over the size of the user's data, and the read amplification is the number
+ * of blocks read per lookup, a missing key should cost close to zero thanks to the Bloom filters.
+ * Usage: LSMBenchmark [N] [directory], the directory defaults to a temporary one.
+ *
+ * @author aziz
+ */
+public class LSMBenchmark {
+
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path directory = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("lsm-benchmark");
+        Random random = new Random(42);
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt() & Integer.MAX_VALUE;
+        }
+
+        try (LSMMap<Integer, Long> map = new LSMMap<>(directory, Serializer.INTEGER, Serializer.LONG)) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                map.put(keys[i], (long) i);
+            }
+            // overwrite a quarter of the keys, these records are dropped by the compactions
+            for (int i = 0; i < n / 4; i++) {
+                map.put(keys[i], (long) -i);
+            }
+            map.flush();
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            long userBytes = (n + n / 4) * (4L + 8L);
+            System.out.printf("wrote %d puts in %.2f sec: %.0f puts/sec, %d runs\n",
+                    n + n / 4, seconds, (n + n / 4) / seconds, map.runCount());
+            System.out.printf("write amplification: %.2f (%d bytes written for %d bytes of data)\n",
+                    (double) map.bytesWritten() / userBytes, map.bytesWritten(), userBytes);
+
+            long reads = map.blockReads();
+            begin = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                map.get(keys[random.nextInt(n)]);
+            }
+            seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("present keys: %.1f us/get, read amplification %.2f blocks/get\n",
+                    seconds * 1e6 / LOOKUPS, (double) (map.blockReads() - reads) / LOOKUPS);
+
+            reads = map.blockReads();
+            begin = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                // negative keys are never written
+                map.get(-1 - random.nextInt(Integer.MAX_VALUE));
+            }
+            seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("missing keys: %.1f us/get, read amplification %.3f blocks/get\n",
+                    seconds * 1e6 / LOOKUPS, (double) (map.blockReads() - reads) / LOOKUPS);
+        }
+        if (args.length < 2) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package map.lsmmap.testing;
+
+import map.lsmmap.implementation.LSMMap;
+import map.lsmmap.implementation.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+
+public class LSMMapTest {
+
+    private final List<Path> directories = new ArrayList<>();
+
+    private Path tempDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("lsm-test");
+        directories.add(directory);
+        return directory;
+    }
+
+    @AfterEach
+    public void deleteDirectories() throws IOException {
+        for (Path directory : directories) {
+            // the files before their directory
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+        directories.clear();
+    }
+
+    @Test
+    public void sanityClearTest() throws IOException {
+        try (LSMMap<String, Integer> b = new LSMMap<>(tempDirectory(), Serializer.STRING, Serializer.INTEGER, 64)) {
+            for (int i = 0; i < 500; i++) {
+                b.put("hi" + i, 1 + i);
+                Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                        && b.containsKey("hi" + i));
+            }
+            Assertions.assertEquals(500, b.size());
+            Assertions.assertTrue(b.runCount() > 0);
+            b.clear();
+            Assertions.assertEquals(0, b.size());
+            for (int i = 0; i < 500; i++) {
+                Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+            }
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() throws IOException {
+        try (LSMMap<String, Integer> b = new LSMMap<>(tempDirectory(), Serializer.STRING, Serializer.INTEGER, 2)) {
+            b.put("hey", 5);
+            b.put("other", 1);
+            b.put("hey", 7);
+            Assertions.assertEquals(7, b.get("hey"));
+            Assertions.assertEquals(2, b.size());
+            b.put("none", null);
+            b.flush();
+            Assertions.assertTrue(b.containsKey("none"));
+            Assertions.assertNull(b.get("none"));
+            Assertions.assertFalse(b.containsKey(null));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, 1));
+        }
+    }
+
+    @Test
+    public void removeHidesFlushedKeyTest() throws IOException {
+        try (LSMMap<Integer, Integer> b = new LSMMap<>(tempDirectory(), Serializer.INTEGER, Serializer.INTEGER, 8)) {
+            for (int i = 0; i < 8; i++) {
+                b.put(i, i);
+            }
+            Assertions.assertEquals(3, b.remove(3));
+            Assertions.assertFalse(b.containsKey(3));
+            Assertions.assertNull(b.remove(3));
+            Assertions.assertNull(b.remove(4, 5));
+            Assertions.assertEquals(4, b.remove(4, 4));
+            b.flush();
+            Assertions.assertFalse(b.containsKey(3));
+            Assertions.assertEquals(6, b.size());
+            Assertions.assertEquals(new TreeSet<>(Arrays.asList(0, 1, 2, 5, 6, 7)), b.keySet());
+        }
+    }
+
+    @Test
+    public void reopenTest() throws IOException {
+        Path directory = tempDirectory();
+        try (LSMMap<Integer, String> b = new LSMMap<>(directory, Serializer.INTEGER, Serializer.STRING, 100)) {
+            for (int i = 0; i < 1000; i++) {
+                b.put(i, "v" + i);
+            }
+            for (int i = 0; i < 1000; i += 3) {
+                b.remove(i);
+            }
+        }
+        try (LSMMap<Integer, String> b = new LSMMap<>(directory, Serializer.INTEGER, Serializer.STRING, 100)) {
+            Assertions.assertEquals(666, b.size());
+            for (int i = 0; i < 1000; i++) {
+                Assertions.assertEquals(i % 3 == 0 ? null : "v" + i, b.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void crashKeepsFlushedSizeTest() throws IOException, InterruptedException {
+        Path directory = tempDirectory();
+        try (LSMMap<Integer, Integer> b = new LSMMap<>(directory, Serializer.INTEGER, Serializer.INTEGER, 500)) {
+            // the 4th flush starts a compaction, held back by the map's lock until the next writes are made,
+            // so it saves the manifest while they are unflushed
+            synchronized (b) {
+                for (int i = 0; i < 2000; i++) {
+                    b.put(i, i);
+                }
+                for (int i = 0; i < 10; i++) {
+                    b.put(2000 + i, i);
+                }
+                for (int i = 0; i < 5; i++) {
+                    b.remove(i);
+                }
+            }
+            b.awaitCompaction();
+            Assertions.assertEquals(1, b.runCount());
+            // reopened without closing the first map, as after a crash, which loses the memtable
+            try (LSMMap<Integer, Integer> reopened = new LSMMap<>(directory, Serializer.INTEGER, Serializer.INTEGER, 500)) {
+                Assertions.assertEquals(2000, reopened.size());
+                Assertions.assertEquals(0, reopened.get(0));
+                Assertions.assertEquals(1999, reopened.get(1999));
+                Assertions.assertNull(reopened.get(2000));
+            }
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() throws IOException {
+        try (LSMMap<Integer, Integer> b = new LSMMap<>(tempDirectory(), Serializer.INTEGER, Serializer.INTEGER, 256)) {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(3000);
+                int op = random.nextInt(3);
+                if (op == 0) {
+                    b.put(key, i);
+                    expected.put(key, i);
+                } else if (op == 1) {
+                    Assertions.assertEquals(expected.remove(key), b.remove(key));
+                } else {
+                    Assertions.assertEquals(expected.get(key), b.get(key));
+                }
+                Assertions.assertEquals(expected.size(), b.size());
+            }
+            List<Integer> keys = new ArrayList<>();
+            for (Integer key : b) {
+                keys.add(key);
+            }
+            Assertions.assertEquals(new ArrayList<>(expected.keySet()), keys);
+        }
+    }
+
+    @Test
+    public void compactionBoundsRunsTest() throws IOException, InterruptedException {
+        try (LSMMap<Integer, Integer> b = new LSMMap<>(tempDirectory(), Serializer.INTEGER, Serializer.INTEGER, 100)) {
+            for (int i = 0; i < 20000; i++) {
+                b.put(i % 5000, i);
+            }
+            // the compaction runs in the background
+            b.awaitCompaction();
+            int runs = b.runCount();
+            // 200 flushes, merged 4 at a time into runs of 4 times the size, the biggest being in tier 2
+            Assertions.assertTrue(runs <= 9, "runs " + runs);
+            Assertions.assertEquals(5000, b.size());
+            for (int i = 0; i < 5000; i++) {
+                Assertions.assertEquals(15000 + i, b.get(i));
+            }
+        }
+    }
+}
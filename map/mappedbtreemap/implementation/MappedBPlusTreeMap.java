@@ -0,0 +1,805 @@
+package map.mappedbtreemap.implementation;
+
+
+import map.Map;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * An on-disk sorted map based on a B+ tree stored in a memory-mapped file, the map is sorted according
+ * the natural ordering of its keys; so the key type must implement the Comparable interface.
+ * The file is a sequence of 4KB pages: page 0 is a header, the other pages are the nodes of the tree.
+ * Every key and value takes a fixed number of bytes (given by a {@link PageCodec}), so a page holds
+ * B = hundreds of entries, and the tree is very shallow: a lookup touches &Theta;(<em>log_B n</em>) pages,
+ * that is 3 or 4 pages for hundreds of millions of entries.
+ * The values are only held in the leaves, and the leaves are linked from left to right,
+ * so a range scan reads a run of leaves without going back up the tree.
+ * The file is mapped in memory instead of being read with explicit I/O, the operating system's
+ * page cache holds the hot pages and writes the modified pages back. On top of it, the map keeps
+ * an LRU cache of decoded pages (the keys of a page are decoded once, not at every comparison),
+ * a modified page is written through to the mapped file at once.
+ * Opening an existing file only maps it and reads the header, nothing is rebuilt or loaded,
+ * the pages are brought in lazily as they are touched.
+ * Freed pages (after merges) are kept in a free list and reused.
+ * There is no write-ahead log: the file is consistent after {@link #flush()} or {@link #close()},
+ * a crash in the middle of an update may leave it corrupt.
+ * This implementation is not thread-safe, does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take &Theta;(<em>log n</em>) comparisons and touch &Theta;(<em>log_B n</em>) pages.
+ * The <em>size</em> operation takes &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class MappedBPlusTreeMap<K extends Comparable<K>, V> implements Map<K, V>, Closeable {
+
+    public static final int PAGE_SIZE = 4096;
+    private static final int PAGES_PER_SEGMENT = 4096;
+    private static final long SEGMENT_SIZE = (long) PAGES_PER_SEGMENT * PAGE_SIZE;
+    private static final int DEFAULT_CACHED_PAGES = 1024;
+    private static final int MAGIC = 0x42505431;
+    private static final int NONE = -1;
+
+    // the fields of the header page
+    private static final int MAGIC_OFFSET = 0;
+    private static final int PAGE_SIZE_OFFSET = 4;
+    private static final int KEY_WIDTH_OFFSET = 8;
+    private static final int VALUE_WIDTH_OFFSET = 12;
+    private static final int ROOT_OFFSET = 16;
+    private static final int HEIGHT_OFFSET = 20;
+    private static final int PAGE_COUNT_OFFSET = 24;
+    private static final int FREE_LIST_OFFSET = 28;
+    private static final int SIZE_OFFSET = 32;
+
+    // the layout of a node page: type, count, next leaf (or next free page), then the slots
+    private static final byte FREE = 0;
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final int COUNT_OFFSET = 1;
+    private static final int NEXT_OFFSET = 3;
+    private static final int SLOTS_OFFSET = 8;
+
+    /** a decoded page, it has room for one entry more than a page, before it is split */
+    private static final class Node<K, V> {
+        final int page;
+        final boolean leaf;
+        int count;
+        final K[] keys;
+        final V[] values;
+        final int[] children;
+        int next;
+
+        Node(int page, boolean leaf, int maxKeys) {
+            this.page = page;
+            this.leaf = leaf;
+            this.keys = (K[]) new Comparable[maxKeys + 1];
+            this.values = leaf ? (V[]) new Object[maxKeys + 1] : null;
+            this.children = leaf ? null : new int[maxKeys + 2];
+            this.next = NONE;
+        }
+    }
+
+    /** the result of a split: the first key of the new right node, and its page */
+    private static final class Split<K> {
+        final K separator;
+        final int right;
+
+        Split(K separator, int right) {
+            this.separator = separator;
+            this.right = right;
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments;
+    private final PageCodec<K> keyCodec;
+    private final PageCodec<V> valueCodec;
+    private final int maxLeafKeys;
+    private final int maxInnerKeys;
+    private final LinkedHashMap<Integer, Node<K, V>> cache;
+    private MappedByteBuffer header;
+    private int root;
+    private int height;
+    private int pageCount;
+    private int freeList;
+    private int size;
+    private boolean closed;
+    /** set by remove to pass the result out of the recursion */
+    private boolean removed;
+    private V removedValue;
+
+    /**
+     * Opens the map stored in the given file, or creates an empty one if the file is missing or empty,
+     * with a cache of 1024 decoded pages.
+     * @param file the file holding the map
+     * @param keyCodec encodes the keys
+     * @param valueCodec encodes the values
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedBPlusTreeMap(Path file, PageCodec<K> keyCodec, PageCodec<V> valueCodec) throws IOException {
+        this(file, keyCodec, valueCodec, DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Opens the map stored in the given file, or creates an empty one if the file is missing or empty.
+     * @param file the file holding the map
+     * @param keyCodec encodes the keys
+     * @param valueCodec encodes the values
+     * @param cachedPages the number of decoded pages the map keeps in memory
+     * @throws IOException if the file cannot be opened or mapped, or holds a map of other codecs
+     */
+    public MappedBPlusTreeMap(Path file, PageCodec<K> keyCodec, PageCodec<V> valueCodec,
+                              int cachedPages) throws IOException {
+        if (cachedPages < 1) {
+            throw new IllegalArgumentException("illegal number of cached pages");
+        }
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        // a leaf slot is a key, a null flag and a value; an inner node has one child more than keys
+        this.maxLeafKeys = (PAGE_SIZE - SLOTS_OFFSET) / (keyCodec.width() + 1 + valueCodec.width());
+        this.maxInnerKeys = (PAGE_SIZE - SLOTS_OFFSET - Integer.BYTES) / (keyCodec.width() + Integer.BYTES);
+        if (maxLeafKeys < 4 || maxInnerKeys < 4) {
+            throw new IllegalArgumentException("keys and values too wide for a page");
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(java.util.Map.Entry<Integer, Node<K, V>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+        this.segments = new ArrayList<>();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            header = mapSegment(0);
+            if (fresh) {
+                initialize();
+            }
+            else {
+                if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(PAGE_SIZE_OFFSET) != PAGE_SIZE) {
+                    throw new IOException("not a B+ tree file: " + file);
+                }
+                if (header.getInt(KEY_WIDTH_OFFSET) != keyCodec.width()
+                        || header.getInt(VALUE_WIDTH_OFFSET) != valueCodec.width()) {
+                    throw new IOException("the file was written with codecs of other widths");
+                }
+                root = header.getInt(ROOT_OFFSET);
+                height = header.getInt(HEIGHT_OFFSET);
+                pageCount = header.getInt(PAGE_COUNT_OFFSET);
+                freeList = header.getInt(FREE_LIST_OFFSET);
+                size = header.getInt(SIZE_OFFSET);
+                ensureMapped(pageCount - 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedByteBuffer mapSegment(int index) throws IOException {
+        // mapping past the end of the file grows the file
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, index * SEGMENT_SIZE, SEGMENT_SIZE);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void ensureMapped(int page) throws IOException {
+        while (segments.size() <= page / PAGES_PER_SEGMENT) {
+            mapSegment(segments.size());
+        }
+    }
+
+    private MappedByteBuffer segment(int page) {
+        return segments.get(page / PAGES_PER_SEGMENT);
+    }
+
+    private static int base(int page) {
+        return (page % PAGES_PER_SEGMENT) * PAGE_SIZE;
+    }
+
+    /* an empty tree is a single empty leaf */
+    private void initialize() {
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(PAGE_SIZE_OFFSET, PAGE_SIZE);
+        header.putInt(KEY_WIDTH_OFFSET, keyCodec.width());
+        header.putInt(VALUE_WIDTH_OFFSET, valueCodec.width());
+        cache.clear();
+        pageCount = 2;
+        freeList = NONE;
+        root = 1;
+        height = 1;
+        size = 0;
+        writeNode(new Node<>(root, true, maxLeafKeys));
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        header.putInt(ROOT_OFFSET, root);
+        header.putInt(HEIGHT_OFFSET, height);
+        header.putInt(PAGE_COUNT_OFFSET, pageCount);
+        header.putInt(FREE_LIST_OFFSET, freeList);
+        header.putInt(SIZE_OFFSET, size);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("the map is closed");
+        }
+    }
+
+    private Node<K, V> readNode(int page) {
+        Node<K, V> node = cache.get(page);
+        if (node != null) {
+            return node;
+        }
+        MappedByteBuffer buffer = segment(page);
+        int base = base(page);
+        boolean leaf = buffer.get(base) == LEAF;
+        node = new Node<>(page, leaf, leaf ? maxLeafKeys : maxInnerKeys);
+        node.count = buffer.getShort(base + COUNT_OFFSET);
+        node.next = buffer.getInt(base + NEXT_OFFSET);
+        if (leaf) {
+            int slot = keyCodec.width() + 1 + valueCodec.width();
+            for (int i = 0; i < node.count; i++) {
+                int offset = base + SLOTS_OFFSET + i * slot;
+                node.keys[i] = keyCodec.read(buffer, offset);
+                if (buffer.get(offset + keyCodec.width()) != 0) {
+                    node.values[i] = valueCodec.read(buffer, offset + keyCodec.width() + 1);
+                }
+            }
+        }
+        else {
+            int keysOffset = base + SLOTS_OFFSET + (maxInnerKeys + 1) * Integer.BYTES;
+            for (int i = 0; i <= node.count; i++) {
+                node.children[i] = buffer.getInt(base + SLOTS_OFFSET + i * Integer.BYTES);
+            }
+            for (int i = 0; i < node.count; i++) {
+                node.keys[i] = keyCodec.read(buffer, keysOffset + i * keyCodec.width());
+            }
+        }
+        cache.put(page, node);
+        return node;
+    }
+
+    /* encodes the node into its page, and caches it */
+    private void writeNode(Node<K, V> node) {
+        MappedByteBuffer buffer = segment(node.page);
+        int base = base(node.page);
+        buffer.put(base, node.leaf ? LEAF : INNER);
+        buffer.putShort(base + COUNT_OFFSET, (short) node.count);
+        buffer.putInt(base + NEXT_OFFSET, node.next);
+        if (node.leaf) {
+            int slot = keyCodec.width() + 1 + valueCodec.width();
+            for (int i = 0; i < node.count; i++) {
+                int offset = base + SLOTS_OFFSET + i * slot;
+                keyCodec.write(buffer, offset, node.keys[i]);
+                buffer.put(offset + keyCodec.width(), (byte) (node.values[i] != null ? 1 : 0));
+                if (node.values[i] != null) {
+                    valueCodec.write(buffer, offset + keyCodec.width() + 1, node.values[i]);
+                }
+            }
+        }
+        else {
+            int keysOffset = base + SLOTS_OFFSET + (maxInnerKeys + 1) * Integer.BYTES;
+            for (int i = 0; i <= node.count; i++) {
+                buffer.putInt(base + SLOTS_OFFSET + i * Integer.BYTES, node.children[i]);
+            }
+            for (int i = 0; i < node.count; i++) {
+                keyCodec.write(buffer, keysOffset + i * keyCodec.width(), node.keys[i]);
+            }
+        }
+        cache.put(node.page, node);
+    }
+
+    private Node<K, V> newNode(boolean leaf) {
+        int page;
+        if (freeList != NONE) {
+            page = freeList;
+            freeList = segment(page).getInt(base(page) + NEXT_OFFSET);
+        }
+        else {
+            page = pageCount++;
+            try {
+                ensureMapped(page);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+        writeHeader();
+        return new Node<>(page, leaf, leaf ? maxLeafKeys : maxInnerKeys);
+    }
+
+    private void freeNode(Node<K, V> node) {
+        cache.remove(node.page);
+        MappedByteBuffer buffer = segment(node.page);
+        buffer.put(base(node.page), FREE);
+        buffer.putInt(base(node.page) + NEXT_OFFSET, freeList);
+        freeList = node.page;
+        writeHeader();
+    }
+
+    /* returns the index of the key in the node, or (-(insertion point) - 1) if it is not there */
+    private static <K extends Comparable<K>> int search(Node<K, ?> node, K key) {
+        int lo = 0;
+        int hi = node.count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = node.keys[mid].compareTo(key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            }
+            else if (cmp > 0) {
+                hi = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -lo - 1;
+    }
+
+    /* keys[i] is the smallest key of the subtree children[i + 1], so an equal key goes right */
+    private static <K extends Comparable<K>> int childIndex(Node<K, ?> node, K key) {
+        int pos = search(node, key);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private Node<K, V> findLeaf(K key) {
+        Node<K, V> node = readNode(root);
+        while (!node.leaf) {
+            node = readNode(node.children[childIndex(node, key)]);
+        }
+        return node;
+    }
+
+    /**
+     * Removes all the mappings from the map, the pages are reused but the file does not shrink.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        ensureOpen();
+        initialize();
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>log n</em>), touching &Theta;(<em>log_B n</em>) pages.
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        ensureOpen();
+        return key != null && search(findLeaf(key), key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>log n</em>), touching &Theta;(<em>log_B n</em>) pages.
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> leaf = findLeaf(key);
+        int pos = search(leaf, key);
+        return pos >= 0 ? leaf.values[pos] : null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the height of the tree, that is the number of pages a lookup touches.
+     * Time complexity: takes constant time.
+     * @return the height of the tree
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: &Theta;(<em>log n</em>), touching &Theta;(<em>log_B n</em>) pages.
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        ensureOpen();
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        Split<K> split = insert(readNode(root), key, value);
+        if (split != null) {
+            Node<K, V> newRoot = newNode(false);
+            newRoot.keys[0] = split.separator;
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.count = 1;
+            writeNode(newRoot);
+            root = newRoot.page;
+            height += 1;
+        }
+        writeHeader();
+    }
+
+    /* inserts below the node, returns the split of the node if it overflowed */
+    private Split<K> insert(Node<K, V> node, K key, V value) {
+        if (node.leaf) {
+            int pos = search(node, key);
+            if (pos >= 0) {
+                node.values[pos] = value;
+                writeNode(node);
+                return null;
+            }
+            pos = -pos - 1;
+            System.arraycopy(node.keys, pos, node.keys, pos + 1, node.count - pos);
+            System.arraycopy(node.values, pos, node.values, pos + 1, node.count - pos);
+            node.keys[pos] = key;
+            node.values[pos] = value;
+            node.count += 1;
+            size += 1;
+            if (node.count <= maxLeafKeys) {
+                writeNode(node);
+                return null;
+            }
+            Node<K, V> right = newNode(true);
+            int half = node.count / 2;
+            right.count = node.count - half;
+            System.arraycopy(node.keys, half, right.keys, 0, right.count);
+            System.arraycopy(node.values, half, right.values, 0, right.count);
+            Arrays.fill(node.keys, half, node.count, null);
+            Arrays.fill(node.values, half, node.count, null);
+            node.count = half;
+            right.next = node.next;
+            node.next = right.page;
+            writeNode(node);
+            writeNode(right);
+            return new Split<>(right.keys[0], right.page);
+        }
+        int child = childIndex(node, key);
+        Split<K> split = insert(readNode(node.children[child]), key, value);
+        if (split == null) {
+            return null;
+        }
+        System.arraycopy(node.keys, child, node.keys, child + 1, node.count - child);
+        System.arraycopy(node.children, child + 1, node.children, child + 2, node.count - child);
+        node.keys[child] = split.separator;
+        node.children[child + 1] = split.right;
+        node.count += 1;
+        if (node.count <= maxInnerKeys) {
+            writeNode(node);
+            return null;
+        }
+        // the middle key moves up to the parent
+        Node<K, V> right = newNode(false);
+        int mid = node.count / 2;
+        K separator = node.keys[mid];
+        right.count = node.count - mid - 1;
+        System.arraycopy(node.keys, mid + 1, right.keys, 0, right.count);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.count + 1);
+        Arrays.fill(node.keys, mid, node.count, null);
+        node.count = mid;
+        writeNode(node);
+        writeNode(right);
+        return new Split<>(separator, right.page);
+    }
+
+    /**
+     * Returns a Set of the keys contained in this map, sorted in ascending order.
+     * Time complexity: &Theta;(<em>n log n</em>).
+     * @return a set of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new TreeSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: &Theta;(<em>log n</em>), touching &Theta;(<em>log_B n</em>) pages.
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        removed = false;
+        delete(readNode(root), key);
+        if (!removed) {
+            return null;
+        }
+        size -= 1;
+        Node<K, V> rootNode = readNode(root);
+        if (!rootNode.leaf && rootNode.count == 0) {
+            root = rootNode.children[0];
+            height -= 1;
+            freeNode(rootNode);
+        }
+        writeHeader();
+        V value = removedValue;
+        removedValue = null;
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: &Theta;(<em>log n</em>), touching &Theta;(<em>log_B n</em>) pages.
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        ensureOpen();
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> leaf = findLeaf(key);
+        int pos = search(leaf, key);
+        if (pos < 0 || !Objects.equals(leaf.values[pos], value)) {
+            return null;
+        }
+        return remove(key);
+    }
+
+    private void delete(Node<K, V> node, K key) {
+        if (node.leaf) {
+            int pos = search(node, key);
+            if (pos < 0) {
+                return;
+            }
+            removed = true;
+            removedValue = node.values[pos];
+            System.arraycopy(node.keys, pos + 1, node.keys, pos, node.count - pos - 1);
+            System.arraycopy(node.values, pos + 1, node.values, pos, node.count - pos - 1);
+            node.count -= 1;
+            node.keys[node.count] = null;
+            node.values[node.count] = null;
+            writeNode(node);
+            return;
+        }
+        int child = childIndex(node, key);
+        delete(readNode(node.children[child]), key);
+        if (!removed) {
+            return;
+        }
+        // the separators may now be keys that are gone, they still split the key ranges correctly
+        Node<K, V> childNode = readNode(node.children[child]);
+        if (childNode.count < minKeys(childNode)) {
+            rebalance(node, child, childNode);
+        }
+    }
+
+    private int minKeys(Node<K, V> node) {
+        return (node.leaf ? maxLeafKeys : maxInnerKeys) / 2;
+    }
+
+    /* fixes the underflowed child of the parent by borrowing from a sibling, or merging with one */
+    private void rebalance(Node<K, V> parent, int index, Node<K, V> child) {
+        Node<K, V> left = index > 0 ? readNode(parent.children[index - 1]) : null;
+        if (left != null && left.count > minKeys(left)) {
+            borrowFromLeft(parent, index, left, child);
+            return;
+        }
+        Node<K, V> right = index < parent.count ? readNode(parent.children[index + 1]) : null;
+        if (right != null && right.count > minKeys(right)) {
+            borrowFromRight(parent, index, child, right);
+            return;
+        }
+        if (left != null) {
+            merge(parent, index - 1, left, child);
+        }
+        else {
+            merge(parent, index, child, right);
+        }
+    }
+
+    private void borrowFromLeft(Node<K, V> parent, int index, Node<K, V> left, Node<K, V> child) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.count);
+        if (child.leaf) {
+            System.arraycopy(child.values, 0, child.values, 1, child.count);
+            child.keys[0] = left.keys[left.count - 1];
+            child.values[0] = left.values[left.count - 1];
+            left.values[left.count - 1] = null;
+            parent.keys[index - 1] = child.keys[0];
+        }
+        else {
+            // the separator moves down, the last key of the left sibling moves up
+            System.arraycopy(child.children, 0, child.children, 1, child.count + 1);
+            child.keys[0] = parent.keys[index - 1];
+            child.children[0] = left.children[left.count];
+            parent.keys[index - 1] = left.keys[left.count - 1];
+        }
+        left.keys[left.count - 1] = null;
+        left.count -= 1;
+        child.count += 1;
+        writeNode(left);
+        writeNode(child);
+        writeNode(parent);
+    }
+
+    private void borrowFromRight(Node<K, V> parent, int index, Node<K, V> child, Node<K, V> right) {
+        if (child.leaf) {
+            child.keys[child.count] = right.keys[0];
+            child.values[child.count] = right.values[0];
+            System.arraycopy(right.values, 1, right.values, 0, right.count - 1);
+            right.values[right.count - 1] = null;
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            parent.keys[index] = right.keys[0];
+        }
+        else {
+            child.keys[child.count] = parent.keys[index];
+            child.children[child.count + 1] = right.children[0];
+            parent.keys[index] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            System.arraycopy(right.children, 1, right.children, 0, right.count);
+        }
+        right.keys[right.count - 1] = null;
+        right.count -= 1;
+        child.count += 1;
+        writeNode(right);
+        writeNode(child);
+        writeNode(parent);
+    }
+
+    /* merges the right node into the left one, they are the children index and index + 1 of the parent */
+    private void merge(Node<K, V> parent, int index, Node<K, V> left, Node<K, V> right) {
+        if (left.leaf) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            System.arraycopy(right.values, 0, left.values, left.count, right.count);
+            left.count += right.count;
+            left.next = right.next;
+        }
+        else {
+            left.keys[left.count] = parent.keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+            System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+            left.count += 1 + right.count;
+        }
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.count - index - 1);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.count - index - 1);
+        parent.count -= 1;
+        parent.keys[parent.count] = null;
+        writeNode(left);
+        writeNode(parent);
+        freeNode(right);
+    }
+
+    /**
+     * Forces the modified pages of the mapped file to the disk.
+     * Time complexity: &Theta;(<em>modified pages</em>).
+     */
+    public void flush() {
+        ensureOpen();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flushes the map and closes its file. The map cannot be used after it is closed,
+     * but it can be reopened from its file.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        cache.clear();
+        segments.clear();
+        header = null;
+        channel.close();
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in ascending order,
+     * it walks the linked leaves and never goes back up the tree.
+     * hasNext() takes constant time, next() takes amortized constant time.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        ensureOpen();
+        Node<K, V> node = readNode(root);
+        while (!node.leaf) {
+            node = readNode(node.children[0]);
+        }
+        return new LeafIterator(node, 0, null);
+    }
+
+    /**
+     * Returns the keys between lo and hi (both inclusive) in ascending order,
+     * the scan finds the leaf of lo and then walks the linked leaves.
+     * Time complexity: &Theta;(<em>log n + k</em>) to iterate over k keys.
+     * @param lo the lowest key
+     * @param hi the highest key
+     * @return an iterable over the keys in the range
+     */
+    public Iterable<K> keys(K lo, K hi) {
+        ensureOpen();
+        if (lo == null || hi == null) {
+            throw new IllegalArgumentException("null bounds are not supported");
+        }
+        return () -> {
+            Node<K, V> leaf = findLeaf(lo);
+            int pos = search(leaf, lo);
+            return new LeafIterator(leaf, pos >= 0 ? pos : -pos - 1, hi);
+        };
+    }
+
+    private class LeafIterator implements Iterator<K> {
+
+        private Node<K, V> leaf;
+        private int index;
+        private final K hi;
+
+        LeafIterator(Node<K, V> leaf, int index, K hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            skipExhaustedLeaves();
+        }
+
+        private void skipExhaustedLeaves() {
+            while (leaf != null && index == leaf.count) {
+                leaf = leaf.next != NONE ? readNode(leaf.next) : null;
+                index = 0;
+            }
+            if (leaf != null && hi != null && leaf.keys[index].compareTo(hi) > 0) {
+                leaf = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public K next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            K key = leaf.keys[index++];
+            skipExhaustedLeaves();
+            return key;
+        }
+    }
+
+}
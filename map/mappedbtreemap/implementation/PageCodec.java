@@ -0,0 +1,124 @@
+package map.mappedbtreemap.implementation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes keys or values of a fixed width into the pages of a {@link MappedBPlusTreeMap}, and reads them back.
+ * Every object takes exactly {@link #width()} bytes, so the entries of a page are
+ * in fixed-size slots and a page can be searched without parsing it.
+ * The reads and writes are absolute, they never move the position of the buffer.
+ * @param <T> the type of the encoded objects
+ *
+ * @author aziz
+ */
+public interface PageCodec<T> {
+
+    /**
+     * Returns the number of bytes an object takes in a page.
+     * @return the width of the encoding
+     */
+    int width();
+
+    /**
+     * Writes the object in the buffer at the given offset.
+     * @param buffer the buffer holding the page
+     * @param offset the index of the first byte to write
+     * @param value the object to write, never null
+     */
+    void write(ByteBuffer buffer, int offset, T value);
+
+    /**
+     * Reads an object written by {@link #write} at the given offset.
+     * @param buffer the buffer holding the page
+     * @param offset the index of the first byte to read
+     * @return the object read
+     */
+    T read(ByteBuffer buffer, int offset);
+
+    PageCodec<Integer> INTEGER = new PageCodec<>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Integer value) {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    PageCodec<Long> LONG = new PageCodec<>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Long value) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    PageCodec<Double> DOUBLE = new PageCodec<>() {
+        @Override
+        public int width() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Double value) {
+            buffer.putDouble(offset, value);
+        }
+
+        @Override
+        public Double read(ByteBuffer buffer, int offset) {
+            return buffer.getDouble(offset);
+        }
+    };
+
+    /**
+     * Returns a codec for strings that encode to at most the given number of UTF-8 bytes,
+     * every string takes 2 + maxBytes bytes.
+     * @param maxBytes the maximum length of an encoded string
+     * @return the string codec
+     */
+    static PageCodec<String> strings(int maxBytes) {
+        if (maxBytes < 1 || maxBytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("illegal maximum string length");
+        }
+        return new PageCodec<>() {
+            @Override
+            public int width() {
+                return 2 + maxBytes;
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, int offset, String value) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > maxBytes) {
+                    throw new IllegalArgumentException("string longer than " + maxBytes + " bytes");
+                }
+                buffer.putShort(offset, (short) bytes.length);
+                buffer.put(offset + 2, bytes);
+            }
+
+            @Override
+            public String read(ByteBuffer buffer, int offset) {
+                byte[] bytes = new byte[buffer.getShort(offset)];
+                buffer.get(offset + 2, bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
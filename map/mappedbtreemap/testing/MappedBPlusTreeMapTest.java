@@ -0,0 +1,177 @@
+package map.mappedbtreemap.testing;
+
+import map.mappedbtreemap.implementation.MappedBPlusTreeMap;
+import map.mappedbtreemap.implementation.PageCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+
+public class MappedBPlusTreeMapTest {
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("bptree-test", ".db");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void sanityClearTest() throws IOException {
+        try (MappedBPlusTreeMap<String, Integer> b =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.strings(16), PageCodec.INTEGER)) {
+            for (int i = 0; i < 500; i++) {
+                b.put("hi" + i, 1 + i);
+                Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                        && b.containsKey("hi" + i));
+            }
+            Assertions.assertEquals(500, b.size());
+            b.clear();
+            Assertions.assertEquals(0, b.size());
+            for (int i = 0; i < 500; i++) {
+                Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+            }
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() throws IOException {
+        try (MappedBPlusTreeMap<Integer, Long> b =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.INTEGER, PageCodec.LONG)) {
+            b.put(1, 5L);
+            b.put(1, 7L);
+            Assertions.assertEquals(7L, b.get(1));
+            Assertions.assertEquals(1, b.size());
+            b.put(2, null);
+            Assertions.assertTrue(b.containsKey(2));
+            Assertions.assertNull(b.get(2));
+            Assertions.assertFalse(b.containsKey(null));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, 1L));
+        }
+    }
+
+    @Test
+    public void heightTest() throws IOException {
+        // a leaf holds 314 entries of an int key and a long value, so a million keys need 3 levels
+        try (MappedBPlusTreeMap<Integer, Long> b =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.INTEGER, PageCodec.LONG)) {
+            for (int i = 0; i < 1_000_000; i++) {
+                b.put(i, (long) i);
+            }
+            Assertions.assertEquals(3, b.height());
+        }
+    }
+
+    @Test
+    public void reopenTest() throws IOException {
+        Path file = tempFile();
+        try (MappedBPlusTreeMap<Integer, Long> b = new MappedBPlusTreeMap<>(file, PageCodec.INTEGER, PageCodec.LONG)) {
+            for (int i = 0; i < 20000; i++) {
+                b.put(i, (long) -i);
+            }
+            for (int i = 0; i < 20000; i += 3) {
+                b.remove(i);
+            }
+        }
+        try (MappedBPlusTreeMap<Integer, Long> b = new MappedBPlusTreeMap<>(file, PageCodec.INTEGER, PageCodec.LONG)) {
+            Assertions.assertEquals(13333, b.size());
+            for (int i = 0; i < 20000; i++) {
+                Assertions.assertEquals(i % 3 == 0 ? null : (long) -i, b.get(i));
+            }
+        }
+        Assertions.assertThrows(IOException.class,
+                () -> new MappedBPlusTreeMap<>(file, PageCodec.LONG, PageCodec.LONG));
+    }
+
+    @Test
+    public void rangeScanTest() throws IOException {
+        try (MappedBPlusTreeMap<Integer, Integer> b =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.INTEGER, PageCodec.INTEGER)) {
+            for (int i = 0; i < 10000; i += 2) {
+                b.put(i, i);
+            }
+            List<Integer> keys = new ArrayList<>();
+            for (Integer key : b.keys(1001, 2001)) {
+                keys.add(key);
+            }
+            Assertions.assertEquals(500, keys.size());
+            Assertions.assertEquals(1002, keys.get(0));
+            Assertions.assertEquals(2000, keys.get(keys.size() - 1));
+            Assertions.assertFalse(b.keys(20000, 30000).iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() throws IOException {
+        // a tiny page cache, so most pages are decoded again from the mapped file
+        try (MappedBPlusTreeMap<Integer, Integer> b =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.INTEGER, PageCodec.INTEGER, 4)) {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 200000; i++) {
+                int key = random.nextInt(20000);
+                int op = random.nextInt(3);
+                if (op == 0) {
+                    b.put(key, i);
+                    expected.put(key, i);
+                } else if (op == 1) {
+                    Assertions.assertEquals(expected.remove(key), b.remove(key));
+                } else {
+                    Assertions.assertEquals(expected.get(key), b.get(key));
+                }
+                Assertions.assertEquals(expected.size(), b.size());
+            }
+            List<Integer> keys = new ArrayList<>();
+            for (Integer key : b) {
+                keys.add(key);
+            }
+            Assertions.assertEquals(new ArrayList<>(expected.keySet()), keys);
+            for (Integer key : expected.keySet()) {
+                b.remove(key);
+            }
+            Assertions.assertEquals(0, b.size());
+            Assertions.assertEquals(1, b.height());
+        }
+    }
+
+    @Test
+    public void wideKeysTest() throws IOException {
+        // 19 keys per page, so the inner nodes split, borrow and merge too
+        try (MappedBPlusTreeMap<String, Integer> b =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.strings(200), PageCodec.INTEGER, 16)) {
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            Random random = new Random(7);
+            for (int i = 0; i < 100000; i++) {
+                String key = "key" + random.nextInt(5000);
+                if (random.nextBoolean()) {
+                    b.put(key, i);
+                    expected.put(key, i);
+                } else {
+                    Assertions.assertEquals(expected.remove(key), b.remove(key));
+                }
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+            Assertions.assertEquals(expected.keySet(), b.keySet());
+            for (String key : expected.keySet()) {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void removeKeyValueTest() throws IOException {
+        try (MappedBPlusTreeMap<String, String> q =
+                     new MappedBPlusTreeMap<>(tempFile(), PageCodec.strings(8), PageCodec.strings(8))) {
+            q.put("c", "a");
+            q.put("b", "b");
+            Assertions.assertNull(q.remove("c", "b"));
+            Assertions.assertEquals("a", q.remove("c", "a"));
+            Assertions.assertFalse(q.containsKey("c"));
+            Assertions.assertNull(q.remove("z"));
+            Assertions.assertEquals(1, q.size());
+        }
+    }
+}
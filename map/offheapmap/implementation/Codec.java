@@ -0,0 +1,114 @@
+package map.offheapmap.implementation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to bytes stored outside of the heap by an {@link OffHeapHashMap}, and back.
+ * An object can take any number of bytes, the map records the length of every encoding.
+ * The map compares and hashes keys by their bytes, so a key codec must be deterministic:
+ * equal objects are written as equal bytes, and different objects as different bytes.
+ * The reads and writes are absolute, they never move the position of the buffer.
+ * @param <T> the type of the encoded objects
+ *
+ * @author aziz
+ */
+public interface Codec<T> {
+
+    /**
+     * Returns the number of bytes the object takes once encoded.
+     * @param value the object to encode, never null
+     * @return the length of its encoding
+     */
+    int size(T value);
+
+    /**
+     * Writes the object in the buffer at the given offset, in exactly {@link #size} bytes.
+     * @param buffer the buffer to write to
+     * @param offset the index of the first byte to write
+     * @param value the object to write, never null
+     */
+    void write(ByteBuffer buffer, int offset, T value);
+
+    /**
+     * Reads an object written by {@link #write} at the given offset.
+     * @param buffer the buffer to read from
+     * @param offset the index of the first byte to read
+     * @param length the length of the encoding
+     * @return the object read
+     */
+    T read(ByteBuffer buffer, int offset, int length);
+
+    Codec<Integer> INTEGER = new Codec<>() {
+        @Override
+        public int size(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Integer value) {
+            buffer.putInt(offset, value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset, int length) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int size(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Long value) {
+            buffer.putLong(offset, value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset, int length) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    /** writes strings in UTF-8, with no length prefix since the map records the length */
+    Codec<String> STRING = new Codec<>() {
+        @Override
+        public int size(String value) {
+            int bytes = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes += 1;
+                }
+                else if (c < 0x800) {
+                    bytes += 2;
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 4;
+                    i += 1;
+                }
+                else {
+                    // a lone surrogate is encoded as '?'
+                    bytes += Character.isSurrogate(c) ? 1 : 3;
+                }
+            }
+            return bytes;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, String value) {
+            buffer.put(offset, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+}
@@ -0,0 +1,500 @@
+package map.offheapmap.implementation;
+
+
+import map.Map;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * A hash map implementation that keeps its entries and its index outside of the Java heap,
+ * in direct byte buffers, so a map of tens of millions of entries costs the garbage collector
+ * a handful of objects instead of several per entry, and the heap use does not grow with the map.
+ * The keys and values are encoded to bytes by the given codecs, and appended to fixed-size slabs
+ * as entries of [key length, value length, key bytes, value bytes], aligned to 8 bytes.
+ * The index is an open addressing table with linear probing, where every slot is a long
+ * holding 32 bits of the key's hash and the address of the entry (in units of 8 bytes),
+ * so a probe compares the hashes first and only reads the entries whose hash matches.
+ * The keys are hashed and compared by their encoded bytes.
+ * An entry replaced by a value of a different length, or removed, leaves a hole in its slab,
+ * once the holes take more than half of the slabs, the live entries are copied into fresh slabs.
+ * Memory of dropped slabs is given back when the garbage collector reclaims their buffers.
+ * The index holds at most 2^28 slots (the largest direct buffer is 2GB), so about 200 million
+ * entries, and the entries take at most 32GB.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected constant time &Theta;(<em>1</em>) (<em>put</em> is amortized, because of resizing),
+ * plus the time to encode the key and to decode the returned object.
+ * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class OffHeapHashMap<K, V> implements Map<K, V> {
+
+    private static final int DEFAULT_SLAB_SIZE = 1 << 24;
+    private static final int INITIAL_SLOTS = 16;
+    private static final int MAX_SLOTS = 1 << 28;
+    /** the key length and the value length, the value length is -1 for a null value */
+    private static final int HEADER = 8;
+    private static final int NULL_VALUE = -1;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+
+    private final int slabSize;
+    private final int slabShift;
+    private List<ByteBuffer> slabs;
+    /** the address where the next entry is appended, an address is slab index * slab size + offset */
+    private long tail;
+    /** the bytes of the slabs taken by removed or replaced entries */
+    private long garbage;
+
+    /** the slots of the index, a slot is (hash << 32 | reference), 0 for an empty slot */
+    private ByteBuffer index;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    /** the encoded bytes of the key of the current operation */
+    private ByteBuffer scratch;
+
+    /**
+     * Initializes an empty map with slabs of 16MB.
+     * @param keyCodec the codec of the keys
+     * @param valueCodec the codec of the values
+     */
+    public OffHeapHashMap(Codec<K> keyCodec, Codec<V> valueCodec) {
+        this(keyCodec, valueCodec, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Initializes an empty map with slabs of the given size, no entry can be larger than a slab.
+     * @param keyCodec the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param slabSize the size of a slab in bytes, a power of two between 4KB and 1GB
+     */
+    public OffHeapHashMap(Codec<K> keyCodec, Codec<V> valueCodec, int slabSize) {
+        if (slabSize < 1 << 12 || slabSize > 1 << 30 || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("illegal slab size");
+        }
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.slabSize = slabSize;
+        this.slabShift = Integer.numberOfTrailingZeros(slabSize);
+        this.scratch = ByteBuffer.allocate(64).order(ByteOrder.nativeOrder());
+        clear();
+    }
+
+    private void allocateIndex(int slots) {
+        index = ByteBuffer.allocateDirect(slots * Long.BYTES).order(ByteOrder.nativeOrder());
+        mask = slots - 1;
+        threshold = slots / 4 * 3;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    private ByteBuffer slab(long address) {
+        return slabs.get((int) (address >>> slabShift));
+    }
+
+    private int offset(long address) {
+        return (int) address & (slabSize - 1);
+    }
+
+    private static long address(long slot) {
+        return ((slot & 0xFFFFFFFFL) - 1) << 3;
+    }
+
+    private static int entrySize(int keyLength, int valueLength) {
+        return align(HEADER + keyLength + Math.max(valueLength, 0));
+    }
+
+    /* reserves the bytes at the tail, moving to a new slab if they do not fit in the current one */
+    private long allocate(int bytes) {
+        if (bytes > slabSize) {
+            throw new IllegalArgumentException("entry larger than a slab");
+        }
+        int offset = offset(tail);
+        if (offset + bytes > slabSize) {
+            garbage += slabSize - offset;
+            tail += slabSize - offset;
+        }
+        if ((tail + bytes) >>> 3 >= 0xFFFFFFFFL) {
+            throw new IllegalStateException("the map is full");
+        }
+        if ((int) (tail >>> slabShift) == slabs.size()) {
+            slabs.add(ByteBuffer.allocateDirect(slabSize).order(ByteOrder.nativeOrder()));
+        }
+        long address = tail;
+        tail += bytes;
+        return address;
+    }
+
+    /* encodes the key in the scratch buffer and returns the hash of its bytes */
+    private int encodeKey(K key) {
+        int length = keyCodec.size(key);
+        if (scratch.capacity() < length) {
+            scratch = ByteBuffer.allocate(Math.max(length, 2 * scratch.capacity())).order(ByteOrder.nativeOrder());
+        }
+        scratch.clear();
+        keyCodec.write(scratch, 0, key);
+        scratch.limit(length);
+        long h = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            h = (h ^ scratch.getLong(i)) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        for (; i < length; i++) {
+            h = (h ^ (scratch.get(i) & 0xFF)) * 0x94D049BB133111EBL;
+        }
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        h ^= h >>> 32;
+        return (int) h;
+    }
+
+    /* compares the key bytes of the entry with the scratch buffer */
+    private boolean keyEquals(long address) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int length = scratch.limit();
+        if (slab.getInt(offset) != length) {
+            return false;
+        }
+        offset += HEADER;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            if (slab.getLong(offset + i) != scratch.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (slab.get(offset + i) != scratch.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* returns the index slot of the key in the scratch buffer, or -1 if the key is absent */
+    private int findSlot(int hash) {
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = index.getLong(i << 3);
+            if (slot == 0) {
+                return -1;
+            }
+            if ((int) (slot >>> 32) == hash && keyEquals(address(slot))) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Removes all the mappings from the map, and drops its slabs.
+     * Time complexity: &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        slabs = new ArrayList<>();
+        tail = 0;
+        garbage = 0;
+        size = 0;
+        allocateIndex(INITIAL_SLOTS);
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && findSlot(encodeKey(key)) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key. The value is decoded on every call.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = findSlot(encodeKey(key));
+        return i >= 0 ? readValue(address(index.getLong(i << 3))) : null;
+    }
+
+    private V readValue(long address) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        int keyLength = slab.getInt(offset);
+        int valueLength = slab.getInt(offset + 4);
+        if (valueLength == NULL_VALUE) {
+            return null;
+        }
+        return valueCodec.read(slab, offset + HEADER + keyLength, valueLength);
+    }
+
+    private K readKey(long address) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        return keyCodec.read(slab, offset + HEADER, slab.getInt(offset));
+    }
+
+    private void writeValue(long address, V value, int valueLength) {
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        slab.putInt(offset + 4, valueLength);
+        if (value != null) {
+            valueCodec.write(slab, offset + HEADER + slab.getInt(offset), value);
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes this map holds outside of the heap, its slabs and its index.
+     * Time complexity: takes constant time.
+     * @return the off-heap footprint in bytes
+     */
+    public long offHeapBytes() {
+        return (long) slabs.size() * slabSize + index.capacity();
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: amortized expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        int hash = encodeKey(key);
+        int keyLength = scratch.limit();
+        int valueLength = value == null ? NULL_VALUE : valueCodec.size(value);
+        int i = findSlot(hash);
+        if (i >= 0) {
+            long address = address(index.getLong(i << 3));
+            int oldSize = entrySize(keyLength, slab(address).getInt(offset(address) + 4));
+            if (oldSize == entrySize(keyLength, valueLength)) {
+                // the new value fits in the old entry
+                writeValue(address, value, valueLength);
+                return;
+            }
+            index.putLong(i << 3, (long) hash << 32 | appendEntry(keyLength, value, valueLength));
+            garbage += oldSize;
+            compactIfWasteful();
+            return;
+        }
+        if (size == threshold) {
+            if (mask + 1 == MAX_SLOTS) {
+                throw new IllegalStateException("the map is full");
+            }
+            resizeIndex(2 * (mask + 1));
+        }
+        long slot = (long) hash << 32 | appendEntry(keyLength, value, valueLength);
+        i = hash & mask;
+        while (index.getLong(i << 3) != 0) {
+            i = (i + 1) & mask;
+        }
+        index.putLong(i << 3, slot);
+        size += 1;
+    }
+
+    /* appends an entry of the key in the scratch buffer and the value, and returns its reference */
+    private long appendEntry(int keyLength, V value, int valueLength) {
+        long address = allocate(entrySize(keyLength, valueLength));
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        slab.putInt(offset, keyLength);
+        slab.put(offset + HEADER, scratch, 0, keyLength);
+        writeValue(address, value, valueLength);
+        return (address >>> 3) + 1;
+    }
+
+    /* the slots keep their hash, so the entries are not read to move them */
+    private void resizeIndex(int slots) {
+        ByteBuffer old = index;
+        allocateIndex(slots);
+        for (int j = 0; j < old.capacity(); j += Long.BYTES) {
+            long slot = old.getLong(j);
+            if (slot != 0) {
+                int i = (int) (slot >>> 32) & mask;
+                while (index.getLong(i << 3) != 0) {
+                    i = (i + 1) & mask;
+                }
+                index.putLong(i << 3, slot);
+            }
+        }
+    }
+
+    /* once the holes take at least a slab and more than the live entries, copies the live entries
+     * into new slabs, in the order of the index, and lets the old slabs go */
+    private void compactIfWasteful() {
+        if (garbage < slabSize || garbage <= tail - garbage) {
+            return;
+        }
+        List<ByteBuffer> old = slabs;
+        slabs = new ArrayList<>();
+        tail = 0;
+        garbage = 0;
+        for (int i = 0; i <= mask; i++) {
+            long slot = index.getLong(i << 3);
+            if (slot != 0) {
+                long from = address(slot);
+                ByteBuffer oldSlab = old.get((int) (from >>> slabShift));
+                int oldOffset = offset(from);
+                int bytes = entrySize(oldSlab.getInt(oldOffset), oldSlab.getInt(oldOffset + 4));
+                long to = allocate(bytes);
+                slab(to).put(offset(to), oldSlab, oldOffset, bytes);
+                index.putLong(i << 3, (slot & 0xFFFFFFFF00000000L) | ((to >>> 3) + 1));
+            }
+        }
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map, the keys are decoded on the heap.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keySet = new HashSet<>();
+        for (K key : this) {
+            keySet.add(key);
+        }
+        return keySet;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = findSlot(encodeKey(key));
+        if (i < 0) {
+            return null;
+        }
+        V value = readValue(address(index.getLong(i << 3)));
+        removeSlot(i);
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        int i = findSlot(encodeKey(key));
+        if (i < 0) {
+            return null;
+        }
+        V slotValue = readValue(address(index.getLong(i << 3)));
+        if (!Objects.equals(slotValue, value)) {
+            return null;
+        }
+        removeSlot(i);
+        return slotValue;
+    }
+
+    /* Counts the entry as garbage and empties the slot, then walks the rest of the probe run,
+     * moving back every slot whose home index is not cyclically in (hole, j], as LinearProbingMap does. */
+    private void removeSlot(int hole) {
+        long address = address(index.getLong(hole << 3));
+        ByteBuffer slab = slab(address);
+        int offset = offset(address);
+        garbage += entrySize(slab.getInt(offset), slab.getInt(offset + 4));
+        for (int j = (hole + 1) & mask; ; j = (j + 1) & mask) {
+            long slot = index.getLong(j << 3);
+            if (slot == 0) {
+                break;
+            }
+            int home = (int) (slot >>> 32) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                index.putLong(hole << 3, slot);
+                hole = j;
+            }
+        }
+        index.putLong(hole << 3, 0);
+        size -= 1;
+        compactIfWasteful();
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in no particular order.
+     * The keys are decoded on the heap as they are returned.
+     * A whole traversal takes &Theta;(<em>capacity</em>).
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new OffHeapHashMapIterator();
+    }
+
+    private class OffHeapHashMapIterator implements Iterator<K> {
+
+        private int slot;
+        private int remaining;
+
+        OffHeapHashMapIterator() {
+            slot = 0;
+            remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (index.getLong(slot << 3) == 0) {
+                slot += 1;
+            }
+            remaining -= 1;
+            return readKey(address(index.getLong((slot++) << 3)));
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package map.offheapmap.testing;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+
+import map.offheapmap.implementation.Codec;
+import map.offheapmap.implementation.OffHeapHashMap;
+
+/**
+ * Compares the footprint of OffHeapHashMap with Java's HashMap, both filled with the same
+ * Long to Long entries (10 million by default, or the number given as the first argument).
+ * For each map it reports the time to fill it, the growth of the used heap after a GC,
+ * the bytes held outside of the heap, the collections and the collection time spent while filling,
+ * and the duration of a full GC with the map alive, which grows with the number of live objects.
+ * Run it with enough heap for the HashMap, -Xmx2g for 10 million entries.
+ *
+ * @author aziz
+ */
+public class OffHeapFootprintTest {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.println("Putting " + n + " Long to Long entries.");
+        offHeap(n);
+        onHeap(n);
+    }
+
+    private static void offHeap(int n) {
+        long heapBefore = usedHeap();
+        long[] gcBefore = gcCountAndTime();
+        long begin = System.nanoTime();
+        OffHeapHashMap<Long, Long> map = new OffHeapHashMap<>(Codec.LONG, Codec.LONG);
+        for (long i = 0; i < n; i++) {
+            map.put(i, i);
+        }
+        long elapsed = System.nanoTime() - begin;
+        report("OffHeapHashMap", elapsed, heapBefore, gcBefore, map.offHeapBytes(), n);
+        // keeps the map alive during the full GC of the report
+        System.out.println("(size " + map.size() + ")");
+    }
+
+    private static void onHeap(int n) {
+        long heapBefore = usedHeap();
+        long[] gcBefore = gcCountAndTime();
+        long begin = System.nanoTime();
+        HashMap<Long, Long> map = new HashMap<>();
+        for (long i = 0; i < n; i++) {
+            map.put(i, i);
+        }
+        long elapsed = System.nanoTime() - begin;
+        report("Java's Built-in HashMap", elapsed, heapBefore, gcBefore, 0, n);
+        System.out.println("(size " + map.size() + ")");
+    }
+
+    private static void report(String name, long elapsed, long heapBefore, long[] gcBefore, long offHeap, int n) {
+        long[] gcAfter = gcCountAndTime();
+        long begin = System.nanoTime();
+        long heap = Math.max(0, usedHeap() - heapBefore);
+        double fullGc = (System.nanoTime() - begin) / 3e6;
+        System.out.printf("%s: fill %.2f sec, heap %.1f bytes/entry, off-heap %.1f bytes/entry, "
+                        + "%d collections taking %d ms while filling, full GC %.1f ms\n",
+                name, elapsed / 1e9, (double) heap / n, (double) offHeap / n,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1], fullGc);
+    }
+
+    /* runs 3 full collections, so the time of one is a third of the time of usedHeap */
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long[] gcCountAndTime() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+}
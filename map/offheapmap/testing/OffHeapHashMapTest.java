@@ -0,0 +1,120 @@
+package map.offheapmap.testing;
+
+import map.offheapmap.implementation.Codec;
+import map.offheapmap.implementation.OffHeapHashMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class OffHeapHashMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        OffHeapHashMap<String, Integer> b = new OffHeapHashMap<>(Codec.STRING, Codec.INTEGER);
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        OffHeapHashMap<String, String> b = new OffHeapHashMap<>(Codec.STRING, Codec.STRING);
+        b.put("hey", "five");
+        b.put("hey", "seven");
+        Assertions.assertEquals("seven", b.get("hey"));
+        b.put("hey", "sevens");
+        Assertions.assertEquals("sevens", b.get("hey"));
+        b.put("hey", "a much longer value than the one before, so it moves");
+        Assertions.assertEquals("a much longer value than the one before, so it moves", b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+        b.put("hi", null);
+        Assertions.assertTrue(b.containsKey("hi"));
+        Assertions.assertNull(b.get("hi"));
+        b.put("hi", "back");
+        Assertions.assertEquals("back", b.get("hi"));
+        Assertions.assertFalse(b.containsKey(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, "1"));
+    }
+
+    @Test
+    public void stringCodecTest() {
+        OffHeapHashMap<String, Integer> b = new OffHeapHashMap<>(Codec.STRING, Codec.INTEGER);
+        String[] keys = {"", "a", "é", "€uro", "😀 smile", "a much longer key of more than eight bytes"};
+        for (int i = 0; i < keys.length; i++) {
+            b.put(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertEquals(i, b.get(keys[i]));
+        }
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(keys)), b.keySet());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OffHeapHashMap<>(Codec.LONG, Codec.LONG, 1000));
+    }
+
+    @Test
+    public void compactionTest() {
+        // small slabs, and values that keep changing length, so the slabs fill with holes and get compacted
+        OffHeapHashMap<Integer, String> b = new OffHeapHashMap<>(Codec.INTEGER, Codec.STRING, 1 << 12);
+        HashMap<Integer, String> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(500);
+            String value = "v".repeat(random.nextInt(40));
+            b.put(key, value);
+            expected.put(key, value);
+        }
+        // live entries take at most 500 * 56 bytes, about 7 slabs, and the holes at most as much again
+        Assertions.assertTrue(b.offHeapBytes() < 20 * (1 << 12) + 8 * 1024);
+        for (Integer key : expected.keySet()) {
+            Assertions.assertEquals(expected.get(key), b.get(key));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        OffHeapHashMap<Long, Long> b = new OffHeapHashMap<>(Codec.LONG, Codec.LONG, 1 << 12);
+        HashMap<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, (long) i);
+                expected.put(key, (long) i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+        int count = 0;
+        for (Long key : b) {
+            Assertions.assertTrue(expected.containsKey(key));
+            count += 1;
+        }
+        Assertions.assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        OffHeapHashMap<String, String> q = new OffHeapHashMap<>(Codec.STRING, Codec.STRING);
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+}
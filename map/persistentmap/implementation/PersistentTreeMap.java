@@ -0,0 +1,320 @@
+package map.persistentmap.implementation;
+
+
+import java.util.*;
+
+/**
+ * An immutable (persistent) sorted map based on an AVL tree, the map is sorted according the
+ * natural ordering of its keys; so the key type must implement the Comparable interface.
+ * A map is never modified after it is created: <em>put</em> and <em>remove</em> return a new
+ * version of the map, and leave the old version intact. The new version is built by path copying,
+ * only the nodes on the path from the root to the changed key (and the nodes touched by the
+ * rebalancing rotations) are copied, every other subtree is shared between the two versions.
+ * Since an AVL tree has a height of at most 1.44log(n), each update creates &Theta;(<em>log n</em>) nodes.
+ * Holding on to a version is a free, consistent snapshot, it can be read by any number of
+ * threads without locking while other threads keep deriving new versions from it.
+ * This implementation allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take &Theta;(<em>log n</em>) in the worst case.
+ * The <em>size</em> operation takes &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public final class PersistentTreeMap<K extends Comparable<K>, V> implements Iterable<K> {
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null);
+
+    private final Node<K, V> root;
+
+    private PersistentTreeMap(Node<K, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns the empty map, all the empty maps are the same instance.
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return the empty map
+     */
+    public static <K extends Comparable<K>, V> PersistentTreeMap<K, V> empty() {
+        return (PersistentTreeMap<K, V>) EMPTY;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    public boolean containsKey(K key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case.
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    public V get(K key) {
+        Node<K, V> node = getNode(key);
+        return node != null ? node.value : null;
+    }
+
+    private Node<K, V> getNode(K key) {
+        Node<K, V> current = root;
+        while (current != null) {
+            int cmp = key.compareTo(current.key);
+            if (cmp < 0) {
+                current = current.left;
+            }
+            else if (cmp > 0) {
+                current = current.right;
+            }
+            else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns true if this map contains no mappings.
+     * Time complexity: takes constant time.
+     * @return true if this map is empty
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Returns the height of the tree, the height of an empty tree is 0.
+     * Time complexity: takes constant time.
+     * @return the height of the tree
+     */
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * Returns a new version of this map where the specified key is associated with
+     * the specified value, this map is left unchanged. If the key is already mapped to
+     * the very same value, this map itself is returned.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case, and so is the number of new nodes.
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with key
+     * @return the new version of the map
+     */
+    public PersistentTreeMap<K, V> put(K key, V value) {
+        Node<K, V> newRoot = put(root, key, value);
+        return newRoot == root ? this : new PersistentTreeMap<>(newRoot);
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            Node<K, V> left = put(node.left, key, value);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        else if (cmp > 0) {
+            Node<K, V> right = put(node.right, key, value);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        else if (node.value == value) {
+            return node;
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    /**
+     * Returns a new version of this map without the mapping for the specified key,
+     * this map is left unchanged. If the key is not present, this map itself is returned.
+     * Time complexity: &Theta;(<em>log n</em>) in the worst case, and so is the number of new nodes.
+     * @param key key for which the mapping should be removed
+     * @return the new version of the map
+     */
+    public PersistentTreeMap<K, V> remove(K key) {
+        Node<K, V> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentTreeMap<>(newRoot);
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            Node<K, V> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        }
+        else if (cmp > 0) {
+            Node<K, V> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        else if (node.right == null) {
+            return node.left;
+        }
+        Node<K, V> successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.key, successor.value, node.left, removeMin(node.right));
+    }
+
+    private Node<K, V> removeMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, removeMin(node.left), node.right);
+    }
+
+    /* builds a node out of the given parts, rotating if the heights of the
+     * two subtrees differ by more than one (they never differ by more than two here). */
+    private Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                // single right rotation
+                return new Node<>(left.key, left.value, left.left,
+                        new Node<>(key, value, left.right, right));
+            }
+            // double rotation: left-right
+            Node<K, V> mid = left.right;
+            return new Node<>(mid.key, mid.value,
+                    new Node<>(left.key, left.value, left.left, mid.left),
+                    new Node<>(key, value, mid.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                // single left rotation
+                return new Node<>(right.key, right.value,
+                        new Node<>(key, value, left, right.left), right.right);
+            }
+            // double rotation: right-left
+            Node<K, V> mid = right.left;
+            return new Node<>(mid.key, mid.value,
+                    new Node<>(key, value, left, mid.left),
+                    new Node<>(right.key, right.value, mid.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    /**
+     * Returns a read-only Set view of the keys contained in this map, since the map
+     * never changes neither does the view.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     * @return a set view of the keys contained in this map
+     */
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return PersistentTreeMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return PersistentTreeMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                try {
+                    return o != null && containsKey((K) o);
+                } catch (ClassCastException e) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator for in-order traversal over the keys of this version of the map.
+     * The nodes have no parent pointers (they are shared between versions), so the iterator
+     * keeps an array stack as deep as the tree, that is &Theta;(<em>log n</em>) memory.
+     * hasNext() takes constant time, next() takes amortized constant time.
+     * @return an iterator for in-order traversal over the keys.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new PersistentTreeMapIterator();
+    }
+
+    private class PersistentTreeMapIterator implements Iterator<K> {
+
+        private final Node<K, V>[] stack;
+        private int top;
+
+        PersistentTreeMapIterator() {
+            stack = (Node<K, V>[]) new Node[height(root)];
+            top = 0;
+            pushLeftPath(root);
+        }
+
+        private void pushLeftPath(Node<K, V> node) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        @Override
+        public K next() {
+            if (top == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> current = stack[--top];
+            pushLeftPath(current.right);
+            return current.key;
+        }
+    }
+
+}
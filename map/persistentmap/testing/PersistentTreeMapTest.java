@@ -0,0 +1,88 @@
+package map.persistentmap.testing;
+
+import map.persistentmap.implementation.PersistentTreeMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class PersistentTreeMapTest {
+
+    @Test
+    public void versionsAreIndependentTest() {
+        PersistentTreeMap<String, Integer> empty = PersistentTreeMap.empty();
+        PersistentTreeMap<String, Integer> one = empty.put("a", 1);
+        PersistentTreeMap<String, Integer> two = one.put("b", 2);
+        PersistentTreeMap<String, Integer> changed = two.put("a", 10);
+        PersistentTreeMap<String, Integer> removed = changed.remove("b");
+
+        Assertions.assertEquals(0, empty.size());
+        Assertions.assertNull(empty.get("a"));
+        Assertions.assertEquals(1, one.get("a"));
+        Assertions.assertFalse(one.containsKey("b"));
+        Assertions.assertEquals(1, two.get("a"));
+        Assertions.assertEquals(2, two.get("b"));
+        Assertions.assertEquals(10, changed.get("a"));
+        Assertions.assertEquals(2, changed.size());
+        Assertions.assertEquals(1, removed.size());
+        Assertions.assertEquals(2, changed.get("b"));
+    }
+
+    @Test
+    public void unchangedVersionIsReturnedTest() {
+        Integer value = 1;
+        PersistentTreeMap<String, Integer> map = PersistentTreeMap.<String, Integer>empty().put("a", value);
+        Assertions.assertSame(map, map.put("a", value));
+        Assertions.assertSame(map, map.remove("z"));
+    }
+
+    @Test
+    public void inOrderInsertionStaysBalancedTest() {
+        PersistentTreeMap<Integer, Integer> map = PersistentTreeMap.empty();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            map = map.put(i, i);
+        }
+        Assertions.assertEquals(n, map.size());
+        // an AVL tree has a height of at most 1.44log(n)
+        Assertions.assertTrue(map.height() <= 1.45 * (Math.log(n) / Math.log(2)));
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        PersistentTreeMap<Integer, Integer> map = PersistentTreeMap.empty();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        List<PersistentTreeMap<Integer, Integer>> versions = new ArrayList<>();
+        List<TreeMap<Integer, Integer>> expectedVersions = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                map = map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map = map.remove(key);
+                expected.remove(key);
+            }
+            if (i % 1000 == 0) {
+                versions.add(map);
+                expectedVersions.add(new TreeMap<>(expected));
+            }
+        }
+        versions.add(map);
+        expectedVersions.add(expected);
+        for (int v = 0; v < versions.size(); v++) {
+            PersistentTreeMap<Integer, Integer> version = versions.get(v);
+            TreeMap<Integer, Integer> expectedVersion = expectedVersions.get(v);
+            Assertions.assertEquals(expectedVersion.size(), version.size());
+            List<Integer> keys = new ArrayList<>();
+            for (Integer key : version) {
+                keys.add(key);
+                Assertions.assertEquals(expectedVersion.get(key), version.get(key));
+            }
+            Assertions.assertEquals(new ArrayList<>(expectedVersion.keySet()), keys);
+            Assertions.assertEquals(expectedVersion.keySet(), version.keySet());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package map.primitivemap.implementation;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive long keys to primitive long values, it follows the contract of
+ * {@link map.Map} (clear, containsKey, get, put, remove and size) but it never boxes
+ * the keys or the values, so no wrapper objects are allocated by any operation.
+ * Keys and values are kept in two flat parallel arrays with a power-of-two capacity,
+ * collisions are resolved by linear probing, and deletion shifts the following keys
+ * of the probe run backwards (no tombstones).
+ * The key 0 marks an empty slot in the keys array, so a mapping for the key 0 is kept
+ * aside in its own fields.
+ * Since a primitive can't be null, <em>get</em> and <em>remove</em> return 0
+ * when the key is absent, use <em>containsKey</em> to tell the two cases apart.
+ * Iteration is done through a {@link Cursor} which exposes the keys and values as primitives.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected constant time &Theta;(<em>1</em>) (<em>put</em> is amortized, because of resizing).
+ *
+ * @author aziz
+ */
+public class LongLongMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private long[] values;
+    private boolean hasZeroKey;
+    private long zeroValue;
+    private int size;
+    private int mask;
+    private int threshold;
+    private final double loadFactor;
+
+    /**
+     * Initializes an empty map with the default capacity (16) and load factor (0.5).
+     */
+    public LongLongMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Initializes an empty map with the specified initial capacity and load factor.
+     * @param initialCapacity the number of slots to start with, rounded up to a power of two
+     * @param loadFactor the maximum ratio of keys to slots before the table is doubled,
+     *                   must be in the range (0, 1)
+     */
+    public LongLongMap(int initialCapacity, double loadFactor) {
+        if (initialCapacity < 1 || !(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("illegal capacity or load factor");
+        }
+        this.loadFactor = loadFactor;
+        int capacity = 2;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private int indexFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int folded = (int) (h ^ (h >>> 32));
+        return (folded ^ (folded >>> 16)) & mask;
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or 0 if this
+     * map contains no mapping for the key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else 0.
+     */
+    public long get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = findSlot(key);
+        return slot >= 0 ? values[slot] : 0;
+    }
+
+    /* returns the slot holding the (non-zero) key, or -1 if the key is absent */
+    private int findSlot(long key) {
+        for (int i = indexFor(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: amortized expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated
+     * @param value value to be associated with key
+     */
+    public void put(long key, long value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size += 1;
+            }
+            zeroValue = value;
+            return;
+        }
+        int i = indexFor(key);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+        if (size > threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = indexFor(oldKeys[j]);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return 0 if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or 0 if there was no mapping for key
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            long value = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = 0;
+                size -= 1;
+            }
+            return value;
+        }
+        int hole = findSlot(key);
+        if (hole < 0) {
+            return 0;
+        }
+        long value = values[hole];
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int home = indexFor(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size -= 1;
+        return value;
+    }
+
+    /**
+     * Returns a cursor positioned before the first mapping of this map,
+     * the mappings are visited in no particular order.
+     * A whole traversal takes &Theta;(<em>capacity</em>).
+     * @return a cursor over the mappings of this map.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A cursor over the mappings of the map, it is used as follows:
+     * <pre>
+     * LongLongMap.Cursor cursor = map.cursor();
+     * while (cursor.advance()) {
+     *     use(cursor.key(), cursor.value());
+     * }
+     * </pre>
+     * The map must not be modified while a cursor is in use.
+     */
+    public class Cursor {
+
+        /** -1 stands for the zero key, which is visited first */
+        private int index;
+
+        private Cursor() {
+            index = -2;
+        }
+
+        /**
+         * Moves the cursor to the next mapping.
+         * @return true if the cursor now points to a mapping, false if there are no more mappings
+         */
+        public boolean advance() {
+            if (index == -2) {
+                index = -1;
+                if (hasZeroKey) {
+                    return true;
+                }
+            }
+            index += 1;
+            while (index < keys.length && keys[index] == 0) {
+                index += 1;
+            }
+            return index < keys.length;
+        }
+
+        /**
+         * Returns the key of the mapping the cursor points to.
+         * @return the current key
+         */
+        public long key() {
+            return index == -1 ? 0 : keys[index];
+        }
+
+        /**
+         * Returns the value of the mapping the cursor points to.
+         * @return the current value
+         */
+        public long value() {
+            return index == -1 ? zeroValue : values[index];
+        }
+    }
+
+}
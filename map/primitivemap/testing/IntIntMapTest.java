@@ -0,0 +1,69 @@
+package map.primitivemap.testing;
+
+import map.primitivemap.implementation.IntIntMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+
+public class IntIntMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        IntIntMap b = new IntIntMap();
+        for (int i = 0; i < 500; i++) {
+            b.put(i, i + 1);
+            Assertions.assertTrue(b.get(i) == i + 1 && b.containsKey(i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(b.get(i) == 0 && !b.containsKey(i));
+        }
+    }
+
+    @Test
+    public void zeroKeyTest() {
+        IntIntMap b = new IntIntMap();
+        Assertions.assertFalse(b.containsKey(0));
+        b.put(0, 0);
+        Assertions.assertTrue(b.containsKey(0));
+        Assertions.assertEquals(1, b.size());
+        b.put(0, 42);
+        Assertions.assertEquals(42, b.get(0));
+        Assertions.assertEquals(42, b.remove(0));
+        Assertions.assertFalse(b.containsKey(0));
+        Assertions.assertEquals(0, b.size());
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        IntIntMap b = new IntIntMap(4, 0.75);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(3000) - 1500;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Integer removed = expected.remove(key);
+                Assertions.assertEquals(removed == null ? 0 : removed, b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.containsKey(key), b.containsKey(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        IntIntMap.Cursor cursor = b.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            Assertions.assertEquals(expected.get(cursor.key()), cursor.value());
+            count += 1;
+        }
+        Assertions.assertEquals(expected.size(), count);
+    }
+}
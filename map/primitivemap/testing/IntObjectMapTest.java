@@ -0,0 +1,53 @@
+package map.primitivemap.testing;
+
+import map.primitivemap.implementation.IntObjectMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+
+public class IntObjectMapTest {
+
+    @Test
+    public void sanityPutGetTest() {
+        IntObjectMap<String> b = new IntObjectMap<>();
+        Assertions.assertNull(b.get(5));
+        b.put(5, "five");
+        b.put(-5, "minus five");
+        b.put(0, "zero");
+        Assertions.assertEquals("five", b.get(5));
+        Assertions.assertEquals("minus five", b.get(-5));
+        Assertions.assertEquals("zero", b.get(0));
+        Assertions.assertEquals(3, b.size());
+    }
+
+    @Test
+    public void containsKeyNullTest() {
+        IntObjectMap<String> b = new IntObjectMap<>();
+        b.put(1, null);
+        Assertions.assertTrue(b.containsKey(1));
+        Assertions.assertNull(b.remove(1));
+        Assertions.assertFalse(b.containsKey(1));
+    }
+
+    @Test
+    public void cursorTest() {
+        IntObjectMap<String> b = new IntObjectMap<>();
+        for (int i = 0; i < 100; i++) {
+            b.put(i, "v" + i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            Assertions.assertEquals("v" + i, b.remove(i));
+        }
+        Set<Integer> seen = new HashSet<>();
+        IntObjectMap<String>.Cursor cursor = b.cursor();
+        while (cursor.advance()) {
+            Assertions.assertNotEquals(0, cursor.key() % 3);
+            Assertions.assertEquals("v" + cursor.key(), cursor.value());
+            seen.add(cursor.key());
+        }
+        Assertions.assertEquals(b.size(), seen.size());
+    }
+}
@@ -0,0 +1,50 @@
+package map.primitivemap.testing;
+
+import map.primitivemap.implementation.LongLongMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+
+public class LongLongMapTest {
+
+    @Test
+    public void countingTest() {
+        LongLongMap counts = new LongLongMap();
+        for (long i = 0; i < 10000; i++) {
+            long key = (i % 100) << 40;
+            counts.put(key, counts.get(key) + 1);
+        }
+        Assertions.assertEquals(100, counts.size());
+        for (long i = 0; i < 100; i++) {
+            Assertions.assertEquals(100L, counts.get(i << 40));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        LongLongMap b = new LongLongMap(2, 0.6);
+        HashMap<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50000; i++) {
+            long key = random.nextInt(2000) * 0x100000001L;
+            if (random.nextBoolean()) {
+                b.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                Long removed = expected.remove(key);
+                Assertions.assertEquals(removed == null ? 0L : removed, b.remove(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        LongLongMap.Cursor cursor = b.cursor();
+        int count = 0;
+        while (cursor.advance()) {
+            Assertions.assertEquals(expected.get(cursor.key()), cursor.value());
+            count += 1;
+        }
+        Assertions.assertEquals(expected.size(), count);
+    }
+}
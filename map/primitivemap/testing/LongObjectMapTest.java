@@ -0,0 +1,37 @@
+package map.primitivemap.testing;
+
+import map.primitivemap.implementation.LongObjectMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+
+public class LongObjectMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        LongObjectMap<String> b = new LongObjectMap<>();
+        for (long i = 0; i < 500; i++) {
+            b.put(i * Integer.MAX_VALUE, "hi" + i);
+            Assertions.assertEquals("hi" + i, b.get(i * Integer.MAX_VALUE));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        Assertions.assertFalse(b.cursor().advance());
+        for (long i = 0; i < 500; i++) {
+            Assertions.assertNull(b.get(i * Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void removeTest() {
+        LongObjectMap<String> b = new LongObjectMap<>();
+        b.put(Long.MIN_VALUE, "min");
+        b.put(Long.MAX_VALUE, "max");
+        Assertions.assertNull(b.remove(1L));
+        Assertions.assertEquals("min", b.remove(Long.MIN_VALUE));
+        Assertions.assertFalse(b.containsKey(Long.MIN_VALUE));
+        Assertions.assertEquals("max", b.get(Long.MAX_VALUE));
+        Assertions.assertEquals(1, b.size());
+    }
+}
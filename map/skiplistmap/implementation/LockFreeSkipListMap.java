@@ -0,0 +1,414 @@
+package map.skiplistmap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, lock-free skip-list based map implementation, the map is sorted according the
+ * natural ordering of its keys; so the key type must implement the Comparable interface.
+ * A skip list is a hierarchy of sorted linked lists, the bottom list holds every key and each list
+ * above it holds a random half of the keys of the list below, so a search can skip over
+ * large runs of keys and takes &Theta;(<em>log n</em>) expected time.
+ * No locks are used: every next pointer is an atomic markable reference, and a node is inserted
+ * by a compare-and-set on the next pointer of its predecessor, so writers touching disjoint
+ * key ranges never contend with each other.
+ * A node is removed by a compare-and-set of its value to a deleted sentinel, which is the moment the key
+ * leaves the map, and put replaces a value by a compare-and-set too, so a removal only takes the value
+ * it saw, and a put never writes into a removed node. The removed node's next pointers are then marked
+ * (from the top level down to the bottom one), and any thread traversing the list physically unlinks
+ * the marked nodes it meets on the way.
+ * Lookups never modify the list and never retry.
+ * Iterators are weakly consistent, they return the keys in ascending order, never throw
+ * ConcurrentModificationException and may or may not reflect the modifications made after
+ * they were created.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected &Theta;(<em>log n</em>).
+ * The <em>size</em> operation is only an estimate while other threads are modifying the map,
+ * and <em>clear</em> is not atomic with respect to concurrent writers.
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class LockFreeSkipListMap<K extends Comparable<K>, V> implements Map<K, V> {
+
+    private static final int MAX_LEVEL = 24;
+    /** the value of a removed node, a put finding it retries on a new node */
+    private static final Object DELETED = new Object();
+
+    private static class Node<K, V> {
+        final K key;
+        /** the value, or DELETED once the node is removed */
+        final AtomicReference<Object> value;
+        final AtomicMarkableReference<Node<K, V>>[] next;
+
+        Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = new AtomicReference<>(value);
+            this.next = (AtomicMarkableReference<Node<K, V>>[]) new AtomicMarkableReference[topLevel + 1];
+            for (int level = 0; level <= topLevel; level++) {
+                next[level] = new AtomicMarkableReference<>(null, false);
+            }
+        }
+
+        int topLevel() {
+            return next.length - 1;
+        }
+    }
+
+    /** a sentinel node with a null key, which is smaller than any key */
+    private volatile Node<K, V> head;
+    /** the highest level any node has been linked at, searches start from it instead of MAX_LEVEL */
+    private final AtomicInteger levelHint;
+    private final LongAdder size;
+
+    /**
+     * Initializes an empty skip list map.
+     */
+    public LockFreeSkipListMap() {
+        this.head = new Node<>(null, null, MAX_LEVEL);
+        this.levelHint = new AtomicInteger(0);
+        this.size = new LongAdder();
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        this.head = new Node<>(null, null, MAX_LEVEL);
+        this.size.reset();
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && getNode(key) != null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        Object value = node.value.get();
+        return value == DELETED ? null : (V) value;
+    }
+
+    /* a read-only search, it steps over marked nodes instead of unlinking them */
+    private Node<K, V> getNode(K key) {
+        boolean[] marked = {false};
+        Node<K, V> pred = head;
+        Node<K, V> curr = null;
+        for (int level = levelHint.get(); level >= 0; level--) {
+            curr = pred.next[level].getReference();
+            while (curr != null) {
+                Node<K, V> succ = curr.next[level].get(marked);
+                while (marked[0] && succ != null) {
+                    curr = succ;
+                    succ = curr.next[level].get(marked);
+                }
+                if (marked[0]) {
+                    // curr is the (marked) last node of this level
+                    curr = null;
+                    break;
+                }
+                if (curr.key.compareTo(key) < 0) {
+                    pred = curr;
+                    curr = succ;
+                }
+                else {
+                    break;
+                }
+            }
+        }
+        if (curr != null && curr.key.compareTo(key) == 0 && !curr.next[0].isMarked()
+                && curr.value.get() != DELETED) {
+            return curr;
+        }
+        return null;
+    }
+
+    /*
+     * Fills preds and succs with the nodes surrounding the key at every level,
+     * unlinking the marked nodes met on the way, and returns true if the key was found
+     * at the bottom level. The search restarts from the head whenever an unlink fails.
+     */
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            int top = levelHint.get();
+            for (int level = MAX_LEVEL; level > top; level--) {
+                preds[level] = pred;
+                succs[level] = null;
+            }
+            for (int level = top; level >= 0; level--) {
+                Node<K, V> curr = pred.next[level].getReference();
+                while (curr != null) {
+                    Node<K, V> succ = curr.next[level].get(marked);
+                    while (marked[0]) {
+                        if (!pred.next[level].compareAndSet(curr, succ, false, false)) {
+                            continue retry;
+                        }
+                        curr = succ;
+                        if (curr == null) {
+                            break;
+                        }
+                        succ = curr.next[level].get(marked);
+                    }
+                    if (curr == null || curr.key.compareTo(key) >= 0) {
+                        break;
+                    }
+                    pred = curr;
+                    curr = succ;
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return succs[0] != null && succs[0].key.compareTo(key) == 0;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL + 1];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL + 1];
+        int topLevel = randomLevel();
+        if (topLevel > levelHint.get()) {
+            // the hint only grows, so a search never starts below a level a node is linked at
+            levelHint.accumulateAndGet(topLevel, Math::max);
+        }
+        retry:
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> node = succs[0];
+                while (true) {
+                    Object current = node.value.get();
+                    if (current == DELETED) {
+                        // the node is being removed, help mark it so the next search unlinks it
+                        markNode(node);
+                        continue retry;
+                    }
+                    if (node.value.compareAndSet(current, value)) {
+                        return;
+                    }
+                }
+            }
+            Node<K, V> node = new Node<>(key, value, topLevel);
+            for (int level = 0; level <= topLevel; level++) {
+                node.next[level].set(succs[level], false);
+            }
+            // linking the bottom level is the moment the key enters the map
+            if (!preds[0].next[0].compareAndSet(succs[0], node, false, false)) {
+                continue;
+            }
+            size.increment();
+            linkUpperLevels(key, node, preds, succs);
+            return;
+        }
+    }
+
+    private void linkUpperLevels(K key, Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+        for (int level = 1; level <= node.topLevel(); level++) {
+            while (true) {
+                Node<K, V> succ = succs[level];
+                Node<K, V> current = node.next[level].getReference();
+                // the node's own pointer must agree with the successor found by the last search,
+                // if it got marked meanwhile, the node is being removed and we stop linking it.
+                if (current != succ && !node.next[level].compareAndSet(current, succ, false, false)) {
+                    return;
+                }
+                if (preds[level].next[level].compareAndSet(succ, node, false, false)) {
+                    break;
+                }
+                find(key, preds, succs);
+                if (succs[0] != node) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int randomLevel() {
+        // each level is reached with half the probability of the level below it
+        int bits = ThreadLocalRandom.current().nextInt();
+        int level = Integer.numberOfTrailingZeros(bits);
+        return Math.min(level, MAX_LEVEL);
+    }
+
+    /**
+     * Returns a Set of the keys contained in this map, sorted in ascending order.
+     * Time complexity: &Theta;(<em>n log n</em>).
+     * @return a set of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new TreeSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        return removeNode(key, null, false);
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        return removeNode(key, value, true);
+    }
+
+    private V removeNode(K key, V expectedValue, boolean matchValue) {
+        Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL + 1];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL + 1];
+        if (!find(key, preds, succs)) {
+            return null;
+        }
+        Node<K, V> victim = succs[0];
+        Object value;
+        while (true) {
+            value = victim.value.get();
+            if (value == DELETED) {
+                // another thread removed it first
+                return null;
+            }
+            if (matchValue && !Objects.equals(value, expectedValue)) {
+                return null;
+            }
+            // fails if a put replaced the value meanwhile, which is then checked again
+            if (victim.value.compareAndSet(value, DELETED)) {
+                break;
+            }
+        }
+        markNode(victim);
+        // unlink the victim from every level
+        find(key, preds, succs);
+        size.decrement();
+        return (V) value;
+    }
+
+    /* marks the next pointers of a removed node from the top level down, any thread may do it */
+    private static <K, V> void markNode(Node<K, V> node) {
+        boolean[] marked = {false};
+        for (int level = node.topLevel(); level >= 0; level--) {
+            Node<K, V> succ = node.next[level].get(marked);
+            while (!marked[0]) {
+                node.next[level].attemptMark(succ, true);
+                succ = node.next[level].get(marked);
+            }
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the keys of the map, in ascending order.
+     * hasNext() and next() take amortized constant time.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new SkipListIterator();
+    }
+
+    private class SkipListIterator implements Iterator<K> {
+
+        private Node<K, V> next;
+
+        SkipListIterator() {
+            next = head;
+            advance();
+        }
+
+        /* moves to the next node at the bottom level that is not marked as removed */
+        private void advance() {
+            do {
+                next = next.next[0].getReference();
+            } while (next != null && (next.next[0].isMarked() || next.value.get() == DELETED));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            advance();
+            return key;
+        }
+    }
+
+}
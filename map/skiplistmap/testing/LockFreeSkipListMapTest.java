@@ -0,0 +1,127 @@
+package map.skiplistmap.testing;
+
+import map.skiplistmap.implementation.LockFreeSkipListMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+public class LockFreeSkipListMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        LockFreeSkipListMap<String, Integer> b = new LockFreeSkipListMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        LockFreeSkipListMap<Integer, Integer> b = new LockFreeSkipListMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+        }
+        Assertions.assertEquals(expected.size(), b.size());
+        List<Integer> keys = new ArrayList<>();
+        for (Integer key : b) {
+            keys.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        LockFreeSkipListMap<String, String> q = new LockFreeSkipListMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertEquals(1, q.size());
+    }
+
+    @Test
+    public void concurrentPutRemoveTest() throws InterruptedException {
+        LockFreeSkipListMap<Integer, Integer> b = new LockFreeSkipListMap<>();
+        int threads = 8;
+        int keys = 4000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            workers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                // all threads fight over the same keys, then each one removes the odd keys
+                for (int i = 0; i < 20000; i++) {
+                    b.put(random.nextInt(keys), i);
+                }
+                for (int i = 1; i < keys; i += 2) {
+                    b.remove(i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        int previous = -1;
+        int count = 0;
+        for (Integer key : b) {
+            Assertions.assertTrue(key > previous);
+            Assertions.assertEquals(0, key % 2);
+            previous = key;
+            count += 1;
+        }
+        Assertions.assertEquals(count, b.size());
+    }
+
+    @Test
+    public void removeKeyValueRacesPutTest() throws InterruptedException {
+        LockFreeSkipListMap<Integer, String> b = new LockFreeSkipListMap<>();
+        AtomicBoolean done = new AtomicBoolean(false);
+        Thread[] removers = new Thread[2];
+        for (int t = 0; t < removers.length; t++) {
+            // they only remove the value "x", so they must never take a "y" put before them
+            removers[t] = new Thread(() -> {
+                while (!done.get()) {
+                    b.remove(1, "x");
+                }
+            });
+            removers[t].start();
+        }
+        try {
+            for (int i = 0; i < 500000; i++) {
+                b.put(1, "x");
+                b.put(1, "y");
+                Assertions.assertEquals("y", b.get(1));
+            }
+        } finally {
+            done.set(true);
+            for (Thread remover : removers) {
+                remover.join();
+            }
+        }
+        Assertions.assertEquals(1, b.size());
+    }
+}
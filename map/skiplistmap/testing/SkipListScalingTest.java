@@ -0,0 +1,93 @@
+package map.skiplistmap.testing;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+
+import map.Map;
+import map.bstmap.implementation.BSTMap;
+import map.skiplistmap.implementation.LockFreeSkipListMap;
+
+/**
+ * Measures how the throughput of the sorted maps scales from 1 to N threads, with two workloads:
+ * a mixed one (90% gets, 10% puts over shared random keys) and a write-only one where every thread
+ * puts keys in its own disjoint range. The maps are a BSTMap behind a global lock, the
+ * LockFreeSkipListMap, and Java's ConcurrentSkipListMap.
+ *
+ * @author aziz
+ */
+public class SkipListScalingTest {
+
+    private static final int KEY_RANGE = 1 << 16;
+    private static final int OPS_PER_THREAD = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            System.out.println("\nthreads: " + threads);
+
+            Map<Integer, Integer> bst = new BSTMap<>();
+            Object lock = new Object();
+            report("synchronized BSTMap", threads,
+                    key -> { synchronized (lock) { bst.get(key); } },
+                    key -> { synchronized (lock) { bst.put(key, key); } });
+
+            Map<Integer, Integer> skipList = new LockFreeSkipListMap<>();
+            report("LockFreeSkipListMap", threads, skipList::get, key -> skipList.put(key, key));
+
+            ConcurrentSkipListMap<Integer, Integer> javaSkipList = new ConcurrentSkipListMap<>();
+            report("Java's Built-in ConcurrentSkipListMap", threads,
+                    javaSkipList::get, key -> javaSkipList.put(key, key));
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2;
+    }
+
+    private static void report(String name, int threads, IntConsumer get, IntConsumer put)
+            throws InterruptedException {
+        double mixed = run(threads, get, put, false);
+        double disjoint = run(threads, get, put, true);
+        System.out.printf("%s: mixed %.2f Mops/sec, disjoint writes %.2f Mops/sec\n", name,
+                threads * (double) OPS_PER_THREAD / mixed / 1e6,
+                threads * (double) OPS_PER_THREAD / disjoint / 1e6);
+    }
+
+    /**
+     * Runs the workload on the given number of threads, which all start together,
+     * and returns the elapsed wall-clock time in seconds.
+     */
+    private static double run(int threads, IntConsumer get, IntConsumer put, boolean disjointWrites)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            new Thread(() -> {
+                Random random = new Random(thread);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int key = random.nextInt(KEY_RANGE);
+                    if (disjointWrites) {
+                        put.accept(thread * KEY_RANGE + key);
+                    } else if (random.nextInt(10) == 0) {
+                        put.accept(key);
+                    } else {
+                        get.accept(key);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (System.nanoTime() - begin) / 1e9;
+    }
+}
@@ -0,0 +1,349 @@
+package map.splaymap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+
+/**
+ * A splay tree based map implementation, the map is sorted according the
+ * natural ordering of its keys; so the key type must implement the Comparable interface.
+ * Every access to a key, including <em>get</em> and <em>containsKey</em>, moves it to the root by a
+ * series of rotations (splaying), which also roughly halves the depth of every node on its path.
+ * So frequently accessed keys stay near the root: a key accessed with frequency p is found in
+ * amortized &Theta;(<em>log(1/p)</em>), near constant time for the hot keys of a skewed workload,
+ * and no sequence of operations does worse than amortized &Theta;(<em>log n</em>) per operation.
+ * The splaying is done top-down in a single iterative pass, so even a degenerate tree (after inserting
+ * keys in order, the tree is a path) never overflows the stack.
+ * Since lookups restructure the tree, this map is not safe for concurrent reads.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take amortized &Theta;(<em>log n</em>), but a single operation can take &Theta;(<em>n</em>).
+ * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class SplayTreeMap<K extends Comparable<K>, V> implements Map<K, V> {
+
+    private static class Node<K, V> {
+        K key;
+        V value;
+        Node<K, V> left;
+        Node<K, V> right;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private Node<K, V> root;
+    private int size;
+    /** reused by every splay to collect the left and right trees being assembled */
+    private final Node<K, V> header = new Node<>(null, null);
+
+    /**
+     * Initializes an empty splay tree map.
+     */
+    public SplayTreeMap() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /*
+     * Top-down splay: walks down from the node towards the key, two levels at a time, rotating when
+     * both steps go the same way (zig-zig), and hangs the nodes it leaves behind on a left tree
+     * (the keys smaller than the key) and a right tree (the larger ones). When the walk stops, at the key
+     * or at the last node of the search path, that node becomes the root of the reassembled tree.
+     */
+    private Node<K, V> splay(Node<K, V> t, K key) {
+        if (t == null) {
+            return null;
+        }
+        header.left = null;
+        header.right = null;
+        // l is the largest node of the left tree, r the smallest node of the right tree
+        Node<K, V> l = header;
+        Node<K, V> r = header;
+        while (true) {
+            int cmp = key.compareTo(t.key);
+            if (cmp < 0) {
+                if (t.left == null) {
+                    break;
+                }
+                if (key.compareTo(t.left.key) < 0) {
+                    // rotate right
+                    Node<K, V> y = t.left;
+                    t.left = y.right;
+                    y.right = t;
+                    t = y;
+                    if (t.left == null) {
+                        break;
+                    }
+                }
+                // link t into the right tree
+                r.left = t;
+                r = t;
+                t = t.left;
+            }
+            else if (cmp > 0) {
+                if (t.right == null) {
+                    break;
+                }
+                if (key.compareTo(t.right.key) > 0) {
+                    // rotate left
+                    Node<K, V> y = t.right;
+                    t.right = y.left;
+                    y.left = t;
+                    t = y;
+                    if (t.right == null) {
+                        break;
+                    }
+                }
+                // link t into the left tree
+                l.right = t;
+                l = t;
+                t = t.right;
+            }
+            else {
+                break;
+            }
+        }
+        l.right = t.left;
+        r.left = t.right;
+        t.left = header.right;
+        t.right = header.left;
+        header.left = null;
+        header.right = null;
+        return t;
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key, and splays it to the root.
+     * Time complexity: amortized &Theta;(<em>log n</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        if (key == null || root == null) {
+            return false;
+        }
+        root = splay(root, key);
+        return root.key.compareTo(key) == 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key. The key is splayed to the root.
+     * Time complexity: amortized &Theta;(<em>log n</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null || root == null) {
+            return null;
+        }
+        root = splay(root, key);
+        return root.key.compareTo(key) == 0 ? root.value : null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present. The key ends up at the root.
+     * Time complexity: amortized &Theta;(<em>log n</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        if (root == null) {
+            root = new Node<>(key, value);
+            size = 1;
+            return;
+        }
+        root = splay(root, key);
+        int cmp = key.compareTo(root.key);
+        if (cmp == 0) {
+            root.value = value;
+            return;
+        }
+        // the root is the predecessor or the successor of the key, the new node goes on top of it
+        Node<K, V> node = new Node<>(key, value);
+        if (cmp < 0) {
+            node.left = root.left;
+            node.right = root;
+            root.left = null;
+        }
+        else {
+            node.right = root.right;
+            node.left = root;
+            root.right = null;
+        }
+        root = node;
+        size += 1;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map, sorted in ascending order.
+     * Time complexity: &Theta;(<em>n log n</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keySet = new TreeSet<>();
+        for (K key : this) {
+            keySet.add(key);
+        }
+        return keySet;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: amortized &Theta;(<em>log n</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null || root == null) {
+            return null;
+        }
+        root = splay(root, key);
+        if (root.key.compareTo(key) != 0) {
+            return null;
+        }
+        V value = root.value;
+        removeRoot(key);
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: amortized &Theta;(<em>log n</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null || root == null) {
+            return null;
+        }
+        root = splay(root, key);
+        if (root.key.compareTo(key) != 0 || !Objects.equals(root.value, value)) {
+            return null;
+        }
+        V rootValue = root.value;
+        removeRoot(key);
+        return rootValue;
+    }
+
+    /* the key is at the root: splaying the left subtree for the key, which is larger than all
+     * of its keys, brings its maximum up, and the right subtree becomes the right child of it */
+    private void removeRoot(K key) {
+        if (root.left == null) {
+            root = root.right;
+        }
+        else {
+            Node<K, V> right = root.right;
+            root = splay(root.left, key);
+            root.right = right;
+        }
+        size -= 1;
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in ascending order.
+     * Each step splays the next key to the root, a whole traversal takes &Theta;(<em>n</em>)
+     * by the sequential access property of splay trees. The iterator remembers the last key
+     * only, so the map can be accessed and modified while iterating, the iterator returns the
+     * keys larger than the last one at the time they are reached.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new SplayTreeMapIterator();
+    }
+
+    private class SplayTreeMapIterator implements Iterator<K> {
+
+        private K last;
+        private boolean started;
+        /** the next key to return, null if it has not been looked up yet, or there is none */
+        private K next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = successor();
+            }
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            started = true;
+            next = null;
+            return last;
+        }
+
+        /* returns the smallest key larger than last (or the smallest key before the first call) */
+        private K successor() {
+            if (root == null) {
+                return null;
+            }
+            if (!started) {
+                Node<K, V> min = root;
+                while (min.left != null) {
+                    min = min.left;
+                }
+                root = splay(root, min.key);
+                return root.key;
+            }
+            root = splay(root, last);
+            if (root.key.compareTo(last) > 0) {
+                return root.key;
+            }
+            if (root.right == null) {
+                return null;
+            }
+            // every key of the right subtree is larger than last, so splaying it for last brings up its minimum
+            root.right = splay(root.right, last);
+            return root.right.key;
+        }
+    }
+
+}
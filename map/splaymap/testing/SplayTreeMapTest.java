@@ -0,0 +1,116 @@
+package map.splaymap.testing;
+
+import map.splaymap.implementation.SplayTreeMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class SplayTreeMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        SplayTreeMap<String, Integer> b = new SplayTreeMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        SplayTreeMap<String, Integer> b = new SplayTreeMap<>();
+        b.put("hey", 5);
+        b.put("hey", 7);
+        Assertions.assertEquals(7, b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+        b.put("hi", null);
+        Assertions.assertTrue(b.containsKey("hi"));
+        Assertions.assertFalse(b.containsKey(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, 1));
+    }
+
+    @Test
+    public void deepTreeTest() {
+        // keys put in order leave a path of a million nodes, which must be splayed without recursion
+        SplayTreeMap<Integer, Integer> b = new SplayTreeMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            b.put(i, i);
+        }
+        Assertions.assertEquals(0, b.get(0));
+        Assertions.assertEquals(999_999, b.remove(999_999));
+        Assertions.assertNull(b.get(-1));
+        int expected = 0;
+        for (Integer key : b) {
+            Assertions.assertEquals(expected++, key);
+        }
+        Assertions.assertEquals(999_999, expected);
+    }
+
+    @Test
+    public void iterateWhileAccessingTest() {
+        SplayTreeMap<Integer, Integer> b = new SplayTreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            b.put(i, i);
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (Integer key : b) {
+            keys.add(key);
+            // lookups restructure the tree, and removing the next key skips it
+            b.get(99 - key);
+            b.remove(key + 1);
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i += 2) {
+            expected.add(i);
+        }
+        Assertions.assertEquals(expected, keys);
+        Assertions.assertEquals(50, b.size());
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        SplayTreeMap<Integer, Integer> b = new SplayTreeMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+        List<Integer> keys = new ArrayList<>();
+        for (Integer key : b) {
+            keys.add(key);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        SplayTreeMap<String, String> q = new SplayTreeMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+}
@@ -0,0 +1,358 @@
+package map.stripedmap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe hash map implementation based on lock striping.
+ * The map is split into a fixed number of stripes, each stripe is an independent
+ * separate-chaining hash table guarded by its own lock, and a key always belongs to the
+ * stripe picked by the high bits of its hash, so writers on different stripes never block each other.
+ * Reads take no lock at all: the chain nodes have final keys and next pointers and a volatile value,
+ * so a reader always sees a consistent chain; removing a node copies the nodes before it
+ * instead of unlinking it in place, and the buckets are published through an atomic array.
+ * Each stripe resizes on its own (while holding only its own lock), so growing the table
+ * never stops the whole map, and readers keep using the old table until the new one is published.
+ * Iterators are weakly consistent, they never throw ConcurrentModificationException and
+ * may or may not reflect the modifications made after they were created.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected constant time &Theta;(<em>1</em>).
+ * The <em>size</em> operation takes &Theta;(<em>stripes</em>) and is only an estimate while
+ * other threads are modifying the map.
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class StripedHashMap<K, V> implements Map<K, V> {
+
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int STRIPE_INITIAL_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static class Stripe<K, V> extends ReentrantLock {
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;
+
+        Stripe() {
+            table = new AtomicReferenceArray<>(STRIPE_INITIAL_CAPACITY);
+        }
+    }
+
+    private final Stripe<K, V>[] stripes;
+    private final int stripeShift;
+
+    /**
+     * Initializes an empty map with the default number of stripes (16).
+     */
+    public StripedHashMap() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Initializes an empty map with the specified number of stripes,
+     * the number of stripes bounds the number of writers that can work concurrently.
+     * @param concurrencyLevel the number of stripes, rounded up to a power of two
+     */
+    public StripedHashMap(int concurrencyLevel) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("illegal concurrency level");
+        }
+        int bits = 0;
+        while ((1 << bits) < concurrencyLevel) {
+            bits += 1;
+        }
+        stripes = (Stripe<K, V>[]) new Stripe[1 << bits];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        stripeShift = 32 - bits;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* the high bits pick the stripe, while the low bits pick the bucket inside the stripe */
+    private Stripe<K, V> stripeFor(int hash) {
+        return stripeShift == 32 ? stripes[0] : stripes[hash >>> stripeShift];
+    }
+
+    /**
+     * Removes all the mappings from the map, a stripe at a time.
+     * Time complexity: &Theta;(<em>stripes</em>).
+     */
+    @Override
+    public void clear() {
+        for (Stripe<K, V> stripe : stripes) {
+            stripe.lock();
+            try {
+                stripe.table = new AtomicReferenceArray<>(STRIPE_INITIAL_CAPACITY);
+                stripe.count = 0;
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * This operation takes no lock.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && getNode(key) != null;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * This operation takes no lock.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> node = getNode(key);
+        return node != null ? node.value : null;
+    }
+
+    private Node<K, V> getNode(K key) {
+        int hash = hash(key);
+        AtomicReferenceArray<Node<K, V>> table = stripeFor(hash).table;
+        for (Node<K, V> node = table.get(hash & (table.length() - 1)); node != null; node = node.next) {
+            if (node.hash == hash && node.key.equals(key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: &Theta;(<em>stripes</em>).
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            size += stripe.count;
+        }
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Only the stripe of the key is locked.
+     * Time complexity: amortized expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        int hash = hash(key);
+        Stripe<K, V> stripe = stripeFor(hash);
+        stripe.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = stripe.table;
+            int index = hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+            for (Node<K, V> node = head; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    node.value = value;
+                    return;
+                }
+            }
+            table.set(index, new Node<>(hash, key, value, head));
+            stripe.count += 1;
+            if (stripe.count > table.length() * LOAD_FACTOR) {
+                rehash(stripe);
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /* doubles the table of a single stripe, must be called while holding the stripe's lock.
+     * the old table is left untouched, so readers still traversing it see a consistent state. */
+    private void rehash(Stripe<K, V> stripe) {
+        AtomicReferenceArray<Node<K, V>> oldTable = stripe.table;
+        AtomicReferenceArray<Node<K, V>> newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+        int mask = newTable.length() - 1;
+        for (int i = 0; i < oldTable.length(); i++) {
+            for (Node<K, V> node = oldTable.get(i); node != null; node = node.next) {
+                int index = node.hash & mask;
+                newTable.set(index, new Node<>(node.hash, node.key, node.value, newTable.get(index)));
+            }
+        }
+        stripe.table = newTable;
+    }
+
+    /**
+     * Returns a snapshot of the keys contained in this map, which is weakly consistent
+     * if other threads are modifying the map.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return a set of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = new HashSet<>();
+        for (K key : this) {
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Only the stripe of the key is locked.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        return removeNode(key, null, false);
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Only the stripe of the key is locked.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        return removeNode(key, value, true);
+    }
+
+    private V removeNode(K key, V expectedValue, boolean matchValue) {
+        int hash = hash(key);
+        Stripe<K, V> stripe = stripeFor(hash);
+        stripe.lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = stripe.table;
+            int index = hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+            Node<K, V> target = head;
+            while (target != null && !(target.hash == hash && target.key.equals(key))) {
+                target = target.next;
+            }
+            if (target == null || (matchValue && !Objects.equals(target.value, expectedValue))) {
+                return null;
+            }
+            // the nodes after the target are kept, the ones before it are copied
+            // so concurrent readers never see a half-unlinked chain.
+            Node<K, V> newHead = target.next;
+            for (Node<K, V> node = head; node != target; node = node.next) {
+                newHead = new Node<>(node.hash, node.key, node.value, newHead);
+            }
+            table.set(index, newHead);
+            stripe.count -= 1;
+            return target.value;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the keys of the map, in no particular order.
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new StripedHashMapIterator();
+    }
+
+    private class StripedHashMapIterator implements Iterator<K> {
+
+        private int stripeIndex;
+        private int bucketIndex;
+        private AtomicReferenceArray<Node<K, V>> table;
+        private Node<K, V> next;
+
+        StripedHashMapIterator() {
+            stripeIndex = 0;
+            bucketIndex = 0;
+            table = stripes[0].table;
+            advance();
+        }
+
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null) {
+                if (bucketIndex == table.length()) {
+                    stripeIndex += 1;
+                    if (stripeIndex == stripes.length) {
+                        return;
+                    }
+                    table = stripes[stripeIndex].table;
+                    bucketIndex = 0;
+                }
+                else {
+                    next = table.get(bucketIndex++);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            advance();
+            return key;
+        }
+    }
+
+}
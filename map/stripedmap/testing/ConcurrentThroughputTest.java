@@ -0,0 +1,83 @@
+package map.stripedmap.testing;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntConsumer;
+
+import map.Map;
+import map.bstmap.implementation.BSTMap;
+import map.stripedmap.implementation.StripedHashMap;
+
+/**
+ * Measures the throughput of a mixed workload (90% gets, 10% puts over random
+ * integer keys) run by an increasing number of threads against a BSTMap behind
+ * a global lock, the StripedHashMap, and Java's ConcurrentHashMap.
+ *
+ * @author aziz
+ */
+public class ConcurrentThroughputTest {
+
+    private static final int KEY_RANGE = 1 << 16;
+    private static final int OPS_PER_THREAD = 2_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Each thread performs " + OPS_PER_THREAD
+                + " operations (90% get, 10% put) over " + KEY_RANGE + " keys.");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.out.println("\nthreads: " + threads);
+
+            Map<Integer, Integer> bst = new BSTMap<>();
+            Object lock = new Object();
+            report("synchronized BSTMap", threads,
+                    key -> { synchronized (lock) { bst.get(key); } },
+                    key -> { synchronized (lock) { bst.put(key, key); } });
+
+            Map<Integer, Integer> striped = new StripedHashMap<>();
+            report("StripedHashMap", threads, striped::get, key -> striped.put(key, key));
+
+            ConcurrentHashMap<Integer, Integer> chm = new ConcurrentHashMap<>();
+            report("Java's Built-in ConcurrentHashMap", threads, chm::get, key -> chm.put(key, key));
+        }
+    }
+
+    private static void report(String name, int threads, IntConsumer get, IntConsumer put)
+            throws InterruptedException {
+        double seconds = run(threads, get, put);
+        System.out.printf("%s: %.2f Mops/sec\n", name, threads * (double) OPS_PER_THREAD / seconds / 1e6);
+    }
+
+    /**
+     * Runs the workload on the given number of threads, which all start together,
+     * and returns the elapsed wall-clock time in seconds.
+     */
+    public static double run(int threads, IntConsumer get, IntConsumer put) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    int key = random.nextInt(KEY_RANGE);
+                    if (random.nextInt(10) == 0) {
+                        put.accept(key);
+                    } else {
+                        get.accept(key);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (System.nanoTime() - begin) / 1e9;
+    }
+}
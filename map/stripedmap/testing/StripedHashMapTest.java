@@ -0,0 +1,86 @@
+package map.stripedmap.testing;
+
+import map.stripedmap.implementation.StripedHashMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class StripedHashMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        StripedHashMap<String, Integer> b = new StripedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        StripedHashMap<Integer, Integer> b = new StripedHashMap<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+        }
+        Assertions.assertEquals(expected.size(), b.size());
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        StripedHashMap<String, String> q = new StripedHashMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertEquals(1, q.size());
+    }
+
+    @Test
+    public void concurrentPutTest() throws InterruptedException {
+        StripedHashMap<Integer, Integer> b = new StripedHashMap<>();
+        int threads = 8;
+        int perThread = 20000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = offset; i < offset + perThread; i++) {
+                    b.put(i, i);
+                    if (i % 2 == 0) {
+                        b.remove(i);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assertions.assertEquals(threads * perThread / 2, b.size());
+        for (int i = 0; i < threads * perThread; i++) {
+            Assertions.assertEquals(i % 2 == 1, b.containsKey(i));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package map.swissmap.implementation;
+
+
+import map.Map;
+
+import java.util.*;
+
+/**
+ * A hash map implementation based on open addressing with a separate array of control bytes,
+ * in the style of the Swiss tables.
+ * The slots are split into groups of 8, and every slot has a control byte which is either EMPTY,
+ * DELETED (a tombstone) or FULL, in which case it holds 7 bits of the key's hash (the tag).
+ * The 8 control bytes of a group are packed in one long, so probing a group compares all its
+ * tags with the key's tag at once using SWAR (SIMD within a register) arithmetic, and only the
+ * slots whose tag matches, 1 in 128 of the other keys, are compared with equals.
+ * The probe visits whole groups in a triangular sequence and stops at the first group that
+ * has an EMPTY byte, so lookups touch about one group even at the maximum load factor of 7/8.
+ * This implementation does not permit null keys, but allows for null values.
+ * The <em>put</em>, <em>containsKey</em>, <em>remove</em> and <em>get</em> operations
+ * each take expected constant time &Theta;(<em>1</em>) (<em>put</em> is amortized, because of resizing).
+ * The <em>size</em> operation takes &Theta;(<em>1</em>), while <em>clear</em> takes &Theta;(<em>capacity</em>).
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ *
+ * @author aziz
+ */
+public class SwissTableMap<K, V> implements Map<K, V> {
+
+    private static final int GROUP_WIDTH = 8;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /* control bytes: a FULL byte holds the 7 bit tag, so its high bit is clear */
+    private static final long EMPTY = 0x80;
+    private static final long DELETED = 0xFE;
+
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+    private static final long ALL_EMPTY = EMPTY * LSBS;
+
+    /** the control bytes, one long per group, the byte of slot i is byte (i mod 8) of ctrl[i / 8] */
+    private long[] ctrl;
+    private K[] keys;
+    private V[] values;
+    private int size;
+    /** number of groups - 1, the number of groups is a power of two */
+    private int groupMask;
+    /** the number of EMPTY slots that can still be filled before the table must be rebuilt */
+    private int growthLeft;
+
+    /**
+     * Initializes an empty map with the default capacity (16).
+     */
+    public SwissTableMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty map that can hold the specified number of keys without resizing.
+     * @param initialCapacity the number of keys to make room for
+     */
+    public SwissTableMap(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("illegal capacity");
+        }
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    /* the number of slots, a power of two of at least two groups, to hold the keys at a load of 7/8 */
+    private static int tableSizeFor(int keys) {
+        int n = 2 * GROUP_WIDTH;
+        while (n / 8 * 7 < keys) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private void allocate(int capacity) {
+        int groups = capacity / GROUP_WIDTH;
+        ctrl = new long[groups];
+        Arrays.fill(ctrl, ALL_EMPTY);
+        keys = (K[]) new Object[capacity];
+        values = (V[]) new Object[capacity];
+        groupMask = groups - 1;
+        growthLeft = capacity / 8 * 7 - size;
+    }
+
+    /* spreads the bits of the hash code, the high 25 bits pick the first group, the low 7 are the tag */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* the high bit of every byte of the group equal to the tag. A byte right above a match
+     * can be flagged too (the borrow of the subtraction), such false positives only cost an equals. */
+    private static long match(long group, int tag) {
+        long x = group ^ (LSBS * tag);
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    /* the high bit of every EMPTY byte: the high bit is set and bit 1 is clear (DELETED has it set) */
+    private static long matchEmpty(long group) {
+        return group & ~(group << 6) & MSBS;
+    }
+
+    /* the high bit of every EMPTY or DELETED byte: the high bit is set and bit 0 is clear */
+    private static long matchFree(long group) {
+        return group & ~(group << 7) & MSBS;
+    }
+
+    /* the slot of the lowest flagged byte of the group */
+    private static int slotOf(int g, long matches) {
+        return g * GROUP_WIDTH + (Long.numberOfTrailingZeros(matches) >>> 3);
+    }
+
+    private void setCtrl(int slot, long b) {
+        int g = slot / GROUP_WIDTH;
+        int shift = (slot % GROUP_WIDTH) * 8;
+        ctrl[g] = (ctrl[g] & ~(0xFFL << shift)) | (b << shift);
+    }
+
+    /**
+     * Removes all the mappings from the map.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(ctrl, ALL_EMPTY);
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+        growthLeft = keys.length / 8 * 7;
+    }
+
+    /**
+     * Returns true if this map contains a mapping for the specified key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return true if this map contains the key.
+     */
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && findSlot(key, hash(key)) >= 0;
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key the key to lookup
+     * @return the value mapped to the key if the key is present, else null.
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int slot = findSlot(key, hash(key));
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    /* returns the slot holding the key, or -1 if the key is absent */
+    private int findSlot(K key, int h) {
+        int tag = h & 0x7F;
+        int g = (h >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long group = ctrl[g];
+            for (long m = match(group, tag); m != 0; m &= m - 1) {
+                int slot = slotOf(g, m);
+                if (key.equals(keys[slot])) {
+                    return slot;
+                }
+            }
+            if (matchEmpty(group) != 0) {
+                return -1;
+            }
+            // triangular probing visits every group once since their number is a power of two
+            g = (g + step) & groupMask;
+        }
+    }
+
+    /* returns the first EMPTY or DELETED slot of the key's probe sequence */
+    private int findFree(int h) {
+        int g = (h >>> 7) & groupMask;
+        for (int step = 1; ; step++) {
+            long free = matchFree(ctrl[g]);
+            if (free != 0) {
+                return slotOf(g, free);
+            }
+            g = (g + step) & groupMask;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     * Time complexity: takes constant time.
+     * @return the number of mappings in this map.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map,
+     * replacing the old value if the key is already present.
+     * Time complexity: amortized expected &Theta;(<em>1</em>).
+     * @param key key with which the specified value is to be associated, must not be null
+     * @param value value to be associated with key
+     */
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null keys are not supported");
+        }
+        int h = hash(key);
+        int slot = findSlot(key, h);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        slot = findFree(h);
+        boolean empty = ((ctrl[slot / GROUP_WIDTH] >>> ((slot % GROUP_WIDTH) * 8)) & 0xFF) == EMPTY;
+        if (empty && growthLeft == 0) {
+            rehash();
+            slot = findFree(h);
+            empty = true;
+        }
+        setCtrl(slot, h & 0x7F);
+        keys[slot] = key;
+        values[slot] = value;
+        size += 1;
+        if (empty) {
+            growthLeft -= 1;
+        }
+    }
+
+    /* Rebuilds the table once no EMPTY slot can be filled anymore. It doubles the capacity, unless
+     * tombstones hold most of the used slots, then it keeps it and only drops the tombstones. */
+    private void rehash() {
+        long[] oldCtrl = ctrl;
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int capacity = size <= keys.length / 16 * 7 ? keys.length : keys.length * 2;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if ((oldCtrl[j / GROUP_WIDTH] >>> ((j % GROUP_WIDTH) * 8) & 0x80) == 0) {
+                int h = hash(oldKeys[j]);
+                int slot = findFree(h);
+                setCtrl(slot, h & 0x7F);
+                keys[slot] = oldKeys[j];
+                values[slot] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     * @return a set view of the keys contained in this map
+     */
+    @Override
+    public Set<K> keySet() {
+        Set<K> keySet = new HashSet<>();
+        for (K key : this) {
+            keySet.add(key);
+        }
+        return keySet;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, and returns the value
+     * associated with the key, else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @return the value associated with key, or null if there was no mapping for key
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        V value = values[slot];
+        removeSlot(slot);
+        return value;
+    }
+
+    /**
+     * Removes the entry for the specified key only if key is currently mapped to
+     * the specified value, and returns the value. else return null if key is not present.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     * @param key key for which the mapping should be removed
+     * @param value value associated with the specified key
+     * @return the value associated with key, or null if there was no exact match with key and value
+     */
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        int slot = findSlot(key, hash(key));
+        if (slot < 0 || !Objects.equals(values[slot], value)) {
+            return null;
+        }
+        V slotValue = values[slot];
+        removeSlot(slot);
+        return slotValue;
+    }
+
+    /* A group that still has an EMPTY byte has never been full, so no probe went on past it,
+     * and the slot can become EMPTY again. Otherwise some probe may have, and it gets a tombstone. */
+    private void removeSlot(int slot) {
+        if (matchEmpty(ctrl[slot / GROUP_WIDTH]) != 0) {
+            setCtrl(slot, EMPTY);
+            growthLeft += 1;
+        }
+        else {
+            setCtrl(slot, DELETED);
+        }
+        keys[slot] = null;
+        values[slot] = null;
+        size -= 1;
+    }
+
+    /**
+     * Returns an iterator over the keys of the map, in no particular order.
+     * A whole traversal takes &Theta;(<em>capacity</em>).
+     * @return an iterator over the keys of the map.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new SwissTableMapIterator();
+    }
+
+    private class SwissTableMapIterator implements Iterator<K> {
+
+        private int group;
+        /** the high bit of every FULL byte of the current group not returned yet */
+        private long full;
+        private int remaining;
+
+        SwissTableMapIterator() {
+            group = 0;
+            full = ~ctrl[0] & MSBS;
+            remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (full == 0) {
+                group += 1;
+                full = ~ctrl[group] & MSBS;
+            }
+            int slot = slotOf(group, full);
+            full &= full - 1;
+            remaining -= 1;
+            return keys[slot];
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package map.swissmap.testing;
+
+import map.swissmap.implementation.SwissTableMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+
+public class SwissTableMapTest {
+
+    @Test
+    public void sanityClearTest() {
+        SwissTableMap<String, Integer> b = new SwissTableMap<>();
+        for (int i = 0; i < 500; i++) {
+            b.put("hi" + i, 1 + i);
+            Assertions.assertTrue(null != b.get("hi" + i) && (b.get("hi" + i).equals(1 + i))
+                    && b.containsKey("hi" + i));
+        }
+        Assertions.assertEquals(500, b.size());
+        b.clear();
+        Assertions.assertEquals(0, b.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertTrue(null == b.get("hi" + i) && !b.containsKey("hi" + i));
+        }
+    }
+
+    @Test
+    public void putReplacesValueTest() {
+        SwissTableMap<String, Integer> b = new SwissTableMap<>();
+        b.put("hey", 5);
+        b.put("hey", 7);
+        Assertions.assertEquals(7, b.get("hey"));
+        Assertions.assertEquals(1, b.size());
+        b.put("hi", null);
+        Assertions.assertTrue(b.containsKey("hi"));
+        Assertions.assertFalse(b.containsKey(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.put(null, 1));
+    }
+
+    @Test
+    public void collidingKeysRemoveTest() {
+        // all these keys share the same hash code, so they share the tag and the probe sequence
+        SwissTableMap<CollidingKey, Integer> b = new SwissTableMap<>(8);
+        for (int i = 0; i < 50; i++) {
+            b.put(new CollidingKey(i), i);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            Assertions.assertEquals(i, b.remove(new CollidingKey(i)));
+        }
+        Assertions.assertEquals(25, b.size());
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals(i % 2 == 1, b.containsKey(new CollidingKey(i)));
+        }
+        for (int i = 0; i < 50; i += 2) {
+            b.put(new CollidingKey(i), -i);
+        }
+        Assertions.assertEquals(50, b.size());
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals(i % 2 == 1 ? i : -i, b.get(new CollidingKey(i)));
+        }
+    }
+
+    @Test
+    public void churnTest() {
+        // a sliding window of keys leaves tombstones everywhere, which the rebuilds must drop
+        SwissTableMap<Integer, Integer> b = new SwissTableMap<>();
+        for (int i = 0; i < 200000; i++) {
+            b.put(i, i);
+            if (i >= 1000) {
+                Assertions.assertEquals(i - 1000, b.remove(i - 1000));
+            }
+        }
+        Assertions.assertEquals(1000, b.size());
+        for (int i = 0; i < 200000; i++) {
+            Assertions.assertEquals(i >= 199000 ? i : null, b.get(i));
+        }
+    }
+
+    @Test
+    public void randomOperationsTest() {
+        SwissTableMap<Integer, Integer> b = new SwissTableMap<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                b.put(key, i);
+                expected.put(key, i);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(key), b.remove(key));
+            } else {
+                Assertions.assertEquals(expected.get(key), b.get(key));
+            }
+            Assertions.assertEquals(expected.size(), b.size());
+        }
+        Assertions.assertEquals(expected.keySet(), b.keySet());
+        int count = 0;
+        for (Integer key : b) {
+            Assertions.assertTrue(expected.containsKey(key));
+            count += 1;
+        }
+        Assertions.assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void removeKeyValueTest() {
+        SwissTableMap<String, String> q = new SwissTableMap<>();
+        q.put("c", "a");
+        q.put("b", "b");
+        Assertions.assertNull(q.remove("c", "b"));
+        Assertions.assertEquals("a", q.remove("c", "a"));
+        Assertions.assertFalse(q.containsKey("c"));
+        Assertions.assertNull(q.remove("z"));
+        Assertions.assertEquals(1, q.size());
+    }
+
+    private static class CollidingKey {
+        final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package map.swissmap.testing;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import map.Map;
+import map.linearprobingmap.implementation.LinearProbingMap;
+import map.swissmap.implementation.SwissTableMap;
+
+/**
+ * Compares SwissTableMap with LinearProbingMap (at its default load factor of 0.5, and at 0.875,
+ * the load factor of the Swiss table) and Java's HashMap.
+ * It times filling the map, getting keys that are present and keys that are absent, in a random order,
+ * and, for the large table, the memory footprint of the table, measured as the growth of the used heap
+ * after a GC. The keys are boxed beforehand and shared by all the maps, so the footprint counts only the table.
+ *
+ * @author aziz
+ */
+public class SwissTableSpeedTest {
+
+    private static final int LOOKUPS = 5_000_000;
+
+    public static void main(String[] args) {
+        // a table that stays in the cache, then one that does not
+        run(10_000);
+        run(1_000_000);
+    }
+
+    private static void run(int n) {
+        Random random = new Random(42);
+        Integer[] keys = new Integer[n];
+        Integer[] absent = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt() | 1;
+            absent[i] = random.nextInt() & ~1;
+        }
+        int[] order = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            order[i] = random.nextInt(n);
+        }
+        System.out.println("Putting " + n + " random keys, then getting " + LOOKUPS + " present and absent keys.");
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            measure("SwissTableMap", SwissTableMap::new, keys, absent, order, print);
+            measure("LinearProbingMap (load factor 0.5)", LinearProbingMap::new, keys, absent, order, print);
+            measure("LinearProbingMap (load factor 0.875)",
+                    () -> new LinearProbingMap<>(16, 0.875), keys, absent, order, print);
+            measureHashMap(keys, absent, order, print);
+        }
+        System.out.println();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /* a small table is lost in the noise of the heap measurement */
+    private static String footprint(long bytes, int size) {
+        return size < 100_000 ? "footprint not measured" : String.format("%.1f bytes/entry", (double) bytes / size);
+    }
+
+    private static void measure(String name, Supplier<Map<Integer, Integer>> factory,
+                                Integer[] keys, Integer[] absent, int[] order, boolean print) {
+        long before = usedHeap();
+        long begin = System.nanoTime();
+        Map<Integer, Integer> map = factory.get();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        long putTime = System.nanoTime() - begin;
+        long bytes = usedHeap() - before;
+        begin = System.nanoTime();
+        long checksum = 0;
+        for (int i : order) {
+            checksum += map.get(keys[i]);
+        }
+        long hitTime = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (int i : order) {
+            if (map.containsKey(absent[i])) {
+                checksum += 1;
+            }
+        }
+        long missTime = System.nanoTime() - begin;
+        if (print) {
+            System.out.printf("%s: put %.1f ns, get %.1f ns, miss %.1f ns, %s (checksum %d)\n",
+                    name, (double) putTime / keys.length, (double) hitTime / order.length,
+                    (double) missTime / order.length, footprint(bytes, map.size()), checksum);
+        }
+    }
+
+    private static void measureHashMap(Integer[] keys, Integer[] absent, int[] order, boolean print) {
+        long before = usedHeap();
+        long begin = System.nanoTime();
+        HashMap<Integer, Integer> map = new HashMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        long putTime = System.nanoTime() - begin;
+        long bytes = usedHeap() - before;
+        begin = System.nanoTime();
+        long checksum = 0;
+        for (int i : order) {
+            checksum += map.get(keys[i]);
+        }
+        long hitTime = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (int i : order) {
+            if (map.containsKey(absent[i])) {
+                checksum += 1;
+            }
+        }
+        long missTime = System.nanoTime() - begin;
+        if (print) {
+            System.out.printf("%s: put %.1f ns, get %.1f ns, miss %.1f ns, %s (checksum %d)\n",
+                    "Java's Built-in HashMap", (double) putTime / keys.length, (double) hitTime / order.length,
+                    (double) missTime / order.length, footprint(bytes, map.size()), checksum);
+        }
+    }
+}
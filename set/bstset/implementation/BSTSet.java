@@ -2,8 +2,13 @@ package set.bstset.implementation;
 
 import set.Set;
 
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.Stack;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An (unbalanced) Binary-Search Tree based set implementation, the set is sorted according to the
@@ -22,6 +27,8 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
         E value;
         BSTNode<E> left;
         BSTNode<E> right;
+        /** the parent of this node, null for the root; lets iterators walk the tree without a stack */
+        BSTNode<E> parent;
 
         BSTNode(E value) {
             this.value = value;
@@ -95,6 +102,7 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
     @Override
     public void add(E value) {
         this.root = add(root, value);
+        this.root.parent = null;
     }
 
     private BSTNode<E> add(BSTNode<E> root, E value) {
@@ -105,8 +113,10 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
         int cmp = value.compareTo(root.value);
         if (cmp < 0) {
             root.left = add(root.left, value);
+            root.left.parent = root;
         } else if (cmp > 0) {
             root.right = add(root.right, value);
+            root.right.parent = root;
         }
         return root;
     }
@@ -127,6 +137,9 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
         }
         E temp = node.value;
         root = remove(root, value);
+        if (root != null) {
+            root.parent = null;
+        }
         size -= 1;
         return temp;
     }
@@ -152,8 +165,10 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
         int cmp = value.compareTo(root.value);
         if(cmp < 0) {
             root.left = remove(root.left, value);
+            setParent(root.left, root);
         } else if(cmp > 0) {
             root.right = remove(root.right, value);
+            setParent(root.right, root);
         } else {
             if(root.left == null) {
                 return root.right;
@@ -163,12 +178,18 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
                 BSTNode<E> successor = getMinNode(root.right);
                 root.value = successor.value;
                 root.right = remove(root.right, successor.value);
-                size -= 1;
+                setParent(root.right, root);
             }
         }
         return root;
     }
 
+    private void setParent(BSTNode<E> child, BSTNode<E> parent) {
+        if (child != null) {
+            child.parent = parent;
+        }
+    }
+
     private BSTNode<E> getMinNode(BSTNode<E> node) {
         while(node != null && node.left != null) {
             node = node.left;
@@ -177,49 +198,170 @@ public class BSTSet<E extends Comparable<E>> implements Set<E> {
     }
 
     /**
-     * Returns a stack based iterator for in-order traversal over the bst.
+     * Returns an iterator for in-order traversal over the bst, the iterator follows
+     * the parent pointers of the nodes, so it only uses a constant amount of memory
+     * no matter how tall the tree is.
      * hasNext() method takes constant time, while next() takes &Theta;(<em>h</em>)
-     * in the worst case, (where the worst height is n).
+     * in the worst case, (where the worst height is n), and amortized constant time
+     * over a whole traversal.
      *
-     * @return a stack based iterator for in-order traversal over the bst.
+     * @return an iterator for in-order traversal over the bst.
      */
     @Override
     public Iterator<E> iterator() {
-        return new StackBSTSetIterator();
+        return new BSTSetIterator();
     }
 
-    private class StackBSTSetIterator implements Iterator<E> {
+    private class BSTSetIterator implements Iterator<E> {
 
-        Stack<BSTNode<E>> stack;
+        BSTNode<E> next;
 
-        StackBSTSetIterator() {
-            stack = new Stack<>();
-            BSTNode<E> current = root;
-            while(current != null) {
-                stack.push(current);
-                current = current.left;
-            }
+        BSTSetIterator() {
+            next = getMinNode(root);
         }
 
         @Override
         public boolean hasNext() {
-            return !stack.empty();
+            return next != null;
         }
 
         @Override
         public E next() {
-            BSTNode<E> current = stack.pop();
-            if(current.right != null) {
-                BSTNode<E> temp = current.right;
-                while (temp != null) {
-                    stack.push(temp);
-                    temp = temp.left;
-                }
+            if (next == null) {
+                throw new NoSuchElementException();
             }
+            BSTNode<E> current = next;
+            next = successor(current);
             return current.value;
         }
     }
 
+    /**
+     * Returns a spliterator over the values of the bst, in ascending order.
+     * The spliterator splits the tree at subtree boundaries: the first split hands out
+     * the left subtree of the root, and every following split hands out the left part
+     * of the remaining subtree, so a parallel traversal keeps the in-order of the values.
+     * It reports the SORTED, ORDERED, DISTINCT and NONNULL characteristics, and SIZED before
+     * it is split, afterwards each half estimates its size as half of its parent's.
+     * @return a spliterator over the values of the bst.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new BSTSetSpliterator(getMinNode(root), null, 0, size);
+    }
+
+    /**
+     * Returns a sequential stream over the values of the bst, in ascending order,
+     * calling parallel() on it spreads the traversal over the common ForkJoinPool.
+     * @return a stream over the values of the bst.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    private class BSTSetSpliterator implements Spliterator<E> {
+
+        /** the next node to visit */
+        BSTNode<E> current;
+        /** the first node after the range (exclusive), null for the end of the tree */
+        BSTNode<E> fence;
+        /** 0 for the whole tree, -1 for a left part (split further at fence.left),
+         *  1 for a right part (split further at current.right) */
+        int side;
+        long estimate;
+
+        BSTSetSpliterator(BSTNode<E> current, BSTNode<E> fence, int side, long estimate) {
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (current == null || current == fence) {
+                return false;
+            }
+            BSTNode<E> node = current;
+            current = successor(node);
+            action.accept(node.value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            BSTNode<E> node = current;
+            current = fence;
+            while (node != null && node != fence) {
+                action.accept(node.value);
+                node = successor(node);
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            BSTNode<E> e = current;
+            BSTNode<E> split;
+            if (e == null || e == fence) {
+                split = null;
+            }
+            else if (side == 0) {
+                // the root, or its right child once the root is not past the first node (as when it has
+                // no left child), else the right child of the first node, as for a right part
+                split = root;
+                if (e.value.compareTo(root.value) >= 0) {
+                    split = root.right != null && e.value.compareTo(root.right.value) < 0 ? root.right : e.right;
+                }
+            }
+            else if (side > 0) {
+                split = e.right;
+            }
+            else {
+                split = fence != null ? fence.left : null;
+            }
+            // the split node must still lie strictly inside the remaining range
+            if (split == null || split == e || split == fence || e.value.compareTo(split.value) >= 0) {
+                return null;
+            }
+            side = 1;
+            estimate >>>= 1;
+            current = split;
+            return new BSTSetSpliterator(e, split, -1, estimate);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.SORTED | Spliterator.ORDERED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            // null means the values are sorted by their natural ordering
+            return null;
+        }
+    }
+
+    /* the in-order successor is the leftmost node of the right subtree if there is one,
+     * otherwise it is the first ancestor reached from its left subtree. */
+    private BSTNode<E> successor(BSTNode<E> node) {
+        if (node.right != null) {
+            return getMinNode(node.right);
+        }
+        BSTNode<E> child = node;
+        BSTNode<E> parent = node.parent;
+        while (parent != null && parent.right == child) {
+            child = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         Iterator<E> it = this.iterator();
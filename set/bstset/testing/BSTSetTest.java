@@ -4,6 +4,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import set.bstset.implementation.BSTSet;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
 public class BSTSetTest {
 
     @Test
@@ -72,4 +79,54 @@ public class BSTSetTest {
         st.remove(5);
         Assertions.assertEquals("2 8 10 25", st.toString());
     }
+
+    @Test
+    public void parallelStreamTest() {
+        BSTSet<Integer> st = new BSTSet<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt();
+            st.add(value);
+            expected.add(value);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected), st.stream().parallel().collect(Collectors.toList()));
+        Assertions.assertEquals(expected.size(), st.stream().parallel().count());
+    }
+
+    @Test
+    public void spliteratorSplitsMinimumRootTest() {
+        BSTSet<Integer> st = new BSTSet<>();
+        // every value is added in increasing order, so the root is the first value and has no left child
+        for (int value = 0; value < 1000; value++) {
+            st.add(value);
+        }
+        Spliterator<Integer> right = st.spliterator();
+        Spliterator<Integer> left = right.trySplit();
+        Assertions.assertNotNull(left);
+        List<Integer> values = new ArrayList<>();
+        left.forEachRemaining(values::add);
+        Assertions.assertEquals(List.of(0), values);
+        right.forEachRemaining(values::add);
+        Assertions.assertEquals(1000, values.size());
+        for (int value = 0; value < 1000; value++) {
+            Assertions.assertEquals(value, values.get(value));
+        }
+    }
+
+    @Test
+    public void removeTwoChildrenSizeTest() {
+        BSTSet<Integer> st = new BSTSet<>();
+        for (int value : new int[]{5, 3, 8, 1, 4, 7, 9}) {
+            st.add(value);
+        }
+        // 5 has two children, so it is replaced by its successor
+        Assertions.assertEquals(5, st.remove(5));
+        Assertions.assertEquals(6, st.size());
+        Assertions.assertEquals(6, st.stream().count());
+        Assertions.assertArrayEquals(new Object[]{1, 3, 4, 7, 8, 9}, st.stream().toArray());
+        Assertions.assertEquals(3, st.remove(3));
+        Assertions.assertEquals(5, st.size());
+        Assertions.assertEquals(List.of(1, 4, 7, 8, 9), st.stream().collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,249 @@
+package set.linearprobingset.implementation;
+
+import set.Set;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+
+/**
+ * A hash set implementation based on open addressing with linear probing.
+ * The values are kept in a single flat array, whose capacity is always a power of two,
+ * a value is placed at the first free slot starting from its hash index, and looked up by
+ * scanning from the same index until the value or an empty slot is found.
+ * The table is doubled once the number of values exceeds the load factor times the capacity.
+ * Deletion uses backward shifting (no tombstones): after removing a value, the following
+ * values of the same probe run are moved back so no lookup ever has to skip a deleted slot.
+ * This implementation does not permit null values.
+ * The <em>add</em>, <em>contains</em> and <em>remove</em> operations
+ * each take expected constant time &Theta;(<em>1</em>) (<em>add</em> is amortized, because of resizing).
+ * The <em>size</em> operation takes &Theta;(<em>1</em>), while <em>clear</em> takes &Theta;(<em>capacity</em>).
+ * @param <E> the type of values in this set
+ *
+ * @author aziz
+ */
+public class LinearProbingSet<E> implements Set<E> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private E[] values;
+    private int size;
+    /** capacity - 1, used instead of the modulo operator since the capacity is a power of two */
+    private int mask;
+    private int threshold;
+    private final double loadFactor;
+
+    /**
+     * Initializes an empty set with the default capacity (16) and load factor (0.5).
+     */
+    public LinearProbingSet() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Initializes an empty set with the specified initial capacity and load factor.
+     * @param initialCapacity the number of slots to start with, rounded up to a power of two
+     * @param loadFactor the maximum ratio of values to slots before the table is doubled,
+     *                   must be in the range (0, 1)
+     */
+    public LinearProbingSet(int initialCapacity, double loadFactor) {
+        if (initialCapacity < 1 || !(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("illegal capacity or load factor");
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = 2;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private void allocate(int capacity) {
+        values = (E[]) new Object[capacity];
+        mask = capacity - 1;
+        // always keep at least one empty slot so probing terminates
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /* spreads the bits of the hash code so that values differing only in
+     * their high bits don't collide in the low bits used as the index. */
+    private int indexFor(Object value) {
+        int h = value.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Removes all the values from the set.
+     * Time complexity: &Theta;(<em>capacity</em>).
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Returns true if this set contains the value, false otherwise.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     *
+     * @param value the value to check if this set contains it
+     * @return true if this set contains the value.
+     */
+    @Override
+    public boolean contains(E value) {
+        return value != null && findSlot(value) >= 0;
+    }
+
+    /* returns the slot holding the value, or -1 if the value is absent */
+    private int findSlot(E value) {
+        for (int i = indexFor(value); values[i] != null; i = (i + 1) & mask) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of values this set.
+     * Time complexity: takes constant time.
+     *
+     * @return the number of values in this set.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add the value in this set if not present.
+     * Time complexity: amortized expected &Theta;(<em>1</em>).
+     *
+     * @param value value to store in the set if not already present in this set, must not be null
+     */
+    @Override
+    public void add(E value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int i = indexFor(value);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (values[i].equals(value)) {
+                return;
+            }
+        }
+        values[i] = value;
+        size += 1;
+        if (size > threshold) {
+            resize(values.length * 2);
+        }
+    }
+
+    private void resize(int capacity) {
+        E[] oldValues = values;
+        allocate(capacity);
+        for (E value : oldValues) {
+            if (value != null) {
+                int i = indexFor(value);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                values[i] = value;
+            }
+        }
+    }
+
+    /**
+     * If the supplied value is in the set, it is removed and the value is returned,
+     * otherwise null is returned.
+     * Time complexity: expected &Theta;(<em>1</em>).
+     *
+     * @param value value to be removed from this set
+     * @return the removed value if present, else null
+     */
+    @Override
+    public E remove(E value) {
+        if (value == null) {
+            return null;
+        }
+        int slot = findSlot(value);
+        if (slot < 0) {
+            return null;
+        }
+        E removed = values[slot];
+        removeSlot(slot);
+        return removed;
+    }
+
+    /* Empties the slot, then walks the rest of the probe run, moving back every value
+     * whose home index is not cyclically in (hole, j], so that it stays reachable. */
+    private void removeSlot(int hole) {
+        for (int j = (hole + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = indexFor(values[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = null;
+        size -= 1;
+    }
+
+    /**
+     * Returns an iterator over the values of the set, in no particular order.
+     * A whole traversal takes &Theta;(<em>capacity</em>).
+     * @return an iterator over the values of the set.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new LinearProbingSetIterator();
+    }
+
+    private class LinearProbingSetIterator implements Iterator<E> {
+
+        private int index;
+        private int remaining;
+
+        LinearProbingSetIterator() {
+            index = 0;
+            remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            while (values[index] == null) {
+                index += 1;
+            }
+            remaining -= 1;
+            return values[index++];
+        }
+    }
+
+    /**
+     * Returns a string of the values of the set separated by spaces, in no particular order.
+     * @return the string representation of the set
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (E value : this) {
+            joiner.add(String.valueOf(value));
+        }
+        return joiner.toString();
+    }
+
+}
@@ -0,0 +1,103 @@
+package set.linearprobingset.testing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import set.linearprobingset.implementation.LinearProbingSet;
+
+import java.util.HashSet;
+import java.util.Random;
+
+public class LinearProbingSetTest {
+
+    @Test
+    public void testAdd() {
+        LinearProbingSet<Integer> st = new LinearProbingSet<>();
+        for (int value : new int[]{10, 1, 2, 3, 4, 9, 8, 3, 1, 2, 0}) {
+            st.add(value);
+        }
+        Assertions.assertEquals(8, st.size());
+        for (int value : new int[]{0, 1, 2, 3, 4, 8, 9, 10}) {
+            Assertions.assertTrue(st.contains(value));
+        }
+        Assertions.assertFalse(st.contains(5));
+        Assertions.assertFalse(st.contains(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> st.add(null));
+        st.clear();
+        Assertions.assertEquals(0, st.size());
+        Assertions.assertFalse(st.contains(10));
+        Assertions.assertFalse(st.iterator().hasNext());
+    }
+
+    @Test
+    public void testRemove() {
+        LinearProbingSet<String> st = new LinearProbingSet<>();
+        String stored = new String("four hundred");
+        st.add(stored);
+        st.add("five hundred");
+        // the stored instance is returned, not the argument
+        Assertions.assertSame(stored, st.remove(new String("four hundred")));
+        Assertions.assertNull(st.remove("four hundred"));
+        Assertions.assertNull(st.remove(null));
+        Assertions.assertEquals(1, st.size());
+        Assertions.assertEquals("five hundred", st.toString());
+    }
+
+    @Test
+    public void testCollidingRemove() {
+        // all these values share the same hash code, so they form one long probe run
+        LinearProbingSet<CollidingValue> st = new LinearProbingSet<>(8, 0.9);
+        for (int i = 0; i < 50; i++) {
+            st.add(new CollidingValue(i));
+        }
+        for (int i = 0; i < 50; i += 2) {
+            Assertions.assertNotNull(st.remove(new CollidingValue(i)));
+        }
+        Assertions.assertEquals(25, st.size());
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals(i % 2 == 1, st.contains(new CollidingValue(i)));
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        LinearProbingSet<Integer> st = new LinearProbingSet<>(4, 0.75);
+        HashSet<Integer> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(3000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                st.add(value);
+                expected.add(value);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(value) ? value : null, st.remove(value));
+            } else {
+                Assertions.assertEquals(expected.contains(value), st.contains(value));
+            }
+            Assertions.assertEquals(expected.size(), st.size());
+        }
+        HashSet<Integer> actual = new HashSet<>();
+        for (Integer value : st) {
+            actual.add(value);
+        }
+        Assertions.assertEquals(expected, actual);
+    }
+
+    private static class CollidingValue {
+        final int id;
+
+        CollidingValue(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingValue && ((CollidingValue) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 7;
+        }
+    }
+}
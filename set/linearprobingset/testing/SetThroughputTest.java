@@ -0,0 +1,110 @@
+package set.linearprobingset.testing;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import set.Set;
+import set.bstset.implementation.BSTSet;
+import set.linearprobingset.implementation.LinearProbingSet;
+
+/**
+ * Measures the throughput of add, contains and remove on LinearProbingSet, BSTSet and Java's HashSet,
+ * with random boxed Integer values, and a second time with sequential values, on which BSTSet
+ * degenerates into a path (so it is given fewer of them) while the hash sets are not affected.
+ * The values are boxed beforehand, so the boxing is not timed.
+ *
+ * @author aziz
+ */
+public class SetThroughputTest {
+
+    public static void main(String[] args) {
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            boolean print = round == 1;
+            Integer[] random = randomValues(1_000_000);
+            Integer[] sequential = sequentialValues(1_000_000);
+            if (print) {
+                System.out.println("Random values:");
+            }
+            run("LinearProbingSet", new LinearProbingSet<>(), random, print);
+            run("BSTSet", new BSTSet<>(), random, print);
+            runHashSet(random, print);
+            if (print) {
+                System.out.println("\nSequential values:");
+            }
+            run("LinearProbingSet", new LinearProbingSet<>(), sequential, print);
+            // the recursive add of BSTSet overflows the stack on a path of a million nodes
+            run("BSTSet (5000 values)", new BSTSet<>(), sequentialValues(5000), print);
+            runHashSet(sequential, print);
+        }
+    }
+
+    private static Integer[] randomValues(int n) {
+        Random random = new Random(42);
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt();
+        }
+        return values;
+    }
+
+    private static Integer[] sequentialValues(int n) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        return values;
+    }
+
+    private static void run(String name, Set<Integer> set, Integer[] values, boolean print) {
+        long begin = System.nanoTime();
+        for (Integer value : values) {
+            set.add(value);
+        }
+        long add = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        int found = 0;
+        for (Integer value : values) {
+            if (set.contains(value)) {
+                found += 1;
+            }
+        }
+        long contains = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (Integer value : values) {
+            set.remove(value);
+        }
+        long remove = System.nanoTime() - begin;
+        report(print, name, values.length, add, contains, remove, found);
+    }
+
+    private static void runHashSet(Integer[] values, boolean print) {
+        HashSet<Integer> set = new HashSet<>();
+        long begin = System.nanoTime();
+        for (Integer value : values) {
+            set.add(value);
+        }
+        long add = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        int found = 0;
+        for (Integer value : values) {
+            if (set.contains(value)) {
+                found += 1;
+            }
+        }
+        long contains = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (Integer value : values) {
+            set.remove(value);
+        }
+        long remove = System.nanoTime() - begin;
+        report(print, "Java's Built-in HashSet", values.length, add, contains, remove, found);
+    }
+
+    private static void report(boolean print, String name, int n, long add, long contains, long remove, int found) {
+        if (print) {
+            System.out.printf("%s: add %.2f, contains %.2f, remove %.2f million ops/sec (found %d)\n",
+                    name, n * 1e3 / add, n * 1e3 / contains, n * 1e3 / remove, found);
+        }
+    }
+}
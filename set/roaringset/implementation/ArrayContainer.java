@@ -0,0 +1,216 @@
+package set.roaringset.implementation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A container of at most 4096 values, kept as a sorted array of their low 16 bits (2 bytes per value).
+ *
+ * @author aziz
+ */
+final class ArrayContainer extends Container {
+
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+        this.values = new char[4];
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    boolean contains(char x) {
+        return Arrays.binarySearch(values, 0, cardinality, x) >= 0;
+    }
+
+    @Override
+    Container add(char x) {
+        int i = Arrays.binarySearch(values, 0, cardinality, x);
+        if (i >= 0) {
+            return this;
+        }
+        if (cardinality == MAX_ARRAY_SIZE) {
+            return toBitmap().add(x);
+        }
+        i = -i - 1;
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, 2 * values.length)));
+        }
+        System.arraycopy(values, i, values, i + 1, cardinality - i);
+        values[i] = x;
+        cardinality += 1;
+        return this;
+    }
+
+    @Override
+    Container remove(char x) {
+        int i = Arrays.binarySearch(values, 0, cardinality, x);
+        if (i >= 0) {
+            System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+            cardinality -= 1;
+        }
+        return this;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int numberOfRuns() {
+        int runs = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (i == 0 || values[i] != values[i - 1] + 1) {
+                runs += 1;
+            }
+        }
+        return runs;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 2 * cardinality;
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+    }
+
+    @Override
+    long[] words() {
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < cardinality; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    @Override
+    ArrayContainer toArray() {
+        return (ArrayContainer) copy();
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < cardinality;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return values[i++];
+            }
+        };
+    }
+
+    /* the values that are (keep) or are not (!keep) in the other container */
+    Container filter(Container other, boolean keep) {
+        char[] result = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (other.contains(values[i]) == keep) {
+                result[n++] = values[i];
+            }
+        }
+        return n == 0 ? null : new ArrayContainer(result, n);
+    }
+
+    static Container and(ArrayContainer a, ArrayContainer b) {
+        char[] result = new char[Math.min(a.cardinality, b.cardinality)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.cardinality && j < b.cardinality) {
+            if (a.values[i] < b.values[j]) {
+                i += 1;
+            }
+            else if (a.values[i] > b.values[j]) {
+                j += 1;
+            }
+            else {
+                result[n++] = a.values[i];
+                i += 1;
+                j += 1;
+            }
+        }
+        return n == 0 ? null : new ArrayContainer(result, n);
+    }
+
+    static Container or(ArrayContainer a, ArrayContainer b) {
+        char[] result = new char[a.cardinality + b.cardinality];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.cardinality && j < b.cardinality) {
+            if (a.values[i] < b.values[j]) {
+                result[n++] = a.values[i++];
+            }
+            else if (a.values[i] > b.values[j]) {
+                result[n++] = b.values[j++];
+            }
+            else {
+                result[n++] = a.values[i];
+                i += 1;
+                j += 1;
+            }
+        }
+        while (i < a.cardinality) {
+            result[n++] = a.values[i++];
+        }
+        while (j < b.cardinality) {
+            result[n++] = b.values[j++];
+        }
+        return fromSorted(result, n);
+    }
+
+    static Container xor(ArrayContainer a, ArrayContainer b) {
+        char[] result = new char[a.cardinality + b.cardinality];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.cardinality && j < b.cardinality) {
+            if (a.values[i] < b.values[j]) {
+                result[n++] = a.values[i++];
+            }
+            else if (a.values[i] > b.values[j]) {
+                result[n++] = b.values[j++];
+            }
+            else {
+                i += 1;
+                j += 1;
+            }
+        }
+        while (i < a.cardinality) {
+            result[n++] = a.values[i++];
+        }
+        while (j < b.cardinality) {
+            result[n++] = b.values[j++];
+        }
+        return fromSorted(result, n);
+    }
+
+    /* an array container of the sorted values, or a bitmap if there are too many of them */
+    private static Container fromSorted(char[] values, int n) {
+        if (n == 0) {
+            return null;
+        }
+        if (n <= MAX_ARRAY_SIZE) {
+            return new ArrayContainer(values, n);
+        }
+        return new ArrayContainer(values, n).toBitmap();
+    }
+}
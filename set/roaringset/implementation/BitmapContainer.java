@@ -0,0 +1,140 @@
+package set.roaringset.implementation;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A container of more than 4096 values, kept as a bitmap of 2^16 bits (8KB) indexed by their low 16 bits.
+ *
+ * @author aziz
+ */
+final class BitmapContainer extends Container {
+
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    /* the container of the bits, in the smallest of the array and bitmap forms, or null if no bit is set */
+    static Container of(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return null;
+        }
+        BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+        return cardinality <= MAX_ARRAY_SIZE ? bitmap.toArray() : bitmap;
+    }
+
+    /* sets the bits from (inclusive) to (exclusive) a word at a time */
+    static void setRange(long[] words, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+            return;
+        }
+        words[first] |= firstMask;
+        for (int i = first + 1; i < last; i++) {
+            words[i] = -1L;
+        }
+        words[last] |= lastMask;
+    }
+
+    @Override
+    boolean contains(char x) {
+        return (words[x >>> 6] & (1L << x)) != 0;
+    }
+
+    @Override
+    Container add(char x) {
+        long bit = 1L << x;
+        if ((words[x >>> 6] & bit) == 0) {
+            words[x >>> 6] |= bit;
+            cardinality += 1;
+        }
+        return this;
+    }
+
+    @Override
+    Container remove(char x) {
+        long bit = 1L << x;
+        if ((words[x >>> 6] & bit) != 0) {
+            words[x >>> 6] &= ~bit;
+            cardinality -= 1;
+            if (cardinality <= MAX_ARRAY_SIZE) {
+                return toArray();
+            }
+        }
+        return this;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    /* a run starts at every set bit whose lower neighbour is clear, the neighbour of bit 0
+     * is the top bit of the previous word */
+    @Override
+    int numberOfRuns() {
+        int runs = 0;
+        long previous = 0;
+        for (long word : words) {
+            runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+            previous = word;
+        }
+        return runs;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return words.length * Long.BYTES;
+    }
+
+    @Override
+    Container copy() {
+        return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    long[] words() {
+        return words;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int index = 0;
+            private long word = words[0];
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && index + 1 < words.length) {
+                    word = words[++index];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int value = index * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package set.roaringset.implementation;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * The values of a {@link RoaringBitmap} that share their high 16 bits, stored by their low 16 bits
+ * in one of three forms: a sorted array for sparse values, a bitmap of 2^16 bits for dense ones,
+ * and sorted runs of consecutive values for clustered ones.
+ * The mutators return the container that holds the result, which is a new container when the
+ * form has to change, so the callers always replace their reference with the returned one.
+ * The bulk operations never modify their operands, and return null for an empty result.
+ *
+ * @author aziz
+ */
+abstract class Container {
+
+    /** the most values an array container holds, past it a bitmap (8KB) is smaller */
+    static final int MAX_ARRAY_SIZE = 4096;
+    static final int BITMAP_WORDS = 1 << 10;
+
+    abstract boolean contains(char x);
+
+    abstract Container add(char x);
+
+    abstract Container remove(char x);
+
+    abstract int cardinality();
+
+    /** the number of runs of consecutive values */
+    abstract int numberOfRuns();
+
+    /** the size in bytes of the values of the container */
+    abstract int sizeInBytes();
+
+    abstract Container copy();
+
+    /** the values as a bitmap of 1024 words, which may be the container's own array, so it must not be modified */
+    abstract long[] words();
+
+    /** the low 16 bits of the values in ascending order */
+    abstract PrimitiveIterator.OfInt iterator();
+
+    ArrayContainer toArray() {
+        char[] values = new char[cardinality()];
+        int n = 0;
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); ) {
+            values[n++] = (char) it.nextInt();
+        }
+        return new ArrayContainer(values, n);
+    }
+
+    BitmapContainer toBitmap() {
+        return new BitmapContainer(words().clone(), cardinality());
+    }
+
+    /* converts the container to the smallest of the three forms */
+    Container runOptimize() {
+        int cardinality = cardinality();
+        int runs = numberOfRuns();
+        int runBytes = 2 + 4 * runs;
+        int otherBytes = cardinality <= MAX_ARRAY_SIZE ? 2 * cardinality : 2 * BITMAP_WORDS * 4;
+        if (runBytes < otherBytes) {
+            return this instanceof RunContainer ? this : RunContainer.from(this, runs);
+        }
+        if (cardinality <= MAX_ARRAY_SIZE) {
+            return this instanceof ArrayContainer ? this : toArray();
+        }
+        return this instanceof BitmapContainer ? this : toBitmap();
+    }
+
+    static Container and(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            return ArrayContainer.and((ArrayContainer) a, (ArrayContainer) b);
+        }
+        // intersecting with a sparse array is cheaper by lookups than by words
+        if (a instanceof ArrayContainer) {
+            return ((ArrayContainer) a).filter(b, true);
+        }
+        if (b instanceof ArrayContainer) {
+            return ((ArrayContainer) b).filter(a, true);
+        }
+        long[] x = a.words();
+        long[] y = b.words();
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            words[i] = x[i] & y[i];
+        }
+        return BitmapContainer.of(words);
+    }
+
+    static Container or(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            return ArrayContainer.or((ArrayContainer) a, (ArrayContainer) b);
+        }
+        long[] x = a.words();
+        long[] y = b.words();
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            words[i] = x[i] | y[i];
+        }
+        return BitmapContainer.of(words);
+    }
+
+    static Container andNot(Container a, Container b) {
+        if (a instanceof ArrayContainer) {
+            return ((ArrayContainer) a).filter(b, false);
+        }
+        long[] x = a.words();
+        long[] y = b.words();
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            words[i] = x[i] & ~y[i];
+        }
+        return BitmapContainer.of(words);
+    }
+
+    static Container xor(Container a, Container b) {
+        if (a instanceof ArrayContainer && b instanceof ArrayContainer) {
+            return ArrayContainer.xor((ArrayContainer) a, (ArrayContainer) b);
+        }
+        long[] x = a.words();
+        long[] y = b.words();
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            words[i] = x[i] ^ y[i];
+        }
+        return BitmapContainer.of(words);
+    }
+}
@@ -0,0 +1,429 @@
+package set.roaringset.implementation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+
+/**
+ * A compressed bitmap of 32-bit integers in the roaring layout.
+ * The integers are split by their high 16 bits into chunks of 2^16, and each non-empty chunk keeps the
+ * low 16 bits of its values in a container of one of three forms: a sorted array of 2-byte values while
+ * the chunk holds at most 4096 values, a bitmap of 1024 words (8KB) once it holds more, and sorted runs
+ * of consecutive values after {@link #runOptimize}, whenever those are smaller.
+ * The chunks are kept in a sorted array of their high 16 bits, next to an array of their containers,
+ * so finding a container is a binary search over at most 2^16 keys.
+ * Dense values cost about one bit each in bitmaps, and far less in runs, sparse values cost about 2 bytes each.
+ * The bulk operations {@link #and}, {@link #or}, {@link #andNot} and {@link #xor} merge the sorted chunks,
+ * and combine two containers a word at a time when either of them is not an array.
+ * The integers are ordered as unsigned, so the negative ones come after the non-negative ones.
+ * The <em>add</em>, <em>contains</em> and <em>remove</em> operations take
+ * &Theta;(<em>log(c)</em>), where c is the number of chunks, plus &Theta;(<em>log(4096)</em>) to search
+ * an array or run container, and up to 4096 moved values to insert into an array container.
+ * The bulk operations take &Theta;(<em>c</em>) container operations, of at most 1024 words or 8192 values each.
+ *
+ * @author aziz
+ */
+public class RoaringBitmap implements Iterable<Integer> {
+
+    private char[] keys;
+    private Container[] containers;
+    /** the number of chunks */
+    private int count;
+    private long cardinality;
+
+    /**
+     * Initializes an empty bitmap.
+     */
+    public RoaringBitmap() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * Returns a bitmap of the values.
+     * @param values the values to add to the bitmap
+     * @return a bitmap of the values
+     */
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static char high(int x) {
+        return (char) (x >>> 16);
+    }
+
+    private static char low(int x) {
+        return (char) x;
+    }
+
+    /* the index of the chunk of the key, or -(insertion point) - 1 if there is none */
+    private int indexOf(char key) {
+        // the last chunk is checked first, since values are often added in ascending order
+        if (count > 0 && keys[count - 1] == key) {
+            return count - 1;
+        }
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    /**
+     * Removes all the values from the bitmap.
+     * Time complexity: &Theta;(<em>c</em>).
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, count, null);
+        count = 0;
+        cardinality = 0;
+    }
+
+    /**
+     * Returns true if the bitmap contains the value, false otherwise.
+     * Time complexity: &Theta;(<em>log(c)</em>).
+     *
+     * @param x the value to check if the bitmap contains it
+     * @return true if the bitmap contains the value.
+     */
+    public boolean contains(int x) {
+        int i = indexOf(high(x));
+        return i >= 0 && containers[i].contains(low(x));
+    }
+
+    /**
+     * Adds the value to the bitmap if not present.
+     * Time complexity: &Theta;(<em>log(c)</em>), plus the insertion into an array container.
+     *
+     * @param x the value to add
+     * @return true if the value was added, false if it was already present
+     */
+    public boolean add(int x) {
+        char key = high(x);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insertChunk(i, key, new ArrayContainer());
+        }
+        else if (containers[i].contains(low(x))) {
+            return false;
+        }
+        containers[i] = containers[i].add(low(x));
+        cardinality += 1;
+        return true;
+    }
+
+    /**
+     * Removes the value from the bitmap if present.
+     * Time complexity: &Theta;(<em>log(c)</em>), plus the deletion from an array container.
+     *
+     * @param x the value to remove
+     * @return true if the value was removed, false if it was not present
+     */
+    public boolean remove(int x) {
+        int i = indexOf(high(x));
+        if (i < 0 || !containers[i].contains(low(x))) {
+            return false;
+        }
+        Container container = containers[i].remove(low(x));
+        if (container.cardinality() == 0) {
+            removeChunk(i);
+        }
+        else {
+            containers[i] = container;
+        }
+        cardinality -= 1;
+        return true;
+    }
+
+    private void insertChunk(int i, char key, Container container) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * count);
+            containers = Arrays.copyOf(containers, 2 * count);
+        }
+        System.arraycopy(keys, i, keys, i + 1, count - i);
+        System.arraycopy(containers, i, containers, i + 1, count - i);
+        keys[i] = key;
+        containers[i] = container;
+        count += 1;
+    }
+
+    private void removeChunk(int i) {
+        System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, count - i - 1);
+        count -= 1;
+        containers[count] = null;
+    }
+
+    /* adds a chunk after all the others, used by the bulk operations that produce the chunks in order */
+    private void append(char key, Container container) {
+        if (container == null) {
+            return;
+        }
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * count);
+            containers = Arrays.copyOf(containers, 2 * count);
+        }
+        keys[count] = key;
+        containers[count] = container;
+        count += 1;
+        cardinality += container.cardinality();
+    }
+
+    /**
+     * Returns the number of values in the bitmap.
+     * Time complexity: takes constant time.
+     *
+     * @return the number of values in the bitmap.
+     */
+    public long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Returns true if the bitmap has no values.
+     * @return true if the bitmap is empty
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Converts every container to the smallest of the array, bitmap and run forms,
+     * which turns the long runs of consecutive values into a few bytes each.
+     * A run container turns back into an array or a bitmap on its first change,
+     * so this is meant to be called once the bitmap is built.
+     * Time complexity: &Theta;(<em>c</em>) container scans.
+     *
+     * @return true if any container was converted to runs
+     */
+    public boolean runOptimize() {
+        boolean changed = false;
+        for (int i = 0; i < count; i++) {
+            Container container = containers[i].runOptimize();
+            changed |= container instanceof RunContainer && !(containers[i] instanceof RunContainer);
+            containers[i] = container;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns an estimate of the bytes the bitmap uses: the keys, the container references
+     * and object headers, and the values of every container.
+     * @return the estimated size of the bitmap in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 16 + 2L * keys.length + 8L * containers.length;
+        for (int i = 0; i < count; i++) {
+            bytes += 16 + 16 + containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the intersection of the bitmaps, leaving them unchanged.
+     * @param a the first bitmap
+     * @param b the second bitmap
+     * @return a new bitmap of the values in both bitmaps
+     */
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.keys[i] < b.keys[j]) {
+                i += 1;
+            }
+            else if (a.keys[i] > b.keys[j]) {
+                j += 1;
+            }
+            else {
+                result.append(a.keys[i], Container.and(a.containers[i], b.containers[j]));
+                i += 1;
+                j += 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the union of the bitmaps, leaving them unchanged.
+     * @param a the first bitmap
+     * @param b the second bitmap
+     * @return a new bitmap of the values in either bitmap
+     */
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.keys[i] < b.keys[j]) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i += 1;
+            }
+            else if (a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j += 1;
+            }
+            else {
+                result.append(a.keys[i], Container.or(a.containers[i], b.containers[j]));
+                i += 1;
+                j += 1;
+            }
+        }
+        result.appendCopies(a, i);
+        result.appendCopies(b, j);
+        return result;
+    }
+
+    /**
+     * Returns the difference of the bitmaps, leaving them unchanged.
+     * @param a the first bitmap
+     * @param b the second bitmap
+     * @return a new bitmap of the values in the first bitmap but not in the second
+     */
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.keys[i] < b.keys[j]) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i += 1;
+            }
+            else if (a.keys[i] > b.keys[j]) {
+                j += 1;
+            }
+            else {
+                result.append(a.keys[i], Container.andNot(a.containers[i], b.containers[j]));
+                i += 1;
+                j += 1;
+            }
+        }
+        result.appendCopies(a, i);
+        return result;
+    }
+
+    /**
+     * Returns the symmetric difference of the bitmaps, leaving them unchanged.
+     * @param a the first bitmap
+     * @param b the second bitmap
+     * @return a new bitmap of the values in exactly one of the bitmaps
+     */
+    public static RoaringBitmap xor(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.count && j < b.count) {
+            if (a.keys[i] < b.keys[j]) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i += 1;
+            }
+            else if (a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j += 1;
+            }
+            else {
+                result.append(a.keys[i], Container.xor(a.containers[i], b.containers[j]));
+                i += 1;
+                j += 1;
+            }
+        }
+        result.appendCopies(a, i);
+        result.appendCopies(b, j);
+        return result;
+    }
+
+    private void appendCopies(RoaringBitmap source, int from) {
+        for (int i = from; i < source.count; i++) {
+            append(source.keys[i], source.containers[i].copy());
+        }
+    }
+
+    /**
+     * Returns an iterator over the values of the bitmap in ascending unsigned order, without boxing them.
+     * @return an iterator over the values of the bitmap
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new RoaringIterator();
+    }
+
+    private class RoaringIterator implements PrimitiveIterator.OfInt {
+
+        private int chunk;
+        private PrimitiveIterator.OfInt current;
+
+        RoaringIterator() {
+            chunk = 0;
+            current = count > 0 ? containers[0].iterator() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current != null && !current.hasNext()) {
+                chunk += 1;
+                current = chunk < count ? containers[chunk].iterator() : null;
+            }
+            return current != null;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return keys[chunk] << 16 | current.nextInt();
+        }
+    }
+
+    /**
+     * Returns true if the other object is a bitmap of the same values.
+     * @param o the object to compare with
+     * @return true if both bitmaps have the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoaringBitmap)) {
+            return false;
+        }
+        RoaringBitmap other = (RoaringBitmap) o;
+        if (cardinality != other.cardinality || count != other.count) {
+            return false;
+        }
+        PrimitiveIterator.OfInt it = other.iterator();
+        for (PrimitiveIterator.OfInt mine = iterator(); mine.hasNext(); ) {
+            if (mine.nextInt() != it.nextInt()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); ) {
+            hash = 31 * hash + it.nextInt();
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a string of the values of the bitmap separated by spaces, in ascending unsigned order.
+     * @return the string representation of the bitmap
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (PrimitiveIterator.OfInt it = iterator(); it.hasNext(); ) {
+            joiner.add(Integer.toString(it.nextInt()));
+        }
+        return joiner.toString();
+    }
+
+}
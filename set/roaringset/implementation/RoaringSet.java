@@ -0,0 +1,127 @@
+package set.roaringset.implementation;
+
+import set.Set;
+
+import java.util.Iterator;
+
+/**
+ * A set of integers backed by a {@link RoaringBitmap}, for the code written against {@link Set}.
+ * The values are boxed only on their way in and out, the set itself stores them
+ * in compressed containers, a few bits each when they are dense.
+ * The primitive operations, and the bulk <em>and</em>, <em>or</em>, <em>andNot</em> and <em>xor</em>,
+ * are reached through {@link #bitmap()}.
+ * This implementation does not permit null values.
+ * The <em>add</em>, <em>contains</em> and <em>remove</em> operations take those of the bitmap,
+ * &Theta;(<em>log(c)</em>) where c is the number of chunks of 2^16 values.
+ * The <em>size</em> operation takes &Theta;(<em>1</em>).
+ *
+ * @author aziz
+ */
+public class RoaringSet implements Set<Integer> {
+
+    private final RoaringBitmap bitmap;
+
+    /**
+     * Initializes an empty set.
+     */
+    public RoaringSet() {
+        this(new RoaringBitmap());
+    }
+
+    /**
+     * Initializes a set backed by the bitmap, so changes to either are seen by both.
+     * @param bitmap the bitmap to back the set
+     */
+    public RoaringSet(RoaringBitmap bitmap) {
+        if (bitmap == null) {
+            throw new IllegalArgumentException("illegal bitmap");
+        }
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Returns the bitmap backing the set.
+     * @return the bitmap backing the set
+     */
+    public RoaringBitmap bitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Removes all the values from the set.
+     * Time complexity: &Theta;(<em>c</em>).
+     */
+    @Override
+    public void clear() {
+        bitmap.clear();
+    }
+
+    /**
+     * Returns true if this set contains the value, false otherwise.
+     * Time complexity: &Theta;(<em>log(c)</em>).
+     *
+     * @param value the value to check if this set contains it
+     * @return true if this set contains the value.
+     */
+    @Override
+    public boolean contains(Integer value) {
+        return value != null && bitmap.contains(value);
+    }
+
+    /**
+     * Returns the number of values this set, or Integer.MAX_VALUE if there are more.
+     * Time complexity: takes constant time.
+     *
+     * @return the number of values in this set.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, bitmap.cardinality());
+    }
+
+    /**
+     * Add the value in this set if not present.
+     * Time complexity: &Theta;(<em>log(c)</em>).
+     *
+     * @param value value to store in the set if not already present in this set, must not be null
+     */
+    @Override
+    public void add(Integer value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        bitmap.add(value);
+    }
+
+    /**
+     * If the supplied value is in the set, it is removed and the value is returned,
+     * otherwise null is returned.
+     * Time complexity: &Theta;(<em>log(c)</em>).
+     *
+     * @param value value to be removed from this set
+     * @return the removed value if present, else null
+     */
+    @Override
+    public Integer remove(Integer value) {
+        return value != null && bitmap.remove(value) ? value : null;
+    }
+
+    /**
+     * Returns an iterator over the values of the set, in ascending unsigned order.
+     * @return an iterator over the values of the set.
+     */
+    @Override
+    public Iterator<Integer> iterator() {
+        return bitmap.iterator();
+    }
+
+    /**
+     * Returns a string of the values of the set separated by spaces, in ascending unsigned order.
+     * @return the string representation of the set
+     */
+    @Override
+    public String toString() {
+        return bitmap.toString();
+    }
+
+}
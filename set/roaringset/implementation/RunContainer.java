@@ -0,0 +1,131 @@
+package set.roaringset.implementation;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A container kept as sorted runs of consecutive values, every run is a pair of its first value
+ * and its length minus one (4 bytes per run), which is the smallest form for clustered values.
+ * Run containers are only made by {@link Container#runOptimize}: a lookup searches the runs,
+ * but the first change turns the container back into an array or a bitmap.
+ *
+ * @author aziz
+ */
+final class RunContainer extends Container {
+
+    /** the runs, runs[2i] is the first value of run i, and runs[2i + 1] its length minus one */
+    private final char[] runs;
+    private final int cardinality;
+
+    private RunContainer(char[] runs, int cardinality) {
+        this.runs = runs;
+        this.cardinality = cardinality;
+    }
+
+    static RunContainer from(Container container, int numberOfRuns) {
+        char[] runs = new char[2 * numberOfRuns];
+        int n = -1;
+        int previous = -2;
+        for (PrimitiveIterator.OfInt it = container.iterator(); it.hasNext(); ) {
+            int value = it.nextInt();
+            if (value == previous + 1) {
+                runs[2 * n + 1] += 1;
+            }
+            else {
+                n += 1;
+                runs[2 * n] = (char) value;
+            }
+            previous = value;
+        }
+        return new RunContainer(runs, container.cardinality());
+    }
+
+    @Override
+    boolean contains(char x) {
+        // the last run starting at or before x
+        int lo = 0;
+        int hi = runs.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (runs[2 * mid] <= x) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        return hi >= 0 && x - runs[2 * hi] <= runs[2 * hi + 1];
+    }
+
+    @Override
+    Container add(char x) {
+        return contains(x) ? this : toMutable().add(x);
+    }
+
+    @Override
+    Container remove(char x) {
+        return contains(x) ? toMutable().remove(x) : this;
+    }
+
+    private Container toMutable() {
+        return cardinality <= MAX_ARRAY_SIZE ? toArray() : toBitmap();
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    int numberOfRuns() {
+        return runs.length / 2;
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 2 + 2 * runs.length;
+    }
+
+    @Override
+    Container copy() {
+        return this;
+    }
+
+    @Override
+    long[] words() {
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < runs.length; i += 2) {
+            BitmapContainer.setRange(words, runs[i], runs[i] + runs[i + 1] + 1);
+        }
+        return words;
+    }
+
+    @Override
+    PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int run = 0;
+            private int offset = 0;
+
+            @Override
+            public boolean hasNext() {
+                return run < runs.length;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int value = runs[run] + offset;
+                if (offset == runs[run + 1]) {
+                    run += 2;
+                    offset = 0;
+                }
+                else {
+                    offset += 1;
+                }
+                return value;
+            }
+        };
+    }
+}
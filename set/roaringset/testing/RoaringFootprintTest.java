@@ -0,0 +1,189 @@
+package set.roaringset.testing;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+import set.bstset.implementation.BSTSet;
+import set.roaringset.implementation.RoaringBitmap;
+import set.roaringset.implementation.RoaringSet;
+
+/**
+ * Compares the memory per value of RoaringSet with BSTSet and Java's HashSet, on a million integer IDs
+ * drawn three ways: dense (half of the range [0, 2 million)), sparse (spread over the whole int range)
+ * and clustered (runs of a thousand consecutive IDs). The values are added in random order,
+ * so BSTSet stays shallow. The memory is the growth of the used heap after a GC, and for RoaringSet
+ * also its own estimate, before and after runOptimize (it is built 20 times and the growth divided,
+ * since a single one is within the noise of the measurement).
+ * It then times contains on RoaringBitmap and HashSet, and the intersection and union of two dense sets
+ * with the word by word and/or against HashSet's retainAll/addAll on copies.
+ *
+ * @author aziz
+ */
+public class RoaringFootprintTest {
+
+    private static final int N = 1_000_000;
+    private static final int COPIES = 20;
+
+    public static void main(String[] args) {
+        footprint("Dense", dense(new Random(42)));
+        footprint("Sparse", sparse(new Random(42)));
+        footprint("Clustered", clustered(new Random(42)));
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            speed(round == 1);
+        }
+    }
+
+    private static int[] dense(Random random) {
+        int[] values = new int[N];
+        int n = 0;
+        for (int i = 0; n < N; i++) {
+            // every value below 2 million with probability 1/2, until there are a million of them
+            if (random.nextBoolean()) {
+                values[n++] = i;
+            }
+        }
+        return shuffle(values, random);
+    }
+
+    private static int[] sparse(Random random) {
+        HashSet<Integer> seen = new HashSet<>();
+        int[] values = new int[N];
+        int n = 0;
+        while (n < N) {
+            int value = random.nextInt();
+            if (seen.add(value)) {
+                values[n++] = value;
+            }
+        }
+        return values;
+    }
+
+    private static int[] clustered(Random random) {
+        int[] values = new int[N];
+        for (int run = 0; run < N / 1000; run++) {
+            // runs 100000 apart, so they never overlap
+            int start = run * 100_000 + random.nextInt(50_000);
+            for (int i = 0; i < 1000; i++) {
+                values[run * 1000 + i] = start + i;
+            }
+        }
+        return shuffle(values, random);
+    }
+
+    private static int[] shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        return values;
+    }
+
+    private static void footprint(String name, int[] values) {
+        System.out.println(name + " values:");
+        // a RoaringSet takes a few MB at most, so it is built several times to stand out of the noise of the heap
+        RoaringSet[] copies = new RoaringSet[COPIES];
+        long before = usedHeap();
+        for (int i = 0; i < COPIES; i++) {
+            copies[i] = new RoaringSet();
+            for (int value : values) {
+                copies[i].add(value);
+            }
+        }
+        long heap = (usedHeap() - before) / COPIES;
+        long estimate = copies[0].bitmap().sizeInBytes();
+        for (RoaringSet copy : copies) {
+            copy.bitmap().runOptimize();
+        }
+        long optimizedHeap = (usedHeap() - before) / COPIES;
+        System.out.printf("RoaringSet: %.2f bits/value (estimate %.2f), after runOptimize %.2f bits/value (estimate %.2f)\n",
+                8.0 * heap / N, 8.0 * estimate / N, 8.0 * optimizedHeap / N, 8.0 * copies[0].bitmap().sizeInBytes() / N);
+        copies = null;
+        BSTSet<Integer> bst = new BSTSet<>();
+        report("BSTSet", values, bst::add, bst::size);
+        HashSet<Integer> hashSet = new HashSet<>();
+        report("Java's Built-in HashSet", values, hashSet::add, hashSet::size);
+    }
+
+    private static void report(String name, int[] values, IntConsumer add, IntSupplier size) {
+        long before = usedHeap();
+        for (int value : values) {
+            add.accept(value);
+        }
+        long heap = usedHeap() - before;
+        System.out.printf("%s: %.2f bits/value (%.1f bytes, size %d)\n",
+                name, 8.0 * heap / N, (double) heap / N, size.getAsInt());
+    }
+
+    private static void speed(boolean print) {
+        Random random = new Random(7);
+        int[] x = dense(random);
+        int[] y = dense(random);
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        HashSet<Integer> c = new HashSet<>();
+        HashSet<Integer> d = new HashSet<>();
+        for (int i = 0; i < N; i++) {
+            a.add(x[i]);
+            b.add(y[i]);
+            c.add(x[i]);
+            d.add(y[i]);
+        }
+        Integer[] queries = new Integer[N];
+        for (int i = 0; i < N; i++) {
+            queries[i] = random.nextInt(2 * N);
+        }
+
+        long begin = System.nanoTime();
+        int found = 0;
+        for (Integer query : queries) {
+            if (a.contains(query)) {
+                found += 1;
+            }
+        }
+        long roaringContains = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        for (Integer query : queries) {
+            if (c.contains(query)) {
+                found -= 1;
+            }
+        }
+        long hashContains = System.nanoTime() - begin;
+
+        begin = System.nanoTime();
+        long and = RoaringBitmap.and(a, b).cardinality();
+        long roaringAnd = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        long or = RoaringBitmap.or(a, b).cardinality();
+        long roaringOr = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        HashSet<Integer> intersection = new HashSet<>(c);
+        intersection.retainAll(d);
+        long hashAnd = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        HashSet<Integer> union = new HashSet<>(c);
+        union.addAll(d);
+        long hashOr = System.nanoTime() - begin;
+
+        if (print) {
+            System.out.printf("\ncontains: RoaringBitmap %.2f, HashSet %.2f million ops/sec (difference %d)\n",
+                    N * 1e3 / roaringContains, N * 1e3 / hashContains, found);
+            System.out.printf("and: RoaringBitmap %.3f ms, HashSet %.3f ms (%d, %d values)\n",
+                    roaringAnd / 1e6, hashAnd / 1e6, and, intersection.size());
+            System.out.printf("or: RoaringBitmap %.3f ms, HashSet %.3f ms (%d, %d values)\n",
+                    roaringOr / 1e6, hashOr / 1e6, or, union.size());
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
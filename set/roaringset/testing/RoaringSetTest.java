@@ -0,0 +1,228 @@
+package set.roaringset.testing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import set.roaringset.implementation.RoaringBitmap;
+import set.roaringset.implementation.RoaringSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class RoaringSetTest {
+
+    @Test
+    public void testAdd() {
+        RoaringSet st = new RoaringSet();
+        for (int value : new int[]{10, 1, 2, 3, 4, 9, 8, 3, 1, 2, 0}) {
+            st.add(value);
+        }
+        Assertions.assertEquals(8, st.size());
+        for (int value : new int[]{0, 1, 2, 3, 4, 8, 9, 10}) {
+            Assertions.assertTrue(st.contains(value));
+        }
+        Assertions.assertFalse(st.contains(5));
+        Assertions.assertFalse(st.contains(null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> st.add(null));
+        Assertions.assertEquals("0 1 2 3 4 8 9 10", st.toString());
+        st.clear();
+        Assertions.assertEquals(0, st.size());
+        Assertions.assertFalse(st.contains(10));
+        Assertions.assertFalse(st.iterator().hasNext());
+    }
+
+    @Test
+    public void testRemove() {
+        RoaringSet st = new RoaringSet();
+        st.add(400);
+        st.add(500);
+        st.add(1 << 20);
+        Assertions.assertEquals(400, st.remove(400));
+        Assertions.assertNull(st.remove(400));
+        Assertions.assertNull(st.remove(null));
+        Assertions.assertEquals(1 << 20, st.remove(1 << 20));
+        Assertions.assertEquals(1, st.size());
+        Assertions.assertEquals("500", st.toString());
+    }
+
+    @Test
+    public void testUnsignedOrder() {
+        RoaringBitmap bitmap = RoaringBitmap.of(-1, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 70000, -70000);
+        Assertions.assertEquals(6, bitmap.cardinality());
+        List<Integer> values = new ArrayList<>();
+        for (PrimitiveIterator.OfInt it = bitmap.iterator(); it.hasNext(); ) {
+            values.add(it.nextInt());
+        }
+        Assertions.assertEquals(List.of(0, 70000, Integer.MAX_VALUE, Integer.MIN_VALUE, -70000, -1), values);
+    }
+
+    @Test
+    public void testContainerConversions() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        // one chunk grows from an array past 4096 values into a bitmap, then shrinks back
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertTrue(bitmap.add(3 * i));
+        }
+        Assertions.assertFalse(bitmap.add(0));
+        long bitmapBytes = bitmap.sizeInBytes();
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertEquals(i % 3 == 0, bitmap.contains(i));
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            Assertions.assertTrue(bitmap.remove(3 * i));
+        }
+        Assertions.assertEquals(5000, bitmap.cardinality());
+        for (int i = 0; i < 10000; i++) {
+            Assertions.assertEquals(i % 2 == 1, bitmap.contains(3 * i));
+        }
+        for (int i = 1; i < 10000; i += 2) {
+            Assertions.assertTrue(bitmap.remove(3 * i));
+        }
+        Assertions.assertTrue(bitmap.isEmpty());
+        Assertions.assertFalse(bitmap.iterator().hasNext());
+
+        // a million consecutive values take a bitmap of 2^16 bits per chunk, then a single run per chunk
+        for (int i = 0; i < 1_000_000; i++) {
+            bitmap.add(i);
+        }
+        Assertions.assertTrue(bitmap.sizeInBytes() * 8 < 2 * 1_000_000);
+        Assertions.assertTrue(bitmap.runOptimize());
+        Assertions.assertFalse(bitmap.runOptimize());
+        Assertions.assertTrue(bitmap.sizeInBytes() < bitmapBytes);
+        Assertions.assertEquals(1_000_000, bitmap.cardinality());
+        Assertions.assertTrue(bitmap.contains(0));
+        Assertions.assertTrue(bitmap.contains(999_999));
+        Assertions.assertFalse(bitmap.contains(1_000_000));
+        Assertions.assertFalse(bitmap.contains(-1));
+        // changing a run container turns it back into a bitmap
+        Assertions.assertTrue(bitmap.remove(500_000));
+        Assertions.assertFalse(bitmap.contains(500_000));
+        Assertions.assertTrue(bitmap.add(500_000));
+        int expected = 0;
+        for (PrimitiveIterator.OfInt it = bitmap.iterator(); it.hasNext(); ) {
+            Assertions.assertEquals(expected++, it.nextInt());
+        }
+        Assertions.assertEquals(1_000_000, expected);
+    }
+
+    @Test
+    public void testBulkOperations() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            TreeSet<Integer> x = randomValues(random);
+            TreeSet<Integer> y = randomValues(random);
+            RoaringBitmap a = toBitmap(x, random.nextBoolean());
+            RoaringBitmap b = toBitmap(y, random.nextBoolean());
+            RoaringBitmap copyOfA = toBitmap(x, false);
+            RoaringBitmap copyOfB = toBitmap(y, false);
+
+            TreeSet<Integer> expected = new TreeSet<>(x);
+            expected.retainAll(y);
+            assertSameValues(expected, RoaringBitmap.and(a, b));
+            expected = new TreeSet<>(x);
+            expected.addAll(y);
+            assertSameValues(expected, RoaringBitmap.or(a, b));
+            expected = new TreeSet<>(x);
+            expected.removeAll(y);
+            assertSameValues(expected, RoaringBitmap.andNot(a, b));
+            TreeSet<Integer> both = new TreeSet<>(x);
+            both.retainAll(y);
+            expected = new TreeSet<>(x);
+            expected.addAll(y);
+            expected.removeAll(both);
+            assertSameValues(expected, RoaringBitmap.xor(a, b));
+
+            // the operands are left unchanged, and the results don't share their containers
+            Assertions.assertEquals(copyOfA, a);
+            Assertions.assertEquals(copyOfB, b);
+            RoaringBitmap union = RoaringBitmap.or(a, b);
+            union.clear();
+            for (int value : x) {
+                union.add(value ^ 1);
+            }
+            Assertions.assertEquals(copyOfA, a);
+            Assertions.assertEquals(copyOfB, b);
+        }
+    }
+
+    /* values in a few chunks, some sparse, some dense and some in long runs */
+    private static TreeSet<Integer> randomValues(Random random) {
+        TreeSet<Integer> values = new TreeSet<>();
+        for (int chunk = 0; chunk < 6; chunk++) {
+            int base = random.nextInt(8) << 16;
+            int kind = random.nextInt(3);
+            if (kind == 0) {
+                for (int i = 0; i < 1000; i++) {
+                    values.add(base + random.nextInt(1 << 16));
+                }
+            }
+            else if (kind == 1) {
+                for (int i = 0; i < 30000; i++) {
+                    values.add(base + random.nextInt(1 << 16));
+                }
+            }
+            else {
+                for (int run = 0; run < 5; run++) {
+                    int start = random.nextInt(1 << 16);
+                    int length = random.nextInt(10000);
+                    for (int i = start; i < Math.min(1 << 16, start + length); i++) {
+                        values.add(base + i);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    private static RoaringBitmap toBitmap(TreeSet<Integer> values, boolean runOptimize) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        if (runOptimize) {
+            bitmap.runOptimize();
+        }
+        return bitmap;
+    }
+
+    private static void assertSameValues(TreeSet<Integer> expected, RoaringBitmap actual) {
+        Assertions.assertEquals(expected.size(), actual.cardinality());
+        PrimitiveIterator.OfInt it = actual.iterator();
+        for (int value : expected) {
+            Assertions.assertEquals(value, it.nextInt());
+        }
+        Assertions.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        RoaringSet st = new RoaringSet();
+        HashSet<Integer> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            // two chunks, one of them dense enough to switch between array and bitmap
+            int value = random.nextBoolean() ? random.nextInt(9000) : (5 << 16) + random.nextInt(1 << 16);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                st.add(value);
+                expected.add(value);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(value) ? value : null, st.remove(value));
+            } else {
+                Assertions.assertEquals(expected.contains(value), st.contains(value));
+            }
+            Assertions.assertEquals(expected.size(), st.size());
+            if (i % 50000 == 0) {
+                st.bitmap().runOptimize();
+            }
+        }
+        HashSet<Integer> actual = new HashSet<>();
+        for (Integer value : st) {
+            Assertions.assertTrue(actual.add(value));
+        }
+        Assertions.assertEquals(expected, actual);
+    }
+}
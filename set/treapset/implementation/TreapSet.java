@@ -0,0 +1,472 @@
+package set.treapset.implementation;
+
+import set.Set;
+import sorting.comparison.implementation.MergeSort;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A sorted set based on a treap, the set is sorted according to the natural ordering of its
+ * values; so the value type must implement the Comparable interface.
+ * A treap is a binary search tree on the values and a heap on the priorities of the values,
+ * the priority of a value is a scrambled version of its hash code, so the shape of the tree
+ * is the one of a random binary search tree, of expected height &Theta;(<em>log n</em>).
+ * Every operation is built on two primitives: <em>split</em>, which cuts a tree at a value into
+ * the smaller and the larger values, and <em>join</em>, which glues two trees and a value in between.
+ * The bulk <em>union</em>, <em>intersection</em> and <em>difference</em> split one tree at the root
+ * of the other, recurse on the two halves, and join the results; they take &Theta;(<em>m log(n/m + 1)</em>)
+ * expected work, where m &le; n are the sizes of the two sets, and as the two halves are independent,
+ * the large ones are processed in parallel on the common ForkJoinPool.
+ * The nodes are immutable, an update copies the path it changes, so the result of a bulk operation
+ * shares the untouched subtrees with its operands, and neither operand is modified.
+ * This implementation does not permit null values.
+ * The <em>add</em>, <em>contains</em> and <em>remove</em> operations
+ * each take expected &Theta;(<em>log n</em>).
+ * The <em>size</em> and <em>clear</em> operations each take &Theta;(<em>1</em>).
+ * @param <E> the type of values in this set
+ *
+ * @author aziz
+ */
+public class TreapSet<E extends Comparable<E>> implements Set<E> {
+
+    /** below this total size, a bulk operation recurses sequentially instead of forking tasks */
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+    private static final class Node<E> {
+        final E value;
+        final int priority;
+        final Node<E> left;
+        final Node<E> right;
+        final int size;
+
+        Node(E value, int priority, Node<E> left, Node<E> right) {
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    /* the result of a split: the smaller values, the larger values, and whether the value was there */
+    private static final class Split<E> {
+        final Node<E> left;
+        final boolean found;
+        final Node<E> right;
+
+        Split(Node<E> left, boolean found, Node<E> right) {
+            this.left = left;
+            this.found = found;
+            this.right = right;
+        }
+    }
+
+    private enum Operation { UNION, INTERSECTION, DIFFERENCE }
+
+    private Node<E> root;
+
+    /**
+     * Initializes an empty treap set.
+     */
+    public TreapSet() {
+        this.root = null;
+    }
+
+    private TreapSet(Node<E> root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a set of the given values, duplicates are ignored.
+     * Time complexity: &Theta;(<em>n</em>) if the values come in ascending order (from a BSTSet for example),
+     * else &Theta;(<em>n log n</em>) to sort them first.
+     * @param values the values to add
+     * @param <E> the type of values in the set
+     * @return the set of the values
+     */
+    public static <E extends Comparable<E>> TreapSet<E> copyOf(Iterable<? extends E> values) {
+        List<E> list = new ArrayList<>();
+        boolean sorted = true;
+        for (E value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("null values are not supported");
+            }
+            if (!list.isEmpty() && list.get(list.size() - 1).compareTo(value) > 0) {
+                sorted = false;
+            }
+            list.add(value);
+        }
+        E[] array = list.toArray((E[]) new Comparable[0]);
+        if (!sorted) {
+            MergeSort.mergeSort(array);
+        }
+        // drop the duplicates, which are next to each other once sorted
+        int n = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (n == 0 || array[n - 1].compareTo(array[i]) != 0) {
+                array[n++] = array[i];
+            }
+        }
+        return new TreapSet<>(build(array, 0, n - 1));
+    }
+
+    /* joins the two halves around the middle value, each join takes time proportional to the
+     * height of the halves, which adds up to linear time, like building a heap bottom up. */
+    private static <E extends Comparable<E>> Node<E> build(E[] sorted, int lo, int hi) {
+        if (lo > hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        return join(build(sorted, lo, mid - 1), sorted[mid], priority(sorted[mid]), build(sorted, mid + 1, hi));
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    /* the murmur3 finalizer, so that values with nearby hash codes get unrelated priorities */
+    private static int priority(Object value) {
+        int h = value.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /* Returns a tree of the values of left, the value, and the values of right, all the values
+     * of left must be smaller than the value, and all the values of right larger. The value becomes
+     * the root if it has the highest priority, else the root of higher priority stays on top
+     * and the value is joined to its inner subtree. */
+    private static <E extends Comparable<E>> Node<E> join(Node<E> left, E value, int priority, Node<E> right) {
+        if ((left == null || priority >= left.priority) && (right == null || priority >= right.priority)) {
+            return new Node<>(value, priority, left, right);
+        }
+        if (right == null || (left != null && left.priority > right.priority)) {
+            return new Node<>(left.value, left.priority, left.left, join(left.right, value, priority, right));
+        }
+        else {
+            return new Node<>(right.value, right.priority, join(left, value, priority, right.left), right.right);
+        }
+    }
+
+    /* joins two trees with no value in between, all the values of left must be smaller than those of right */
+    private static <E extends Comparable<E>> Node<E> join(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return new Node<>(left.value, left.priority, left.left, join(left.right, right));
+        }
+        else {
+            return new Node<>(right.value, right.priority, join(left, right.left), right.right);
+        }
+    }
+
+    /* splits the tree into the values smaller than the value and the values larger than it */
+    private static <E extends Comparable<E>> Split<E> split(Node<E> node, E value) {
+        if (node == null) {
+            return new Split<>(null, false, null);
+        }
+        int cmp = value.compareTo(node.value);
+        if (cmp == 0) {
+            return new Split<>(node.left, true, node.right);
+        }
+        if (cmp < 0) {
+            Split<E> split = split(node.left, value);
+            return new Split<>(split.left, split.found, join(split.right, node.value, node.priority, node.right));
+        }
+        else {
+            Split<E> split = split(node.right, value);
+            return new Split<>(join(node.left, node.value, node.priority, split.left), split.found, split.right);
+        }
+    }
+
+    /**
+     * Removes all the values from the set.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     */
+    @Override
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Returns true if this set contains the value, false otherwise.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param value element to check if this set contains it
+     * @return true if this set contains the element.
+     */
+    @Override
+    public boolean contains(E value) {
+        if (value == null) {
+            return false;
+        }
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = value.compareTo(node.value);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of elements in this set.
+     * Time complexity: takes constant time &Theta;(<em>1</em>).
+     * @return the number of elements in this set.
+     */
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the height of the tree, the number of nodes on its longest path.
+     * Time complexity: &Theta;(<em>n</em>).
+     * @return the height of the tree
+     */
+    public int height() {
+        return height(root);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    /**
+     * Add the specified value in this set, if not already present.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param value element to add
+     */
+    @Override
+    public void add(E value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        root = add(root, value, priority(value));
+    }
+
+    /* descends while the nodes have a higher priority, then splits the rest of the path at the value */
+    private static <E extends Comparable<E>> Node<E> add(Node<E> node, E value, int priority) {
+        if (node == null) {
+            return new Node<>(value, priority, null, null);
+        }
+        int cmp = value.compareTo(node.value);
+        if (cmp == 0) {
+            return node;
+        }
+        if (priority >= node.priority) {
+            Split<E> split = split(node, value);
+            return new Node<>(value, priority, split.left, split.right);
+        }
+        if (cmp < 0) {
+            Node<E> left = add(node.left, value, priority);
+            return left == node.left ? node : new Node<>(node.value, node.priority, left, node.right);
+        }
+        else {
+            Node<E> right = add(node.right, value, priority);
+            return right == node.right ? node : new Node<>(node.value, node.priority, node.left, right);
+        }
+    }
+
+    /**
+     * Removes the value from this set, and returns it,
+     * else return null if the value is not present.
+     * Time complexity: expected &Theta;(<em>log n</em>).
+     * @param value element to remove
+     * @return the value of the element if present, else null
+     */
+    @Override
+    public E remove(E value) {
+        if (value == null) {
+            return null;
+        }
+        Node<E> node = remove(root, value);
+        if (node == root) {
+            return null;
+        }
+        root = node;
+        return value;
+    }
+
+    /* returns the same node if the value is not in the tree */
+    private static <E extends Comparable<E>> Node<E> remove(Node<E> node, E value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = value.compareTo(node.value);
+        if (cmp == 0) {
+            return join(node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<E> left = remove(node.left, value);
+            return left == node.left ? node : new Node<>(node.value, node.priority, left, node.right);
+        }
+        else {
+            Node<E> right = remove(node.right, value);
+            return right == node.right ? node : new Node<>(node.value, node.priority, node.left, right);
+        }
+    }
+
+    /**
+     * Returns a new set of the values that are in this set, in the other set, or in both.
+     * Neither set is modified.
+     * Time complexity: expected &Theta;(<em>m log(n/m + 1)</em>) work, where m &le; n are the sizes of the sets.
+     * @param other the other set
+     * @return the union of the two sets
+     */
+    public TreapSet<E> union(TreapSet<E> other) {
+        return new TreapSet<>(apply(Operation.UNION, root, other.root));
+    }
+
+    /**
+     * Returns a new set of the values that are both in this set and in the other set.
+     * Neither set is modified.
+     * Time complexity: expected &Theta;(<em>m log(n/m + 1)</em>) work, where m &le; n are the sizes of the sets.
+     * @param other the other set
+     * @return the intersection of the two sets
+     */
+    public TreapSet<E> intersection(TreapSet<E> other) {
+        return new TreapSet<>(apply(Operation.INTERSECTION, root, other.root));
+    }
+
+    /**
+     * Returns a new set of the values that are in this set but not in the other set.
+     * Neither set is modified.
+     * Time complexity: expected &Theta;(<em>m log(n/m + 1)</em>) work, where m &le; n are the sizes of the sets.
+     * @param other the other set
+     * @return the difference of this set and the other set
+     */
+    public TreapSet<E> difference(TreapSet<E> other) {
+        return new TreapSet<>(apply(Operation.DIFFERENCE, root, other.root));
+    }
+
+    private static <E extends Comparable<E>> Node<E> apply(Operation operation, Node<E> a, Node<E> b) {
+        if (size(a) + size(b) >= PARALLEL_THRESHOLD) {
+            return ForkJoinPool.commonPool().invoke(new SetOperationTask<>(operation, a, b));
+        }
+        return compute(operation, a, b);
+    }
+
+    /* Splits a at the root of b, and combines the halves of a with the subtrees of b on each side.
+     * For a union, b is the root of higher priority, so it stays the root of the result. */
+    private static <E extends Comparable<E>> Node<E> compute(Operation operation, Node<E> a, Node<E> b) {
+        if (a == null || b == null) {
+            switch (operation) {
+                case UNION:
+                    return a == null ? b : a;
+                case INTERSECTION:
+                    return null;
+                default:
+                    return a;
+            }
+        }
+        if (operation == Operation.UNION && a.priority > b.priority) {
+            Node<E> swap = a;
+            a = b;
+            b = swap;
+        }
+        Split<E> split = split(a, b.value);
+        Node<E> left;
+        Node<E> right;
+        if (a.size + b.size >= PARALLEL_THRESHOLD) {
+            SetOperationTask<E> task = new SetOperationTask<>(operation, split.left, b.left);
+            task.fork();
+            right = compute(operation, split.right, b.right);
+            left = task.join();
+        }
+        else {
+            left = compute(operation, split.left, b.left);
+            right = compute(operation, split.right, b.right);
+        }
+        switch (operation) {
+            case UNION:
+                return join(left, b.value, b.priority, right);
+            case INTERSECTION:
+                return split.found ? join(left, b.value, b.priority, right) : join(left, right);
+            default:
+                return join(left, right);
+        }
+    }
+
+    private static final class SetOperationTask<E extends Comparable<E>> extends RecursiveTask<Node<E>> {
+
+        private final Operation operation;
+        private final Node<E> a;
+        private final Node<E> b;
+
+        SetOperationTask(Operation operation, Node<E> a, Node<E> b) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Node<E> compute() {
+            return TreapSet.compute(operation, a, b);
+        }
+    }
+
+    /**
+     * Returns an iterator over the values of the set, in ascending order.
+     * @return an iterator over the values of the set.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new TreapSetIterator();
+    }
+
+    private class TreapSetIterator implements Iterator<E> {
+
+        private final Deque<Node<E>> stack = new ArrayDeque<>();
+
+        TreapSetIterator() {
+            pushLeftPath(root);
+        }
+
+        private void pushLeftPath(Node<E> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<E> node = stack.pop();
+            pushLeftPath(node.right);
+            return node.value;
+        }
+    }
+
+    /**
+     * Returns a string of the values of the set in ascending order, separated by spaces.
+     * @return the string representation of the set
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (E value : this) {
+            joiner.add(String.valueOf(value));
+        }
+        return joiner.toString();
+    }
+
+}
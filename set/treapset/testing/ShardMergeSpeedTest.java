@@ -0,0 +1,90 @@
+package set.treapset.testing;
+
+import set.bstset.implementation.BSTSet;
+import set.treapset.implementation.TreapSet;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Times merging two large shards of random keys: the join-based union of two TreapSets,
+ * against inserting the keys of one shard into the other one by one, with BSTSet, TreapSet
+ * and Java's TreeSet (whose addAll inserts one by one too). A second benchmark merges a small
+ * shard into a large one, where the union only does &Theta;(<em>m log(n/m + 1)</em>) work.
+ * The union runs on all the cores of the common ForkJoinPool.
+ *
+ * @author aziz
+ */
+public class ShardMergeSpeedTest {
+
+    public static void main(String[] args) {
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up the JIT
+            run(1_000_000, 1_000_000, round == 1);
+            run(1_000_000, 1_000, round == 1);
+        }
+    }
+
+    private static void run(int n, int m, boolean print) {
+        Random random = new Random(42);
+        Integer[] large = new Integer[n];
+        Integer[] small = new Integer[m];
+        for (int i = 0; i < n; i++) {
+            large[i] = random.nextInt();
+        }
+        for (int i = 0; i < m; i++) {
+            small[i] = random.nextInt();
+        }
+        if (print) {
+            System.out.println("Merging " + m + " keys into " + n + " keys.");
+        }
+
+        TreapSet<Integer> a = new TreapSet<>();
+        TreapSet<Integer> b = new TreapSet<>();
+        for (Integer key : large) {
+            a.add(key);
+        }
+        for (Integer key : small) {
+            b.add(key);
+        }
+        long begin = System.nanoTime();
+        TreapSet<Integer> union = a.union(b);
+        report("TreapSet union", begin, union.size(), print);
+
+        begin = System.nanoTime();
+        for (Integer key : b) {
+            a.add(key);
+        }
+        report("TreapSet one by one", begin, a.size(), print);
+
+        BSTSet<Integer> bst = new BSTSet<>();
+        for (Integer key : large) {
+            bst.add(key);
+        }
+        begin = System.nanoTime();
+        for (Integer key : small) {
+            bst.add(key);
+        }
+        report("BSTSet one by one", begin, bst.size(), print);
+
+        TreeSet<Integer> tree = new TreeSet<>();
+        for (Integer key : large) {
+            tree.add(key);
+        }
+        TreeSet<Integer> other = new TreeSet<>();
+        for (Integer key : small) {
+            other.add(key);
+        }
+        begin = System.nanoTime();
+        tree.addAll(other);
+        report("Java's Built-in TreeSet addAll", begin, tree.size(), print);
+    }
+
+    private static void report(String name, long begin, int size, boolean print) {
+        long elapsed = System.nanoTime() - begin;
+        if (print) {
+            System.out.printf("%s: %.2f ms (size %d)\n", name, elapsed / 1e6, size);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package set.treapset.testing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import set.bstset.implementation.BSTSet;
+import set.treapset.implementation.TreapSet;
+
+import java.util.*;
+
+public class TreapSetTest {
+
+    private static List<Integer> toList(Iterable<Integer> set) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : set) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static TreapSet<Integer> randomSet(Random random, int size, int bound, TreeSet<Integer> expected) {
+        TreapSet<Integer> set = new TreapSet<>();
+        for (int i = 0; i < size; i++) {
+            int value = random.nextInt(bound);
+            set.add(value);
+            expected.add(value);
+        }
+        return set;
+    }
+
+    @Test
+    public void testAddRemove() {
+        TreapSet<Integer> st = new TreapSet<>();
+        for (int value : new int[]{10, 1, 2, 3, 4, 9, 8, 3, 1, 2, 0}) {
+            st.add(value);
+        }
+        Assertions.assertEquals("0 1 2 3 4 8 9 10", st.toString());
+        Assertions.assertEquals(8, st.size());
+        Assertions.assertEquals(3, st.remove(3));
+        Assertions.assertNull(st.remove(3));
+        Assertions.assertFalse(st.contains(3));
+        Assertions.assertFalse(st.contains(null));
+        Assertions.assertEquals("0 1 2 4 8 9 10", st.toString());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> st.add(null));
+        st.clear();
+        Assertions.assertEquals(0, st.size());
+        Assertions.assertFalse(st.iterator().hasNext());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        TreapSet<Integer> st = new TreapSet<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(5000);
+            int op = random.nextInt(3);
+            if (op == 0) {
+                st.add(value);
+                expected.add(value);
+            } else if (op == 1) {
+                Assertions.assertEquals(expected.remove(value) ? value : null, st.remove(value));
+            } else {
+                Assertions.assertEquals(expected.contains(value), st.contains(value));
+            }
+            Assertions.assertEquals(expected.size(), st.size());
+        }
+        Assertions.assertEquals(new ArrayList<>(expected), toList(st));
+    }
+
+    @Test
+    public void testCopyOfAndHeight() {
+        BSTSet<Integer> bst = new BSTSet<>();
+        Random random = new Random(5);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 10000; i++) {
+            int value = random.nextInt();
+            bst.add(value);
+            expected.add(value);
+        }
+        Assertions.assertEquals(new ArrayList<>(expected), toList(TreapSet.copyOf(bst)));
+        List<Integer> unsorted = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            unsorted.add(random.nextInt(50000));
+        }
+        TreapSet<Integer> st = TreapSet.copyOf(unsorted);
+        Assertions.assertEquals(new ArrayList<>(new TreeSet<>(unsorted)), toList(st));
+        // sequential values still get a random shape, the expected height is about 3 log(n)
+        TreapSet<Integer> sequential = new TreapSet<>();
+        for (int i = 0; i < 1 << 16; i++) {
+            sequential.add(i);
+        }
+        Assertions.assertTrue(sequential.height() < 60);
+    }
+
+    @Test
+    public void testBulkOperations() {
+        Random random = new Random(7);
+        // small sets run sequentially, large ones are split across the ForkJoinPool
+        for (int[] sizes : new int[][]{{0, 100}, {100, 0}, {50, 3000}, {3000, 50}, {20000, 20000}, {200000, 1000}}) {
+            TreeSet<Integer> x = new TreeSet<>();
+            TreeSet<Integer> y = new TreeSet<>();
+            TreapSet<Integer> a = randomSet(random, sizes[0], 100000, x);
+            TreapSet<Integer> b = randomSet(random, sizes[1], 100000, y);
+            TreeSet<Integer> union = new TreeSet<>(x);
+            union.addAll(y);
+            TreeSet<Integer> intersection = new TreeSet<>(x);
+            intersection.retainAll(y);
+            TreeSet<Integer> difference = new TreeSet<>(x);
+            difference.removeAll(y);
+            Assertions.assertEquals(new ArrayList<>(union), toList(a.union(b)));
+            Assertions.assertEquals(union.size(), a.union(b).size());
+            Assertions.assertEquals(new ArrayList<>(intersection), toList(a.intersection(b)));
+            Assertions.assertEquals(intersection.size(), a.intersection(b).size());
+            Assertions.assertEquals(new ArrayList<>(difference), toList(a.difference(b)));
+            Assertions.assertEquals(difference.size(), a.difference(b).size());
+            // the operands are left intact
+            Assertions.assertEquals(new ArrayList<>(x), toList(a));
+            Assertions.assertEquals(new ArrayList<>(y), toList(b));
+        }
+    }
+
+    @Test
+    public void testResultsAreIndependent() {
+        TreapSet<Integer> a = TreapSet.copyOf(Arrays.asList(1, 2, 3, 4));
+        TreapSet<Integer> b = TreapSet.copyOf(Arrays.asList(3, 4, 5, 6));
+        TreapSet<Integer> union = a.union(b);
+        union.remove(3);
+        union.add(7);
+        a.add(0);
+        Assertions.assertEquals("1 2 4 5 6 7", union.toString());
+        Assertions.assertEquals("0 1 2 3 4", a.toString());
+        Assertions.assertEquals("3 4 5 6", b.toString());
+        Assertions.assertEquals("0", a.difference(b).difference(TreapSet.copyOf(Arrays.asList(1, 2))).toString());
+    }
+}